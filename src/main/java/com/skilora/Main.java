@@ -12,8 +12,11 @@ import com.skilora.user.controller.LoginController;
 import com.skilora.ui.AppFontLoader;
 import com.skilora.ui.SplashScreen;
 import com.skilora.config.DatabaseInitializer;
+import com.skilora.finance.service.OutboxService;
 import com.skilora.recruitment.service.JobService;
+import com.skilora.formation.service.CertificateRevocationList;
 import com.skilora.formation.service.CertificateVerificationServer;
+import com.skilora.formation.service.LessonProgressService;
 import com.skilora.framework.layouts.TLWindow;
 import com.skilora.framework.utils.WindowConfig;
 import com.skilora.utils.AppThreadPool;
@@ -45,6 +48,7 @@ public class Main extends Application {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             CertificateVerificationServer.stop();
             AppThreadPool.shutdown();
+            LessonProgressService.getInstance().flushAll();
             try {
                 com.skilora.config.DatabaseConfig.getInstance().closeConnection();
             } catch (Exception e) {
@@ -93,6 +97,10 @@ public class Main extends Application {
             DatabaseInitializer.initialize();
             // Start certificate verification server after DB is ready
             CertificateVerificationServer.start();
+            // Deliver queued payment side effects, including any left over from a previous run
+            OutboxService.getInstance().start();
+            // Keep the revocation bitmap for signed certificate tokens fresh
+            CertificateRevocationList.getInstance().start();
             Platform.runLater(() -> splash.setProgress(0.5, "Database ready."));
             return null;
         });
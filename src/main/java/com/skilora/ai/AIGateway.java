@@ -0,0 +1,454 @@
+package com.skilora.ai;
+
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Shared entry point for every remote AI call (Gemini, OpenAI, Groq).
+ *
+ * <ul>
+ *   <li>Token-bucket rate limiting and a concurrency cap per provider</li>
+ *   <li>Asynchronous retries with exponential backoff + jitter on 429 / 5xx / I/O errors,
+ *       scheduled on a timer instead of sleeping the caller</li>
+ *   <li>Response cache keyed by a SHA-256 of the request, with per-request TTL</li>
+ *   <li>Coalescing: identical requests already in flight share one HTTP call</li>
+ *   <li>Circuit breaker per provider</li>
+ *   <li>Latency and token metrics per provider ({@link #metrics(AIProvider)})</li>
+ *   <li>Line streaming for server-sent-event completions ({@link #stream})</li>
+ * </ul>
+ *
+ * Services build the provider payload, call {@link #send(AIRequest)} (or
+ * {@link #submit(AIRequest)} for non-blocking use) and parse the body.
+ *
+ * Singleton — obtain via {@link #getInstance()}. Tests may create their own
+ * instance pointed at a local HTTP server.
+ */
+public final class AIGateway {
+
+    private static final Logger logger = LoggerFactory.getLogger(AIGateway.class);
+    private static volatile AIGateway instance;
+
+    private static final long SLOT_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final HttpClient client;
+    private final int maxRetries;
+    private final long baseBackoffMs;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final int maxCacheEntries;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "skilora-ai-gateway");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Map<AIProvider, ProviderState> providers = new EnumMap<>(AIProvider.class);
+    private final Map<AIProvider, AIMetrics> metrics = new EnumMap<>(AIProvider.class);
+    private final ConcurrentHashMap<String, CachedResponse> cache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<AIResponse>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param client           HTTP client used for all calls
+     * @param maxRetries       retries after the first attempt for 429 / 5xx / I/O errors
+     * @param baseBackoff      first retry delay, doubled on each further attempt
+     * @param failureThreshold consecutive failures that open a provider's circuit
+     * @param openDuration     time an open circuit rejects calls before probing again
+     * @param maxCacheEntries  upper bound on cached responses
+     */
+    public AIGateway(HttpClient client, int maxRetries, Duration baseBackoff,
+                     int failureThreshold, Duration openDuration, int maxCacheEntries) {
+        this.client = client;
+        this.maxRetries = maxRetries;
+        this.baseBackoffMs = baseBackoff.toMillis();
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.maxCacheEntries = maxCacheEntries;
+        long now = System.nanoTime();
+        for (AIProvider p : AIProvider.values()) {
+            providers.put(p, new ProviderState(p.requestsPerMinute(), p.maxConcurrent(), now));
+            metrics.put(p, new AIMetrics());
+        }
+    }
+
+    public static AIGateway getInstance() {
+        if (instance == null) {
+            synchronized (AIGateway.class) {
+                if (instance == null) {
+                    HttpClient client = HttpClient.newBuilder()
+                            .connectTimeout(Duration.ofSeconds(15))
+                            .build();
+                    instance = new AIGateway(client, 3, Duration.ofSeconds(2), 5, Duration.ofSeconds(30), 500);
+                }
+            }
+        }
+        return instance;
+    }
+
+    // ── Public API ──
+
+    /**
+     * Blocking variant of {@link #submit(AIRequest)}, meant for callers already on a
+     * background thread. Mirrors {@link HttpClient#send} so services can swap it in.
+     *
+     * @throws IOException if the circuit is open, retries are exhausted on an I/O error,
+     *                     or the overall deadline passes
+     */
+    public AIResponse send(AIRequest request) throws IOException, InterruptedException {
+        long deadlineMs = request.getTimeout().toMillis() * (maxRetries + 1)
+                + Math.min(MAX_BACKOFF_MS, baseBackoffMs << maxRetries) * 2;
+        try {
+            return submit(request).get(deadlineMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException(cause != null ? cause.getMessage() : "AI call failed", cause);
+        } catch (TimeoutException e) {
+            throw new IOException("AI call timed out after " + deadlineMs + " ms", e);
+        }
+    }
+
+    /**
+     * Submits a request without blocking. The future completes with the provider's
+     * response (any status) or exceptionally with an {@link IOException}.
+     */
+    public CompletableFuture<AIResponse> submit(AIRequest request) {
+        AIMetrics m = metrics.get(request.getProvider());
+        m.onRequest();
+
+        String key = request.getCacheKey();
+        if (!request.getCacheTtl().isZero()) {
+            CachedResponse cached = cache.get(key);
+            if (cached != null) {
+                if (cached.expiresAt - System.nanoTime() > 0) {
+                    m.onCacheHit();
+                    return CompletableFuture.completedFuture(cached.response.asCached());
+                }
+                cache.remove(key, cached);
+            }
+        }
+
+        CompletableFuture<AIResponse> created = new CompletableFuture<>();
+        CompletableFuture<AIResponse> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            m.onCoalesced();
+            return existing.thenApply(r -> r);
+        }
+
+        created.whenComplete((resp, err) -> {
+            inFlight.remove(key, created);
+            if (err == null && resp.isSuccess() && !request.getCacheTtl().isZero()) {
+                putCache(key, resp, request.getCacheTtl());
+            }
+        });
+        attempt(request, 0, created);
+        return created.thenApply(r -> r);
+    }
+
+    /**
+     * Streaming call: each line of a 2xx body (e.g. server-sent events) is handed to
+     * {@code onLine} as soon as it arrives, on an HTTP client thread. Rate limiting and
+     * circuit breaking apply; caching and coalescing do not. The future completes when
+     * the stream ends — with an empty body on success, or the error body otherwise.
+     */
+    public CompletableFuture<AIResponse> stream(AIRequest request, Consumer<String> onLine) {
+        metrics.get(request.getProvider()).onRequest();
+        CompletableFuture<AIResponse> result = new CompletableFuture<>();
+        attempt(request, 0, result, onLine, new AtomicBoolean());
+        return result;
+    }
+
+    public AIMetrics metrics(AIProvider provider) {
+        return metrics.get(provider);
+    }
+
+    /** Replaces a provider's rate and concurrency limits (mainly for tests and tuning). */
+    public void setLimits(AIProvider provider, int requestsPerMinute, int maxConcurrent) {
+        synchronized (providers) {
+            providers.put(provider, new ProviderState(requestsPerMinute, maxConcurrent, System.nanoTime()));
+        }
+    }
+
+    public void clearCache() {
+        cache.clear();
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    // ── Dispatch ──
+
+    private void attempt(AIRequest request, int attemptNo, CompletableFuture<AIResponse> result) {
+        attempt(request, attemptNo, result, null, null);
+    }
+
+    /**
+     * One HTTP attempt. When {@code onLine} is non-null the 2xx body is pushed line by
+     * line as it arrives instead of being buffered; such a call is only retried if it
+     * failed before the first line was delivered.
+     */
+    private void attempt(AIRequest request, int attemptNo, CompletableFuture<AIResponse> result,
+                         Consumer<String> onLine, AtomicBoolean emitted) {
+        if (result.isDone()) return;
+        ProviderState ps;
+        synchronized (providers) {
+            ps = providers.get(request.getProvider());
+        }
+        AIMetrics m = metrics.get(request.getProvider());
+
+        if (!ps.tryEnter()) {
+            schedule(() -> attempt(request, attemptNo, result, onLine, emitted), SLOT_RETRY_NANOS);
+            return;
+        }
+        long now = System.nanoTime();
+        if (!ps.breaker.allow(now)) {
+            ps.exit();
+            m.onRejected();
+            result.completeExceptionally(new IOException("AI provider " + request.getProvider() + " unavailable (circuit open)"));
+            return;
+        }
+        long wait = ps.bucket.tryAcquire(now);
+        if (wait > 0) {
+            ps.exit();
+            ps.breaker.release();
+            schedule(() -> attempt(request, attemptNo, result, onLine, emitted), wait);
+            return;
+        }
+
+        HttpRequest.Builder http = HttpRequest.newBuilder()
+                .uri(request.getUri())
+                .timeout(request.getTimeout())
+                .POST(HttpRequest.BodyPublishers.ofString(request.getBody(), StandardCharsets.UTF_8));
+        request.getHeaders().forEach(http::header);
+
+        HttpResponse.BodyHandler<String> handler = onLine == null
+                ? HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8)
+                : info -> info.statusCode() >= 200 && info.statusCode() < 300
+                        ? HttpResponse.BodySubscribers.fromLineSubscriber(
+                                new LineForwarder(onLine, emitted), LineForwarder::usage, StandardCharsets.UTF_8, null)
+                        : HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8);
+
+        long started = System.nanoTime();
+        client.sendAsync(http.build(), handler)
+                .whenComplete((resp, err) -> {
+                    ps.exit();
+                    long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                    Runnable retry = () -> attempt(request, attemptNo + 1, result, onLine, emitted);
+                    if (err != null) {
+                        ps.breaker.onFailure(System.nanoTime());
+                        m.onFailure();
+                        if (emitted != null && emitted.get()) {
+                            fail(result, err); // partial output already delivered — never replay it
+                        } else {
+                            retryOrFail(request, attemptNo, result, null, err, -1, retry);
+                        }
+                        return;
+                    }
+                    int status = resp.statusCode();
+                    int tokens = status >= 200 && status < 300 ? extractTokens(resp.body()) : 0;
+                    m.onHttpCall(latency, tokens);
+                    AIResponse out = new AIResponse(status, onLine != null && status < 300 ? "" : resp.body(),
+                            latency, tokens, false);
+
+                    if (status == 429) {
+                        ps.breaker.release();
+                        long retryAfter = resp.headers().firstValue("Retry-After")
+                                .map(AIGateway::parseRetryAfterMs).orElse(-1L);
+                        retryOrFail(request, attemptNo, result, out, null, retryAfter, retry);
+                    } else if (status >= 500) {
+                        ps.breaker.onFailure(System.nanoTime());
+                        m.onFailure();
+                        retryOrFail(request, attemptNo, result, out, null, -1, retry);
+                    } else {
+                        // 2xx and non-retryable 4xx: the provider is reachable
+                        ps.breaker.onSuccess();
+                        if (status >= 400) m.onFailure();
+                        result.complete(out);
+                    }
+                });
+    }
+
+    private void retryOrFail(AIRequest request, int attemptNo, CompletableFuture<AIResponse> result,
+                             AIResponse last, Throwable err, long retryAfterMs, Runnable retry) {
+        if (attemptNo < maxRetries) {
+            metrics.get(request.getProvider()).onRetry();
+            long delayMs = retryAfterMs >= 0 ? retryAfterMs : backoffMs(attemptNo);
+            logger.warn("AI {} call failed ({}), retry {}/{} in {} ms", request.getProvider(),
+                    err != null ? err.getClass().getSimpleName() : "HTTP " + last.getStatusCode(),
+                    attemptNo + 1, maxRetries, delayMs);
+            schedule(retry, TimeUnit.MILLISECONDS.toNanos(delayMs));
+        } else if (last != null) {
+            result.complete(last);
+        } else {
+            fail(result, err);
+        }
+    }
+
+    private static void fail(CompletableFuture<AIResponse> result, Throwable err) {
+        Throwable cause = err instanceof java.util.concurrent.CompletionException && err.getCause() != null
+                ? err.getCause() : err;
+        result.completeExceptionally(cause instanceof IOException
+                ? cause : new IOException("AI call failed: " + cause.getMessage(), cause));
+    }
+
+    private long backoffMs(int attemptNo) {
+        long exp = Math.min(MAX_BACKOFF_MS, baseBackoffMs << attemptNo);
+        // "Equal jitter": half fixed, half random, so concurrent retries spread out
+        long half = exp / 2;
+        return half + (half > 0 ? ThreadLocalRandom.current().nextLong(half + 1) : 0);
+    }
+
+    private void schedule(Runnable task, long delayNanos) {
+        try {
+            scheduler.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (java.util.concurrent.RejectedExecutionException e) {
+            logger.debug("AI gateway scheduler shut down, dropping task");
+        }
+    }
+
+    // ── Cache ──
+
+    private void putCache(String key, AIResponse response, Duration ttl) {
+        if (cache.size() >= maxCacheEntries) {
+            long now = System.nanoTime();
+            cache.values().removeIf(c -> c.expiresAt - now <= 0);
+            Iterator<String> it = cache.keySet().iterator();
+            while (cache.size() >= maxCacheEntries && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        cache.put(key, new CachedResponse(response, System.nanoTime() + ttl.toNanos()));
+    }
+
+    // ── Helpers ──
+
+    /** Reads token usage from OpenAI/Groq ({@code usage.total_tokens}) or Gemini ({@code usageMetadata.totalTokenCount}). */
+    static int extractTokens(String body) {
+        if (body == null || body.isEmpty() || body.charAt(0) != '{') return 0;
+        try {
+            JSONObject json = new JSONObject(body);
+            JSONObject usage = json.optJSONObject("usage");
+            if (usage != null) return usage.optInt("total_tokens", 0);
+            JSONObject meta = json.optJSONObject("usageMetadata");
+            if (meta != null) return meta.optInt("totalTokenCount", 0);
+        } catch (Exception ignored) {
+            // Not JSON — no usage to record
+        }
+        return 0;
+    }
+
+    private static long parseRetryAfterMs(String value) {
+        try {
+            return Math.min(MAX_BACKOFF_MS, Long.parseLong(value.trim()) * 1000L);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    /** Pushes body lines to the caller and remembers the last usage block seen in an SSE stream. */
+    private static final class LineForwarder implements Flow.Subscriber<String> {
+        private final Consumer<String> onLine;
+        private final AtomicBoolean emitted;
+        private String lastUsageLine = "";
+
+        LineForwarder(Consumer<String> onLine, AtomicBoolean emitted) {
+            this.onLine = onLine;
+            this.emitted = emitted;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line.isEmpty()) return;
+            emitted.set(true);
+            if (line.contains("\"usage")) {
+                lastUsageLine = line.startsWith("data:") ? line.substring(5).trim() : line;
+            }
+            try {
+                onLine.accept(line);
+            } catch (RuntimeException e) {
+                logger.warn("Streaming consumer failed: {}", e.getMessage());
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            // surfaced through the response future
+        }
+
+        @Override
+        public void onComplete() {
+            // nothing to flush
+        }
+
+        /** Finisher: the "body" of a streamed response is its last usage JSON, so token metrics still work. */
+        String usage() {
+            return lastUsageLine;
+        }
+    }
+
+    private static final class CachedResponse {
+        final AIResponse response;
+        final long expiresAt;
+
+        CachedResponse(AIResponse response, long expiresAt) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final class ProviderState {
+        final TokenBucket bucket;
+        final CircuitBreaker breaker;
+        final int maxConcurrent;
+        final AtomicInteger active = new AtomicInteger();
+
+        ProviderState(int requestsPerMinute, int maxConcurrent, long now) {
+            this.bucket = TokenBucket.perMinute(requestsPerMinute, now);
+            this.breaker = new CircuitBreaker(failureThreshold, openNanos);
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        boolean tryEnter() {
+            while (true) {
+                int cur = active.get();
+                if (cur >= maxConcurrent) return false;
+                if (active.compareAndSet(cur, cur + 1)) return true;
+            }
+        }
+
+        void exit() {
+            active.decrementAndGet();
+        }
+    }
+}
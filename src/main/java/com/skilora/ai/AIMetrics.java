@@ -0,0 +1,57 @@
+package com.skilora.ai;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-provider counters maintained by {@link AIGateway}. All methods are lock-free.
+ */
+public final class AIMetrics {
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder httpCalls = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder latencyMillis = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+
+    void onRequest() { requests.increment(); }
+    void onCacheHit() { cacheHits.increment(); }
+    void onCoalesced() { coalesced.increment(); }
+    void onRetry() { retries.increment(); }
+    void onFailure() { failures.increment(); }
+    void onRejected() { rejected.increment(); }
+
+    void onHttpCall(long latency, int totalTokens) {
+        httpCalls.increment();
+        latencyMillis.add(latency);
+        tokens.add(totalTokens);
+    }
+
+    /** Calls submitted by services, including those answered from cache. */
+    public long getRequests() { return requests.sum(); }
+    /** Completed HTTP exchanges (any status). */
+    public long getHttpCalls() { return httpCalls.sum(); }
+    public long getCacheHits() { return cacheHits.sum(); }
+    /** Calls that joined an identical in-flight request instead of sending their own. */
+    public long getCoalesced() { return coalesced.sum(); }
+    public long getRetries() { return retries.sum(); }
+    public long getFailures() { return failures.sum(); }
+    /** Calls refused because the circuit was open. */
+    public long getRejected() { return rejected.sum(); }
+    public long getTotalTokens() { return tokens.sum(); }
+
+    public double getAverageLatencyMillis() {
+        long n = httpCalls.sum();
+        return n == 0 ? 0d : (double) latencyMillis.sum() / n;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("requests=%d http=%d cacheHits=%d coalesced=%d retries=%d failures=%d rejected=%d avgLatency=%.0fms tokens=%d",
+                getRequests(), getHttpCalls(), getCacheHits(), getCoalesced(), getRetries(),
+                getFailures(), getRejected(), getAverageLatencyMillis(), getTotalTokens());
+    }
+}
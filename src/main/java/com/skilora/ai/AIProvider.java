@@ -0,0 +1,49 @@
+package com.skilora.ai;
+
+import com.skilora.config.EnvConfig;
+
+/**
+ * Remote AI providers reachable through {@link AIGateway}.
+ *
+ * Each provider gets its own rate limiter, concurrency limit and circuit breaker.
+ * Limits can be tuned in {@code config/application.properties} or {@code .env}:
+ * <pre>
+ *   ai.gateway.gemini.rpm=60
+ *   ai.gateway.gemini.concurrency=4
+ * </pre>
+ */
+public enum AIProvider {
+
+    GEMINI(60, 4),
+    OPENAI(60, 4),
+    GROQ(30, 2);
+
+    private final int defaultRequestsPerMinute;
+    private final int defaultMaxConcurrent;
+
+    AIProvider(int defaultRequestsPerMinute, int defaultMaxConcurrent) {
+        this.defaultRequestsPerMinute = defaultRequestsPerMinute;
+        this.defaultMaxConcurrent = defaultMaxConcurrent;
+    }
+
+    /** Requests per minute allowed by the token bucket (config key {@code ai.gateway.<provider>.rpm}). */
+    public int requestsPerMinute() {
+        return readInt("rpm", defaultRequestsPerMinute);
+    }
+
+    /** Maximum simultaneous in-flight HTTP calls (config key {@code ai.gateway.<provider>.concurrency}). */
+    public int maxConcurrent() {
+        return readInt("concurrency", defaultMaxConcurrent);
+    }
+
+    private int readInt(String suffix, int fallback) {
+        String raw = EnvConfig.get("ai.gateway." + name().toLowerCase() + "." + suffix, null);
+        if (raw == null) return fallback;
+        try {
+            int v = Integer.parseInt(raw.trim());
+            return v > 0 ? v : fallback;
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.skilora.ai;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable description of one POST call to an AI provider.
+ *
+ * The gateway treats the body as opaque JSON; services keep building their
+ * provider-specific payloads and parsing the responses themselves.
+ * Build instances with {@link #builder(AIProvider, String)}.
+ */
+public final class AIRequest {
+
+    private final AIProvider provider;
+    private final URI uri;
+    private final Map<String, String> headers;
+    private final String body;
+    private final Duration timeout;
+    private final Duration cacheTtl;
+    private final String cacheKey;
+
+    private AIRequest(Builder b) {
+        this.provider = b.provider;
+        this.uri = b.uri;
+        this.headers = Collections.unmodifiableMap(new LinkedHashMap<>(b.headers));
+        this.body = b.body;
+        this.timeout = b.timeout;
+        this.cacheTtl = b.cacheTtl;
+        this.cacheKey = hash(provider.name() + '\n' + uri + '\n' + body);
+    }
+
+    public static Builder builder(AIProvider provider, String url) {
+        return new Builder(provider, URI.create(url));
+    }
+
+    public AIProvider getProvider() { return provider; }
+    public URI getUri() { return uri; }
+    public Map<String, String> getHeaders() { return headers; }
+    public String getBody() { return body; }
+    public Duration getTimeout() { return timeout; }
+
+    /** Time a successful response may be reused; {@link Duration#ZERO} disables caching. */
+    public Duration getCacheTtl() { return cacheTtl; }
+
+    /** SHA-256 of provider, URI and body — used for caching and request coalescing. */
+    public String getCacheKey() { return cacheKey; }
+
+    private static String hash(String s) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte x : digest) {
+                hex.append(Character.forDigit((x >> 4) & 0xF, 16)).append(Character.forDigit(x & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static final class Builder {
+        private final AIProvider provider;
+        private final URI uri;
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private String body = "";
+        private Duration timeout = Duration.ofSeconds(30);
+        private Duration cacheTtl = Duration.ZERO;
+
+        private Builder(AIProvider provider, URI uri) {
+            this.provider = Objects.requireNonNull(provider, "provider");
+            this.uri = Objects.requireNonNull(uri, "uri");
+            headers.put("Content-Type", "application/json");
+        }
+
+        public Builder header(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        public Builder bearer(String token) {
+            return header("Authorization", "Bearer " + token);
+        }
+
+        public Builder body(String json) {
+            this.body = json != null ? json : "";
+            return this;
+        }
+
+        public Builder timeout(Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        public Builder cacheFor(Duration ttl) {
+            this.cacheTtl = ttl != null ? ttl : Duration.ZERO;
+            return this;
+        }
+
+        public AIRequest build() {
+            return new AIRequest(this);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.skilora.ai;
+
+/**
+ * Result of an {@link AIRequest}: HTTP status and raw body plus gateway bookkeeping.
+ */
+public final class AIResponse {
+
+    private final int statusCode;
+    private final String body;
+    private final long latencyMillis;
+    private final int totalTokens;
+    private final boolean fromCache;
+
+    AIResponse(int statusCode, String body, long latencyMillis, int totalTokens, boolean fromCache) {
+        this.statusCode = statusCode;
+        this.body = body != null ? body : "";
+        this.latencyMillis = latencyMillis;
+        this.totalTokens = totalTokens;
+        this.fromCache = fromCache;
+    }
+
+    AIResponse asCached() {
+        return new AIResponse(statusCode, body, 0, totalTokens, true);
+    }
+
+    public boolean isSuccess() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    public int getStatusCode() { return statusCode; }
+    public String getBody() { return body; }
+
+    /** Wall time of the successful attempt, 0 when served from cache. */
+    public long getLatencyMillis() { return latencyMillis; }
+
+    /** Token usage reported by the provider, or 0 when unknown. */
+    public int getTotalTokens() { return totalTokens; }
+
+    public boolean isFromCache() { return fromCache; }
+}
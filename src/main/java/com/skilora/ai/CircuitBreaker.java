@@ -0,0 +1,71 @@
+package com.skilora.ai;
+
+/**
+ * Consecutive-failure circuit breaker.
+ *
+ * CLOSED → OPEN after {@code failureThreshold} failures in a row; OPEN rejects
+ * calls for {@code openNanos}; then HALF_OPEN lets a single probe through whose
+ * outcome closes or re-opens the circuit.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    CircuitBreaker(int failureThreshold, long openNanos) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openNanos;
+    }
+
+    /** Returns true if a call may proceed now. */
+    synchronized boolean allow(long nowNanos) {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nowNanos - openedAt < openNanos) return false;
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            case HALF_OPEN:
+            default:
+                if (probeInFlight) return false;
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    /**
+     * Ends a call that said nothing about the provider's health (rate limited, or never
+     * sent). A pending HALF_OPEN probe is handed back so the next call can take it.
+     */
+    synchronized void release() {
+        probeInFlight = false;
+    }
+
+    synchronized void onFailure(long nowNanos) {
+        probeInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = nowNanos;
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+}
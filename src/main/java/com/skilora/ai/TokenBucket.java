@@ -0,0 +1,53 @@
+package com.skilora.ai;
+
+/**
+ * Classic token bucket: {@code capacity} tokens refilled continuously at
+ * {@code refillPerSecond}. Callers never block — {@link #tryAcquire(long)}
+ * tells them how long to wait so they can reschedule instead of sleeping.
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(int capacity, double refillPerSecond, long nowNanos) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefill = nowNanos;
+    }
+
+    static TokenBucket perMinute(int requestsPerMinute, long nowNanos) {
+        int burst = Math.max(1, requestsPerMinute / 6);
+        return new TokenBucket(burst, requestsPerMinute / 60d, nowNanos);
+    }
+
+    /**
+     * Takes one token if available.
+     *
+     * @return 0 when a token was consumed, otherwise nanoseconds until one will be
+     */
+    synchronized long tryAcquire(long nowNanos) {
+        refill(nowNanos);
+        if (tokens >= 1d) {
+            tokens -= 1d;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1d - tokens) / refillPerNano));
+    }
+
+    synchronized double available(long nowNanos) {
+        refill(nowNanos);
+        return tokens;
+    }
+
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - lastRefill;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+            lastRefill = nowNanos;
+        }
+    }
+}
@@ -1622,14 +1622,17 @@ public class CommunityController implements Initializable {
             privateSummaryBtn.setDisable(true);
             privateSummaryBtn.setText("⏳ Résumé en cours...");
             new Thread(() -> {
-                List<Message> allMsgs = MessagingService.getInstance().getMessages(conv.getId(), 1, 500);
-                List<String> formatted = new ArrayList<>();
-                for (Message m : allMsgs) {
-                    String sender = m.getSenderName() != null ? m.getSenderName() : (m.getSenderId() == currentUser.getId() ? "Moi" : otherName);
-                    String text = m.getContent() != null && !m.getContent().isEmpty() ? m.getContent() : "[" + m.getMessageType() + "]";
-                    formatted.add(sender + ": " + text);
-                }
-                String summary = AISummaryService.getInstance().summarize(formatted);
+                String summary = AISummaryService.getInstance().summarizeIncremental(
+                        AISummaryService.SCOPE_PRIVATE, conv.getId(), afterId -> {
+                            List<Message> newMsgs = MessagingService.getInstance().getMessagesAfter(conv.getId(), afterId, 5000);
+                            List<AISummaryService.ChatLine> formatted = new ArrayList<>();
+                            for (Message m : newMsgs) {
+                                String sender = m.getSenderName() != null ? m.getSenderName() : (m.getSenderId() == currentUser.getId() ? "Moi" : otherName);
+                                String text = m.getContent() != null && !m.getContent().isEmpty() ? m.getContent() : "[" + m.getMessageType() + "]";
+                                formatted.add(new AISummaryService.ChatLine(m.getId(), sender + ": " + text));
+                            }
+                            return formatted;
+                        });
                 Platform.runLater(() -> {
                     privateSummaryBtn.setDisable(false);
                     privateSummaryBtn.setText("📝 Résumé IA");
@@ -3211,14 +3214,17 @@ public class CommunityController implements Initializable {
                 groupSummaryBtn.setDisable(true);
                 groupSummaryBtn.setText("⏳ Résumé en cours...");
                 new Thread(() -> {
-                    List<GroupMessage> allMsgs = GroupService.getInstance().getMessages(group.getId());
-                    List<String> formatted = new ArrayList<>();
-                    for (GroupMessage gm : allMsgs) {
-                        String sender = gm.getSenderName() != null ? gm.getSenderName() : "Utilisateur #" + gm.getSenderId();
-                        String text = gm.getContent() != null && !gm.getContent().isEmpty() ? gm.getContent() : "[" + gm.getMessageType() + "]";
-                        formatted.add(sender + ": " + text);
-                    }
-                    String summary = AISummaryService.getInstance().summarize(formatted);
+                    String summary = AISummaryService.getInstance().summarizeIncremental(
+                            AISummaryService.SCOPE_GROUP, group.getId(), afterId -> {
+                                List<GroupMessage> newMsgs = GroupService.getInstance().getMessagesAfter(group.getId(), afterId, 5000);
+                                List<AISummaryService.ChatLine> formatted = new ArrayList<>();
+                                for (GroupMessage gm : newMsgs) {
+                                    String sender = gm.getSenderName() != null ? gm.getSenderName() : "Utilisateur #" + gm.getSenderId();
+                                    String text = gm.getContent() != null && !gm.getContent().isEmpty() ? gm.getContent() : "[" + gm.getMessageType() + "]";
+                                    formatted.add(new AISummaryService.ChatLine(gm.getId(), sender + ": " + text));
+                                }
+                                return formatted;
+                            });
                     Platform.runLater(() -> {
                         groupSummaryBtn.setDisable(false);
                         groupSummaryBtn.setText("📝 Résumé IA");
@@ -5,17 +5,28 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import com.skilora.ai.AIGateway;
+import com.skilora.ai.AIProvider;
+import com.skilora.ai.AIRequest;
+import com.skilora.ai.AIResponse;
+import com.skilora.config.DatabaseConfig;
+import com.skilora.utils.AppThreadPool;
+
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -29,8 +40,9 @@ import java.util.stream.Collectors;
  * ║ Limite : Très généreuse en beta ║
  * ╠═══════════════════════════════════════════════════════════════════╣
  * ║ STRATÉGIE : ║
- * ║ 1. Appel Groq API avec retry (3 tentatives, backoff) ║
+ * ║ 1. Appel Groq API via AIGateway (retry, backoff, cache) ║
  * ║ 2. Si API indisponible → résumé local algorithmique ║
+ * ║ 3. Résumé incrémental : seuls les nouveaux messages sont envoyés ║
  * ╚═══════════════════════════════════════════════════════════════════╝
  *
  * Pattern : Singleton thread-safe (cohérent avec TranslationService, etc.)
@@ -73,14 +85,34 @@ public class AISummaryService {
         return "";
     }
 
-    // ── Retry config ──
-    private static final int MAX_RETRIES = 3;
-    private static final long INITIAL_BACKOFF_MS = 2000; // 2 seconds
+    // ── Re-pressing "Résumé IA" on an unchanged conversation reuses the last answer ──
+    private static final Duration SUMMARY_CACHE_TTL = Duration.ofMinutes(10);
+
+    private final AIGateway gateway;
+    private final String apiUrl;
+
+    // ── Résumé incrémental ──
+    public static final String SCOPE_PRIVATE = "PRIVATE";
+    public static final String SCOPE_GROUP = "GROUP";
+
+    /** Taille max (caractères) d'un bloc envoyé au modèle — ~2k tokens, large marge sous le contexte. */
+    private static final int CHUNK_CHAR_BUDGET = 8000;
+
+    /** Derniers résumés connus, clé "scope:id" — évite de relire la table à chaque clic. */
+    private final Map<String, StoredSummary> memo = new ConcurrentHashMap<>();
 
     // ── Singleton ──
     private static volatile AISummaryService instance;
 
     private AISummaryService() {
+        this(AIGateway.getInstance(), GROQ_API_URL);
+    }
+
+    /** Service relié à une autre passerelle / un autre point d'accès compatible OpenAI (tests). */
+    public AISummaryService(AIGateway gateway, String apiUrl) {
+        this.gateway = gateway;
+        this.apiUrl = apiUrl;
+        ensureTable();
     }
 
     public static AISummaryService getInstance() {
@@ -96,7 +128,7 @@ public class AISummaryService {
 
     /**
      * Résume une liste de messages de discussion.
-     * Tente l'API Gemini avec retry, puis bascule sur un résumé local si échec.
+     * Tente l'API Groq avec retry, puis bascule sur un résumé local si échec.
      *
      * @param messages Liste de chaînes au format "Nom: message"
      * @return Le résumé généré
@@ -117,9 +149,266 @@ public class AISummaryService {
         return generateLocalSummary(messages);
     }
 
+    // ══════════════════════════════════════════════════════════════════
+    // Résumé incrémental (map-reduce)
+    // ══════════════════════════════════════════════════════════════════
+
     /**
-     * Appelle l'API Groq avec retry et backoff exponentiel.
-     * 
+     * Résume une conversation de façon incrémentale.
+     *
+     * Le dernier résumé et l'id du dernier message couvert sont conservés par
+     * conversation ({@code conversation_summaries}). Seuls les messages plus récents
+     * sont chargés via {@code loadAfter}, découpés en blocs qui tiennent dans le
+     * contexte du modèle, résumés en parallèle (map) puis fusionnés avec le résumé
+     * existant (reduce). Un nouveau clic ne coûte donc que le delta.
+     * Si l'API échoue, le dernier résumé mémorisé est renvoyé tel quel et le curseur
+     * n'avance pas : les nouveaux messages seront repris au prochain appel.
+     *
+     * @param scope          {@link #SCOPE_PRIVATE} ou {@link #SCOPE_GROUP}
+     * @param conversationId id de la conversation ou du groupe
+     * @param loadAfter      charge les messages d'id strictement supérieur à l'argument, du plus ancien au plus récent
+     * @return Le résumé à jour
+     */
+    public String summarizeIncremental(String scope, int conversationId, IntFunction<List<ChatLine>> loadAfter) {
+        StoredSummary stored = loadStored(scope, conversationId);
+        int afterId = stored != null ? stored.lastMessageId : 0;
+
+        List<ChatLine> delta = loadAfter.apply(afterId);
+        if (delta == null || delta.isEmpty()) {
+            return stored != null ? stored.summary : "Aucun message à résumer.";
+        }
+
+        List<String> lines = new ArrayList<>(delta.size());
+        int lastId = afterId;
+        for (ChatLine line : delta) {
+            lines.add(line.text);
+            lastId = Math.max(lastId, line.id);
+        }
+
+        String updated = stored == null && totalLength(lines) <= CHUNK_CHAR_BUDGET
+                ? callGroqWithRetry(lines)
+                : mapReduce(stored != null ? stored.summary : null, lines);
+
+        if (updated == null) {
+            if (stored != null) {
+                logger.info("Groq API unavailable, keeping last summary of {} #{} ({} new messages pending)",
+                        scope, conversationId, lines.size());
+                return stored.summary;
+            }
+            logger.info("Groq API unavailable, using local summary fallback for {} #{}", scope, conversationId);
+            return generateLocalSummary(lines);
+        }
+
+        int covered = (stored != null ? stored.messageCount : 0) + lines.size();
+        saveStored(scope, conversationId, new StoredSummary(updated, lastId, covered));
+        logger.info("Summary {} #{} updated with {} new messages (last id {})", scope, conversationId, lines.size(), lastId);
+        return updated;
+    }
+
+    /** Oublie le résumé mémorisé (ex. après suppression de messages). */
+    public void invalidate(String scope, int conversationId) {
+        memo.remove(scope + ":" + conversationId);
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "DELETE FROM conversation_summaries WHERE scope = ? AND conversation_id = ?")) {
+            ps.setString(1, scope);
+            ps.setInt(2, conversationId);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Failed to invalidate summary {} #{}: {}", scope, conversationId, e.getMessage());
+        }
+    }
+
+    /**
+     * Map : chaque bloc de nouveaux messages est résumé en parallèle.
+     * Reduce : les résumés partiels sont fusionnés avec le résumé précédent,
+     * par paliers si nécessaire pour rester sous la limite de contexte.
+     */
+    private String mapReduce(String previousSummary, List<String> lines) {
+        List<List<String>> chunks = chunk(lines, CHUNK_CHAR_BUDGET);
+
+        List<Future<String>> futures = new ArrayList<>(chunks.size());
+        for (List<String> chunk : chunks) {
+            futures.add(AppThreadPool.submit(() -> complete(partialPrompt(chunk))));
+        }
+        List<String> partials = new ArrayList<>(chunks.size());
+        for (Future<String> f : futures) {
+            try {
+                String partial = f.get();
+                if (partial == null) return null;
+                partials.add(partial);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException e) {
+                logger.error("Partial summary failed", e.getCause());
+                return null;
+            }
+        }
+
+        // Reduce par paliers tant que les résumés partiels ne tiennent pas dans un seul appel
+        while (totalLength(partials) > CHUNK_CHAR_BUDGET && partials.size() > 1) {
+            List<String> next = new ArrayList<>();
+            for (List<String> group : chunk(partials, CHUNK_CHAR_BUDGET)) {
+                String merged = group.size() == 1 ? group.get(0) : complete(foldPrompt(null, group));
+                if (merged == null) return null;
+                next.add(merged);
+            }
+            if (next.size() == partials.size()) break; // plus rien à fusionner
+            partials = next;
+        }
+        return complete(foldPrompt(previousSummary, partials));
+    }
+
+    private static List<List<String>> chunk(List<String> lines, int charBudget) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int size = 0;
+        for (String line : lines) {
+            String l = line.length() > charBudget ? line.substring(0, charBudget) : line;
+            if (!current.isEmpty() && size + l.length() + 1 > charBudget) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                size = 0;
+            }
+            current.add(l);
+            size += l.length() + 1;
+        }
+        if (!current.isEmpty()) chunks.add(current);
+        return chunks;
+    }
+
+    private static int totalLength(List<String> lines) {
+        int n = 0;
+        for (String l : lines) n += l.length() + 1;
+        return n;
+    }
+
+    private static String partialPrompt(List<String> chunk) {
+        return "Résume en français l'extrait de conversation suivant en quelques puces (•) concises : "
+                + "points clés, décisions, questions ouvertes. N'invente rien.\n\n"
+                + "=== EXTRAIT ===\n" + String.join("\n", chunk) + "\n=== FIN ===";
+    }
+
+    private static String foldPrompt(String previousSummary, List<String> partials) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Tu es un assistant intelligent. Produis un résumé unique, concis et structuré en français ")
+          .append("d'une conversation, à partir des éléments ci-dessous (dans l'ordre chronologique). ")
+          .append("Identifie les points clés, les décisions prises et les sujets abordés. ")
+          .append("Format le résumé avec des puces (•) pour chaque point important.\n\n");
+        if (previousSummary != null && !previousSummary.isBlank()) {
+            sb.append("=== RÉSUMÉ PRÉCÉDENT ===\n").append(previousSummary).append("\n\n");
+        }
+        sb.append("=== NOUVEAUX ÉLÉMENTS ===\n");
+        for (String p : partials) {
+            sb.append(p).append("\n");
+        }
+        sb.append("\nRésumé :");
+        return sb.toString();
+    }
+
+    // ── Persistance des résumés ──
+
+    private StoredSummary loadStored(String scope, int conversationId) {
+        String key = scope + ":" + conversationId;
+        StoredSummary cached = memo.get(key);
+        if (cached != null) return cached;
+
+        String sql = "SELECT summary, last_message_id, message_count FROM conversation_summaries "
+                + "WHERE scope = ? AND conversation_id = ?";
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, scope);
+            ps.setInt(2, conversationId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    StoredSummary s = new StoredSummary(rs.getString("summary"),
+                            rs.getInt("last_message_id"), rs.getInt("message_count"));
+                    memo.put(key, s);
+                    return s;
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to load summary {} #{}: {}", scope, conversationId, e.getMessage());
+        }
+        return null;
+    }
+
+    private void saveStored(String scope, int conversationId, StoredSummary summary) {
+        memo.put(scope + ":" + conversationId, summary);
+        String sql = """
+            INSERT INTO conversation_summaries (scope, conversation_id, summary, last_message_id, message_count)
+            VALUES (?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE summary = VALUES(summary), last_message_id = VALUES(last_message_id),
+                                    message_count = VALUES(message_count)
+            """;
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, scope);
+            ps.setInt(2, conversationId);
+            ps.setString(3, summary.summary);
+            ps.setInt(4, summary.lastMessageId);
+            ps.setInt(5, summary.messageCount);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Failed to save summary {} #{}: {}", scope, conversationId, e.getMessage());
+        }
+    }
+
+    private void ensureTable() {
+        String sql = """
+            CREATE TABLE IF NOT EXISTS conversation_summaries (
+                id INT AUTO_INCREMENT PRIMARY KEY,
+                scope VARCHAR(16) NOT NULL,
+                conversation_id INT NOT NULL,
+                summary TEXT NOT NULL,
+                last_message_id INT NOT NULL DEFAULT 0,
+                message_count INT NOT NULL DEFAULT 0,
+                updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+                UNIQUE KEY uk_conversation_summary (scope, conversation_id)
+            )
+            """;
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            logger.error("Failed to create conversation_summaries table: {}", e.getMessage());
+        }
+    }
+
+    /** Un message à résumer : son id (pour le suivi incrémental) et sa ligne "Nom: message". */
+    public static final class ChatLine {
+        private final int id;
+        private final String text;
+
+        public ChatLine(int id, String text) {
+            this.id = id;
+            this.text = text != null ? text : "";
+        }
+
+        public int getId() { return id; }
+        public String getText() { return text; }
+    }
+
+    private static final class StoredSummary {
+        final String summary;
+        final int lastMessageId;
+        final int messageCount;
+
+        StoredSummary(String summary, int lastMessageId, int messageCount) {
+            this.summary = summary;
+            this.lastMessageId = lastMessageId;
+            this.messageCount = messageCount;
+        }
+    }
+
+    // ══════════════════════════════════════════════════════════════════
+    // Appel API
+    // ══════════════════════════════════════════════════════════════════
+
+    /**
+     * Résume toute la liste en un seul appel Groq.
+     *
      * @return Le résumé ou null si toutes les tentatives échouent
      */
     private String callGroqWithRetry(List<String> messages) {
@@ -135,7 +424,16 @@ public class AISummaryService {
                 + conversationText.toString()
                 + "\n=== FIN DE LA CONVERSATION ===\n\n"
                 + "Résumé :";
+        return complete(prompt);
+    }
 
+    /**
+     * Appelle l'API Groq via {@link AIGateway} (retry/backoff non bloquant,
+     * limitation de débit et cache gérés par la passerelle).
+     *
+     * @return La réponse du modèle ou null en cas d'échec
+     */
+    private String complete(String prompt) {
         JSONObject requestBody = new JSONObject();
         requestBody.put("model", "llama-3.3-70b-versatile");
 
@@ -149,85 +447,40 @@ public class AISummaryService {
         requestBody.put("temperature", 0.7);
         requestBody.put("max_tokens", 800);
 
-        String body = requestBody.toString();
-
-        for (int attempt = 1; attempt <= MAX_RETRIES; attempt++) {
-            try {
-                logger.info("Groq API attempt {}/{}", attempt, MAX_RETRIES);
-
-                URL url = new URL(GROQ_API_URL);
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-                conn.setRequestMethod("POST");
-                conn.setRequestProperty("Content-Type", "application/json");
-                conn.setRequestProperty("Authorization", "Bearer " + GROQ_API_KEY);
-                conn.setDoOutput(true);
-                conn.setConnectTimeout(30000); // Augmenté à 30 secondes
-                conn.setReadTimeout(60000); // Augmenté à 60 secondes
-
-                try (OutputStream os = conn.getOutputStream()) {
-                    byte[] input = body.getBytes(StandardCharsets.UTF_8);
-                    os.write(input, 0, input.length);
-                }
-
-                int responseCode = conn.getResponseCode();
-                logger.info("Groq API response code: {}", responseCode);
-
-                if (responseCode == HttpURLConnection.HTTP_OK) {
-                    StringBuilder response = new StringBuilder();
-                    try (BufferedReader br = new BufferedReader(
-                            new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
-                        String line;
-                        while ((line = br.readLine()) != null) {
-                            response.append(line);
-                        }
-                    }
+        try {
+            AIResponse response = gateway.send(AIRequest.builder(AIProvider.GROQ, apiUrl)
+                    .bearer(GROQ_API_KEY)
+                    .body(requestBody.toString())
+                    .timeout(Duration.ofSeconds(60))
+                    .cacheFor(SUMMARY_CACHE_TTL)
+                    .build());
+            logger.info("Groq API response code: {}", response.getStatusCode());
+
+            if (!response.isSuccess()) {
+                logger.error("Groq API error {}: {}", response.getStatusCode(), response.getBody());
+                return null; // Fall to local summary
+            }
 
-                    JSONObject jsonResponse = new JSONObject(response.toString());
-                    JSONArray choices = jsonResponse.optJSONArray("choices");
-                    if (choices != null && choices.length() > 0) {
-                        JSONObject firstChoice = choices.getJSONObject(0);
-                        JSONObject messageResp = firstChoice.optJSONObject("message");
-                        if (messageResp != null) {
-                            String summary = messageResp.optString("content", "");
-                            if (!summary.isEmpty()) {
-                                logger.info("Summary generated successfully ({} chars)", summary.length());
-                                return summary.trim();
-                            }
-                        }
+            JSONObject jsonResponse = new JSONObject(response.getBody());
+            JSONArray choices = jsonResponse.optJSONArray("choices");
+            if (choices != null && choices.length() > 0) {
+                JSONObject messageResp = choices.getJSONObject(0).optJSONObject("message");
+                if (messageResp != null) {
+                    String summary = messageResp.optString("content", "");
+                    if (!summary.isEmpty()) {
+                        logger.info("Summary generated successfully ({} chars)", summary.length());
+                        return summary.trim();
                     }
-                    return null; // Empty response, fall to local
-
-                } else if (responseCode == 429) {
-                    // Rate limited — wait and retry
-                    long waitMs = INITIAL_BACKOFF_MS * (long) Math.pow(2, attempt - 1);
-                    logger.warn("Rate limited (429), waiting {}ms before retry...", waitMs);
-                    Thread.sleep(waitMs);
-                    // Continue to next attempt
-
-                } else {
-                    // Other error — read and log, don't retry
-                    StringBuilder errorResponse = new StringBuilder();
-                    try (BufferedReader br = new BufferedReader(
-                            new InputStreamReader(conn.getErrorStream(), StandardCharsets.UTF_8))) {
-                        String line;
-                        while ((line = br.readLine()) != null) {
-                            errorResponse.append(line);
-                        }
-                    }
-                    logger.error("Groq API error {}: {}", responseCode, errorResponse.toString());
-                    return null; // Fall to local summary
                 }
-
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                return null;
-            } catch (Exception e) {
-                logger.error("Error calling Groq API (attempt " + attempt + ")", e);
-                if (attempt == MAX_RETRIES)
-                    return null;
             }
+            return null; // Empty response, fall to local
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            logger.error("Error calling Groq API", e);
+            return null;
         }
-        return null; // All retries exhausted
     }
 
     /**
@@ -2,6 +2,8 @@ package com.skilora.community.service;
 
 import com.skilora.config.DatabaseConfig;
 import com.skilora.community.entity.BlogArticle;
+import com.skilora.formation.enums.AchievementEvent;
+import com.skilora.formation.service.AchievementEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,6 +60,9 @@ public class BlogService {
             if (rs.next()) {
                 int id = rs.getInt(1);
                 logger.info("Blog article created with id {}", id);
+                if (article.isPublished()) {
+                    AchievementEngine.getInstance().onEvent(article.getAuthorId(), AchievementEvent.ARTICLE_PUBLISHED);
+                }
                 return id;
             }
         } catch (SQLException e) {
@@ -198,7 +203,13 @@ public class BlogService {
                 stmt.setNull(8, Types.TIMESTAMP);
             }
             stmt.setInt(9, article.getId());
-            return stmt.executeUpdate() > 0;
+            boolean firstPublish = article.isPublished() && article.getPublishedDate() == null;
+            if (stmt.executeUpdate() > 0) {
+                if (firstPublish) {
+                    AchievementEngine.getInstance().onEvent(article.getAuthorId(), AchievementEvent.ARTICLE_PUBLISHED);
+                }
+                return true;
+            }
         } catch (SQLException e) {
             logger.error("Error updating blog article: {}", e.getMessage(), e);
         }
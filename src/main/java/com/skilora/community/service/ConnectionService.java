@@ -2,6 +2,8 @@ package com.skilora.community.service;
 
 import com.skilora.config.DatabaseConfig;
 import com.skilora.community.enums.ConnectionStatus;
+import com.skilora.formation.enums.AchievementEvent;
+import com.skilora.formation.service.AchievementEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -84,14 +86,16 @@ public class ConnectionService {
     }
 
     public boolean acceptRequest(int connectionId) {
-        String sql = "UPDATE connections SET status = ?, last_interaction = NOW() WHERE id = ?";
+        String sql = "UPDATE connections SET status = ?, last_interaction = NOW() WHERE id = ? AND status <> ?";
         try (Connection conn = DatabaseConfig.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, ConnectionStatus.ACCEPTED.name());
             stmt.setInt(2, connectionId);
+            stmt.setString(3, ConnectionStatus.ACCEPTED.name());
             int updated = stmt.executeUpdate();
             if (updated > 0) {
                 logger.info("Connection {} accepted", connectionId);
+                emit(acceptedParticipants(conn, connectionId), AchievementEvent.CONNECTION_ACCEPTED);
                 return true;
             }
         } catch (SQLException e) {
@@ -117,14 +121,39 @@ public class ConnectionService {
         String sql = "DELETE FROM connections WHERE id = ?";
         try (Connection conn = DatabaseConfig.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int[] participants = acceptedParticipants(conn, connectionId);
             stmt.setInt(1, connectionId);
-            return stmt.executeUpdate() > 0;
+            if (stmt.executeUpdate() > 0) {
+                emit(participants, AchievementEvent.CONNECTION_REMOVED);
+                return true;
+            }
         } catch (SQLException e) {
             logger.error("Error removing connection: {}", e.getMessage(), e);
         }
         return false;
     }
 
+    private void emit(int[] participants, AchievementEvent event) {
+        if (participants != null) {
+            AchievementEngine.getInstance().onEvent(participants[0], event);
+            AchievementEngine.getInstance().onEvent(participants[1], event);
+        }
+    }
+
+    /** Both user ids of an accepted connection, or null if it is missing or not accepted. */
+    private int[] acceptedParticipants(Connection conn, int connectionId) throws SQLException {
+        String sql = "SELECT user_id_1, user_id_2 FROM connections WHERE id = ? AND status = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, connectionId);
+            stmt.setString(2, ConnectionStatus.ACCEPTED.name());
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return new int[]{rs.getInt("user_id_1"), rs.getInt("user_id_2")};
+            }
+        }
+        return null;
+    }
+
     public List<com.skilora.community.entity.Connection> getConnections(int userId) {
         List<com.skilora.community.entity.Connection> connections = new ArrayList<>();
         String sql = """
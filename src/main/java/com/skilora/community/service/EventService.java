@@ -5,7 +5,8 @@ import com.skilora.community.entity.Event;
 import com.skilora.community.entity.EventRsvp;
 import com.skilora.community.enums.EventStatus;
 import com.skilora.community.enums.EventType;
-import com.skilora.formation.service.AchievementService;
+import com.skilora.formation.enums.AchievementEvent;
+import com.skilora.formation.service.AchievementEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,7 +57,7 @@ public class EventService {
                 logger.info("Event created with id {}", id);
                 
                 // Award achievement
-                AchievementService.getInstance().checkAndAward(event.getOrganizerId());
+                AchievementEngine.getInstance().onEvent(event.getOrganizerId(), AchievementEvent.EVENT_CREATED);
                 return id;
             }
         } catch (SQLException e) {
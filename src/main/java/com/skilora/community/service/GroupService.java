@@ -4,7 +4,8 @@ import com.skilora.config.DatabaseConfig;
 import com.skilora.community.entity.CommunityGroup;
 import com.skilora.community.entity.GroupMember;
 import com.skilora.community.entity.GroupMessage;
-import com.skilora.formation.service.AchievementService;
+import com.skilora.formation.enums.AchievementEvent;
+import com.skilora.formation.service.AchievementEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,7 +61,7 @@ public class GroupService {
                 }
 
                 // Award achievement
-                AchievementService.getInstance().checkAndAward(group.getCreatorId());
+                AchievementEngine.getInstance().onEvent(group.getCreatorId(), AchievementEvent.GROUP_CREATED);
                 return id;
             }
         } catch (SQLException e) {
@@ -186,7 +187,9 @@ public class GroupService {
         try (Connection conn = DatabaseConfig.getInstance().getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            if (deleted) AISummaryService.getInstance().invalidate(AISummaryService.SCOPE_GROUP, id);
+            return deleted;
         } catch (SQLException e) {
             logger.error("Error deleting group: {}", e.getMessage(), e);
         }
@@ -288,18 +291,7 @@ public class GroupService {
             stmt.setInt(1, groupId);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
-                GroupMessage msg = new GroupMessage();
-                msg.setId(rs.getInt("id"));
-                msg.setGroupId(rs.getInt("group_id"));
-                msg.setSenderId(rs.getInt("sender_id"));
-                msg.setContent(rs.getString("content"));
-                msg.setCreatedDate(rs.getTimestamp("created_date").toLocalDateTime());
-                msg.setSenderName(rs.getString("sender_name"));
-                msg.setMessageType(rs.getString("message_type"));
-                msg.setMediaUrl(rs.getString("media_url"));
-                msg.setFileName(rs.getString("file_name"));
-                msg.setDuration(rs.getInt("duration"));
-                messages.add(msg);
+                messages.add(mapGroupMessage(rs));
             }
         } catch (SQLException e) {
             logger.error("Error fetching group messages: {}", e.getMessage(), e);
@@ -307,6 +299,50 @@ public class GroupService {
         return messages;
     }
 
+    /**
+     * Messages of a group with an id greater than {@code afterMessageId}, oldest first.
+     * Used by incremental summarization to fetch only what is new.
+     */
+    public List<GroupMessage> getMessagesAfter(int groupId, int afterMessageId, int limit) {
+        List<GroupMessage> messages = new ArrayList<>();
+        String sql = """
+                SELECT gm.*, u.full_name as sender_name
+                FROM group_messages gm
+                JOIN users u ON gm.sender_id = u.id
+                WHERE gm.group_id = ? AND gm.id > ?
+                ORDER BY gm.id ASC
+                LIMIT ?
+                """;
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, groupId);
+            stmt.setInt(2, afterMessageId);
+            stmt.setInt(3, limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                messages.add(mapGroupMessage(rs));
+            }
+        } catch (SQLException e) {
+            logger.error("Error fetching group messages after {}: {}", afterMessageId, e.getMessage(), e);
+        }
+        return messages;
+    }
+
+    private GroupMessage mapGroupMessage(ResultSet rs) throws SQLException {
+        GroupMessage msg = new GroupMessage();
+        msg.setId(rs.getInt("id"));
+        msg.setGroupId(rs.getInt("group_id"));
+        msg.setSenderId(rs.getInt("sender_id"));
+        msg.setContent(rs.getString("content"));
+        msg.setCreatedDate(rs.getTimestamp("created_date").toLocalDateTime());
+        msg.setSenderName(rs.getString("sender_name"));
+        msg.setMessageType(rs.getString("message_type"));
+        msg.setMediaUrl(rs.getString("media_url"));
+        msg.setFileName(rs.getString("file_name"));
+        msg.setDuration(rs.getInt("duration"));
+        return msg;
+    }
+
     public void addMessage(GroupMessage msg) {
         String sql = "INSERT INTO group_messages (group_id, sender_id, content, message_type, media_url, file_name, duration) VALUES (?, ?, ?, ?, ?, ?, ?)";
         try (Connection conn = DatabaseConfig.getInstance().getConnection();
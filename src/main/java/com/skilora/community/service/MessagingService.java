@@ -274,6 +274,37 @@ public class MessagingService {
         return messages;
     }
 
+    /**
+     * Récupère les messages d'une conversation dont l'id est supérieur à {@code afterMessageId},
+     * du plus ancien au plus récent. Utilisé par le résumé incrémental.
+     */
+    public List<Message> getMessagesAfter(int conversationId, int afterMessageId, int limit) {
+        List<Message> messages = new ArrayList<>();
+        String sql = """
+            SELECT m.*, u.full_name as sender_name
+            FROM messages m
+            JOIN users u ON m.sender_id = u.id
+            WHERE m.conversation_id = ? AND m.id > ?
+            ORDER BY m.id ASC
+            LIMIT ?
+            """;
+
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, conversationId);
+            stmt.setInt(2, afterMessageId);
+            stmt.setInt(3, limit);
+
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                messages.add(mapMessage(rs));
+            }
+        } catch (SQLException e) {
+            logger.error("Error fetching messages after {}: {}", afterMessageId, e.getMessage(), e);
+        }
+        return messages;
+    }
+
     /**
      * Marque tous les messages reçus comme lus dans une conversation.
      * Met is_read = TRUE pour les messages où sender_id != userId
@@ -317,10 +348,13 @@ public class MessagingService {
         String sql = "UPDATE messages SET content = ? WHERE id = ? AND sender_id = ?";
         try (Connection conn = DatabaseConfig.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int conversationId = conversationOf(conn, messageId);
             stmt.setString(1, newContent);    // Nouveau contenu
             stmt.setInt(2, messageId);        // ID du message
             stmt.setInt(3, senderId);         // Vérification : est-ce bien l'expéditeur ?
-            return stmt.executeUpdate() > 0;  // true si 1 ligne modifiée (autorisé)
+            boolean updated = stmt.executeUpdate() > 0;  // true si 1 ligne modifiée (autorisé)
+            if (updated) invalidateSummary(conversationId);
+            return updated;
         } catch (SQLException e) {
             logger.error("Error updating message: {}", e.getMessage(), e);
         }
@@ -345,15 +379,35 @@ public class MessagingService {
         String sql = "DELETE FROM messages WHERE id = ? AND sender_id = ?";
         try (Connection conn = DatabaseConfig.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int conversationId = conversationOf(conn, messageId);
             stmt.setInt(1, messageId);        // ID du message à supprimer
             stmt.setInt(2, senderId);         // Vérification : est-ce bien l'expéditeur ?
-            return stmt.executeUpdate() > 0;  // true si 1 ligne supprimée (autorisé)
+            boolean deleted = stmt.executeUpdate() > 0;  // true si 1 ligne supprimée (autorisé)
+            if (deleted) invalidateSummary(conversationId);
+            return deleted;
         } catch (SQLException e) {
             logger.error("Error deleting message: {}", e.getMessage(), e);
         }
         return false; // Suppression refusée ou échec
     }
 
+    /** Conversation d'un message, 0 s'il n'existe pas. */
+    private int conversationOf(Connection conn, int messageId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT conversation_id FROM messages WHERE id = ?")) {
+            stmt.setInt(1, messageId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /** Le résumé IA mémorisé cite peut-être l'ancien texte : il sera reconstruit au prochain clic. */
+    private void invalidateSummary(int conversationId) {
+        if (conversationId > 0) {
+            AISummaryService.getInstance().invalidate(AISummaryService.SCOPE_PRIVATE, conversationId);
+        }
+    }
+
     /**
      * Compte le nombre total de messages non lus pour un utilisateur.
      * Cherche dans toutes ses conversations les messages où :
@@ -4,7 +4,8 @@ import com.skilora.config.DatabaseConfig;
 import com.skilora.community.entity.Post;
 import com.skilora.community.entity.PostComment;
 import com.skilora.community.enums.PostType;
-import com.skilora.formation.service.AchievementService;
+import com.skilora.formation.enums.AchievementEvent;
+import com.skilora.formation.service.AchievementEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -86,7 +87,7 @@ public class PostService {
                 logger.info("Post created with id {}", id);
                 
                 // Vérifier et attribuer un badge/achievement pour le premier post
-                AchievementService.getInstance().checkAndAward(post.getAuthorId());
+                AchievementEngine.getInstance().onEvent(post.getAuthorId(), AchievementEvent.POST_CREATED);
                 return id; // Retourne l'ID du post créé avec succès
             }
         } catch (SQLException e) {
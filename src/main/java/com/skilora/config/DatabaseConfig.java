@@ -55,6 +55,8 @@ public class DatabaseConfig {
         config.addDataSourceProperty("prepStmtCacheSize", "250");
         config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
         config.addDataSourceProperty("useServerPrepStmts", "true");
+        // Send JDBC batches as multi-row INSERTs (bulk jobs such as payroll runs)
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
 
         try {
             this.dataSource = new HikariDataSource(config);
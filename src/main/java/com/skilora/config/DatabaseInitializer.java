@@ -1277,6 +1277,7 @@ public class DatabaseInitializer {
             "CREATE INDEX idx_password_reset_user ON password_reset_tokens(user_id, used)",
             "CREATE INDEX idx_companies_owner ON companies(owner_id)",
             "CREATE INDEX idx_users_email ON users(email)",
+            "CREATE INDEX idx_certificates_token ON certificates(verification_token)",
             // Community module indexes
             "CREATE INDEX idx_connections_user1 ON connections(user_id_1)",
             "CREATE INDEX idx_connections_user2 ON connections(user_id_2)",
@@ -1298,6 +1299,7 @@ public class DatabaseInitializer {
             "CREATE INDEX idx_blog_published ON blog_articles(is_published, published_date)",
             "CREATE INDEX idx_group_members_group ON group_members(group_id)",
             "CREATE INDEX idx_group_members_user ON group_members(user_id)",
+            "CREATE INDEX idx_community_groups_creator ON community_groups(creator_id)",
             "CREATE INDEX idx_achievements_user ON achievements(user_id)",
             // Finance module indexes
             "CREATE INDEX idx_contracts_user ON employment_contracts(user_id)",
@@ -1306,6 +1308,9 @@ public class DatabaseInitializer {
             "CREATE INDEX idx_payslips_contract ON payslips(contract_id)",
             "CREATE INDEX idx_payslips_user ON payslips(user_id)",
             "CREATE INDEX idx_payslips_period ON payslips(period_year, period_month)",
+            // Functional keys: must match FinanceDataService's PAYSLIP_SORTS / BONUS_SORTS defaults
+            "CREATE INDEX idx_payslips_period_sort ON payslips((COALESCE(period_year, year, 0)), (COALESCE(period_month, month, 0)), id)",
+            "CREATE INDEX idx_bonuses_date_sort ON bonuses((COALESCE(date_awarded, DATE '1000-01-01')), id)",
             "CREATE INDEX idx_bank_accounts_user ON bank_accounts(user_id)",
             "CREATE INDEX idx_salary_history_contract ON salary_history(contract_id)",
             "CREATE INDEX idx_exchange_rates_currencies ON exchange_rates(from_currency, to_currency)",
@@ -8,6 +8,8 @@ import com.skilora.user.service.UserService;
 import com.skilora.utils.AppThreadPool;
 import com.skilora.utils.DialogUtils;
 import com.skilora.utils.I18n;
+import com.skilora.utils.LazyPagedList;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
@@ -22,6 +24,7 @@ import org.slf4j.LoggerFactory;
 import com.skilora.finance.utils.PDFGenerator;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 import java.io.File;
 import java.math.BigDecimal;
@@ -31,6 +34,7 @@ import java.time.LocalDate;
 import java.time.Period;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.ToIntFunction;
 
 /**
  * FinanceAdminController - Admin finance view (branch layout: TabPane + forms/tables in FXML).
@@ -42,6 +46,12 @@ public class FinanceAdminController implements Initializable {
 
     @FXML private TLTextField mainSearchField;
 
+    // Bank, bonus and payslip tables page through the database instead of loading every row
+    private LazyPagedList<BankAccountRow> bankRows;
+    private LazyPagedList<BonusRow> bonusRows;
+    private LazyPagedList<PayslipRow> payslipRows;
+    private final PauseTransition searchDebounce = new PauseTransition(Duration.millis(300));
+
     // Contract tab (FXML-injected)
     @FXML private TLComboBox<String> contract_userIdCombo;
     @FXML private TLTextField contract_companyIdField;
@@ -144,6 +154,7 @@ public class FinanceAdminController implements Initializable {
     @FXML private TLButton payslip_addBtn;
     @FXML private TLButton payslip_updateBtn;
     @FXML private TLButton payslip_pdfBtn;
+    @FXML private TLButton payslip_zipBtn;
     @FXML private TLButton payslip_clearBtn;
     @FXML private TLButton payslip_deleteBtn;
     @FXML private TableColumn<com.skilora.finance.entity.PayslipRow, ?> payslip_idCol;
@@ -182,6 +193,7 @@ public class FinanceAdminController implements Initializable {
             initializeBonusTab();
             initializePayslipTab();
             initializeReportsTab();
+            initializeSearch();
         }
     }
 
@@ -492,12 +504,20 @@ public class FinanceAdminController implements Initializable {
         bank_currencyCol.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().getCurrency()));
         bank_primaryCol.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().getIsPrimary() ? "Yes" : "No"));
         bank_verifiedCol.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().getIsVerified() ? "Yes" : "No"));
-        ObservableList<BankAccountRow> bankData = FXCollections.observableArrayList();
-        bankAccountTable.setItems(bankData);
-        try {
-            bankData.setAll(financeDataService.getAllBankAccounts());
-            if (bank_countLabel != null) bank_countLabel.setText("Total: " + bankData.size());
-        } catch (Exception e) { logger.error("Load bank accounts", e); }
+        bankRows = new LazyPagedList<>(financeDataService::getBankAccountPage);
+        bankRows.totalProperty().addListener((obs, o, n) -> {
+            if (bank_countLabel != null) bank_countLabel.setText("Total: " + n);
+        });
+        Map<TableColumn<BankAccountRow, ?>, String> bankSorts = new HashMap<>();
+        if (bank_idCol != null) bankSorts.put(bank_idCol, "id");
+        bankSorts.put(bank_userCol, "employee");
+        bankSorts.put(bank_nameCol, "bank");
+        bankSorts.put(bank_ibanCol, "iban");
+        bankSorts.put(bank_swiftCol, "swift");
+        bankSorts.put(bank_currencyCol, "currency");
+        bankSorts.put(bank_primaryCol, "primary");
+        bankSorts.put(bank_verifiedCol, "verified");
+        bankRows.attach(bankAccountTable, bankSorts);
         if (bank_currencyCombo != null) bank_currencyCombo.getItems().setAll("TND", "EUR", "USD");
         if (bank_primaryCombo != null) bank_primaryCombo.getItems().setAll("Yes", "No");
         if (bank_verifiedCombo != null) bank_verifiedCombo.getItems().setAll("Verified", "Unverified");
@@ -523,12 +543,16 @@ public class FinanceAdminController implements Initializable {
         bonus_amountCol.setCellValueFactory(c -> new SimpleStringProperty(String.format("%.2f", c.getValue().getAmount())));
         bonus_reasonCol.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().getReason()));
         bonus_dateCol.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().getDateAwarded()));
-        ObservableList<BonusRow> bonusData = FXCollections.observableArrayList();
-        bonusTable.setItems(bonusData);
-        try {
-            bonusData.setAll(financeDataService.getAllBonuses());
-            if (bonus_countLabel != null) bonus_countLabel.setText("Total: " + bonusData.size());
-        } catch (Exception e) { logger.error("Load bonuses", e); }
+        bonusRows = new LazyPagedList<>(financeDataService::getBonusPage);
+        bonusRows.totalProperty().addListener((obs, o, n) -> {
+            if (bonus_countLabel != null) bonus_countLabel.setText("Total: " + n);
+        });
+        Map<TableColumn<BonusRow, ?>, String> bonusSorts = new HashMap<>();
+        bonusSorts.put(bonus_userCol, "employee");
+        bonusSorts.put(bonus_amountCol, "amount");
+        bonusSorts.put(bonus_reasonCol, "reason");
+        bonusSorts.put(bonus_dateCol, "date");
+        bonusRows.attach(bonusTable, bonusSorts);
         loadEmployeeComboInto(bonus_userIdCombo);
 
         // Selection listener to populate form
@@ -552,12 +576,20 @@ public class FinanceAdminController implements Initializable {
         payslip_deductCol.setCellValueFactory(c -> new SimpleStringProperty(String.format("%.2f", c.getValue().getTotalDeductions())));
         payslip_netCol.setCellValueFactory(c -> new SimpleStringProperty(String.format("%.2f", c.getValue().getNet())));
         payslip_statusCol.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().getStatus()));
-        ObservableList<PayslipRow> payslipData = FXCollections.observableArrayList();
-        payslipTable.setItems(payslipData);
-        try {
-            payslipData.setAll(financeDataService.getAllPayslips());
-            if (payslip_countLabel != null) payslip_countLabel.setText("Total: " + payslipData.size());
-        } catch (Exception e) { logger.error("Load payslips", e); }
+        payslipRows = new LazyPagedList<>(financeDataService::getPayslipPage);
+        payslipRows.totalProperty().addListener((obs, o, n) -> {
+            if (payslip_countLabel != null) payslip_countLabel.setText("Total: " + n);
+        });
+        // Net and deductions depend on CNSS/IRPP computed client-side, so they are not sortable
+        Map<TableColumn<PayslipRow, ?>, String> payslipSorts = new HashMap<>();
+        payslipSorts.put(payslip_userCol, "employee");
+        payslipSorts.put(payslip_periodCol, "period");
+        payslipSorts.put(payslip_baseCol, "base");
+        payslipSorts.put(payslip_overtimeCol, "overtime");
+        payslipSorts.put(payslip_bonusCol, "bonus");
+        payslipSorts.put(payslip_grossCol, "gross");
+        payslipSorts.put(payslip_statusCol, "status");
+        payslipRows.attach(payslipTable, payslipSorts);
         if (payslip_monthCombo != null) { payslip_monthCombo.getItems().clear(); for (int i = 1; i <= 12; i++) payslip_monthCombo.getItems().add(i); payslip_monthCombo.setValue(LocalDate.now().getMonthValue()); }
         if (payslip_yearCombo != null) { payslip_yearCombo.getItems().clear(); int y = LocalDate.now().getYear(); for (int i = y - 2; i <= y + 1; i++) payslip_yearCombo.getItems().add(i); payslip_yearCombo.setValue(y); }
         if (payslip_currencyCombo != null) payslip_currencyCombo.getItems().setAll("TND", "EUR", "USD");
@@ -586,6 +618,18 @@ public class FinanceAdminController implements Initializable {
         if (tax_currencyCombo != null) tax_currencyCombo.getItems().setAll("TND", "EUR", "USD");
     }
 
+    /** The header search filters the paged tables by employee name, on the server. */
+    private void initializeSearch() {
+        if (mainSearchField == null || mainSearchField.getControl() == null) return;
+        searchDebounce.setOnFinished(e -> {
+            String filter = mainSearchField.getText();
+            if (bankRows != null) bankRows.setFilter(filter);
+            if (bonusRows != null) bonusRows.setFilter(filter);
+            if (payslipRows != null) payslipRows.setFilter(filter);
+        });
+        mainSearchField.getControl().textProperty().addListener((obs, o, n) -> searchDebounce.playFromStart());
+    }
+
     private void loadEmployeeComboInto(TLComboBox<String> combo) {
         if (combo == null) return;
         Task<List<User>> task = new Task<>() {
@@ -633,17 +677,16 @@ public class FinanceAdminController implements Initializable {
 
         BankAccountRow account = new BankAccountRow(0, userId, employeeName, bankName, iban, swift, currency, isPrimary, isVerified);
         account.setAccountHolder(employeeName);
-        Task<Void> task = new Task<>() {
+        Task<BankAccountRow> task = new Task<>() {
             @Override
-            protected Void call() throws Exception {
-                financeDataService.addBankAccount(account);
-                return null;
+            protected BankAccountRow call() throws Exception {
+                return financeDataService.getBankAccountById(financeDataService.addBankAccount(account));
             }
         };
         task.setOnSucceeded(e -> Platform.runLater(() -> {
             if (getScene() != null) TLToast.success(getScene(), "Success", "Bank account added");
             handleClearBankForm();
-            handleRefreshBankAccounts();
+            applyBankAccountDelta(0, task.getValue());
         }));
         task.setOnFailed(e -> Platform.runLater(() -> {
             Throwable ex = task.getException();
@@ -684,16 +727,16 @@ public class FinanceAdminController implements Initializable {
         selected.setIsPrimary(bank_primaryCombo != null && "Yes".equals(bank_primaryCombo.getValue()));
         selected.setIsVerified(bank_verifiedCombo != null && "Verified".equals(bank_verifiedCombo.getValue()));
 
-        Task<Void> task = new Task<>() {
+        Task<BankAccountRow> task = new Task<>() {
             @Override
-            protected Void call() throws Exception {
+            protected BankAccountRow call() throws Exception {
                 financeDataService.updateBankAccount(selected);
-                return null;
+                return financeDataService.getBankAccountById(selected.getId());
             }
         };
         task.setOnSucceeded(e -> Platform.runLater(() -> {
             if (getScene() != null) TLToast.success(getScene(), "Success", "Bank account updated");
-            handleRefreshBankAccounts();
+            applyBankAccountDelta(selected.getId(), task.getValue());
         }));
         task.setOnFailed(e -> Platform.runLater(() -> {
             logger.error("Failed to update bank account", task.getException());
@@ -709,16 +752,16 @@ public class FinanceAdminController implements Initializable {
             if (getScene() != null) TLToast.warning(getScene(), "Selection", "Select a bank account to delete");
             return;
         }
-        Task<Void> task = new Task<>() {
+        Task<BankAccountRow> task = new Task<>() {
             @Override
-            protected Void call() throws Exception {
+            protected BankAccountRow call() throws Exception {
                 financeDataService.deleteBankAccount(selected.getId());
                 return null;
             }
         };
         task.setOnSucceeded(e -> Platform.runLater(() -> {
             if (getScene() != null) TLToast.success(getScene(), "Success", "Bank account deleted");
-            handleRefreshBankAccounts();
+            applyBankAccountDelta(selected.getId(), task.getValue());
         }));
         task.setOnFailed(e -> Platform.runLater(() -> {
             logger.error("Failed to delete bank account", task.getException());
@@ -741,12 +784,12 @@ public class FinanceAdminController implements Initializable {
 
     @FXML
     private void handleRefreshBankAccounts() {
-        if (bankAccountTable != null && bankAccountTable.getItems() != null) {
-            try {
-                bankAccountTable.getItems().setAll(financeDataService.getAllBankAccounts());
-                if (bank_countLabel != null) bank_countLabel.setText("Total: " + bankAccountTable.getItems().size());
-            } catch (Exception e) { logger.error("Refresh bank", e); }
-        }
+        if (bankRows != null) bankRows.reload();
+    }
+
+    private void applyBankAccountDelta(int id, BankAccountRow fresh) {
+        if (bankRows == null) return;
+        applyRowDelta(bankRows, id, fresh, BankAccountRow::getId);
     }
 
     // ==================== Bonus CRUD ====================
@@ -778,17 +821,16 @@ public class FinanceAdminController implements Initializable {
         String dateAwarded = LocalDate.now().toString();
         BonusRow bonus = new BonusRow(0, userId, "", amount, reason, dateAwarded);
 
-        Task<Void> task = new Task<>() {
+        Task<BonusRow> task = new Task<>() {
             @Override
-            protected Void call() throws Exception {
-                financeDataService.addBonus(bonus);
-                return null;
+            protected BonusRow call() throws Exception {
+                return financeDataService.getBonusById(financeDataService.addBonus(bonus));
             }
         };
         task.setOnSucceeded(e -> Platform.runLater(() -> {
             if (getScene() != null) TLToast.success(getScene(), "Success", "Bonus added");
             handleClearBonusForm();
-            handleRefreshBonuses();
+            applyBonusDelta(0, task.getValue());
         }));
         task.setOnFailed(e -> Platform.runLater(() -> {
             logger.error("Failed to add bonus", task.getException());
@@ -822,16 +864,16 @@ public class FinanceAdminController implements Initializable {
         selected.setAmount(amount);
         selected.setReason(bonus_reasonField != null && bonus_reasonField.getText() != null ? bonus_reasonField.getText().trim() : "");
 
-        Task<Void> task = new Task<>() {
+        Task<BonusRow> task = new Task<>() {
             @Override
-            protected Void call() throws Exception {
+            protected BonusRow call() throws Exception {
                 financeDataService.updateBonus(selected);
-                return null;
+                return financeDataService.getBonusById(selected.getId());
             }
         };
         task.setOnSucceeded(e -> Platform.runLater(() -> {
             if (getScene() != null) TLToast.success(getScene(), "Success", "Bonus updated");
-            handleRefreshBonuses();
+            applyBonusDelta(selected.getId(), task.getValue());
         }));
         task.setOnFailed(e -> Platform.runLater(() -> {
             logger.error("Failed to update bonus", task.getException());
@@ -847,16 +889,16 @@ public class FinanceAdminController implements Initializable {
             if (getScene() != null) TLToast.warning(getScene(), "Selection", "Select a bonus to delete");
             return;
         }
-        Task<Void> task = new Task<>() {
+        Task<BonusRow> task = new Task<>() {
             @Override
-            protected Void call() throws Exception {
+            protected BonusRow call() throws Exception {
                 financeDataService.deleteBonus(selected.getId());
                 return null;
             }
         };
         task.setOnSucceeded(e -> Platform.runLater(() -> {
             if (getScene() != null) TLToast.success(getScene(), "Success", "Bonus deleted");
-            handleRefreshBonuses();
+            applyBonusDelta(selected.getId(), task.getValue());
         }));
         task.setOnFailed(e -> Platform.runLater(() -> {
             logger.error("Failed to delete bonus", task.getException());
@@ -875,12 +917,12 @@ public class FinanceAdminController implements Initializable {
 
     @FXML
     private void handleRefreshBonuses() {
-        if (bonusTable != null && bonusTable.getItems() != null) {
-            try {
-                bonusTable.getItems().setAll(financeDataService.getAllBonuses());
-                if (bonus_countLabel != null) bonus_countLabel.setText("Total: " + bonusTable.getItems().size());
-            } catch (Exception e) { logger.error("Refresh bonuses", e); }
-        }
+        if (bonusRows != null) bonusRows.reload();
+    }
+
+    private void applyBonusDelta(int id, BonusRow fresh) {
+        if (bonusRows == null) return;
+        applyRowDelta(bonusRows, id, fresh, BonusRow::getId);
     }
 
     // ==================== Payslip CRUD ====================
@@ -945,17 +987,16 @@ public class FinanceAdminController implements Initializable {
         PayslipRow payslip = new PayslipRow(0, userId, "", month, year, baseSalary, overtime, overtimeTotal, bonuses, currency, status);
         payslip.setOtherDeductions(otherDeductions);
 
-        Task<Void> task = new Task<>() {
+        Task<PayslipRow> task = new Task<>() {
             @Override
-            protected Void call() throws Exception {
-                financeDataService.addPayslip(payslip);
-                return null;
+            protected PayslipRow call() throws Exception {
+                return financeDataService.getPayslipById(financeDataService.addPayslip(payslip));
             }
         };
         task.setOnSucceeded(e -> Platform.runLater(() -> {
             if (getScene() != null) TLToast.success(getScene(), "Success", "Payslip added");
             handleClearPayslipForm();
-            handleRefreshPayslips();
+            applyPayslipDelta(0, task.getValue());
         }));
         task.setOnFailed(e -> Platform.runLater(() -> {
             Throwable ex = task.getException();
@@ -1000,16 +1041,16 @@ public class FinanceAdminController implements Initializable {
         selected.setStatus(payslip_statusCombo != null ? payslip_statusCombo.getValue() : selected.getStatus());
         selected.calculateTotals();
 
-        Task<Void> task = new Task<>() {
+        Task<PayslipRow> task = new Task<>() {
             @Override
-            protected Void call() throws Exception {
+            protected PayslipRow call() throws Exception {
                 financeDataService.updatePayslip(selected);
-                return null;
+                return financeDataService.getPayslipById(selected.getId());
             }
         };
         task.setOnSucceeded(e -> Platform.runLater(() -> {
             if (getScene() != null) TLToast.success(getScene(), "Success", "Payslip updated");
-            handleRefreshPayslips();
+            applyPayslipDelta(selected.getId(), task.getValue());
         }));
         task.setOnFailed(e -> Platform.runLater(() -> {
             logger.error("Failed to update payslip", task.getException());
@@ -1025,16 +1066,16 @@ public class FinanceAdminController implements Initializable {
             if (getScene() != null) TLToast.warning(getScene(), "Selection", "Select a payslip to delete");
             return;
         }
-        Task<Void> task = new Task<>() {
+        Task<PayslipRow> task = new Task<>() {
             @Override
-            protected Void call() throws Exception {
+            protected PayslipRow call() throws Exception {
                 financeDataService.deletePayslip(selected.getId());
                 return null;
             }
         };
         task.setOnSucceeded(e -> Platform.runLater(() -> {
             if (getScene() != null) TLToast.success(getScene(), "Success", "Payslip deleted");
-            handleRefreshPayslips();
+            applyPayslipDelta(selected.getId(), task.getValue());
         }));
         task.setOnFailed(e -> Platform.runLater(() -> {
             logger.error("Failed to delete payslip", task.getException());
@@ -1065,11 +1106,34 @@ public class FinanceAdminController implements Initializable {
 
     @FXML
     private void handleRefreshPayslips() {
-        if (payslipTable != null && payslipTable.getItems() != null) {
-            try {
-                payslipTable.getItems().setAll(financeDataService.getAllPayslips());
-                if (payslip_countLabel != null) payslip_countLabel.setText("Total: " + payslipTable.getItems().size());
-            } catch (Exception e) { logger.error("Refresh payslips", e); }
+        if (payslipRows != null) payslipRows.reload();
+    }
+
+    private void applyPayslipDelta(int id, PayslipRow fresh) {
+        if (payslipRows == null) return;
+        applyRowDelta(payslipRows, id, fresh, PayslipRow::getId);
+    }
+
+    /**
+     * Applies a single-row change to a paged table instead of reloading it: replaces the
+     * row with the same id, or removes it when {@code fresh} is null. Only the touched row
+     * is re-rendered. A created row ({@code id} 0) is placed by the server-side sort and
+     * filter, so the table reloads for it instead; an edited row not loaded yet arrives
+     * with its page.
+     */
+    private static <T> void applyRowDelta(LazyPagedList<T> items, int id, T fresh,
+                                          ToIntFunction<T> idOf) {
+        if (items == null) return;
+        if (id == 0) {
+            if (fresh != null) items.reload();
+            return;
+        }
+        for (int i = 0; i < items.size(); i++) {
+            if (idOf.applyAsInt(items.get(i)) == id) {
+                if (fresh != null) items.set(i, fresh);
+                else items.remove(i);
+                return;
+            }
         }
     }
 
@@ -1091,10 +1155,55 @@ public class FinanceAdminController implements Initializable {
             return;
         }
         String empName = selected.getEmployeeName() != null ? selected.getEmployeeName() : "Employé";
-        File result = PDFGenerator.generatePayslipPDF(selected, empName, stage);
-        if (result != null && getScene() != null) {
-            TLToast.success(getScene(), "Export", "Bulletin enregistré : " + result.getName());
+        File target = PDFGenerator.choosePayslipFile(selected, empName, stage);
+        if (target == null) return;
+        PdfRenderService.getInstance().renderPayslipAsync(selected, empName, target)
+                .whenComplete((result, ex) -> Platform.runLater(() -> {
+                    if (getScene() == null) return;
+                    if (result != null) {
+                        TLToast.success(getScene(), "Export", "Bulletin enregistré : " + result.getName());
+                    } else {
+                        if (ex != null) logger.error("Failed to export payslip", ex);
+                        TLToast.error(getScene(), "Erreur", "Échec de l'export du bulletin.");
+                    }
+                }));
+    }
+
+    /** Exports every payslip of the period selected in the form as one ZIP of PDFs. */
+    @FXML
+    private void handleExportPeriodZip() {
+        Integer month = payslip_monthCombo != null ? payslip_monthCombo.getValue() : null;
+        Integer year = payslip_yearCombo != null ? payslip_yearCombo.getValue() : null;
+        if (month == null || year == null) {
+            if (getScene() != null) TLToast.warning(getScene(), "Validation", "Select a month and year");
+            return;
         }
+        if (getScene() == null || !(getScene().getWindow() instanceof Stage)) return;
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Exporter les bulletins de la période");
+        fileChooser.setInitialFileName("Bulletins_" + month + "-" + year + ".zip");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Archives ZIP (*.zip)", "*.zip"));
+        File chosen = fileChooser.showSaveDialog(getScene().getWindow());
+        if (chosen == null) return;
+        final File target = chosen.getName().toLowerCase().endsWith(".zip")
+                ? chosen : new File(chosen.getAbsolutePath() + ".zip");
+
+        Task<Integer> task = new Task<>() {
+            @Override
+            protected Integer call() throws Exception {
+                return PdfRenderService.getInstance().exportPeriodZip(month, year, target);
+            }
+        };
+        task.setOnSucceeded(e -> Platform.runLater(() -> {
+            if (getScene() != null) {
+                TLToast.success(getScene(), "Export", task.getValue() + " bulletins exportés : " + target.getName());
+            }
+        }));
+        task.setOnFailed(e -> Platform.runLater(() -> {
+            logger.error("Failed to export period payslips", task.getException());
+            if (getScene() != null) TLToast.error(getScene(), "Erreur", "Échec de l'export de la période.");
+        }));
+        AppThreadPool.execute(task);
     }
 
     @FXML
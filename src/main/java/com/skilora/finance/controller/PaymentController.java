@@ -1,9 +1,12 @@
 package com.skilora.finance.controller;
 
+import com.skilora.finance.entity.PaymentTransaction;
+import com.skilora.finance.service.OutboxService;
 import com.skilora.finance.service.PaymentTransactionService;
 import com.skilora.finance.service.StripePaymentService;
 import com.skilora.user.entity.User;
 import com.skilora.user.service.UserService;
+import com.skilora.utils.AppThreadPool;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.concurrent.Task;
@@ -15,9 +18,14 @@ import javafx.scene.control.PasswordField;
 import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.scene.control.TextFormatter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.UnaryOperator;
 
 /**
@@ -31,6 +39,8 @@ import java.util.function.UnaryOperator;
  */
 public class PaymentController {
 
+    private static final Logger logger = LoggerFactory.getLogger(PaymentController.class);
+
     @FXML private TextField txtMontant;
     @FXML private TextField txtReferenceProjet;
     @FXML private ComboBox<String> cmbNomBeneficiaire;
@@ -44,6 +54,9 @@ public class PaymentController {
     private final StripePaymentService stripePaymentService = StripePaymentService.getInstance();
     private final PaymentTransactionService paymentTransactionService = PaymentTransactionService.getInstance();
 
+    /** How long the form waits for the charge before reporting the payment as queued. */
+    private static final long CHARGE_WAIT_SECONDS = 45;
+
     // Kept for success dialog display
     private double dernierMontant = 0;
     private String dernierBeneficiaire = "";
@@ -202,7 +215,6 @@ public class PaymentController {
         lblResultat.setText("Traitement du paiement en cours...");
         lblResultat.setStyle("-fx-text-fill: -fx-muted-foreground;");
 
-        final long amountCents = Math.round(montant * 100);
         final String finalMm = mm;
         final String finalExpYear = "20" + yy;
         final String finalCvv = cvv;
@@ -211,78 +223,30 @@ public class PaymentController {
         dernierMontant = montant;
         dernierBeneficiaire = nomBeneficiaire;
 
-        // c) Task + Thread — Stripe flow:
-        // 1. resolvePaymentMethodId (pm_card_visa for known test cards)
-        // 2. createPaymentIntent
-        // 3. confirmPayment(pi, pm)
-        Task<PaymentResult> task = new Task<>() {
+        // c) Task + Thread — outbox flow:
+        // 1. resolvePaymentMethodId (pm_card_visa for known test cards); card data stops here
+        // 2. record the PENDING payment and its Stripe charge in one DB transaction
+        // 3. the outbox dispatcher charges Stripe, then sends the WhatsApp confirmation;
+        //    the UI waits for the charge without holding a thread
+        Task<PaymentTransactionService.QueuedPayment> task = new Task<>() {
             @Override
-            protected PaymentResult call() {
-                try {
-                    // Step 1: Get PM ID (predefined test OR created via API)
-                    String pmId = stripePaymentService.resolvePaymentMethodId(
-                            digitsCard, finalMm, finalExpYear, finalCvv);
-
-                    // Step 2: Create PaymentIntent
-                    String intentId = stripePaymentService.createPaymentIntent(amountCents);
-
-                    // Step 3: Confirm without raw card numbers
-                    boolean success = stripePaymentService.confirmPayment(intentId, pmId);
-
-                    if (success) {
-                        // Save payment to DB via PaymentTransactionService
-                        boolean saved = false;
-                        try {
-                            paymentTransactionService.createStripePayment(
-                                    BigDecimal.valueOf(montant),
-                                    intentId,
-                                    referenceProjet,
-                                    nomBeneficiaire,
-                                    "SUCCESS");
-                            saved = true;
-                        } catch (Exception dbEx) {
-                            System.err.println("[PaymentController] DB save failed: " + dbEx.getMessage());
-                        }
-
-                        // Send SMS confirmation
-                        try {
-                            com.skilora.finance.service.SmsService.getInstance()
-                                    .sendPaymentSuccess(montant, nomBeneficiaire,
-                                            referenceProjet, intentId);
-                        } catch (Exception smsEx) {
-                            System.err.println("[SMS] Send failed (payment still valid): " + smsEx.getMessage());
-                        }
-
-                        return new PaymentResult(true, intentId, saved);
-                    }
-                    return new PaymentResult(false, null, false);
-                } catch (Exception e) {
-                    return new PaymentResult(false, null, false, e.getMessage());
-                }
+            protected PaymentTransactionService.QueuedPayment call() throws Exception {
+                String pmId = stripePaymentService.resolvePaymentMethodId(
+                        digitsCard, finalMm, finalExpYear, finalCvv);
+                return paymentTransactionService.queueStripePayment(
+                        BigDecimal.valueOf(montant), pmId, referenceProjet, nomBeneficiaire);
             }
         };
 
-        task.setOnSucceeded(evt -> {
-            PaymentResult r = task.getValue();
-            Platform.runLater(() -> {
-                progressIndicator.setVisible(false);
-                progressIndicator.setManaged(false);
-                btnPayer.setDisable(false);
-                if (r != null && r.success) {
-                    showSuccess("✅ Paiement réussi ! ID: " + r.stripePaymentId);
-                    showSuccessDialog(r.stripePaymentId);
-                } else {
-                    String msg = "❌ Paiement échoué. Vérifiez vos informations.";
-                    if (r != null && r.errorMessage != null && !r.errorMessage.isBlank()) {
-                        msg = msg + " (" + r.errorMessage + ")";
-                    }
-                    showError(msg);
-                }
-            });
-        });
+        task.setOnSucceeded(evt -> awaitCharge(task.getValue()));
 
         task.setOnFailed(evt -> Platform.runLater(() -> {
-            showError("❌ Paiement échoué. Erreur technique.");
+            Throwable ex = task.getException();
+            String msg = "❌ Paiement échoué. Erreur technique.";
+            if (ex != null && ex.getMessage() != null && !ex.getMessage().isBlank()) {
+                msg = "❌ Paiement échoué. (" + ex.getMessage() + ")";
+            }
+            showError(msg);
             progressIndicator.setVisible(false);
             progressIndicator.setManaged(false);
             btnPayer.setDisable(false);
@@ -293,6 +257,52 @@ public class PaymentController {
         t.start();
     }
 
+    /**
+     * Waits (without blocking) for the outbox to charge a queued payment, then updates the UI.
+     * If Stripe is slow the payment stays queued and is still charged; the user is told so.
+     */
+    private void awaitCharge(PaymentTransactionService.QueuedPayment queued) {
+        int transactionId = queued.getTransaction().getId();
+        OutboxService.getInstance().awaitDelivery(queued.getOutboxId())
+                .orTimeout(CHARGE_WAIT_SECONDS, TimeUnit.SECONDS)
+                .whenCompleteAsync((ignored, error) -> {
+                    PaymentResult r;
+                    if (error == null) {
+                        String intentId = null;
+                        try {
+                            PaymentTransaction tx = paymentTransactionService.findById(transactionId);
+                            intentId = tx != null ? tx.getStripePaymentId() : null;
+                        } catch (Exception dbEx) {
+                            logger.warn("Reload of transaction {} after charge failed", transactionId, dbEx);
+                        }
+                        r = new PaymentResult(true, intentId, true);
+                    } else {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        r = new PaymentResult(false, null, true, cause.getMessage());
+                        r.pending = cause instanceof TimeoutException;
+                    }
+                    Platform.runLater(() -> {
+                        progressIndicator.setVisible(false);
+                        progressIndicator.setManaged(false);
+                        btnPayer.setDisable(false);
+                        if (r.success) {
+                            showSuccess("✅ Paiement réussi ! ID: " + r.stripePaymentId);
+                            showSuccessDialog(r.stripePaymentId);
+                        } else if (r.pending) {
+                            showSuccess("⏳ Paiement enregistré (" + queued.getTransaction().getReference()
+                                    + "), traitement en cours.");
+                        } else {
+                            String msg = "❌ Paiement échoué. Vérifiez vos informations.";
+                            if (r.errorMessage != null && !r.errorMessage.isBlank()) {
+                                msg = msg + " (" + r.errorMessage + ")";
+                            }
+                            showError(msg);
+                        }
+                    });
+                }, AppThreadPool::execute);
+    }
+
     // ─────────────────────────────────────────────────────────────
     // UI helpers
     // ─────────────────────────────────────────────────────────────
@@ -447,6 +457,8 @@ public class PaymentController {
         @SuppressWarnings("unused")
         final boolean savedInDb;
         final String errorMessage;
+        /** Still queued when the UI stopped waiting; the outbox will finish it. */
+        boolean pending;
 
         PaymentResult(boolean success, String stripePaymentId, boolean savedInDb) {
             this(success, stripePaymentId, savedInDb, null);
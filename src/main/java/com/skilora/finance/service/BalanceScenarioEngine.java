@@ -0,0 +1,334 @@
+package com.skilora.finance.service;
+
+import com.skilora.finance.entity.EmploymentContract;
+import com.skilora.finance.utils.Money;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * BalanceScenarioEngine
+ *
+ * Balance projections for many users under many what-if scenarios at once. Inputs are
+ * loaded in three round trips whatever the team size (paid totals, active contracts, the
+ * IRPP schedule) and laid out as primitive arrays of cents, one slot per user. Each
+ * scenario then fills a {@code months × users} grid with a month-major loop over those
+ * arrays: straight {@code long} additions over contiguous memory, which the JIT unrolls
+ * and vectorizes. Scenarios are independent and run in parallel above
+ * {@value #PARALLEL_THRESHOLD} cells.
+ *
+ * Deductions follow {@link BalanceSimulationService#projectBalance}: employee CNSS plus a
+ * twelfth of the annual IRPP, on the (raised) base salary. Scheduled bonuses are added
+ * to income as paid. Everything is computed in TND cents; a scenario's currency is only
+ * applied when reading results.
+ * No JavaFX imports allowed.
+ */
+public class BalanceScenarioEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceScenarioEngine.class);
+
+    static final long CNSS_EMPLOYEE_RATE = Money.rate(new BigDecimal("0.0918"));
+    private static final long ONE = Money.rate(BigDecimal.ONE);
+
+    /** Grid cells (users × months × scenarios) above which scenarios are computed in parallel. */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private static volatile BalanceScenarioEngine instance;
+
+    private BalanceScenarioEngine() {}
+
+    public static BalanceScenarioEngine getInstance() {
+        if (instance == null) {
+            synchronized (BalanceScenarioEngine.class) {
+                if (instance == null) {
+                    instance = new BalanceScenarioEngine();
+                }
+            }
+        }
+        return instance;
+    }
+
+    // ==================== Scenario ====================
+
+    /**
+     * One what-if: a salary raise, one-off bonuses by month offset (0 = current month)
+     * and a display currency. Immutable; the {@code with*} methods return copies.
+     */
+    public static final class Scenario {
+        private final String name;
+        private final BigDecimal raisePercent;
+        private final TreeMap<Integer, BigDecimal> bonuses;
+        private final String currency;
+
+        public Scenario(String name) {
+            this(name, BigDecimal.ZERO, new TreeMap<>(), "TND");
+        }
+
+        private Scenario(String name, BigDecimal raisePercent, TreeMap<Integer, BigDecimal> bonuses, String currency) {
+            this.name = name;
+            this.raisePercent = raisePercent;
+            this.bonuses = bonuses;
+            this.currency = currency;
+        }
+
+        /** Current salaries, no bonus, TND. */
+        public static Scenario baseline() {
+            return new Scenario("Baseline");
+        }
+
+        /** Base salary raised by {@code percent} (e.g. 5 for +5%) from the first month. */
+        public Scenario withRaise(BigDecimal percent) {
+            return new Scenario(name, percent != null ? percent : BigDecimal.ZERO, bonuses, currency);
+        }
+
+        /** Adds a one-off bonus paid {@code monthOffset} months from now. */
+        public Scenario withBonus(int monthOffset, BigDecimal amount) {
+            if (monthOffset < 0) throw new IllegalArgumentException("Month offset must be >= 0");
+            TreeMap<Integer, BigDecimal> copy = new TreeMap<>(bonuses);
+            if (amount != null) copy.merge(monthOffset, amount, BigDecimal::add);
+            return new Scenario(name, raisePercent, copy, currency);
+        }
+
+        public Scenario inCurrency(String currency) {
+            return new Scenario(name, raisePercent, bonuses,
+                    currency == null || currency.isBlank() ? "TND" : currency.trim().toUpperCase());
+        }
+
+        public String getName() { return name; }
+        public BigDecimal getRaisePercent() { return raisePercent; }
+        public Map<Integer, BigDecimal> getBonuses() { return Collections.unmodifiableMap(bonuses); }
+        public String getCurrency() { return currency; }
+
+        /** Bonus per month in cents over {@code months}. */
+        long[] bonusColumn(int months) {
+            long[] column = new long[months];
+            for (Map.Entry<Integer, BigDecimal> e : bonuses.headMap(months).entrySet()) {
+                column[e.getKey()] = Money.toMinor(e.getValue(), Money.DEFAULT_SCALE);
+            }
+            return column;
+        }
+    }
+
+    // ==================== Inputs ====================
+
+    /** Per-user inputs in cents; index {@code u} is the same user in every array. */
+    public static final class Inputs {
+        final int[] userIds;
+        final long[] balance;
+        final long[] salary;
+
+        Inputs(int[] userIds, long[] balance, long[] salary) {
+            this.userIds = userIds;
+            this.balance = balance;
+            this.salary = salary;
+        }
+
+        /** Inputs built by the caller, e.g. for simulations that never touch the database. */
+        public static Inputs of(int[] userIds, long[] balanceCents, long[] salaryCents) {
+            if (balanceCents.length != userIds.length || salaryCents.length != userIds.length) {
+                throw new IllegalArgumentException("Input arrays must have one slot per user");
+            }
+            return new Inputs(userIds.clone(), balanceCents.clone(), salaryCents.clone());
+        }
+
+        public int size() {
+            return userIds.length;
+        }
+    }
+
+    /**
+     * Loads current balances and active base salaries for {@code userIds} in two queries.
+     * Users without an active contract project with no income.
+     */
+    public Inputs loadInputs(Collection<Integer> userIds) throws SQLException {
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(userIds));
+        Map<Integer, BigDecimal> paid = PaymentTransactionService.getInstance().getTotalPaidByUsers(ids);
+        Map<Integer, EmploymentContract> contracts = ContractService.getInstance().findActiveByUserIds(ids);
+
+        int n = ids.size();
+        int[] userArr = new int[n];
+        long[] balance = new long[n];
+        long[] salary = new long[n];
+        for (int u = 0; u < n; u++) {
+            int id = ids.get(u);
+            userArr[u] = id;
+            BigDecimal total = paid.get(id);
+            balance[u] = total != null ? Money.toMinor(total, Money.DEFAULT_SCALE) : 0L;
+            EmploymentContract c = contracts.get(id);
+            if (c != null && c.getSalaryBase() != null && c.getSalaryBase().signum() > 0) {
+                salary[u] = Money.toMinor(c.getSalaryBase(), Money.DEFAULT_SCALE);
+            }
+        }
+        return new Inputs(userArr, balance, salary);
+    }
+
+    // ==================== Projection ====================
+
+    /** Loads inputs and projects every scenario over {@code months}. */
+    public ScenarioGrid project(Collection<Integer> userIds, List<Scenario> scenarios, int months) throws SQLException {
+        boolean foreign = scenarios.stream().anyMatch(s -> !"TND".equals(s.getCurrency()));
+        return project(loadInputs(userIds), scenarios, months,
+                TaxConfigurationService.getInstance().getSchedule(PayslipService.TAX_COUNTRY, "IRPP"),
+                foreign ? ExchangeRateService.getInstance().getMatrix() : ExchangeRateMatrix.EMPTY);
+    }
+
+    /** Projects preloaded inputs; no database access. */
+    public ScenarioGrid project(Inputs inputs, List<Scenario> scenarios, int months,
+                                TaxSchedule irpp, ExchangeRateMatrix rates) {
+        long start = System.nanoTime();
+        int users = inputs.size();
+        int count = scenarios.size();
+        months = Math.max(0, months);
+        long[][] income = new long[count][];
+        long[][] deductions = new long[count][];
+        long[][] bonus = new long[count][];
+        long[][] balance = new long[count][];
+        long[] rateUnits = new long[count];
+
+        final int m = months;
+        IntStream range = IntStream.range(0, count);
+        if ((long) users * months * count > PARALLEL_THRESHOLD) range = range.parallel();
+        range.forEach(s -> {
+            Scenario scenario = scenarios.get(s);
+            long raise = Money.rate(scenario.getRaisePercent().movePointLeft(2));
+            long[] gross = new long[users];
+            long[] deduct = new long[users];
+            long[] net = new long[users];
+            for (int u = 0; u < users; u++) {
+                long g = inputs.salary[u] + Money.applyRate(inputs.salary[u], raise);
+                if (g > 0) {
+                    long annualIrpp = irpp.taxCents(g * 12);
+                    deduct[u] = Money.applyRate(g, CNSS_EMPLOYEE_RATE) + Money.divide(annualIrpp, 12);
+                }
+                gross[u] = g;
+                net[u] = g - deduct[u];
+            }
+            long[] column = scenario.bonusColumn(m);
+            long[] grid = new long[m * users];
+            accumulate(inputs.balance, net, column, grid);
+
+            income[s] = gross;
+            deductions[s] = deduct;
+            bonus[s] = column;
+            balance[s] = grid;
+            rateUnits[s] = "TND".equals(scenario.getCurrency())
+                    ? ONE : rates.rateUnits("TND", scenario.getCurrency());
+            if (rateUnits[s] == 0L) {
+                logger.warn("No TND/{} rate; scenario '{}' reads as 0", scenario.getCurrency(), scenario.getName());
+            }
+        });
+
+        logger.debug("Projected {} users × {} months × {} scenarios in {} ms", users, months, count,
+                (System.nanoTime() - start) / 1_000_000);
+        return new ScenarioGrid(inputs.userIds, scenarios, months, income, deductions, bonus, balance, rateUnits);
+    }
+
+    /**
+     * {@code grid[m * users + u] = balance0[u] + Σ_{k ≤ m} (net[u] + bonus[k])}.
+     * Month-major so the inner loop is a branch-free pass over contiguous longs.
+     */
+    static void accumulate(long[] balance0, long[] net, long[] bonus, long[] grid) {
+        int users = balance0.length;
+        long[] running = balance0.clone();
+        for (int m = 0, base = 0; m < bonus.length; m++, base += users) {
+            long b = bonus[m];
+            for (int u = 0; u < users; u++) {
+                long v = running[u] + net[u] + b;
+                running[u] = v;
+                grid[base + u] = v;
+            }
+        }
+    }
+
+    // ==================== Results ====================
+
+    /** Balances of every user, month and scenario; amounts read in each scenario's currency. */
+    public static final class ScenarioGrid {
+        private final int[] userIds;
+        private final List<Scenario> scenarios;
+        private final int months;
+        private final long[][] income;
+        private final long[][] deductions;
+        private final long[][] bonus;
+        private final long[][] balance;
+        private final long[] rateUnits;
+        private final Map<Integer, Integer> index = new HashMap<>();
+        private final LocalDate firstMonth = LocalDate.now().withDayOfMonth(1);
+
+        ScenarioGrid(int[] userIds, List<Scenario> scenarios, int months, long[][] income,
+                     long[][] deductions, long[][] bonus, long[][] balance, long[] rateUnits) {
+            this.userIds = userIds;
+            this.scenarios = scenarios;
+            this.months = months;
+            this.income = income;
+            this.deductions = deductions;
+            this.bonus = bonus;
+            this.balance = balance;
+            this.rateUnits = rateUnits;
+            for (int u = 0; u < userIds.length; u++) index.put(userIds[u], u);
+        }
+
+        public int getMonths() { return months; }
+        public List<Scenario> getScenarios() { return Collections.unmodifiableList(scenarios); }
+
+        public int[] getUserIds() {
+            return userIds.clone();
+        }
+
+        /** Projected balance in cents of the scenario currency; 0 if the user is unknown. */
+        public long balanceMinor(int scenario, int userId, int month) {
+            int u = indexOf(userId);
+            return u < 0 ? 0L : convert(scenario, balance[scenario][month * userIds.length + u]);
+        }
+
+        /** Sum of all users' balances for one month, in cents of the scenario currency. */
+        public long teamBalanceMinor(int scenario, int month) {
+            long total = 0L;
+            long[] grid = balance[scenario];
+            for (int u = 0, base = month * userIds.length; u < userIds.length; u++) {
+                total += grid[base + u];
+            }
+            return convert(scenario, total);
+        }
+
+        /** One user's month-by-month projection, as {@link BalanceSimulationService#projectBalance} returns it. */
+        public List<BalanceSimulationService.BalanceProjection> getProjections(int scenario, int userId) {
+            int u = indexOf(userId);
+            List<BalanceSimulationService.BalanceProjection> out = new ArrayList<>(months);
+            if (u < 0) return out;
+            long[] grid = balance[scenario];
+            for (int m = 0; m < months; m++) {
+                out.add(new BalanceSimulationService.BalanceProjection(firstMonth.plusMonths(m),
+                        toDouble(scenario, income[scenario][u] + bonus[scenario][m]),
+                        toDouble(scenario, deductions[scenario][u]),
+                        toDouble(scenario, grid[m * userIds.length + u])));
+            }
+            return out;
+        }
+
+        private int indexOf(int userId) {
+            return index.getOrDefault(userId, -1);
+        }
+
+        private long convert(int scenario, long cents) {
+            return Money.applyRate(cents, rateUnits[scenario]);
+        }
+
+        private double toDouble(int scenario, long cents) {
+            return Money.toDouble(convert(scenario, cents), Money.DEFAULT_SCALE);
+        }
+    }
+}
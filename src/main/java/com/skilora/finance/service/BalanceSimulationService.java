@@ -1,15 +1,14 @@
 package com.skilora.finance.service;
 
-import com.skilora.finance.entity.EmploymentContract;
-import com.skilora.finance.entity.Payslip;
+import com.skilora.finance.utils.Money;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -21,9 +20,6 @@ public class BalanceSimulationService {
 
     private static final Logger logger = LoggerFactory.getLogger(BalanceSimulationService.class);
 
-    private static final BigDecimal CNSS_EMPLOYEE_RATE = new BigDecimal("0.0918");
-    private static final BigDecimal TWELVE = new BigDecimal("12");
-
     private static volatile BalanceSimulationService instance;
 
     private BalanceSimulationService() {}
@@ -68,12 +64,17 @@ public class BalanceSimulationService {
      * @return current balance
      */
     public double getCurrentBalance(int userId) {
+        return Money.toDouble(getCurrentBalanceMinor(userId), Money.DEFAULT_SCALE);
+    }
+
+    /** Current balance in cents. */
+    private long getCurrentBalanceMinor(int userId) {
         try {
             BigDecimal total = PaymentTransactionService.getInstance().getTotalPaidByUser(userId);
-            return total != null ? total.doubleValue() : 0.0;
+            return Money.toMinor(total, Money.DEFAULT_SCALE);
         } catch (Exception e) {
             logger.error("Failed to get current balance for user {}: {}", userId, e.getMessage());
-            return 0.0;
+            return 0L;
         }
     }
 
@@ -86,44 +87,31 @@ public class BalanceSimulationService {
      * @return list of BalanceProjection for each month
      */
     public List<BalanceProjection> projectBalance(int userId, int months) {
-        List<BalanceProjection> projections = new ArrayList<>();
-
         try {
-            double runningBalance = getCurrentBalance(userId);
-            EmploymentContract contract = ContractService.getInstance().findActiveByUserId(userId);
-
-            BigDecimal monthlyGross = BigDecimal.ZERO;
-            BigDecimal monthlyDeductions = BigDecimal.ZERO;
-
-            if (contract != null && contract.getSalaryBase() != null && contract.getSalaryBase().compareTo(BigDecimal.ZERO) > 0) {
-                monthlyGross = contract.getSalaryBase();
-                BigDecimal cnssEmployee = monthlyGross.multiply(CNSS_EMPLOYEE_RATE).setScale(2, RoundingMode.HALF_UP);
-                BigDecimal annualGross = monthlyGross.multiply(TWELVE);
-                BigDecimal annualIrpp = TaxConfigurationService.getInstance()
-                        .calculateIRPP(annualGross, "Tunisia");
-                BigDecimal monthlyIrpp = annualIrpp.divide(TWELVE, 2, RoundingMode.HALF_UP);
-                monthlyDeductions = cnssEmployee.add(monthlyIrpp);
-            }
-
-            LocalDate start = LocalDate.now().withDayOfMonth(1);
-            BigDecimal pendingEscrow = BigDecimal.ZERO; // No escrow table in codebase; placeholder
-
-            for (int i = 0; i < months; i++) {
-                LocalDate month = start.plusMonths(i);
-                double income = monthlyGross.doubleValue();
-                double deductions = monthlyDeductions.doubleValue();
-                double escrow = pendingEscrow.doubleValue();
-
-                runningBalance = runningBalance + income - deductions - escrow;
-
-                projections.add(new BalanceProjection(month, income, deductions + escrow, runningBalance));
-            }
-
+            BalanceScenarioEngine.ScenarioGrid grid = BalanceScenarioEngine.getInstance()
+                    .project(List.of(userId), List.of(BalanceScenarioEngine.Scenario.baseline()), months);
+            return grid.getProjections(0, userId);
         } catch (Exception e) {
             logger.error("Failed to project balance for user {}: {}", userId, e.getMessage());
+            return new ArrayList<>();
         }
+    }
 
-        return projections;
+    /**
+     * Projects several users under several what-if scenarios in one pass
+     * (see {@link BalanceScenarioEngine}).
+     *
+     * @return the grid, or null if the inputs could not be loaded
+     */
+    public BalanceScenarioEngine.ScenarioGrid projectScenarios(Collection<Integer> userIds,
+                                                               List<BalanceScenarioEngine.Scenario> scenarios,
+                                                               int months) {
+        try {
+            return BalanceScenarioEngine.getInstance().project(userIds, scenarios, months);
+        } catch (Exception e) {
+            logger.error("Failed to project {} scenarios for {} users: {}", scenarios.size(), userIds.size(), e.getMessage());
+            return null;
+        }
     }
 
     /**
@@ -133,42 +121,11 @@ public class BalanceSimulationService {
      * @return list of missing months (year-month) that have no payslip
      */
     public List<LocalDate> validatePayroll(int contractId) {
-        List<LocalDate> missing = new ArrayList<>();
-
         try {
-            EmploymentContract contract = ContractService.getInstance().findById(contractId);
-            if (contract == null) {
-                logger.warn("Contract {} not found for payroll validation", contractId);
-                return missing;
-            }
-
-            LocalDate start = contract.getStartDate();
-            LocalDate end = contract.getEndDate() != null ? contract.getEndDate() : LocalDate.now();
-
-            if (start == null) {
-                return missing;
-            }
-
-            List<Payslip> existing = PayslipService.getInstance().findByContractId(contractId);
-
-            LocalDate cursor = start.withDayOfMonth(1);
-            while (!cursor.isAfter(end)) {
-                final int m = cursor.getMonthValue();
-                final int y = cursor.getYear();
-
-                boolean found = existing.stream()
-                        .anyMatch(p -> p.getPeriodMonth() == m && p.getPeriodYear() == y);
-
-                if (!found) {
-                    missing.add(cursor);
-                }
-                cursor = cursor.plusMonths(1);
-            }
-
+            return PayrollAuditService.getInstance().findMissingMonths(contractId);
         } catch (Exception e) {
             logger.error("Failed to validate payroll for contract {}: {}", contractId, e.getMessage());
+            return new ArrayList<>();
         }
-
-        return missing;
     }
 }
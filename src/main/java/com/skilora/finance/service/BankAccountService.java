@@ -2,6 +2,8 @@ package com.skilora.finance.service;
 
 import com.skilora.config.DatabaseConfig;
 import com.skilora.finance.entity.BankAccount;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -16,6 +18,7 @@ import java.util.List;
  */
 public class BankAccountService {
 
+    private static final Logger logger = LoggerFactory.getLogger(BankAccountService.class);
     private static volatile BankAccountService instance;
 
     private BankAccountService() {}
@@ -73,6 +76,7 @@ public class BankAccountService {
                 if (generatedKeys.next()) {
                     int generatedId = generatedKeys.getInt(1);
                     account.setId(generatedId);
+                    refreshSummary(account.getUserId());
                     return generatedId;
                 } else {
                     throw new SQLException("Creating bank account failed, no ID obtained.");
@@ -145,7 +149,9 @@ public class BankAccountService {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
             stmt.setInt(2, userId);
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            if (deleted) refreshSummary(userId);
+            return deleted;
         }
     }
 
@@ -168,6 +174,7 @@ public class BankAccountService {
                     int rows = stmt.executeUpdate();
                     if (rows > 0) {
                         conn.commit();
+                        refreshSummary(userId);
                         return true;
                     }
                 }
@@ -184,6 +191,15 @@ public class BankAccountService {
 
     // ==================== Private Helpers ====================
 
+    /** Keeps the employee_finance_summary read model in step with a write. */
+    private void refreshSummary(int userId) {
+        try {
+            FinanceDataService.getInstance().refreshEmployeeSummaries(List.of(userId));
+        } catch (SQLException e) {
+            logger.warn("Failed to refresh finance summary for user {}", userId, e);
+        }
+    }
+
     /**
      * Maps a ResultSet row to a BankAccount entity.
      */
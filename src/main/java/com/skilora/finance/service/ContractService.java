@@ -6,7 +6,11 @@ import com.skilora.utils.ResultSetUtils;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * ContractService
@@ -161,6 +165,31 @@ public class ContractService {
         return null;
     }
 
+    /**
+     * Active contract of each user in one query, keyed by user ID.
+     * Users without an active contract are absent; if a user has several, the latest wins.
+     */
+    public Map<Integer, EmploymentContract> findActiveByUserIds(Collection<Integer> userIds) throws SQLException {
+        Map<Integer, EmploymentContract> result = new HashMap<>();
+        if (userIds == null || userIds.isEmpty()) return result;
+        String sql = BASE_SELECT + " WHERE c.status = 'ACTIVE' AND c.user_id IN ("
+                + String.join(",", Collections.nCopies(userIds.size(), "?")) + ") ORDER BY c.id";
+
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (Integer id : userIds) stmt.setInt(i++, id);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    EmploymentContract c = mapResultSet(rs);
+                    result.put(c.getUserId(), c);
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * Finds all contracts regardless of status.
      */
@@ -13,7 +13,9 @@ import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -162,7 +164,8 @@ public class CurrencyApiService {
     }
 
     /**
-     * Fetches rates for TND, EUR, USD, GBP and saves to exchange_rates table.
+     * Fetches rates for TND, EUR, USD, GBP and saves to exchange_rates table
+     * with a single batched upsert.
      * Only performs fetch if last update was more than 6 hours ago.
      */
     public void updateExchangeRates() {
@@ -179,7 +182,7 @@ public class CurrencyApiService {
         ExchangeRateService ers = ExchangeRateService.getInstance();
 
         String[] bases = {"TND", "EUR", "USD", "GBP"};
-        int saved = 0;
+        List<ExchangeRate> fetched = new ArrayList<>();
 
         for (String base : bases) {
             Map<String, BigDecimal> rates = fetchLatestRates(base);
@@ -195,16 +198,17 @@ public class CurrencyApiService {
                 ExchangeRate er = new ExchangeRate(base, toCurrency, rate, today);
                 er.setSource(source);
                 er.setLastUpdated(LocalDateTime.now());
-
-                try {
-                    ers.save(er);
-                    saved++;
-                } catch (Exception ex) {
-                    logger.error("Failed to save rate {}->{}: {}", base, toCurrency, ex.getMessage());
-                }
+                fetched.add(er);
             }
         }
 
+        int saved = 0;
+        try {
+            saved = ers.saveAll(fetched);
+        } catch (Exception ex) {
+            logger.error("Failed to save {} exchange rates: {}", fetched.size(), ex.getMessage());
+        }
+
         if (saved > 0) {
             lastUpdateTime = LocalDateTime.now();
             logger.info("Updated {} exchange rates from API", saved);
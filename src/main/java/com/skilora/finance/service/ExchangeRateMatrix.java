@@ -0,0 +1,197 @@
+package com.skilora.finance.service;
+
+import com.skilora.finance.entity.ExchangeRate;
+import com.skilora.finance.utils.Money;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * ExchangeRateMatrix
+ *
+ * Immutable snapshot of the latest exchange rates as a currency-index × currency-index
+ * array of fixed-point rates ({@link Money#RATE_SCALE}). Pairs with no stored rate are
+ * derived once at build time: inverse of the opposite pair, else triangulated through
+ * {@value #PIVOT}. A conversion is then two index lookups and one multiply.
+ *
+ * Never modified in place: {@link #withRates} returns a new matrix, which
+ * {@link ExchangeRateService} swaps in atomically (copy-on-write).
+ * No JavaFX imports allowed.
+ */
+public final class ExchangeRateMatrix {
+
+    /** Triangulation currency. */
+    public static final String PIVOT = "TND";
+
+    private static final MathContext MC = MathContext.DECIMAL64;
+
+    public static final ExchangeRateMatrix EMPTY = build(Collections.emptyList());
+
+    private final String[] currencies;
+    private final Map<String, Integer> index;
+    /** units[from * n + to]; 0 when the pair cannot be converted. */
+    private final long[] units;
+    /** Latest stored rate per "FROM|TO", kept to rebuild on {@link #withRates}. */
+    private final Map<String, ExchangeRate> direct;
+
+    private ExchangeRateMatrix(String[] currencies, Map<String, Integer> index, long[] units,
+                               Map<String, ExchangeRate> direct) {
+        this.currencies = currencies;
+        this.index = index;
+        this.units = units;
+        this.direct = direct;
+    }
+
+    /**
+     * Builds a matrix from stored rates. When a pair appears more than once, the most
+     * recent rate_date wins. Rates that are null or not positive are ignored.
+     */
+    public static ExchangeRateMatrix build(Collection<ExchangeRate> rates) {
+        Map<String, ExchangeRate> latest = new HashMap<>();
+        merge(latest, rates);
+        return compile(latest);
+    }
+
+    /** New matrix with {@code rates} applied on top of this one; this matrix is untouched. */
+    public ExchangeRateMatrix withRates(Collection<ExchangeRate> rates) {
+        Map<String, ExchangeRate> latest = new HashMap<>(direct);
+        merge(latest, rates);
+        return compile(latest);
+    }
+
+    // ==================== Lookups ====================
+
+    /**
+     * Rate in {@link Money#RATE_SCALE} units (1 {@code from} = rate {@code to}).
+     * @return the rate, or 0 if the pair cannot be converted
+     */
+    public long rateUnits(String from, String to) {
+        Integer i = index.get(code(from));
+        Integer j = index.get(code(to));
+        if (i == null || j == null) return 0L;
+        return units[i * currencies.length + j];
+    }
+
+    /** Rate as a BigDecimal, or null if the pair cannot be converted. */
+    public BigDecimal getRate(String from, String to) {
+        long r = rateUnits(from, to);
+        return r > 0 ? Money.toBigDecimal(r, Money.RATE_SCALE) : null;
+    }
+
+    /**
+     * Converts an amount, rounded HALF_UP to {@link Money#DEFAULT_SCALE}.
+     * @return the converted amount (unchanged for the same currency), or null if no rate
+     */
+    public BigDecimal convert(BigDecimal amount, String from, String to) {
+        if (code(from).equals(code(to))) return amount;
+        long r = rateUnits(from, to);
+        if (r <= 0) return null;
+        return applyRate(amount, r);
+    }
+
+    /**
+     * amount × rate, rounded once HALF_UP to {@link Money#DEFAULT_SCALE}. The amount is
+     * used at full precision: rounding it to cents first could shift the result.
+     */
+    static BigDecimal applyRate(BigDecimal amount, long rateUnits) {
+        return amount.multiply(Money.toBigDecimal(rateUnits, Money.RATE_SCALE))
+                .setScale(Money.DEFAULT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /** Known currency codes, sorted. */
+    public String[] getCurrencies() {
+        return currencies.clone();
+    }
+
+    public boolean isEmpty() {
+        return direct.isEmpty();
+    }
+
+    /** Number of stored (non-derived) pairs. */
+    public int size() {
+        return direct.size();
+    }
+
+    // ==================== Build ====================
+
+    private static void merge(Map<String, ExchangeRate> latest, Collection<ExchangeRate> rates) {
+        for (ExchangeRate r : rates) {
+            if (r.getFromCurrency() == null || r.getToCurrency() == null
+                    || r.getRate() == null || r.getRate().signum() <= 0) {
+                continue;
+            }
+            String key = code(r.getFromCurrency()) + "|" + code(r.getToCurrency());
+            ExchangeRate current = latest.get(key);
+            if (current == null || !isOlder(r.getRateDate(), current.getRateDate())) {
+                latest.put(key, r);
+            }
+        }
+    }
+
+    private static boolean isOlder(LocalDate candidate, LocalDate current) {
+        return candidate != null && current != null && candidate.isBefore(current);
+    }
+
+    private static ExchangeRateMatrix compile(Map<String, ExchangeRate> latest) {
+        TreeSet<String> codes = new TreeSet<>();
+        codes.add(PIVOT);
+        for (ExchangeRate r : latest.values()) {
+            codes.add(code(r.getFromCurrency()));
+            codes.add(code(r.getToCurrency()));
+        }
+        String[] currencies = codes.toArray(new String[0]);
+        int n = currencies.length;
+        Map<String, Integer> index = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) index.put(currencies[i], i);
+
+        // Exact rates first, rounded to RATE_SCALE only at the end
+        BigDecimal[] exact = new BigDecimal[n * n];
+        for (int i = 0; i < n; i++) exact[i * n + i] = BigDecimal.ONE;
+        for (ExchangeRate r : latest.values()) {
+            int i = index.get(code(r.getFromCurrency()));
+            int j = index.get(code(r.getToCurrency()));
+            if (i != j) exact[i * n + j] = r.getRate();
+        }
+        // Inverses
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (exact[i * n + j] == null && exact[j * n + i] != null) {
+                    exact[i * n + j] = BigDecimal.ONE.divide(exact[j * n + i], MC);
+                }
+            }
+        }
+        // Triangulation through the pivot
+        int p = index.get(PIVOT);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (exact[i * n + j] == null && exact[i * n + p] != null && exact[p * n + j] != null) {
+                    exact[i * n + j] = exact[i * n + p].multiply(exact[p * n + j], MC);
+                }
+            }
+        }
+
+        long[] units = new long[n * n];
+        for (int k = 0; k < units.length; k++) {
+            units[k] = exact[k] != null ? Money.rate(exact[k]) : 0L;
+        }
+        return new ExchangeRateMatrix(currencies, Collections.unmodifiableMap(index), units,
+                Collections.unmodifiableMap(latest));
+    }
+
+    private static String code(String currency) {
+        return currency == null ? "" : currency.trim().toUpperCase();
+    }
+
+    @Override
+    public String toString() {
+        return "ExchangeRateMatrix" + Arrays.toString(currencies) + " (" + direct.size() + " stored pairs)";
+    }
+}
@@ -2,22 +2,29 @@ package com.skilora.finance.service;
 
 import com.skilora.config.DatabaseConfig;
 import com.skilora.finance.entity.ExchangeRate;
+import com.skilora.finance.utils.Money;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * ExchangeRateService
  *
  * CRUD and currency conversion for exchange_rates table.
  * Supports upsert, latest/dated rate lookup, and conversion.
+ * Conversions read an in-memory {@link ExchangeRateMatrix} (one query to load, swapped
+ * after every save) and dated conversions a per-pair sorted time series, instead of one
+ * SQL query per call.
  * No JavaFX imports allowed.
  */
 public class ExchangeRateService {
@@ -26,6 +33,11 @@ public class ExchangeRateService {
 
     private static volatile ExchangeRateService instance;
 
+    /** Latest-rate snapshot; null until first use. Replaced, never mutated. */
+    private volatile ExchangeRateMatrix matrix;
+    /** Rate history per "FROM|TO", loaded on first dated lookup. */
+    private final Map<String, RateSeries> seriesCache = new ConcurrentHashMap<>();
+
     private ExchangeRateService() {}
 
     public static ExchangeRateService getInstance() {
@@ -68,6 +80,7 @@ public class ExchangeRateService {
             stmt.setString(5, rate.getSource());
 
             stmt.executeUpdate();
+            applyToCache(List.of(rate));
 
             try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
@@ -80,6 +93,42 @@ public class ExchangeRateService {
         return -1;
     }
 
+    /**
+     * Saves many rates with one batched upsert in a single transaction, then swaps in
+     * a new rate matrix.
+     * @return number of rates written
+     */
+    public int saveAll(List<ExchangeRate> rates) throws SQLException {
+        if (rates.isEmpty()) return 0;
+        String sql = "INSERT INTO exchange_rates (from_currency, to_currency, rate, rate_date, source) " +
+                "VALUES (?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE rate = VALUES(rate), source = VALUES(source), " +
+                "last_updated = NOW()";
+
+        try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (ExchangeRate rate : rates) {
+                    stmt.setString(1, rate.getFromCurrency());
+                    stmt.setString(2, rate.getToCurrency());
+                    stmt.setBigDecimal(3, rate.getRate());
+                    stmt.setDate(4, Date.valueOf(rate.getRateDate() != null ? rate.getRateDate() : LocalDate.now()));
+                    stmt.setString(5, rate.getSource());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        applyToCache(rates);
+        return rates.size();
+    }
+
     /**
      * Gets the latest exchange rate between two currencies.
      */
@@ -132,13 +181,170 @@ public class ExchangeRateService {
             return amount;
         }
 
-        ExchangeRate rate = getRate(from, to);
-        if (rate == null || rate.getRate() == null) {
+        BigDecimal converted = getMatrix().convert(amount, from, to);
+        if (converted == null) {
             logger.warn("No exchange rate found for {} -> {}", from, to);
+        }
+        return converted;
+    }
+
+    /**
+     * Converts an amount using the rate in force on {@code date}: the latest rate dated
+     * on or before it (direct pair, else inverse of the opposite pair).
+     * @return converted amount, or null if no rate found
+     */
+    public BigDecimal convert(BigDecimal amount, String from, String to, LocalDate date) throws SQLException {
+        if (from.equalsIgnoreCase(to)) {
+            return amount;
+        }
+
+        long rate = rateUnitsOn(from, to, date);
+        if (rate <= 0) {
+            logger.warn("No exchange rate found for {} -> {} on {}", from, to, date);
             return null;
         }
+        return ExchangeRateMatrix.applyRate(amount, rate);
+    }
+
+    /**
+     * Rate in force on {@code date} from the cached time series.
+     * @return the rate, or null if none is dated on or before {@code date}
+     */
+    public BigDecimal getRateOn(String from, String to, LocalDate date) throws SQLException {
+        long rate = rateUnitsOn(from, to, date);
+        return rate > 0 ? Money.toBigDecimal(rate, Money.RATE_SCALE) : null;
+    }
+
+    // ==================== In-memory Rate Table ====================
+
+    /** Current rate snapshot, loaded with one query on first use. */
+    public ExchangeRateMatrix getMatrix() throws SQLException {
+        ExchangeRateMatrix m = matrix;
+        if (m == null) {
+            synchronized (this) {
+                m = matrix;
+                if (m == null) {
+                    m = ExchangeRateMatrix.build(findLatestRates());
+                    matrix = m;
+                }
+            }
+        }
+        return m;
+    }
+
+    /** Reloads the snapshot and the time series from the database. */
+    public void refreshMatrix() throws SQLException {
+        ExchangeRateMatrix fresh = ExchangeRateMatrix.build(findLatestRates());
+        synchronized (this) {
+            matrix = fresh;
+            seriesCache.clear();
+        }
+    }
+
+    /** Latest row of every stored pair. */
+    private List<ExchangeRate> findLatestRates() throws SQLException {
+        String sql = "SELECT er.* FROM exchange_rates er " +
+                "JOIN (SELECT from_currency, to_currency, MAX(rate_date) AS max_date " +
+                "      FROM exchange_rates GROUP BY from_currency, to_currency) latest " +
+                "ON er.from_currency = latest.from_currency AND er.to_currency = latest.to_currency " +
+                "AND er.rate_date = latest.max_date";
+        List<ExchangeRate> rates = new ArrayList<>();
+
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                rates.add(mapResultSet(rs));
+            }
+        }
+        return rates;
+    }
+
+    /** Copy-on-write update after a save; dated series of the touched pairs are dropped. */
+    private synchronized void applyToCache(Collection<ExchangeRate> saved) {
+        if (matrix != null) {
+            matrix = matrix.withRates(saved);
+        }
+        for (ExchangeRate r : saved) {
+            seriesCache.remove(pairKey(r.getFromCurrency(), r.getToCurrency()));
+        }
+    }
+
+    private long rateUnitsOn(String from, String to, LocalDate date) throws SQLException {
+        long direct = series(from, to).floor(date);
+        if (direct > 0) return direct;
+        long inverse = series(to, from).floor(date);
+        return inverse > 0 ? RateSeries.invert(inverse) : 0L;
+    }
+
+    private RateSeries series(String from, String to) throws SQLException {
+        String key = pairKey(from, to);
+        RateSeries cached = seriesCache.get(key);
+        if (cached != null) return cached;
+
+        String sql = "SELECT rate_date, rate FROM exchange_rates WHERE from_currency = ? AND to_currency = ? " +
+                "ORDER BY rate_date ASC";
+        List<ExchangeRate> rows = new ArrayList<>();
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, from);
+            stmt.setString(2, to);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ExchangeRate r = new ExchangeRate();
+                    r.setRateDate(rs.getDate("rate_date").toLocalDate());
+                    r.setRate(rs.getBigDecimal("rate"));
+                    rows.add(r);
+                }
+            }
+        }
+        RateSeries series = RateSeries.of(rows);
+        seriesCache.put(key, series);
+        return series;
+    }
+
+    private static String pairKey(String from, String to) {
+        return from.trim().toUpperCase() + "|" + to.trim().toUpperCase();
+    }
 
-        return amount.multiply(rate.getRate()).setScale(2, RoundingMode.HALF_UP);
+    /**
+     * Sorted (epoch day, rate units) history of one pair; floor lookup by binary search.
+     */
+    static final class RateSeries {
+        private final long[] days;
+        private final long[] units;
+
+        private RateSeries(long[] days, long[] units) {
+            this.days = days;
+            this.units = units;
+        }
+
+        /** @param rows rates ordered by rate_date ASC */
+        static RateSeries of(List<ExchangeRate> rows) {
+            long[] days = new long[rows.size()];
+            long[] units = new long[rows.size()];
+            int n = 0;
+            for (ExchangeRate r : rows) {
+                if (r.getRateDate() == null || r.getRate() == null || r.getRate().signum() <= 0) continue;
+                days[n] = r.getRateDate().toEpochDay();
+                units[n] = Money.rate(r.getRate());
+                n++;
+            }
+            return new RateSeries(Arrays.copyOf(days, n), Arrays.copyOf(units, n));
+        }
+
+        /** Rate of the latest entry dated on or before {@code date}, or 0. */
+        long floor(LocalDate date) {
+            int i = Arrays.binarySearch(days, date.toEpochDay());
+            if (i < 0) i = -i - 2;
+            return i >= 0 ? units[i] : 0L;
+        }
+
+        /** 1 / rate, in rate units. */
+        static long invert(long rateUnits) {
+            long one = Money.rate(BigDecimal.ONE);
+            return Money.divide(one * one, rateUnits);
+        }
     }
 
     /**
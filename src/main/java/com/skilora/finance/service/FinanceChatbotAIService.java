@@ -1,13 +1,12 @@
 package com.skilora.finance.service;
 
+import com.skilora.ai.AIGateway;
+import com.skilora.ai.AIProvider;
+import com.skilora.ai.AIRequest;
+import com.skilora.ai.AIResponse;
 import com.skilora.config.EnvConfig;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Map;
 
@@ -20,6 +19,7 @@ import com.google.gson.JsonObject;
  * and PDF report summary generation.
  *
  * API key loaded from config/application.properties: openai.api.key
+ * Calls go through the shared {@link AIGateway}.
  * Singleton with getInstance().
  */
 public class FinanceChatbotAIService {
@@ -32,14 +32,12 @@ public class FinanceChatbotAIService {
 
     private static volatile FinanceChatbotAIService instance;
 
-    private final HttpClient httpClient;
+    private final AIGateway gateway;
     private final String apiKey;
     private final boolean configured;
 
     private FinanceChatbotAIService() {
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .build();
+        this.gateway = AIGateway.getInstance();
         String key = EnvConfig.get("openai.api.key", "");
         this.apiKey = (key != null) ? key.trim() : "";
         this.configured = !apiKey.isBlank() && apiKey.startsWith("sk-");
@@ -108,17 +106,13 @@ public class FinanceChatbotAIService {
             messages.add(userMsg);
             body.add("messages", messages);
 
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(OPENAI_URL))
+            AIResponse response = gateway.send(AIRequest.builder(AIProvider.OPENAI, OPENAI_URL)
+                    .bearer(apiKey)
+                    .body(body.toString())
                     .timeout(Duration.ofSeconds(TIMEOUT_SECONDS))
-                    .header("Authorization", "Bearer " + apiKey)
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.UTF_8))
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
-            int code = response.statusCode();
-            String responseBody = response.body() != null ? response.body() : "";
+                    .build());
+            int code = response.getStatusCode();
+            String responseBody = response.getBody();
             if (code < 200 || code >= 300) {
                 System.err.println("[Chatbot AI] OpenAI HTTP " + code + ": " + safeShort(responseBody));
                 return null;
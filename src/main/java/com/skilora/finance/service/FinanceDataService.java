@@ -6,26 +6,47 @@ import com.skilora.finance.entity.BankAccountRow;
 import com.skilora.finance.entity.BonusRow;
 import com.skilora.finance.entity.PayslipRow;
 import com.skilora.finance.entity.EmployeeSummaryRow;
+import com.skilora.utils.PageQuery;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Centralised data-access service for finance Row view-models.
  * Provides CRUD operations on contracts, bank accounts, bonuses, payslips,
  * and aggregated employee summaries used by admin / employer dashboards.
  *
+ * Employee summaries are served from the {@code employee_finance_summary} read model:
+ * every write method below re-aggregates the affected employee's row, and the whole
+ * table is rebuilt with one set-based statement on first read.
+ *
  * Singleton – obtain via {@link #getInstance()}.
  */
 public class FinanceDataService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FinanceDataService.class);
+
     private static volatile FinanceDataService instance;
 
-    private FinanceDataService() { }
+    /** Whether the read model has been rebuilt since startup. */
+    private volatile boolean summariesReady;
+
+    private FinanceDataService() {
+        ensureSummaryTable();
+    }
 
     public static FinanceDataService getInstance() {
         if (instance == null) {
@@ -122,6 +143,7 @@ public class FinanceDataService {
                     ? null : java.sql.Date.valueOf(c.getEndDate()));
             stmt.setString(8, c.getStatus() != null ? c.getStatus() : "ACTIVE");
             stmt.executeUpdate();
+            refreshEmployeeSummary(conn, c.getUserId());
         }
     }
 
@@ -130,6 +152,7 @@ public class FinanceDataService {
                 + "start_date = ?, end_date = ?, status = ? WHERE id = ?";
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int previousUserId = findOwner(conn, "contracts", c.getId());
             stmt.setInt(1, c.getUserId());
             stmt.setString(2, c.getCompanyName() != null ? c.getCompanyName() : "");
             stmt.setString(3, c.getType());
@@ -141,46 +164,59 @@ public class FinanceDataService {
             stmt.setString(8, c.getStatus() != null ? c.getStatus() : "ACTIVE");
             stmt.setInt(9, c.getId());
             stmt.executeUpdate();
+            refreshEmployeeSummaries(conn, previousUserId, c.getUserId());
         }
     }
 
     public void deleteContract(int id) throws SQLException {
-        String sql = "DELETE FROM contracts WHERE id = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
-        }
+        deleteOwned("contracts", id);
     }
 
     // ==================== BANK ACCOUNTS ====================
 
-    public List<BankAccountRow> getAllBankAccounts() throws SQLException {
-        List<BankAccountRow> list = new ArrayList<>();
-        String sql = "SELECT b.id, b.user_id, b.bank_name, b.iban, b.swift, b.currency, b.is_primary, b.is_verified, "
+    private static final String BANK_ACCOUNT_SELECT =
+            "SELECT b.id, b.user_id, b.bank_name, b.iban, b.swift, b.currency, b.is_primary, b.is_verified, "
                 + "COALESCE(u.full_name, 'Inconnu') AS full_name "
                 + "FROM bank_accounts b "
-                + "LEFT JOIN users u ON b.user_id = u.id "
-                + "ORDER BY b.id ASC";
+                + "LEFT JOIN users u ON b.user_id = u.id ";
+
+    public List<BankAccountRow> getAllBankAccounts() throws SQLException {
+        List<BankAccountRow> list = new ArrayList<>();
+        String sql = BANK_ACCOUNT_SELECT + "ORDER BY b.id ASC";
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
-                list.add(new BankAccountRow(
-                        rs.getInt("id"),
-                        rs.getInt("user_id"),
-                        rs.getString("full_name"),
-                        rs.getString("bank_name"),
-                        rs.getString("iban"),
-                        rs.getString("swift"),
-                        rs.getString("currency"),
-                        rs.getBoolean("is_primary"),
-                        rs.getBoolean("is_verified")));
+                list.add(buildBankAccountRow(rs));
             }
         }
         return list;
     }
 
+    /** Single row for delta refresh of the admin table; null if deleted. */
+    public BankAccountRow getBankAccountById(int id) throws SQLException {
+        String sql = BANK_ACCOUNT_SELECT + "WHERE b.id = ?";
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, id);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? buildBankAccountRow(rs) : null;
+        }
+    }
+
+    private BankAccountRow buildBankAccountRow(ResultSet rs) throws SQLException {
+        return new BankAccountRow(
+                rs.getInt("id"),
+                rs.getInt("user_id"),
+                rs.getString("full_name"),
+                rs.getString("bank_name"),
+                rs.getString("iban"),
+                rs.getString("swift"),
+                rs.getString("currency"),
+                rs.getBoolean("is_primary"),
+                rs.getBoolean("is_verified"));
+    }
+
     public List<BankAccountRow> getBankAccountsByUserId(int userId) throws SQLException {
         List<BankAccountRow> list = new ArrayList<>();
         String sql = "SELECT b.*, u.full_name FROM bank_accounts b "
@@ -205,7 +241,8 @@ public class FinanceDataService {
         return list;
     }
 
-    public void addBankAccount(BankAccountRow b) throws SQLException {
+    /** @return the new account id */
+    public int addBankAccount(BankAccountRow b) throws SQLException {
         String accountHolder = b.getAccountHolder();
         if (accountHolder == null || accountHolder.isBlank()) {
             accountHolder = getUserFullName(b.getUserId());
@@ -214,7 +251,7 @@ public class FinanceDataService {
         String sql = "INSERT INTO bank_accounts (user_id, bank_name, account_holder, iban, swift_bic, currency, is_primary, is_verified) "
                 + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
         try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setInt(1, b.getUserId());
             stmt.setString(2, b.getBankName());
             stmt.setString(3, accountHolder);
@@ -224,6 +261,9 @@ public class FinanceDataService {
             stmt.setBoolean(7, b.getIsPrimary());
             stmt.setBoolean(8, b.getIsVerified());
             stmt.executeUpdate();
+            int id = generatedId(stmt);
+            refreshEmployeeSummary(conn, b.getUserId());
+            return id;
         }
     }
 
@@ -232,6 +272,7 @@ public class FinanceDataService {
                 + "currency = ?, is_primary = ?, is_verified = ? WHERE id = ?";
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int previousUserId = findOwner(conn, "bank_accounts", b.getId());
             stmt.setInt(1, b.getUserId());
             stmt.setString(2, b.getBankName());
             stmt.setString(3, b.getIban());
@@ -241,45 +282,58 @@ public class FinanceDataService {
             stmt.setBoolean(7, b.getIsVerified());
             stmt.setInt(8, b.getId());
             stmt.executeUpdate();
+            refreshEmployeeSummaries(conn, previousUserId, b.getUserId());
         }
     }
 
     public void deleteBankAccount(int id) throws SQLException {
-        String sql = "DELETE FROM bank_accounts WHERE id = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
-        }
+        deleteOwned("bank_accounts", id);
     }
 
     // ==================== BONUSES ====================
 
-    public List<BonusRow> getAllBonuses() throws SQLException {
-        List<BonusRow> list = new ArrayList<>();
-        String sql = "SELECT b.id, b.user_id, b.amount, b.reason, b.date_awarded, "
+    private static final String BONUS_SELECT =
+            "SELECT b.id, b.user_id, b.amount, b.reason, b.date_awarded, "
                 + "COALESCE(u.full_name, 'Inconnu') AS full_name "
                 + "FROM bonuses b "
-                + "LEFT JOIN users u ON b.user_id = u.id "
-                + "ORDER BY b.date_awarded DESC";
+                + "LEFT JOIN users u ON b.user_id = u.id ";
+
+    public List<BonusRow> getAllBonuses() throws SQLException {
+        List<BonusRow> list = new ArrayList<>();
+        String sql = BONUS_SELECT + "ORDER BY b.date_awarded DESC";
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
-                java.sql.Date awarded = rs.getDate("date_awarded");
-                String dateStr = (awarded != null) ? awarded.toString() : "";
-                list.add(new BonusRow(
-                        rs.getInt("id"),
-                        rs.getInt("user_id"),
-                        rs.getString("full_name"),
-                        rs.getDouble("amount"),
-                        rs.getString("reason"),
-                        dateStr));
+                list.add(buildBonusRow(rs));
             }
         }
         return list;
     }
 
+    /** Single row for delta refresh of the admin table; null if deleted. */
+    public BonusRow getBonusById(int id) throws SQLException {
+        String sql = BONUS_SELECT + "WHERE b.id = ?";
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, id);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? buildBonusRow(rs) : null;
+        }
+    }
+
+    private BonusRow buildBonusRow(ResultSet rs) throws SQLException {
+        java.sql.Date awarded = rs.getDate("date_awarded");
+        String dateStr = (awarded != null) ? awarded.toString() : "";
+        return new BonusRow(
+                rs.getInt("id"),
+                rs.getInt("user_id"),
+                rs.getString("full_name"),
+                rs.getDouble("amount"),
+                rs.getString("reason"),
+                dateStr);
+    }
+
     public List<BonusRow> getBonusesByUserId(int userId) throws SQLException {
         List<BonusRow> list = new ArrayList<>();
         String sql = "SELECT b.*, u.full_name FROM bonuses b "
@@ -301,15 +355,19 @@ public class FinanceDataService {
         return list;
     }
 
-    public void addBonus(BonusRow b) throws SQLException {
+    /** @return the new bonus id */
+    public int addBonus(BonusRow b) throws SQLException {
         String sql = "INSERT INTO bonuses (user_id, amount, reason, date_awarded) VALUES (?, ?, ?, ?)";
         try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setInt(1, b.getUserId());
             stmt.setDouble(2, b.getAmount());
             stmt.setString(3, b.getReason());
             stmt.setDate(4, java.sql.Date.valueOf(b.getDateAwarded()));
             stmt.executeUpdate();
+            int id = generatedId(stmt);
+            refreshEmployeeSummary(conn, b.getUserId());
+            return id;
         }
     }
 
@@ -317,57 +375,90 @@ public class FinanceDataService {
         String sql = "UPDATE bonuses SET user_id = ?, amount = ?, reason = ?, date_awarded = ? WHERE id = ?";
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int previousUserId = findOwner(conn, "bonuses", b.getId());
             stmt.setInt(1, b.getUserId());
             stmt.setDouble(2, b.getAmount());
             stmt.setString(3, b.getReason());
             stmt.setDate(4, java.sql.Date.valueOf(b.getDateAwarded()));
             stmt.setInt(5, b.getId());
             stmt.executeUpdate();
+            refreshEmployeeSummaries(conn, previousUserId, b.getUserId());
         }
     }
 
     public void deleteBonus(int id) throws SQLException {
-        String sql = "DELETE FROM bonuses WHERE id = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
-        }
+        deleteOwned("bonuses", id);
     }
 
     // ==================== PAYSLIPS ====================
 
-    public List<PayslipRow> getAllPayslips() throws SQLException {
-        List<PayslipRow> list = new ArrayList<>();
-        String sql = "SELECT p.id, p.user_id, p.month, p.year, p.base_salary, p.overtime_hours, "
+    private static final String PAYSLIP_SELECT =
+            "SELECT p.id, p.user_id, COALESCE(p.period_month, p.month) AS month, "
+                + "COALESCE(p.period_year, p.year) AS year, p.base_salary, p.overtime_hours, "
                 + "p.overtime_total, p.bonuses, p.other_deductions, p.currency, p.status, "
                 + "COALESCE(u.full_name, 'Inconnu') AS full_name "
                 + "FROM payslips p "
-                + "LEFT JOIN users u ON p.user_id = u.id "
-                + "ORDER BY p.year DESC, p.month DESC";
+                + "LEFT JOIN users u ON p.user_id = u.id ";
+
+    public List<PayslipRow> getAllPayslips() throws SQLException {
+        List<PayslipRow> list = new ArrayList<>();
+        String sql = PAYSLIP_SELECT + "ORDER BY p.year DESC, p.month DESC";
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
-                PayslipRow p = new PayslipRow(
-                        rs.getInt("id"),
-                        rs.getInt("user_id"),
-                        rs.getString("full_name"),
-                        rs.getInt("month"),
-                        rs.getInt("year"),
-                        rs.getDouble("base_salary"),
-                        rs.getDouble("overtime_hours"),
-                        rs.getDouble("overtime_total"),
-                        rs.getDouble("bonuses"),
-                        rs.getString("currency"),
-                        rs.getString("status"));
-                p.setOtherDeductions(rs.getDouble("other_deductions"));
-                list.add(p);
+                list.add(buildPayslipRow(rs));
             }
         }
         return list;
     }
 
+    /** All payslips of one payroll period, by employee name (bulk PDF export). */
+    public List<PayslipRow> getPayslipsForPeriod(int month, int year) throws SQLException {
+        List<PayslipRow> list = new ArrayList<>();
+        // period_* first: PayslipService and payroll runs leave the legacy month/year NULL
+        String sql = PAYSLIP_SELECT + "WHERE COALESCE(p.period_month, p.month) = ? "
+                + "AND COALESCE(p.period_year, p.year) = ? ORDER BY full_name, p.id";
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, month);
+            stmt.setInt(2, year);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                list.add(buildPayslipRow(rs));
+            }
+        }
+        return list;
+    }
+
+    /** Single row for delta refresh of the admin table; null if deleted. */
+    public PayslipRow getPayslipById(int id) throws SQLException {
+        String sql = PAYSLIP_SELECT + "WHERE p.id = ?";
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, id);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? buildPayslipRow(rs) : null;
+        }
+    }
+
+    private PayslipRow buildPayslipRow(ResultSet rs) throws SQLException {
+        PayslipRow p = new PayslipRow(
+                rs.getInt("id"),
+                rs.getInt("user_id"),
+                rs.getString("full_name"),
+                rs.getInt("month"),
+                rs.getInt("year"),
+                rs.getDouble("base_salary"),
+                rs.getDouble("overtime_hours"),
+                rs.getDouble("overtime_total"),
+                rs.getDouble("bonuses"),
+                rs.getString("currency"),
+                rs.getString("status"));
+        p.setOtherDeductions(rs.getDouble("other_deductions"));
+        return p;
+    }
+
     public List<PayslipRow> getPayslipsByUserId(int userId) throws SQLException {
         List<PayslipRow> list = new ArrayList<>();
         String sql = "SELECT p.*, u.full_name FROM payslips p "
@@ -396,7 +487,8 @@ public class FinanceDataService {
         return list;
     }
 
-    public void addPayslip(PayslipRow p) throws SQLException {
+    /** @return the new payslip id */
+    public int addPayslip(PayslipRow p) throws SQLException {
         int contractId = p.getContractId();
         if (contractId <= 0) {
             contractId = getFirstEmploymentContractIdForUser(p.getUserId());
@@ -414,7 +506,7 @@ public class FinanceDataService {
                 + "bonuses, currency, payment_status) "
                 + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 'PENDING')";
         try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setInt(1, contractId);
             stmt.setInt(2, p.getUserId());
             stmt.setInt(3, p.getMonth());
@@ -428,6 +520,9 @@ public class FinanceDataService {
             stmt.setDouble(11, p.getBonuses());
             stmt.setString(12, p.getCurrency());
             stmt.executeUpdate();
+            int id = generatedId(stmt);
+            refreshEmployeeSummary(conn, p.getUserId());
+            return id;
         }
     }
 
@@ -488,6 +583,7 @@ public class FinanceDataService {
                 + "status = ? WHERE id = ?";
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int previousUserId = findOwner(conn, "payslips", p.getId());
             stmt.setInt(1, p.getUserId());
             stmt.setInt(2, p.getMonth());
             stmt.setInt(3, p.getYear());
@@ -499,16 +595,173 @@ public class FinanceDataService {
             stmt.setString(9, p.getStatus());
             stmt.setInt(10, p.getId());
             stmt.executeUpdate();
+            refreshEmployeeSummaries(conn, previousUserId, p.getUserId());
         }
     }
 
     public void deletePayslip(int id) throws SQLException {
-        String sql = "DELETE FROM payslips WHERE id = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
+        deleteOwned("payslips", id);
+    }
+
+    // ==================== PAGED TABLES ====================
+    //
+    // Keyset pagination for the admin tables: each page is "WHERE <sort> after <cursor>
+    // ORDER BY <sort>, id LIMIT n", so page 5000 costs the same as page 1 and only the
+    // visible window is ever materialised. Sort keys map to whitelisted SQL expressions;
+    // nothing from the UI is concatenated into the statement.
+    //
+    // Every sort expression must be non-null: a NULL in the cursor turns the keyset
+    // predicate UNKNOWN and silently ends the listing. Nullable columns are wrapped in
+    // COALESCE with a sentinel. Payslips written by PayslipService/PayrollRunService only
+    // fill period_* and gross_salary, so those take precedence over the legacy columns.
+
+    /** Sort keys of the payslip table; first entry is the default (newest period first). */
+    private static final Map<String, String[]> PAYSLIP_SORTS = sortKeys(
+            "period", new String[]{"COALESCE(p.period_year, p.year, 0)", "COALESCE(p.period_month, p.month, 0)"},
+            "employee", new String[]{"COALESCE(u.full_name, 'Inconnu')"},
+            "base", new String[]{"COALESCE(p.gross_salary, 0) - COALESCE(p.overtime_total, 0) - COALESCE(p.bonuses, 0)"},
+            "overtime", new String[]{"COALESCE(p.overtime_total, 0)"},
+            "bonus", new String[]{"COALESCE(p.bonuses, 0)"},
+            "gross", new String[]{"COALESCE(p.gross_salary, 0)"},
+            "status", new String[]{"COALESCE(p.status, '')"});
+
+    private static final Map<String, String[]> BONUS_SORTS = sortKeys(
+            "date", new String[]{"COALESCE(b.date_awarded, DATE '1000-01-01')"},
+            "employee", new String[]{"COALESCE(u.full_name, 'Inconnu')"},
+            "amount", new String[]{"b.amount"},
+            "reason", new String[]{"COALESCE(b.reason, '')"});
+
+    private static final Map<String, String[]> BANK_ACCOUNT_SORTS = sortKeys(
+            "id", new String[0],
+            "employee", new String[]{"COALESCE(u.full_name, 'Inconnu')"},
+            "bank", new String[]{"COALESCE(b.bank_name, '')"},
+            "iban", new String[]{"COALESCE(b.iban, '')"},
+            "swift", new String[]{"COALESCE(b.swift, '')"},
+            "currency", new String[]{"COALESCE(b.currency, '')"},
+            "primary", new String[]{"COALESCE(b.is_primary, 0)"},
+            "verified", new String[]{"COALESCE(b.is_verified, 0)"});
+
+    /** Payslips, newest period first by default. */
+    public PageQuery.Page<PayslipRow> getPayslipPage(PageQuery query) throws SQLException {
+        return fetchPage(PAYSLIP_SELECT, "p.id", PAYSLIP_SORTS, false, query, this::buildPayslipRow);
+    }
+
+    /** Bonuses, most recent award first by default. */
+    public PageQuery.Page<BonusRow> getBonusPage(PageQuery query) throws SQLException {
+        return fetchPage(BONUS_SELECT, "b.id", BONUS_SORTS, false, query, this::buildBonusRow);
+    }
+
+    /** Bank accounts in creation order by default. */
+    public PageQuery.Page<BankAccountRow> getBankAccountPage(PageQuery query) throws SQLException {
+        return fetchPage(BANK_ACCOUNT_SELECT, "b.id", BANK_ACCOUNT_SORTS, true, query, this::buildBankAccountRow);
+    }
+
+    @FunctionalInterface
+    private interface RowBuilder<T> {
+        T build(ResultSet rs) throws SQLException;
+    }
+
+    private <T> PageQuery.Page<T> fetchPage(String select, String idColumn, Map<String, String[]> sorts,
+                                            boolean defaultAscending, PageQuery query,
+                                            RowBuilder<T> builder) throws SQLException {
+        String[] sortColumns = sorts.get(query.getSortKey());
+        boolean ascending = query.isAscending();
+        if (sortColumns == null) {
+            sortColumns = sorts.values().iterator().next();
+            ascending = defaultAscending;
+        }
+        // Keyset columns: the sort expressions, then the id as a unique tie-breaker
+        String[] keys = Arrays.copyOf(sortColumns, sortColumns.length + 1);
+        keys[sortColumns.length] = idColumn;
+        String dir = ascending ? " ASC" : " DESC";
+
+        int from = select.indexOf("FROM ");
+        StringBuilder sql = new StringBuilder(select.substring(0, from))
+                .append(keyAliases(keys)).append(' ').append(select.substring(from));
+        List<Object> params = new ArrayList<>();
+        String nameFilter = query.getFilter() != null ? "COALESCE(u.full_name, '') LIKE ?" : null;
+        List<String> where = new ArrayList<>();
+        if (nameFilter != null) {
+            where.add(nameFilter);
+            params.add("%" + query.getFilter() + "%");
+        }
+        if (!query.isFirstPage()) {
+            where.add(keysetPredicate(keys, ascending ? ">" : "<"));
+            Object[] after = query.getAfter();
+            for (int i = 0; i < keys.length; i++) {
+                for (int j = 0; j <= i; j++) params.add(after[j]);
+            }
+        }
+        if (!where.isEmpty()) sql.append("WHERE ").append(String.join(" AND ", where)).append(' ');
+        sql.append("ORDER BY ");
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) sql.append(", ");
+            sql.append(keys[i]).append(dir);
+        }
+        sql.append(" LIMIT ?");
+        params.add(query.getPageSize() + 1);
+
+        List<T> rows = new ArrayList<>();
+        Object[] last = null;
+        boolean more = false;
+        int total = -1;
+        try (Connection conn = getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                for (int i = 0; i < params.size(); i++) stmt.setObject(i + 1, params.get(i));
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    if (rows.size() == query.getPageSize()) {
+                        more = true;
+                        break;
+                    }
+                    rows.add(builder.build(rs));
+                    last = new Object[keys.length];
+                    for (int i = 0; i < keys.length; i++) last[i] = rs.getObject("k" + i);
+                }
+            }
+            if (query.isFirstPage()) {
+                total = more ? countRows(conn, select, nameFilter, query.getFilter()) : rows.size();
+            }
+        }
+        return new PageQuery.Page<>(rows, more ? query.after(last) : null, total);
+    }
+
+    private int countRows(Connection conn, String select, String nameFilter, String filter) throws SQLException {
+        String from = select.substring(select.indexOf("FROM"));
+        String sql = "SELECT COUNT(*) " + from + (nameFilter != null ? "WHERE " + nameFilter : "");
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            if (nameFilter != null) stmt.setString(1, "%" + filter + "%");
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static String keyAliases(String[] keys) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            sb.append(", ").append(keys[i]).append(" AS k").append(i);
+        }
+        return sb.toString();
+    }
+
+    /** (a op ?) OR (a = ? AND b op ?) OR ... — index-friendly form of (a, b, ...) op (?, ?, ...). */
+    static String keysetPredicate(String[] keys, String op) {
+        StringBuilder sb = new StringBuilder("(");
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) sb.append(" OR ");
+            sb.append('(');
+            for (int j = 0; j < i; j++) sb.append(keys[j]).append(" = ? AND ");
+            sb.append(keys[i]).append(' ').append(op).append(" ?)");
         }
+        return sb.append(')').toString();
+    }
+
+    private static Map<String, String[]> sortKeys(Object... keyAndColumns) {
+        Map<String, String[]> map = new LinkedHashMap<>();
+        for (int i = 0; i < keyAndColumns.length; i += 2) {
+            map.put((String) keyAndColumns[i], (String[]) keyAndColumns[i + 1]);
+        }
+        return Collections.unmodifiableMap(map);
     }
 
     // ==================== USER HELPERS ====================
@@ -537,34 +790,18 @@ public class FinanceDataService {
 
     /**
      * Aggregated summary per employee for the admin dashboard.
+     * One scan of users joined to the employee_finance_summary read model by primary key.
      */
     public List<EmployeeSummaryRow> getEmployeeSummaries() throws SQLException {
+        if (!summariesReady) {
+            rebuildEmployeeSummaries();
+        }
         List<EmployeeSummaryRow> list = new ArrayList<>();
 
-        String sql = "SELECT "
-                + "    u.id, "
-                + "    u.full_name, "
-                + "    COALESCE("
-                + "       (SELECT position FROM contracts WHERE user_id = u.id AND (status = 'ACTIVE' OR status = 'ACTIF') ORDER BY id DESC LIMIT 1), "
-                + "       (SELECT position FROM contracts WHERE user_id = u.id ORDER BY id DESC LIMIT 1)"
-                + "    ) AS position, "
-                + "    COALESCE("
-                + "       (SELECT salary FROM contracts WHERE user_id = u.id AND (status = 'ACTIVE' OR status = 'ACTIF') ORDER BY id DESC LIMIT 1), "
-                + "       (SELECT salary FROM contracts WHERE user_id = u.id ORDER BY id DESC LIMIT 1), "
-                + "       0"
-                + "    ) AS active_salary, "
-                + "    COALESCE((SELECT SUM(amount) FROM bonuses WHERE user_id = u.id), 0) AS total_bonuses, "
-                + "    COALESCE("
-                + "       (SELECT (base_salary + overtime_total + bonuses - other_deductions) "
-                + "          FROM payslips WHERE user_id = u.id ORDER BY year DESC, month DESC LIMIT 1), "
-                + "       0"
-                + "    ) AS last_net_pay, "
-                + "    COALESCE("
-                + "       (SELECT CASE WHEN is_verified THEN 'Vérifié' ELSE 'En attente' END "
-                + "          FROM bank_accounts WHERE user_id = u.id ORDER BY is_primary DESC, id ASC LIMIT 1), "
-                + "       'Non configuré'"
-                + "    ) AS bank_status "
+        String sql = "SELECT u.id, u.full_name, s.position, s.current_salary, s.total_bonuses, "
+                + "s.last_net_pay, s.bank_status "
                 + "FROM users u "
+                + "LEFT JOIN employee_finance_summary s ON s.user_id = u.id "
                 + "WHERE u.role != 'ADMIN' "
                 + "ORDER BY u.full_name ASC";
 
@@ -573,16 +810,138 @@ public class FinanceDataService {
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
                 String pos = rs.getString("position");
+                String bankStatus = rs.getString("bank_status");
                 list.add(new EmployeeSummaryRow(
                         rs.getInt("id"),
                         rs.getString("full_name"),
                         pos != null ? pos : "Aucun contrat",
-                        rs.getDouble("active_salary"),
+                        rs.getDouble("current_salary"),
                         rs.getDouble("total_bonuses"),
                         rs.getDouble("last_net_pay"),
-                        rs.getString("bank_status")));
+                        bankStatus != null ? bankStatus : "Non configuré"));
             }
         }
         return list;
     }
+
+    /**
+     * Recomputes the whole read model in one set-based statement.
+     * Call after bulk writes made outside this service (e.g. a payroll run).
+     */
+    public void rebuildEmployeeSummaries() throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(summaryUpsertSql(false))) {
+            stmt.executeUpdate();
+        }
+        summariesReady = true;
+    }
+
+    /** Recomputes the read-model rows of the given employees. */
+    public void refreshEmployeeSummaries(Collection<Integer> userIds) throws SQLException {
+        if (userIds.isEmpty()) return;
+        try (Connection conn = getConnection()) {
+            for (int userId : userIds) {
+                refreshEmployeeSummary(conn, userId);
+            }
+        }
+    }
+
+    private void refreshEmployeeSummaries(Connection conn, int previousUserId, int userId) throws SQLException {
+        if (previousUserId > 0 && previousUserId != userId) {
+            refreshEmployeeSummary(conn, previousUserId);
+        }
+        refreshEmployeeSummary(conn, userId);
+    }
+
+    private void refreshEmployeeSummary(Connection conn, int userId) throws SQLException {
+        if (userId <= 0) return;
+        try (PreparedStatement stmt = conn.prepareStatement(summaryUpsertSql(true))) {
+            for (int i = 1; i <= 5; i++) {
+                stmt.setInt(i, userId);
+            }
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Aggregates contracts, bonuses, payslips and bank accounts per user with one pass
+     * over each table (no correlated subqueries) and upserts the read model.
+     * Latest contract prefers ACTIVE/ACTIF; latest payslip by year/month; bank status from
+     * the primary (else oldest) account.
+     *
+     * @param singleUser restrict every derived table to one user_id (5 parameters)
+     */
+    private static String summaryUpsertSql(boolean singleUser) {
+        String byUser = singleUser ? " WHERE user_id = ?" : "";
+        return "INSERT INTO employee_finance_summary "
+                + "(user_id, position, current_salary, total_bonuses, last_net_pay, bank_status) "
+                + "SELECT u.id, c.position, COALESCE(c.salary, 0), COALESCE(b.total, 0), COALESCE(p.net, 0), "
+                + "       COALESCE(ba.status, 'Non configuré') "
+                + "FROM users u "
+                + "LEFT JOIN (SELECT user_id, position, salary, ROW_NUMBER() OVER (PARTITION BY user_id "
+                + "           ORDER BY (status = 'ACTIVE' OR status = 'ACTIF') DESC, id DESC) AS rn "
+                + "           FROM contracts" + byUser + ") c ON c.user_id = u.id AND c.rn = 1 "
+                + "LEFT JOIN (SELECT user_id, SUM(amount) AS total "
+                + "           FROM bonuses" + byUser + " GROUP BY user_id) b ON b.user_id = u.id "
+                + "LEFT JOIN (SELECT user_id, (base_salary + overtime_total + bonuses - other_deductions) AS net, "
+                + "           ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY year DESC, month DESC) AS rn "
+                + "           FROM payslips" + byUser + ") p ON p.user_id = u.id AND p.rn = 1 "
+                + "LEFT JOIN (SELECT user_id, CASE WHEN is_verified THEN 'Vérifié' ELSE 'En attente' END AS status, "
+                + "           ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY is_primary DESC, id ASC) AS rn "
+                + "           FROM bank_accounts" + byUser + ") ba ON ba.user_id = u.id AND ba.rn = 1 "
+                + "WHERE u.role != 'ADMIN'" + (singleUser ? " AND u.id = ?" : "") + " "
+                + "ON DUPLICATE KEY UPDATE employee_finance_summary.position = VALUES(position), "
+                + "employee_finance_summary.current_salary = VALUES(current_salary), "
+                + "employee_finance_summary.total_bonuses = VALUES(total_bonuses), "
+                + "employee_finance_summary.last_net_pay = VALUES(last_net_pay), "
+                + "employee_finance_summary.bank_status = VALUES(bank_status)";
+    }
+
+    private void ensureSummaryTable() {
+        String sql = """
+            CREATE TABLE IF NOT EXISTS employee_finance_summary (
+                user_id INT PRIMARY KEY,
+                position VARCHAR(255),
+                current_salary DECIMAL(12,2) NOT NULL DEFAULT 0.00,
+                total_bonuses DECIMAL(12,2) NOT NULL DEFAULT 0.00,
+                last_net_pay DECIMAL(12,2) NOT NULL DEFAULT 0.00,
+                bank_status VARCHAR(30) NOT NULL DEFAULT 'Non configuré',
+                updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+            )
+            """;
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            logger.error("Failed to ensure employee_finance_summary table", e);
+        }
+    }
+
+    // ==================== WRITE HELPERS ====================
+
+    /** user_id of a row in one of the finance tables, or 0 if it does not exist. */
+    private int findOwner(Connection conn, String table, int id) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT user_id FROM " + table + " WHERE id = ?")) {
+            stmt.setInt(1, id);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /** Deletes a row by id and refreshes its owner's summary. */
+    private void deleteOwned(String table, int id) throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM " + table + " WHERE id = ?")) {
+            int userId = findOwner(conn, table, id);
+            stmt.setInt(1, id);
+            stmt.executeUpdate();
+            refreshEmployeeSummary(conn, userId);
+        }
+    }
+
+    private int generatedId(PreparedStatement stmt) throws SQLException {
+        try (ResultSet keys = stmt.getGeneratedKeys()) {
+            return keys.next() ? keys.getInt(1) : 0;
+        }
+    }
 }
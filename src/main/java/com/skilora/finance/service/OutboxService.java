@@ -0,0 +1,362 @@
+package com.skilora.finance.service;
+
+import com.skilora.config.DatabaseConfig;
+
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * OutboxService
+ *
+ * Transactional outbox for external side effects (Stripe calls, WhatsApp messages).
+ * A side effect is recorded as a {@code finance_outbox} row with {@link #enqueue} on the
+ * caller's connection, so it commits or rolls back with the business write that caused it.
+ * A background dispatcher then delivers due rows through the handler registered for their
+ * event type:
+ * <ul>
+ *   <li>at most {@value #MAX_CONCURRENCY} deliveries in flight;</li>
+ *   <li>rows are claimed with a conditional UPDATE and a lease, so several app instances can
+ *       share the table and a crashed delivery is retried once its lease expires;</li>
+ *   <li>failures are retried with exponential backoff and jitter, up to
+ *       {@value #MAX_ATTEMPTS} attempts, then parked as DEAD;</li>
+ *   <li>each row carries an idempotency key that handlers forward to the remote API, so a
+ *       retried delivery is not applied twice.</li>
+ * </ul>
+ * Delivery is at-least-once. In-process callers can wait on {@link #awaitDelivery}.
+ * No JavaFX imports allowed.
+ */
+public class OutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_PROCESSING = "PROCESSING";
+    public static final String STATUS_DONE = "DONE";
+    public static final String STATUS_DEAD = "DEAD";
+
+    static final int MAX_CONCURRENCY = 4;
+    static final int MAX_ATTEMPTS = 8;
+    static final long BASE_BACKOFF_MS = 2_000;
+    static final long MAX_BACKOFF_MS = 5 * 60_000;
+    static final long LEASE_MS = 2 * 60_000;
+    private static final long POLL_INTERVAL_MS = 2_000;
+
+    /** Delivers one event. Throw to retry; throw {@link PermanentFailureException} to give up. */
+    @FunctionalInterface
+    public interface Handler {
+        void handle(JSONObject payload, String idempotencyKey) throws Exception;
+    }
+
+    /** A failure that retrying cannot fix (e.g. a declined card); the event goes straight to DEAD. */
+    public static class PermanentFailureException extends Exception {
+        public PermanentFailureException(String message) {
+            super(message);
+        }
+    }
+
+    private static volatile OutboxService instance;
+
+    private final Map<String, Handler> handlers = new ConcurrentHashMap<>();
+    private final Map<Long, CompletableFuture<Void>> waiters = new ConcurrentHashMap<>();
+    private final Semaphore permits = new Semaphore(MAX_CONCURRENCY);
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService poller;
+    private ScheduledFuture<?> pollTask;
+
+    private OutboxService() {
+        AtomicInteger seq = new AtomicInteger();
+        workers = new ThreadPoolExecutor(MAX_CONCURRENCY, MAX_CONCURRENCY, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> daemon(r, "outbox-worker-" + seq.incrementAndGet()));
+        workers.allowCoreThreadTimeOut(true);
+        poller = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "outbox-poller"));
+        ensureTable();
+        PaymentEventHandlers.registerAll(this);
+    }
+
+    public static OutboxService getInstance() {
+        if (instance == null) {
+            synchronized (OutboxService.class) {
+                if (instance == null) {
+                    instance = new OutboxService();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    // ==================== Producer side ====================
+
+    public void registerHandler(String eventType, Handler handler) {
+        handlers.put(eventType, handler);
+    }
+
+    /**
+     * Records an event on {@code conn}; it is only visible to the dispatcher once the
+     * caller's transaction commits. A second event with the same idempotency key is ignored.
+     *
+     * @return the outbox id, or the id of the existing event with that key
+     */
+    public long enqueue(Connection conn, String eventType, String idempotencyKey, JSONObject payload)
+            throws SQLException {
+        String sql = "INSERT INTO finance_outbox (event_type, idempotency_key, payload, status, next_attempt_at) "
+                + "VALUES (?, ?, ?, 'PENDING', ?) ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(id)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, eventType);
+            stmt.setString(2, idempotencyKey);
+            stmt.setString(3, payload.toString());
+            stmt.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+            stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) return keys.getLong(1);
+            }
+        }
+        throw new SQLException("No id returned for outbox event " + idempotencyKey);
+    }
+
+    /**
+     * Completes when the event is delivered, exceptionally when it is given up on.
+     * Only tracks deliveries made by this process. A waiter the caller times out or
+     * cancels is released, so abandoned waits do not accumulate.
+     */
+    public CompletableFuture<Void> awaitDelivery(long outboxId) {
+        CompletableFuture<Void> waiter = waiters.compute(outboxId,
+                (id, existing) -> existing != null && !existing.isDone() ? existing : newWaiter(id));
+        // The event may have been delivered before the caller started waiting
+        try {
+            String status = getStatus(outboxId);
+            if (STATUS_DONE.equals(status)) {
+                complete(outboxId, null);
+            } else if (STATUS_DEAD.equals(status)) {
+                complete(outboxId, new PermanentFailureException("Outbox event " + outboxId + " was given up on"));
+            }
+        } catch (SQLException e) {
+            logger.debug("Could not read status of outbox event {}: {}", outboxId, e.getMessage());
+        }
+        return waiter;
+    }
+
+    private CompletableFuture<Void> newWaiter(long outboxId) {
+        CompletableFuture<Void> waiter = new CompletableFuture<>();
+        waiter.whenComplete((ignored, error) -> waiters.remove(outboxId, waiter));
+        return waiter;
+    }
+
+    /** Asks the dispatcher to poll now instead of at its next tick, e.g. right after a commit. */
+    public void wakeUp() {
+        poller.execute(this::dispatchDue);
+    }
+
+    // ==================== Dispatcher ====================
+
+    /** Starts polling; idempotent. */
+    public synchronized void start() {
+        if (pollTask == null || pollTask.isDone()) {
+            pollTask = poller.scheduleWithFixedDelay(this::dispatchDue, 0, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            logger.info("Outbox dispatcher started ({} workers)", MAX_CONCURRENCY);
+        }
+    }
+
+    public synchronized void stop() {
+        if (pollTask != null) {
+            pollTask.cancel(false);
+            pollTask = null;
+        }
+    }
+
+    /**
+     * One dispatcher pass: re-queues expired leases, claims as many due events as there
+     * are free workers and hands them to the pool.
+     * @return the number of events claimed
+     */
+    public int dispatchDue() {
+        int free = permits.availablePermits();
+        if (free == 0) return 0;
+        List<long[]> claimed = new ArrayList<>();
+        List<String[]> events = new ArrayList<>();
+        try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "UPDATE finance_outbox SET status = 'PENDING' WHERE status = 'PROCESSING' AND next_attempt_at <= ?")) {
+                stmt.setTimestamp(1, now);
+                int expired = stmt.executeUpdate();
+                if (expired > 0) logger.warn("Re-queued {} outbox events with expired leases", expired);
+            }
+
+            List<Long> due = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT id FROM finance_outbox WHERE status = 'PENDING' AND next_attempt_at <= ? ORDER BY id LIMIT ?")) {
+                stmt.setTimestamp(1, now);
+                stmt.setInt(2, free);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) due.add(rs.getLong(1));
+            }
+
+            Timestamp lease = new Timestamp(now.getTime() + LEASE_MS);
+            try (PreparedStatement claim = conn.prepareStatement(
+                    "UPDATE finance_outbox SET status = 'PROCESSING', attempts = attempts + 1, next_attempt_at = ? "
+                            + "WHERE id = ? AND status = 'PENDING'");
+                 PreparedStatement load = conn.prepareStatement(
+                         "SELECT event_type, idempotency_key, payload, attempts FROM finance_outbox WHERE id = ?")) {
+                for (long id : due) {
+                    claim.setTimestamp(1, lease);
+                    claim.setLong(2, id);
+                    // Another instance may have claimed it between the SELECT and here
+                    if (claim.executeUpdate() != 1) continue;
+                    load.setLong(1, id);
+                    ResultSet rs = load.executeQuery();
+                    if (rs.next()) {
+                        claimed.add(new long[]{id, rs.getInt("attempts")});
+                        events.add(new String[]{rs.getString("event_type"), rs.getString("idempotency_key"),
+                                rs.getString("payload")});
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Outbox poll failed: {}", e.getMessage());
+            return 0;
+        }
+
+        for (int i = 0; i < claimed.size(); i++) {
+            long id = claimed.get(i)[0];
+            int attempt = (int) claimed.get(i)[1];
+            String[] event = events.get(i);
+            permits.acquireUninterruptibly();
+            workers.execute(() -> {
+                try {
+                    deliver(id, attempt, event[0], event[1], event[2]);
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+        return claimed.size();
+    }
+
+    private void deliver(long id, int attempt, String type, String key, String payload) {
+        Handler handler = handlers.get(type);
+        try {
+            if (handler == null) throw new PermanentFailureException("No handler for event type " + type);
+            handler.handle(new JSONObject(payload), key);
+            finish(id, STATUS_DONE, null, 0);
+            logger.debug("Delivered outbox event {} ({}) on attempt {}", id, type, attempt);
+            complete(id, null);
+        } catch (Exception e) {
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            boolean permanent = e instanceof PermanentFailureException || attempt >= MAX_ATTEMPTS;
+            if (permanent) {
+                finish(id, STATUS_DEAD, error, 0);
+                logger.error("Outbox event {} ({}) given up after {} attempts: {}", id, type, attempt, error);
+                complete(id, e);
+            } else {
+                long delay = backoffMillis(attempt);
+                finish(id, STATUS_PENDING, error, delay);
+                logger.warn("Outbox event {} ({}) failed on attempt {}, retrying in {} ms: {}",
+                        id, type, attempt, delay, error);
+                poller.schedule(this::dispatchDue, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void finish(long id, String status, String error, long delayMs) {
+        String sql = "UPDATE finance_outbox SET status = ?, last_error = ?, next_attempt_at = ? WHERE id = ?";
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, status);
+            stmt.setString(2, error != null && error.length() > 500 ? error.substring(0, 500) : error);
+            stmt.setTimestamp(3, new Timestamp(System.currentTimeMillis() + delayMs));
+            stmt.setLong(4, id);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            // The lease expires and the event is retried; handlers are idempotent
+            logger.error("Failed to record outcome of outbox event {}: {}", id, e.getMessage());
+        }
+    }
+
+    private void complete(long id, Exception failure) {
+        CompletableFuture<Void> waiter = waiters.remove(id);
+        if (waiter == null) return;
+        if (failure == null) waiter.complete(null);
+        else waiter.completeExceptionally(failure);
+    }
+
+    /** {@code base * 2^(attempt-1)} capped, with "equal jitter": uniformly in [d/2, d]. */
+    static long backoffMillis(int attempt) {
+        long delay = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(attempt - 1, 20));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    // ==================== Queries ====================
+
+    /** Status of an event (PENDING, PROCESSING, DONE, DEAD), or null if unknown. */
+    public String getStatus(long outboxId) throws SQLException {
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT status FROM finance_outbox WHERE id = ?")) {
+            stmt.setLong(1, outboxId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    /** Number of events not yet delivered or given up on. */
+    public int countPending() throws SQLException {
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                     "SELECT COUNT(*) FROM finance_outbox WHERE status IN ('PENDING', 'PROCESSING')")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private void ensureTable() {
+        String sql = """
+            CREATE TABLE IF NOT EXISTS finance_outbox (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                event_type VARCHAR(40) NOT NULL,
+                idempotency_key VARCHAR(80) NOT NULL,
+                payload TEXT NOT NULL,
+                status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+                attempts INT NOT NULL DEFAULT 0,
+                next_attempt_at DATETIME(3) NOT NULL,
+                last_error VARCHAR(500),
+                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+                UNIQUE KEY uk_outbox_idempotency (idempotency_key),
+                INDEX idx_outbox_due (status, next_attempt_at, id)
+            )
+            """;
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            logger.error("Failed to ensure finance_outbox table", e);
+        }
+    }
+}
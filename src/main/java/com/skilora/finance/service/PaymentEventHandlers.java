@@ -0,0 +1,56 @@
+package com.skilora.finance.service;
+
+import org.json.JSONObject;
+
+/**
+ * PaymentEventHandlers
+ *
+ * Outbox handlers for payment side effects. Each handler derives the idempotency keys it
+ * sends to the remote API from the event's own key, so a retried delivery replays the
+ * same request instead of issuing a new one.
+ * <ul>
+ *   <li>{@link #STRIPE_CHARGE}: creates and confirms the PaymentIntent, then marks the
+ *       payment SUCCESS and records {@link #SMS_PAYMENT_SUCCESS} in one DB transaction.
+ *       A declined card marks it FAILED and is not retried.</li>
+ *   <li>{@link #SMS_PAYMENT_SUCCESS}: sends the WhatsApp confirmation.</li>
+ * </ul>
+ * No JavaFX imports allowed.
+ */
+public final class PaymentEventHandlers {
+
+    public static final String STRIPE_CHARGE = "STRIPE_CHARGE";
+    public static final String SMS_PAYMENT_SUCCESS = "SMS_PAYMENT_SUCCESS";
+
+    private PaymentEventHandlers() {}
+
+    static void registerAll(OutboxService outbox) {
+        outbox.registerHandler(STRIPE_CHARGE, PaymentEventHandlers::charge);
+        outbox.registerHandler(SMS_PAYMENT_SUCCESS, PaymentEventHandlers::notifySuccess);
+    }
+
+    private static void charge(JSONObject payload, String key) throws Exception {
+        int transactionId = payload.getInt("transactionId");
+        StripePaymentService stripe = StripePaymentService.getInstance();
+        String intentId;
+        boolean success;
+        try {
+            intentId = stripe.createPaymentIntent(payload.getLong("amountCents"), key + "-intent");
+            success = stripe.confirmPayment(intentId, payload.getString("paymentMethodId"), key + "-confirm");
+        } catch (StripePaymentService.StripeApiException e) {
+            if (e.isRetryable()) throw e;
+            PaymentTransactionService.getInstance().updateStatus(transactionId, "FAILED");
+            throw new OutboxService.PermanentFailureException(e.getMessage());
+        }
+        if (!success) {
+            PaymentTransactionService.getInstance().updateStatus(transactionId, "FAILED");
+            throw new OutboxService.PermanentFailureException("Payment " + transactionId + " was not confirmed by Stripe");
+        }
+        PaymentTransactionService.getInstance().completeStripePayment(transactionId, intentId);
+    }
+
+    private static void notifySuccess(JSONObject payload, String key) {
+        SmsService.getInstance().sendPaymentSuccess(payload.getDouble("amount"),
+                payload.getString("nomBeneficiaire"), payload.getString("referenceProjet"),
+                payload.optString("stripePaymentId", null));
+    }
+}
@@ -0,0 +1,150 @@
+package com.skilora.finance.service;
+
+import com.skilora.config.DatabaseConfig;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * PayrollAuditService
+ *
+ * Finds the months of a contract that have no payslip, for one contract or the whole fleet.
+ * Months are indexed as {@code year * 12 + (month - 1)}. Each contract gets a {@link BitSet}
+ * of the months covered by its payslips (offset from the contract's first month), filled
+ * from a single scan of {@code (contract_id, period)} pairs; the gaps are the complement
+ * of that set over the contract's expected range. Two queries per audit, whatever the number
+ * of contracts.
+ * No JavaFX imports allowed.
+ */
+public class PayrollAuditService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollAuditService.class);
+
+    private static volatile PayrollAuditService instance;
+
+    private PayrollAuditService() {}
+
+    public static PayrollAuditService getInstance() {
+        if (instance == null) {
+            synchronized (PayrollAuditService.class) {
+                if (instance == null) {
+                    instance = new PayrollAuditService();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** Expected months of one contract: first month index and count. */
+    private static final class Range {
+        final int first;
+        final int length;
+        final BitSet present;
+
+        Range(int first, int last) {
+            this.first = first;
+            this.length = Math.max(0, last - first + 1);
+            this.present = new BitSet(length);
+        }
+    }
+
+    // ==================== Audit ====================
+
+    /**
+     * Missing payslip months of every contract, keyed by contract id (ascending).
+     * Contracts without gaps are omitted. A contract runs from its start month to its
+     * end month, or to the current month if it has no end date.
+     */
+    public Map<Integer, List<LocalDate>> findAllMissingMonths() throws SQLException {
+        return audit(null);
+    }
+
+    /** Missing payslip months of one contract; empty if none or unknown contract. */
+    public List<LocalDate> findMissingMonths(int contractId) throws SQLException {
+        return audit(contractId).getOrDefault(contractId, new ArrayList<>());
+    }
+
+    private Map<Integer, List<LocalDate>> audit(Integer contractId) throws SQLException {
+        long start = System.nanoTime();
+        int currentMonth = monthIndex(LocalDate.now());
+        Map<Integer, Range> ranges = new HashMap<>();
+
+        String contractsSql = "SELECT id, start_date, end_date FROM employment_contracts "
+                + "WHERE start_date IS NOT NULL" + (contractId != null ? " AND id = ?" : "");
+        String payslipsSql = "SELECT contract_id, period_year * 12 + period_month - 1 AS period "
+                + "FROM payslips WHERE contract_id " + (contractId != null ? "= ?" : "IS NOT NULL")
+                + " AND period_year IS NOT NULL AND period_month BETWEEN 1 AND 12";
+
+        try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(contractsSql)) {
+                if (contractId != null) stmt.setInt(1, contractId);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    Date end = rs.getDate("end_date");
+                    ranges.put(rs.getInt("id"), new Range(monthIndex(rs.getDate("start_date").toLocalDate()),
+                            end != null ? monthIndex(end.toLocalDate()) : currentMonth));
+                }
+            }
+            if (ranges.isEmpty()) return Collections.emptyMap();
+
+            try (PreparedStatement stmt = conn.prepareStatement(payslipsSql)) {
+                if (contractId != null) stmt.setInt(1, contractId);
+                stmt.setFetchSize(10_000);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    Range r = ranges.get(rs.getInt(1));
+                    if (r == null) continue;
+                    int offset = rs.getInt(2) - r.first;
+                    if (offset >= 0 && offset < r.length) r.present.set(offset);
+                }
+            }
+        }
+
+        Map<Integer, List<LocalDate>> result = new TreeMap<>();
+        for (Map.Entry<Integer, Range> e : ranges.entrySet()) {
+            Range r = e.getValue();
+            List<LocalDate> gaps = toMonths(r.first, missing(r.length, r.present));
+            if (!gaps.isEmpty()) result.put(e.getKey(), gaps);
+        }
+        logger.debug("Payroll audit: {} contracts, {} with gaps, {} ms", ranges.size(), result.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    // ==================== Bit helpers ====================
+
+    /** Months of {@code [0, length)} absent from {@code present}. */
+    static BitSet missing(int length, BitSet present) {
+        BitSet missing = new BitSet(length);
+        missing.set(0, length);
+        missing.andNot(present);
+        return missing;
+    }
+
+    static List<LocalDate> toMonths(int first, BitSet offsets) {
+        List<LocalDate> months = new ArrayList<>(offsets.cardinality());
+        for (int i = offsets.nextSetBit(0); i >= 0; i = offsets.nextSetBit(i + 1)) {
+            int index = first + i;
+            months.add(LocalDate.of(index / 12, index % 12 + 1, 1));
+        }
+        return months;
+    }
+
+    static int monthIndex(LocalDate date) {
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+}
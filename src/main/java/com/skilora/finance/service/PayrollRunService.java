@@ -0,0 +1,434 @@
+package com.skilora.finance.service;
+
+import com.skilora.config.DatabaseConfig;
+import com.skilora.finance.entity.EmploymentContract;
+import com.skilora.finance.entity.Payslip;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * PayrollRunService
+ *
+ * Generates the payslips of a whole period for every ACTIVE contract in one job,
+ * instead of one {@link PayslipService#generatePayslip} call (4+ round trips) per employee:
+ * <ol>
+ *   <li>bulk prefetch of active contracts, existing payslip keys (2 queries) and the cached IRPP {@link TaxSchedule};</li>
+ *   <li>parallel computation on a dedicated ForkJoin pool (pure CPU, no DB access);</li>
+ *   <li>JDBC batch inserts, one transaction per chunk of {@value #CHUNK_SIZE} payslips.</li>
+ * </ol>
+ * Each chunk commits its payslips together with the run checkpoint ({@code payroll_runs.last_contract_id}),
+ * so an interrupted run resumes after the last committed contract.
+ * No JavaFX imports allowed.
+ */
+public class PayrollRunService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollRunService.class);
+
+    private static volatile PayrollRunService instance;
+
+    /** Payslips per batch / transaction. */
+    static final int CHUNK_SIZE = 500;
+
+    private static final String STATUS_RUNNING = "RUNNING";
+    private static final String STATUS_COMPLETED = "COMPLETED";
+    private static final String STATUS_FAILED = "FAILED";
+
+    private final ForkJoinPool computePool = new ForkJoinPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()),
+            pool -> {
+                var t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                t.setDaemon(true);
+                t.setName("payroll-" + t.getPoolIndex());
+                return t;
+            },
+            null, false);
+
+    /** Periods currently being generated ("month/year"), to refuse concurrent runs. */
+    private final Set<String> runningPeriods = ConcurrentHashMap.newKeySet();
+
+    /** Receives progress after each committed chunk. */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(int processed, int total);
+    }
+
+    /** Outcome of a payroll run. */
+    public static final class RunResult {
+        private final int total;
+        private final int created;
+        private final int skipped;
+        private final int invalid;
+        private final boolean resumed;
+        private final long elapsedMillis;
+
+        RunResult(int total, int created, int skipped, int invalid, boolean resumed, long elapsedMillis) {
+            this.total = total;
+            this.created = created;
+            this.skipped = skipped;
+            this.invalid = invalid;
+            this.resumed = resumed;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /** Active contracts considered by this run (after the resume checkpoint). */
+        public int getTotal() { return total; }
+        public int getCreated() { return created; }
+        /** Contracts that already had a payslip for the period. */
+        public int getSkipped() { return skipped; }
+        /** Contracts without a valid salary base. */
+        public int getInvalid() { return invalid; }
+        public boolean isResumed() { return resumed; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        @Override
+        public String toString() {
+            return String.format("RunResult{total=%d, created=%d, skipped=%d, invalid=%d, resumed=%s, %d ms}",
+                    total, created, skipped, invalid, resumed, elapsedMillis);
+        }
+    }
+
+    private PayrollRunService() {
+        ensureTable();
+    }
+
+    public static PayrollRunService getInstance() {
+        if (instance == null) {
+            synchronized (PayrollRunService.class) {
+                if (instance == null) {
+                    instance = new PayrollRunService();
+                }
+            }
+        }
+        return instance;
+    }
+
+    // ==================== Payroll Run ====================
+
+    /**
+     * Generates the payslips of {@code month/year} for all active contracts.
+     * Safe to call again: existing payslips are skipped, and a run that failed
+     * part-way resumes from its checkpoint.
+     *
+     * @param listener optional progress callback (called from the calling thread)
+     * @throws SQLException if a chunk cannot be written; committed chunks are kept
+     */
+    public RunResult runPeriod(int month, int year, ProgressListener listener) throws SQLException {
+        if (month < 1 || month > 12) throw new IllegalArgumentException("Invalid month: " + month);
+        String periodKey = month + "/" + year;
+        if (!runningPeriods.add(periodKey)) {
+            throw new IllegalStateException("A payroll run is already in progress for " + periodKey);
+        }
+        long start = System.currentTimeMillis();
+        try {
+            // 1. Checkpoint: resume after the last committed contract of an unfinished run
+            int checkpoint = startRun(month, year);
+            boolean resumed = checkpoint > 0;
+
+            // 2. Bulk prefetch
+            List<EmploymentContract> contracts = findActiveContractsAfter(checkpoint);
+            Set<Integer> existing = findContractIdsWithPayslip(month, year);
+            TaxSchedule irpp = TaxConfigurationService.getInstance()
+                    .getSchedule(PayslipService.TAX_COUNTRY, "IRPP", LocalDate.of(year, month, 1));
+            int total = contracts.size();
+            updateTotal(month, year, total);
+
+            // 3. Parallel computation (no I/O)
+            Payslip[] computed = compute(contracts, existing, month, year, irpp);
+
+            // 4. Chunked batch insert + checkpoint
+            int created = 0;
+            int skipped = 0;
+            int invalid = 0;
+            for (int from = 0; from < total; from += CHUNK_SIZE) {
+                int to = Math.min(from + CHUNK_SIZE, total);
+                List<Payslip> chunk = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    if (existing.contains(contracts.get(i).getId())) skipped++;
+                    else if (computed[i] == null) invalid++;
+                    else chunk.add(computed[i]);
+                }
+                try {
+                    created += insertChunk(chunk, month, year, contracts.get(to - 1).getId(), to - from);
+                } catch (SQLException e) {
+                    markStatus(month, year, STATUS_FAILED);
+                    logger.error("Payroll run {} failed after {} of {} contracts", periodKey, from, total, e);
+                    throw e;
+                }
+                if (listener != null) listener.onProgress(to, total);
+            }
+
+            markStatus(month, year, STATUS_COMPLETED);
+            if (created > 0) {
+                try {
+                    FinanceDataService.getInstance().rebuildEmployeeSummaries();
+                } catch (SQLException e) {
+                    logger.warn("Payroll run {}: failed to rebuild finance summaries", periodKey, e);
+                }
+            }
+            RunResult result = new RunResult(total, created, skipped, invalid, resumed,
+                    System.currentTimeMillis() - start);
+            logger.info("Payroll run {} done: {}", periodKey, result);
+            return result;
+        } finally {
+            runningPeriods.remove(periodKey);
+        }
+    }
+
+    // ==================== Steps ====================
+
+    private Payslip[] compute(List<EmploymentContract> contracts, Set<Integer> existing,
+                              int month, int year, TaxSchedule irpp) {
+        PayslipService payslipService = PayslipService.getInstance();
+        Payslip[] computed = new Payslip[contracts.size()];
+        try {
+            computePool.submit(() -> IntStream.range(0, computed.length).parallel().forEach(i -> {
+                EmploymentContract c = contracts.get(i);
+                if (!existing.contains(c.getId())) {
+                    computed[i] = payslipService.computePayslip(c, month, year, irpp);
+                }
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Payroll computation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Payroll computation failed", e.getCause());
+        }
+        return computed;
+    }
+
+    /**
+     * Inserts one chunk and advances the checkpoint in the same transaction.
+     * The created count is the change in the period's payslip count inside the
+     * transaction: with rewriteBatchedStatements the batch result cannot tell inserted
+     * rows from ones INSERT IGNORE skipped.
+     * @return payslips actually inserted
+     */
+    private int insertChunk(List<Payslip> chunk, int month, int year, int lastContractId, int processed)
+            throws SQLException {
+        // INSERT IGNORE: uq_payslip_period protects against a concurrent single generatePayslip
+        String insertSql = "INSERT IGNORE INTO payslips (contract_id, user_id, period_month, period_year, " +
+                "gross_salary, net_salary, cnss_employee, cnss_employer, irpp, other_deductions, " +
+                "bonuses, currency, payment_status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String checkpointSql = "UPDATE payroll_runs SET last_contract_id = ?, processed = processed + ?, " +
+                "created = created + ? WHERE period_month = ? AND period_year = ?";
+        String countSql = "SELECT COUNT(*) FROM payslips WHERE period_month = ? AND period_year = ?";
+
+        try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insert = conn.prepareStatement(insertSql);
+                 PreparedStatement checkpoint = conn.prepareStatement(checkpointSql);
+                 PreparedStatement count = conn.prepareStatement(countSql)) {
+                count.setInt(1, month);
+                count.setInt(2, year);
+                for (Payslip p : chunk) {
+                    insert.setInt(1, p.getContractId());
+                    insert.setInt(2, p.getUserId());
+                    insert.setInt(3, p.getPeriodMonth());
+                    insert.setInt(4, p.getPeriodYear());
+                    insert.setBigDecimal(5, p.getGrossSalary());
+                    insert.setBigDecimal(6, p.getNetSalary());
+                    insert.setBigDecimal(7, p.getCnssEmployee());
+                    insert.setBigDecimal(8, p.getCnssEmployer());
+                    insert.setBigDecimal(9, p.getIrpp());
+                    insert.setBigDecimal(10, p.getOtherDeductions());
+                    insert.setBigDecimal(11, p.getBonuses());
+                    insert.setString(12, p.getCurrency());
+                    insert.setString(13, p.getPaymentStatus());
+                    insert.addBatch();
+                }
+                int created = 0;
+                if (!chunk.isEmpty()) {
+                    // Same transaction snapshot before and after: only our own inserts differ
+                    int before = countRows(count);
+                    insert.executeBatch();
+                    created = countRows(count) - before;
+                }
+
+                checkpoint.setInt(1, lastContractId);
+                checkpoint.setInt(2, processed);
+                checkpoint.setInt(3, created);
+                checkpoint.setInt(4, month);
+                checkpoint.setInt(5, year);
+                checkpoint.executeUpdate();
+
+                conn.commit();
+                return created;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static int countRows(PreparedStatement count) throws SQLException {
+        try (ResultSet rs = count.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // ==================== Bulk Prefetch ====================
+
+    private List<EmploymentContract> findActiveContractsAfter(int afterContractId) throws SQLException {
+        String sql = "SELECT id, user_id, salary_base, currency FROM employment_contracts " +
+                "WHERE status = 'ACTIVE' AND id > ? ORDER BY id";
+        List<EmploymentContract> contracts = new ArrayList<>();
+
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, afterContractId);
+            stmt.setFetchSize(CHUNK_SIZE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    EmploymentContract c = new EmploymentContract();
+                    c.setId(rs.getInt("id"));
+                    c.setUserId(rs.getInt("user_id"));
+                    c.setSalaryBase(rs.getBigDecimal("salary_base"));
+                    c.setCurrency(rs.getString("currency"));
+                    contracts.add(c);
+                }
+            }
+        }
+        return contracts;
+    }
+
+    private Set<Integer> findContractIdsWithPayslip(int month, int year) throws SQLException {
+        String sql = "SELECT contract_id FROM payslips WHERE period_month = ? AND period_year = ?";
+        Set<Integer> ids = new HashSet<>();
+
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, month);
+            stmt.setInt(2, year);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    // ==================== Checkpoints ====================
+
+    /**
+     * Opens (or re-opens) the run row for the period.
+     * @return contract id to resume after, 0 for a fresh run
+     */
+    private int startRun(int month, int year) throws SQLException {
+        String selectSql = "SELECT status, last_contract_id FROM payroll_runs WHERE period_month = ? AND period_year = ?";
+        try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+            String status = null;
+            int lastContractId = 0;
+            try (PreparedStatement stmt = conn.prepareStatement(selectSql)) {
+                stmt.setInt(1, month);
+                stmt.setInt(2, year);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        status = rs.getString("status");
+                        lastContractId = rs.getInt("last_contract_id");
+                    }
+                }
+            }
+
+            if (status == null || STATUS_COMPLETED.equals(status)) {
+                // Fresh run (a completed period is rescanned for newly activated contracts)
+                String upsert = "INSERT INTO payroll_runs (period_month, period_year, status) VALUES (?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE status = VALUES(status), last_contract_id = 0, processed = 0, " +
+                        "created = 0, total_contracts = 0, started_at = NOW(), finished_at = NULL";
+                try (PreparedStatement stmt = conn.prepareStatement(upsert)) {
+                    stmt.setInt(1, month);
+                    stmt.setInt(2, year);
+                    stmt.setString(3, STATUS_RUNNING);
+                    stmt.executeUpdate();
+                }
+                return 0;
+            }
+
+            markStatus(month, year, STATUS_RUNNING);
+            logger.info("Resuming payroll run {}/{} after contract #{}", month, year, lastContractId);
+            return lastContractId;
+        }
+    }
+
+    private void updateTotal(int month, int year, int total) throws SQLException {
+        String sql = "UPDATE payroll_runs SET total_contracts = processed + ? WHERE period_month = ? AND period_year = ?";
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, total);
+            stmt.setInt(2, month);
+            stmt.setInt(3, year);
+            stmt.executeUpdate();
+        }
+    }
+
+    private void markStatus(int month, int year, String status) {
+        String sql = "UPDATE payroll_runs SET status = ?, finished_at = " +
+                (STATUS_RUNNING.equals(status) ? "NULL" : "NOW()") +
+                " WHERE period_month = ? AND period_year = ?";
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, status);
+            stmt.setInt(2, month);
+            stmt.setInt(3, year);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Failed to mark payroll run {}/{} as {}", month, year, status, e);
+        }
+    }
+
+    /**
+     * Returns the checkpoint status of a period ("RUNNING", "COMPLETED", "FAILED"), or null if never run.
+     */
+    public String getRunStatus(int month, int year) {
+        String sql = "SELECT status FROM payroll_runs WHERE period_month = ? AND period_year = ?";
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, month);
+            stmt.setInt(2, year);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) return rs.getString(1);
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to read payroll run status {}/{}", month, year, e);
+        }
+        return null;
+    }
+
+    private void ensureTable() {
+        String sql = """
+            CREATE TABLE IF NOT EXISTS payroll_runs (
+                id INT AUTO_INCREMENT PRIMARY KEY,
+                period_month INT NOT NULL,
+                period_year INT NOT NULL,
+                status VARCHAR(20) NOT NULL DEFAULT 'RUNNING',
+                total_contracts INT DEFAULT 0,
+                processed INT DEFAULT 0,
+                created INT DEFAULT 0,
+                last_contract_id INT DEFAULT 0,
+                started_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+                finished_at DATETIME,
+                UNIQUE KEY uq_payroll_period (period_month, period_year)
+            )
+            """;
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            logger.error("Failed to ensure payroll_runs table", e);
+        }
+    }
+}
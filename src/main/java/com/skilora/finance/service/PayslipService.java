@@ -3,14 +3,15 @@ package com.skilora.finance.service;
 import com.skilora.config.DatabaseConfig;
 import com.skilora.finance.entity.EmploymentContract;
 import com.skilora.finance.entity.Payslip;
+import com.skilora.finance.utils.Money;
 import com.skilora.utils.ResultSetUtils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -25,9 +26,9 @@ public class PayslipService {
 
     private static final Logger logger = LoggerFactory.getLogger(PayslipService.class);
 
-    private static final BigDecimal CNSS_EMPLOYEE_RATE = new BigDecimal("0.0918");
-    private static final BigDecimal CNSS_EMPLOYER_RATE = new BigDecimal("0.1657");
-    private static final BigDecimal TWELVE = new BigDecimal("12");
+    private static final long CNSS_EMPLOYEE_RATE = Money.rate(new BigDecimal("0.0918"));
+    private static final long CNSS_EMPLOYER_RATE = Money.rate(new BigDecimal("0.1657"));
+    static final String TAX_COUNTRY = "Tunisia";
 
     private static volatile PayslipService instance;
 
@@ -83,6 +84,7 @@ public class PayslipService {
                 if (generatedKeys.next()) {
                     int generatedId = generatedKeys.getInt(1);
                     p.setId(generatedId);
+                    refreshSummary(p.getUserId());
                     return generatedId;
                 } else {
                     throw new SQLException("Creating payslip failed, no ID obtained.");
@@ -181,9 +183,17 @@ public class PayslipService {
         String sql = "DELETE FROM payslips WHERE id = ? AND payment_status = 'PENDING'";
 
         try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement owner = conn.prepareStatement("SELECT user_id FROM payslips WHERE id = ?");
              PreparedStatement stmt = conn.prepareStatement(sql)) {
+            owner.setInt(1, id);
+            int userId;
+            try (ResultSet rs = owner.executeQuery()) {
+                userId = rs.next() ? rs.getInt(1) : 0;
+            }
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            if (deleted) refreshSummary(userId);
+            return deleted;
         }
     }
 
@@ -213,51 +223,21 @@ public class PayslipService {
                 return null;
             }
 
-            // 2. Get gross salary
-            BigDecimal gross = contract.getSalaryBase();
-            if (gross == null || gross.compareTo(BigDecimal.ZERO) <= 0) {
+            // 2. Compute the salary breakdown (CNSS, IRPP, net)
+            TaxSchedule irpp = TaxConfigurationService.getInstance()
+                    .getSchedule(TAX_COUNTRY, "IRPP", LocalDate.of(year, month, 1));
+            Payslip payslip = computePayslip(contract, month, year, irpp);
+            if (payslip == null) {
                 logger.error("Cannot generate payslip: invalid salary base for contract {}", contractId);
                 return null;
             }
 
-            // 3. CNSS employee = gross * 9.18%
-            BigDecimal cnssEmployee = gross.multiply(CNSS_EMPLOYEE_RATE)
-                    .setScale(2, RoundingMode.HALF_UP);
-
-            // 4. CNSS employer = gross * 16.57%
-            BigDecimal cnssEmployer = gross.multiply(CNSS_EMPLOYER_RATE)
-                    .setScale(2, RoundingMode.HALF_UP);
-
-            // 5. IRPP = annual IRPP / 12
-            BigDecimal annualGross = gross.multiply(TWELVE);
-            BigDecimal annualIrpp = TaxConfigurationService.getInstance()
-                    .calculateIRPP(annualGross, "Tunisia");
-            BigDecimal monthlyIrpp = annualIrpp.divide(TWELVE, 2, RoundingMode.HALF_UP);
-
-            // 6. Net = gross - cnssEmployee - irpp - otherDeductions + bonuses
-            BigDecimal otherDeductions = BigDecimal.ZERO;
-            BigDecimal bonuses = BigDecimal.ZERO;
-            BigDecimal net = gross.subtract(cnssEmployee)
-                    .subtract(monthlyIrpp)
-                    .subtract(otherDeductions)
-                    .add(bonuses)
-                    .setScale(2, RoundingMode.HALF_UP);
-
-            // 7. Create and persist payslip
-            Payslip payslip = new Payslip(contractId, contract.getUserId(), month, year, gross);
-            payslip.setNetSalary(net);
-            payslip.setCnssEmployee(cnssEmployee);
-            payslip.setCnssEmployer(cnssEmployer);
-            payslip.setIrpp(monthlyIrpp);
-            payslip.setOtherDeductions(otherDeductions);
-            payslip.setBonuses(bonuses);
-            payslip.setCurrency(contract.getCurrency());
-
+            // 3. Persist
             int generatedId = create(payslip);
             payslip.setId(generatedId);
 
             logger.info("Generated payslip #{} for contract {} period {}/{}: gross={}, net={}",
-                    generatedId, contractId, month, year, gross, net);
+                    generatedId, contractId, month, year, payslip.getGrossSalary(), payslip.getNetSalary());
 
             return payslip;
 
@@ -268,8 +248,58 @@ public class PayslipService {
         }
     }
 
+    /**
+     * Pure salary breakdown for one contract and period — no database access.
+     * Shared by {@link #generatePayslip} and the batch {@link PayrollRunService}.
+     *
+     * @param irpp compiled IRPP schedule in force for the period
+     * @return an unsaved Payslip, or null if the contract has no valid salary base
+     */
+    Payslip computePayslip(EmploymentContract contract, int month, int year, TaxSchedule irpp) {
+        BigDecimal gross = contract.getSalaryBase();
+        if (gross == null || gross.compareTo(BigDecimal.ZERO) <= 0) {
+            return null;
+        }
+        // All arithmetic in cents; BigDecimal only when filling the entity
+        long grossCents = Money.toMinor(gross, Money.DEFAULT_SCALE);
+
+        // CNSS employee = gross * 9.18%
+        long cnssEmployee = Money.applyRate(grossCents, CNSS_EMPLOYEE_RATE);
+
+        // CNSS employer = gross * 16.57%
+        long cnssEmployer = Money.applyRate(grossCents, CNSS_EMPLOYER_RATE);
+
+        // IRPP = annual IRPP / 12
+        long annualIrpp = irpp.taxCents(grossCents * 12);
+        long monthlyIrpp = Money.divide(annualIrpp, 12);
+
+        // Net = gross - cnssEmployee - irpp - otherDeductions + bonuses
+        long otherDeductions = 0L;
+        long bonuses = 0L;
+        long net = grossCents - cnssEmployee - monthlyIrpp - otherDeductions + bonuses;
+
+        Payslip payslip = new Payslip(contract.getId(), contract.getUserId(), month, year, gross);
+        payslip.setNetSalary(Money.toBigDecimal(net, Money.DEFAULT_SCALE));
+        payslip.setCnssEmployee(Money.toBigDecimal(cnssEmployee, Money.DEFAULT_SCALE));
+        payslip.setCnssEmployer(Money.toBigDecimal(cnssEmployer, Money.DEFAULT_SCALE));
+        payslip.setIrpp(Money.toBigDecimal(monthlyIrpp, Money.DEFAULT_SCALE));
+        payslip.setOtherDeductions(Money.toBigDecimal(otherDeductions, Money.DEFAULT_SCALE));
+        payslip.setBonuses(Money.toBigDecimal(bonuses, Money.DEFAULT_SCALE));
+        payslip.setCurrency(contract.getCurrency());
+        return payslip;
+    }
+
     // ==================== Private Helpers ====================
 
+    /** Keeps the employee_finance_summary read model in step with a write. */
+    private void refreshSummary(int userId) {
+        try {
+            FinanceDataService.getInstance().refreshEmployeeSummaries(List.of(userId));
+        } catch (SQLException e) {
+            logger.warn("Failed to refresh finance summary for user {}", userId, e);
+        }
+    }
+
     /**
      * Checks whether a payslip already exists for the given contract and period.
      */
@@ -0,0 +1,210 @@
+package com.skilora.finance.service;
+
+import com.skilora.finance.entity.PayslipRow;
+import com.skilora.finance.utils.PDFGenerator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * PdfRenderService
+ *
+ * Renders payslips and employee reports off the caller's thread on a bounded worker pool
+ * ({@value #QUEUE_CAPACITY} queued jobs; when full the caller renders itself, which
+ * throttles producers instead of growing the queue). Fonts and page chrome are shared
+ * through {@link PDFGenerator} / {@link com.skilora.finance.utils.PdfTemplate}.
+ *
+ * Bulk mode renders a whole payroll period in parallel into a ZIP stream. At most
+ * {@code 2 × workers} documents are in flight; entries are written in period order as
+ * they complete, so memory stays flat whatever the head count.
+ * No JavaFX imports allowed.
+ */
+public class PdfRenderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfRenderService.class);
+
+    private static volatile PdfRenderService instance;
+
+    static final int QUEUE_CAPACITY = 64;
+
+    private final int workers = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private final ThreadPoolExecutor pool;
+
+    private PdfRenderService() {
+        AtomicInteger seq = new AtomicInteger();
+        pool = new ThreadPoolExecutor(workers, workers, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                r -> {
+                    Thread t = new Thread(r);
+                    t.setDaemon(true);
+                    t.setName("pdf-render-" + seq.incrementAndGet());
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.allowCoreThreadTimeOut(true);
+    }
+
+    public static PdfRenderService getInstance() {
+        if (instance == null) {
+            synchronized (PdfRenderService.class) {
+                if (instance == null) {
+                    instance = new PdfRenderService();
+                }
+            }
+        }
+        return instance;
+    }
+
+    // ==================== Single documents ====================
+
+    /** Payslip PDF as bytes, rendered on the calling thread. */
+    public byte[] renderPayslip(PayslipRow payslip, String employeeName) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        try {
+            PDFGenerator.writePayslipPdf(out, payslip, employeeName);
+        } catch (Exception e) {
+            throw new IOException("Payslip " + payslip.getId() + " rendering failed: " + e.getMessage(), e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes a payslip (PDF or HTML by extension) on the worker pool.
+     * Completes with the file, or null if writing failed.
+     */
+    public CompletableFuture<File> renderPayslipAsync(PayslipRow payslip, String employeeName, File target) {
+        return CompletableFuture.supplyAsync(
+                () -> PDFGenerator.generatePayslipToFile(target, payslip, employeeName), pool);
+    }
+
+    /** {@link PDFGenerator#generateToFile} on the worker pool. */
+    public CompletableFuture<File> renderReportAsync(File target, int employeeId, String employeeName,
+                                                     String contractInfo, String bankInfo,
+                                                     String bonusInfo, String payslipInfo,
+                                                     String customSummary) {
+        return CompletableFuture.supplyAsync(() -> PDFGenerator.generateToFile(target, employeeId,
+                employeeName, contractInfo, bankInfo, bonusInfo, payslipInfo, customSummary), pool);
+    }
+
+    // ==================== Bulk export ====================
+
+    /**
+     * {@link #exportPeriodZip(int, int, OutputStream)} into a file. The archive is written to
+     * a temporary file next to {@code target} and moved into place once complete, so a failed
+     * export never leaves a truncated ZIP behind.
+     */
+    public int exportPeriodZip(int month, int year, File target) throws SQLException, IOException {
+        Path dest = target.getAbsoluteFile().toPath();
+        Path tmp = Files.createTempFile(dest.getParent(), dest.getFileName().toString(), ".part");
+        try {
+            int written;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024)) {
+                written = exportPeriodZip(month, year, out);
+            }
+            try {
+                Files.move(tmp, dest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, dest, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return written;
+        } catch (SQLException | IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException cleanup) {
+                e.addSuppressed(cleanup);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Renders every payslip of the period in parallel and writes them as ZIP entries,
+     * in employee-name order. {@code out} is finished but not closed.
+     * @return the number of payslips written
+     */
+    public int exportPeriodZip(int month, int year, OutputStream out) throws SQLException, IOException {
+        List<PayslipRow> payslips = FinanceDataService.getInstance().getPayslipsForPeriod(month, year);
+        long start = System.nanoTime();
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // Page content is already deflated by the PDF writer
+        zip.setLevel(Deflater.BEST_SPEED);
+        Set<String> names = new HashSet<>();
+        ArrayDeque<Future<byte[]>> inFlight = new ArrayDeque<>();
+        ArrayDeque<PayslipRow> order = new ArrayDeque<>();
+        int window = workers * 2;
+        int written = 0;
+        try {
+            for (PayslipRow p : payslips) {
+                if (inFlight.size() == window) {
+                    writeEntry(zip, names, order.poll(), await(inFlight.poll()));
+                    written++;
+                }
+                order.add(p);
+                inFlight.add(pool.submit(() -> renderPayslip(p, p.getEmployeeName())));
+            }
+            while (!inFlight.isEmpty()) {
+                writeEntry(zip, names, order.poll(), await(inFlight.poll()));
+                written++;
+            }
+        } finally {
+            inFlight.forEach(f -> f.cancel(true));
+        }
+        zip.finish();
+        zip.flush();
+
+        logger.info("Exported {} payslips for {}/{} in {} ms", written, month, year,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return written;
+    }
+
+    private static void writeEntry(ZipOutputStream zip, Set<String> names, PayslipRow p, byte[] pdf)
+            throws IOException {
+        String name = PDFGenerator.payslipFileName(p, p.getEmployeeName());
+        if (!names.add(name)) {
+            name = name.replace(".pdf", "_" + p.getId() + ".pdf");
+            names.add(name);
+        }
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(pdf);
+        zip.closeEntry();
+    }
+
+    private static byte[] await(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException(cause != null ? cause.getMessage() : "Rendering failed", cause);
+        }
+    }
+}
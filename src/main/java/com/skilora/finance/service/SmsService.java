@@ -22,6 +22,7 @@ import java.util.Base64;
  * TWILIO_FINANCE_AUTH_TOKEN=xxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxx
  * TWILIO_FINANCE_FROM_NUMBER=whatsapp:+1XXXXXXXXXX
  * TWILIO_FINANCE_TO_NUMBER=whatsapp:+216XXXXXXXX
+ * TWILIO_API_BASE=https://api.twilio.com (optional, e.g. a local stub server)
  *
  * Singleton with getInstance().
  */
@@ -30,6 +31,7 @@ public class SmsService {
     private static volatile SmsService instance;
 
     private final HttpClient httpClient;
+    private final String apiBase;
     private final String accountSid;
     private final String authToken;
     private final String fromNumber;
@@ -41,6 +43,7 @@ public class SmsService {
                 .connectTimeout(Duration.ofSeconds(10))
                 .build();
 
+        this.apiBase = EnvConfig.get("twilio.api.base", "https://api.twilio.com").trim();
         this.accountSid = EnvConfig.get("twilio.finance.account.sid", "").trim();
         this.authToken = EnvConfig.get("twilio.finance.auth.token", "").trim();
         this.fromNumber = EnvConfig.get("twilio.finance.from.number", "").trim();
@@ -109,7 +112,7 @@ public class SmsService {
 
     private void sendWhatsAppMessage(String to, String bodyMessage)
             throws IOException, InterruptedException {
-        String url = "https://api.twilio.com/2010-04-01/Accounts/" + accountSid + "/Messages.json";
+        String url = apiBase + "/2010-04-01/Accounts/" + accountSid + "/Messages.json";
 
         String requestBody = "To=" + encode(to)
                 + "&From=" + encode(fromNumber)
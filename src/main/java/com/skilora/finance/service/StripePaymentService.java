@@ -22,7 +22,8 @@ import java.util.regex.Pattern;
  * (pm_card_visa, pm_card_mastercard, etc.) to avoid Radar issues in test mode.
  *
  * API key loaded from config/application.properties: stripe.secret.key
- * Singleton with getInstance().
+ * API base URL overridable with stripe.api.base (e.g. a local stub server in tests).
+ * Singleton with getInstance(); {@link #forEndpoint} builds a standalone client.
  */
 public class StripePaymentService {
 
@@ -42,23 +43,52 @@ public class StripePaymentService {
         TEST_CARD_PM_MAP.put("4000002500003155", "pm_card_threeDSecure2Required");
     }
 
+    /** Non-2xx response from the Stripe API. */
+    public static class StripeApiException extends IOException {
+        private final int statusCode;
+
+        public StripeApiException(int statusCode, String message) {
+            super(message);
+            this.statusCode = statusCode;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        /** Conflicts, rate limits and server errors may succeed later; other 4xx (e.g. card declined) will not. */
+        public boolean isRetryable() {
+            return statusCode == 409 || statusCode == 429 || statusCode >= 500;
+        }
+    }
+
     private static volatile StripePaymentService instance;
 
     private final HttpClient httpClient;
+    private final String baseUrl;
     private final String secretKey;
 
     private StripePaymentService() {
+        this(EnvConfig.get("stripe.api.base", STRIPE_BASE), EnvConfig.get("stripe.secret.key", ""));
+    }
+
+    private StripePaymentService(String baseUrl, String key) {
         this.httpClient = HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(10))
                 .build();
-        String key = EnvConfig.get("stripe.secret.key", "");
         if (key == null || key.isBlank() || key.equals("PLACEHOLDER")) {
             System.err.println("[Stripe] stripe.secret.key not configured — set STRIPE_SECRET_KEY in .env");
             key = "";
         }
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
         this.secretKey = key;
     }
 
+    /** Client for another API base URL, e.g. a local stub server. Not shared. */
+    public static StripePaymentService forEndpoint(String baseUrl, String secretKey) {
+        return new StripePaymentService(baseUrl, secretKey);
+    }
+
     public static StripePaymentService getInstance() {
         if (instance == null) {
             synchronized (StripePaymentService.class) {
@@ -101,7 +131,7 @@ public class StripePaymentService {
                 + "&card[cvc]=" + encode(cvc);
 
         HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(STRIPE_BASE + "/payment_methods"))
+                .uri(URI.create(baseUrl + "/payment_methods"))
                 .timeout(Duration.ofSeconds(20))
                 .header("Authorization", "Bearer " + secretKey)
                 .header("Content-Type", "application/x-www-form-urlencoded")
@@ -125,6 +155,14 @@ public class StripePaymentService {
      * @return the payment_intent id (e.g., pi_XXXX)
      */
     public String createPaymentIntent(long amountCents) throws IOException, InterruptedException {
+        return createPaymentIntent(amountCents, null);
+    }
+
+    /**
+     * Creates a Stripe PaymentIntent. Stripe replays the original response for a repeated
+     * {@code idempotencyKey}, so a retried call never creates a second intent.
+     */
+    public String createPaymentIntent(long amountCents, String idempotencyKey) throws IOException, InterruptedException {
         if (amountCents <= 0) {
             throw new IllegalArgumentException("Amount must be > 0.");
         }
@@ -134,13 +172,7 @@ public class StripePaymentService {
                 + "&payment_method_types[]=" + encode("card")
                 + "&confirm=false";
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(STRIPE_BASE + "/payment_intents"))
-                .timeout(Duration.ofSeconds(20))
-                .header("Authorization", "Bearer " + secretKey)
-                .header("Content-Type", "application/x-www-form-urlencoded")
-                .POST(HttpRequest.BodyPublishers.ofString(body))
-                .build();
+        HttpRequest request = post(URI.create(baseUrl + "/payment_intents"), body, 20, idempotencyKey);
 
         HttpResponse<String> response = sendRequest(request);
         String json = response.body() != null ? response.body() : "";
@@ -159,22 +191,22 @@ public class StripePaymentService {
      */
     public boolean confirmPayment(String paymentIntentId, String paymentMethodId)
             throws IOException, InterruptedException {
+        return confirmPayment(paymentIntentId, paymentMethodId, null);
+    }
+
+    /** {@link #confirmPayment(String, String)} with a Stripe idempotency key. */
+    public boolean confirmPayment(String paymentIntentId, String paymentMethodId, String idempotencyKey)
+            throws IOException, InterruptedException {
         if (paymentIntentId == null || paymentIntentId.isBlank())
             throw new IllegalArgumentException("paymentIntentId is empty.");
         if (paymentMethodId == null || paymentMethodId.isBlank())
             throw new IllegalArgumentException("paymentMethodId is empty.");
 
-        URI confirmUri = URI.create(STRIPE_BASE + "/payment_intents/" + paymentIntentId + "/confirm");
+        URI confirmUri = URI.create(baseUrl + "/payment_intents/" + paymentIntentId + "/confirm");
         String body = "payment_method=" + encode(paymentMethodId)
                 + "&return_url=" + encode("https://example.com/return");
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(confirmUri)
-                .timeout(Duration.ofSeconds(25))
-                .header("Authorization", "Bearer " + secretKey)
-                .header("Content-Type", "application/x-www-form-urlencoded")
-                .POST(HttpRequest.BodyPublishers.ofString(body))
-                .build();
+        HttpRequest request = post(confirmUri, body, 25, idempotencyKey);
 
         HttpResponse<String> response = sendRequest(request);
         String json = response.body() != null ? response.body() : "";
@@ -188,13 +220,26 @@ public class StripePaymentService {
     // Helpers
     // ─────────────────────────────────────────────────────────────
 
+    private HttpRequest post(URI uri, String body, int timeoutSeconds, String idempotencyKey) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(uri)
+                .timeout(Duration.ofSeconds(timeoutSeconds))
+                .header("Authorization", "Bearer " + secretKey)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            builder.header("Idempotency-Key", idempotencyKey);
+        }
+        return builder.build();
+    }
+
     private HttpResponse<String> sendRequest(HttpRequest request) throws IOException, InterruptedException {
         try {
             HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
             int code = response.statusCode();
             if (code < 200 || code >= 300) {
                 String body = response.body() != null ? response.body() : "";
-                throw new IOException("Stripe HTTP " + code + " : " + safeShort(body));
+                throw new StripeApiException(code, "Stripe HTTP " + code + " : " + safeShort(body));
             }
             return response;
         } catch (java.net.http.HttpTimeoutException e) {
@@ -2,14 +2,19 @@ package com.skilora.finance.service;
 
 import com.skilora.config.DatabaseConfig;
 import com.skilora.finance.entity.TaxConfiguration;
+import com.skilora.finance.utils.Money;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -19,6 +24,8 @@ import java.util.List;
  *
  * CRUD and progressive tax calculation for tax_configurations table.
  * Handles IRPP bracket-based calculation for Tunisia and other countries.
+ * Brackets are compiled once per (country, tax type, effective date) into a
+ * {@link TaxSchedule} and cached until the next create/update/delete.
  * No JavaFX imports allowed.
  */
 public class TaxConfigurationService {
@@ -27,6 +34,9 @@ public class TaxConfigurationService {
 
     private static volatile TaxConfigurationService instance;
 
+    /** Compiled schedules: "country|taxType" -> effective date -> schedule. */
+    private final Map<String, NavigableMap<LocalDate, TaxSchedule>> scheduleCache = new ConcurrentHashMap<>();
+
     private TaxConfigurationService() {}
 
     public static TaxConfigurationService getInstance() {
@@ -83,6 +93,7 @@ public class TaxConfigurationService {
                 if (generatedKeys.next()) {
                     int generatedId = generatedKeys.getInt(1);
                     tc.setId(generatedId);
+                    invalidateSchedules();
                     return generatedId;
                 } else {
                     throw new SQLException("Creating tax configuration failed, no ID obtained.");
@@ -166,7 +177,9 @@ public class TaxConfigurationService {
             stmt.setBoolean(8, tc.isActive());
             stmt.setInt(9, tc.getId());
 
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            if (updated) invalidateSchedules();
+            return updated;
         }
     }
 
@@ -179,8 +192,68 @@ public class TaxConfigurationService {
         try (Connection conn = DatabaseConfig.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            if (deleted) invalidateSchedules();
+            return deleted;
+        }
+    }
+
+    // ==================== Compiled Schedules ====================
+
+    /**
+     * Returns the compiled schedule currently in force for a country and tax type.
+     * @see #getSchedule(String, String, LocalDate)
+     */
+    public TaxSchedule getSchedule(String country, String taxType) {
+        return getSchedule(country, taxType, LocalDate.now());
+    }
+
+    /**
+     * Returns the compiled schedule in force on {@code asOf}: the brackets with the latest
+     * effective date not after it (brackets without a date are always in force). If every
+     * set is dated later, the earliest one is used.
+     * Loaded and compiled on first use, then served from memory.
+     *
+     * @return the schedule, or {@link TaxSchedule#EMPTY} if no brackets exist or loading failed
+     */
+    public TaxSchedule getSchedule(String country, String taxType, LocalDate asOf) {
+        String key = country + "|" + taxType;
+        NavigableMap<LocalDate, TaxSchedule> byDate = scheduleCache.get(key);
+        if (byDate == null) {
+            try {
+                byDate = compileSchedules(findByCountryAndType(country, taxType));
+            } catch (SQLException e) {
+                // Not cached: the next call retries the database
+                logger.error("Failed to load {} brackets for country: {}", taxType, country, e);
+                return TaxSchedule.EMPTY;
+            }
+            NavigableMap<LocalDate, TaxSchedule> raced = scheduleCache.putIfAbsent(key, byDate);
+            if (raced != null) byDate = raced;
+        }
+        if (byDate.isEmpty()) return TaxSchedule.EMPTY;
+
+        Map.Entry<LocalDate, TaxSchedule> entry = byDate.floorEntry(asOf != null ? asOf : LocalDate.now());
+        return entry != null ? entry.getValue() : byDate.firstEntry().getValue();
+    }
+
+    /**
+     * Drops every compiled schedule. Called after each successful create/update/delete;
+     * call it as well after editing tax_configurations outside this service.
+     */
+    public void invalidateSchedules() {
+        scheduleCache.clear();
+    }
+
+    /** Groups brackets by effective date and compiles one schedule per date. */
+    static NavigableMap<LocalDate, TaxSchedule> compileSchedules(List<TaxConfiguration> brackets) {
+        Map<LocalDate, List<TaxConfiguration>> groups = new TreeMap<>();
+        for (TaxConfiguration tc : brackets) {
+            LocalDate date = tc.getEffectiveDate() != null ? tc.getEffectiveDate() : LocalDate.MIN;
+            groups.computeIfAbsent(date, d -> new ArrayList<>()).add(tc);
         }
+        NavigableMap<LocalDate, TaxSchedule> byDate = new TreeMap<>();
+        groups.forEach((date, group) -> byDate.put(date, TaxSchedule.compile(group)));
+        return byDate;
     }
 
     // ==================== Tax Calculation ====================
@@ -189,53 +262,19 @@ public class TaxConfigurationService {
      * Calculates progressive IRPP tax for a given annual salary.
      * Uses bracket-based progressive calculation:
      * For each bracket, tax = min(remaining salary in bracket, bracket size) * bracket rate.
+     * Evaluated on the cached {@link TaxSchedule}, without touching the database once compiled.
      *
      * @param annualSalary the gross annual salary
      * @param country      the country code (e.g., "Tunisia")
      * @return total IRPP tax amount, rounded to 2 decimal places
      */
     public BigDecimal calculateIRPP(BigDecimal annualSalary, String country) {
-        try {
-            List<TaxConfiguration> brackets = findByCountryAndType(country, "IRPP");
-
-            if (brackets.isEmpty()) {
-                logger.warn("No IRPP brackets found for country: {}", country);
-                return BigDecimal.ZERO;
-            }
-
-            BigDecimal totalTax = BigDecimal.ZERO;
-            BigDecimal remainingSalary = annualSalary;
-
-            for (TaxConfiguration bracket : brackets) {
-                if (remainingSalary.compareTo(BigDecimal.ZERO) <= 0) {
-                    break;
-                }
-
-                BigDecimal bracketMin = bracket.getMinBracket();
-                BigDecimal bracketMax = bracket.getMaxBracket();
-
-                BigDecimal bracketSize;
-                if (bracketMax != null) {
-                    bracketSize = bracketMax.subtract(bracketMin);
-                } else {
-                    // Last bracket: no upper limit
-                    bracketSize = remainingSalary;
-                }
-
-                BigDecimal taxableInBracket = remainingSalary.min(bracketSize);
-                BigDecimal bracketTax = taxableInBracket.multiply(bracket.getRate())
-                        .setScale(2, RoundingMode.HALF_UP);
-
-                totalTax = totalTax.add(bracketTax);
-                remainingSalary = remainingSalary.subtract(taxableInBracket);
-            }
-
-            return totalTax.setScale(2, RoundingMode.HALF_UP);
-
-        } catch (SQLException e) {
-            logger.error("Failed to calculate IRPP for country: {}", country, e);
+        TaxSchedule schedule = getSchedule(country, "IRPP");
+        if (schedule.isEmpty()) {
+            logger.warn("No IRPP brackets found for country: {}", country);
             return BigDecimal.ZERO;
         }
+        return schedule.tax(annualSalary);
     }
 
     // ==================== Private Helpers ====================
@@ -268,10 +307,10 @@ public class TaxConfigurationService {
     // ==================== Static Tax Calculation Utilities (from TaxCalculationService) ====================
 
     // CNSS rates for Tunisia
-    private static final BigDecimal CNSS_EMPLOYEE_RATE = new BigDecimal("0.0918"); // 9.18%
-    private static final BigDecimal CNSS_EMPLOYER_RATE = new BigDecimal("0.165");  // 16.5%
+    private static final long CNSS_EMPLOYEE_RATE = Money.rate(new BigDecimal("0.0918")); // 9.18%
+    private static final long CNSS_EMPLOYER_RATE = Money.rate(new BigDecimal("0.165"));  // 16.5%
 
-    // IRPP Tunisia progressive tax brackets (2025)
+    // IRPP Tunisia progressive tax brackets (2025): fallback when tax_configurations has none
     private static final BigDecimal[][] IRPP_BRACKETS_STATIC = {
             { new BigDecimal("0"), new BigDecimal("5000"), new BigDecimal("0") },
             { new BigDecimal("5000"), new BigDecimal("20000"), new BigDecimal("0.26") },
@@ -280,68 +319,48 @@ public class TaxConfigurationService {
             { new BigDecimal("50000"), new BigDecimal("999999999"), new BigDecimal("0.35") }
     };
 
+    private static final TaxSchedule IRPP_SCHEDULE_STATIC = TaxSchedule.compile(IRPP_BRACKETS_STATIC);
+
     /**
      * Complete salary calculation for TND.
      * Returns a detailed breakdown of all components (CNSS, IRPP, net, etc.).
-     * Static utility — does not require DB access.
+     * IRPP uses the cached Tunisia schedule from {@link #getSchedule(String, String)},
+     * falling back to the static 2025 table when no brackets are configured or the
+     * database is unreachable. Brackets are applied progressively on the full taxable
+     * income (e.g. 8 000 TND taxable gives 780.00), each bracket's tax rounded to cents.
      */
     public static Map<String, BigDecimal> calculateCompleteSalary(BigDecimal salaryInTND) {
         Map<String, BigDecimal> breakdown = new HashMap<>();
+        int scale = Money.DEFAULT_SCALE;
 
-        BigDecimal cnssEmployee = salaryInTND.multiply(CNSS_EMPLOYEE_RATE)
-                .setScale(2, RoundingMode.HALF_UP);
-        BigDecimal cnssEmployer = salaryInTND.multiply(CNSS_EMPLOYER_RATE)
-                .setScale(2, RoundingMode.HALF_UP);
+        long gross = Money.toMinor(salaryInTND, scale);
+        long cnssEmployee = Money.applyRate(gross, CNSS_EMPLOYEE_RATE);
+        long cnssEmployer = Money.applyRate(gross, CNSS_EMPLOYER_RATE);
 
-        BigDecimal taxableIncome = salaryInTND.subtract(cnssEmployee);
-        BigDecimal irpp = calculateProgressiveIRPPStatic(taxableIncome);
+        long taxableIncome = gross - cnssEmployee;
+        TaxSchedule schedule = getInstance().getSchedule("Tunisia", "IRPP");
+        if (schedule.isEmpty()) schedule = IRPP_SCHEDULE_STATIC;
+        long irpp = schedule.taxCents(taxableIncome);
 
-        BigDecimal totalDeductions = cnssEmployee.add(irpp);
-        BigDecimal netSalary = salaryInTND.subtract(totalDeductions);
+        long totalDeductions = cnssEmployee + irpp;
+        long netSalary = gross - totalDeductions;
 
         breakdown.put("grossSalaryTND", salaryInTND);
-        breakdown.put("cnssEmployee", cnssEmployee);
-        breakdown.put("cnssEmployer", cnssEmployer);
-        breakdown.put("taxableIncome", taxableIncome);
-        breakdown.put("irpp", irpp);
-        breakdown.put("totalDeductions", totalDeductions);
-        breakdown.put("netSalary", netSalary);
+        breakdown.put("cnssEmployee", Money.toBigDecimal(cnssEmployee, scale));
+        breakdown.put("cnssEmployer", Money.toBigDecimal(cnssEmployer, scale));
+        breakdown.put("taxableIncome", Money.toBigDecimal(taxableIncome, scale));
+        breakdown.put("irpp", Money.toBigDecimal(irpp, scale));
+        breakdown.put("totalDeductions", Money.toBigDecimal(totalDeductions, scale));
+        breakdown.put("netSalary", Money.toBigDecimal(netSalary, scale));
+        // deductions / gross rounded to 4 places, times 100 (scale 4, as before)
         breakdown.put("effectiveTaxRate",
-                salaryInTND.compareTo(BigDecimal.ZERO) > 0
-                        ? totalDeductions.divide(salaryInTND, 4, RoundingMode.HALF_UP)
-                                .multiply(new BigDecimal("100"))
+                gross > 0
+                        ? BigDecimal.valueOf(Money.divide(totalDeductions * 10_000L, gross) * 100L, 4)
                         : BigDecimal.ZERO);
 
         return breakdown;
     }
 
-    /**
-     * Static progressive IRPP calculation using hardcoded Tunisian brackets.
-     */
-    private static BigDecimal calculateProgressiveIRPPStatic(BigDecimal taxableIncome) {
-        BigDecimal totalTax = BigDecimal.ZERO;
-        BigDecimal remainingIncome = taxableIncome;
-
-        for (BigDecimal[] bracket : IRPP_BRACKETS_STATIC) {
-            BigDecimal lowerBound = bracket[0];
-            BigDecimal upperBound = bracket[1];
-            BigDecimal taxRate = bracket[2];
-
-            if (remainingIncome.compareTo(lowerBound) <= 0) break;
-
-            BigDecimal bracketSize = upperBound.subtract(lowerBound);
-            BigDecimal taxableInBracket = remainingIncome.min(bracketSize);
-            BigDecimal taxForBracket = taxableInBracket.multiply(taxRate);
-
-            totalTax = totalTax.add(taxForBracket);
-            remainingIncome = remainingIncome.subtract(taxableInBracket);
-
-            if (remainingIncome.compareTo(BigDecimal.ZERO) <= 0) break;
-        }
-
-        return totalTax.setScale(2, RoundingMode.HALF_UP);
-    }
-
     /**
      * Tax optimization recommendations based on salary bracket.
      */
@@ -0,0 +1,163 @@
+package com.skilora.finance.service;
+
+import com.skilora.finance.entity.TaxConfiguration;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * TaxSchedule
+ *
+ * Immutable, compiled form of a progressive bracket table (one country, tax type and
+ * effective date). Amounts are held in millimes (1 TND = 1000) and rates in parts per
+ * million, in sorted primitive arrays, with the cumulative tax of all lower brackets
+ * precomputed. {@link #taxMillimes(long)} is then a binary search plus one multiply:
+ * O(log n) and allocation-free.
+ *
+ * Semantics match the original bracket walk: brackets are consumed in min_bracket order,
+ * each one taxing at most (max - min) of the income, the last open-ended bracket taxing
+ * the rest; each bracket's tax is rounded HALF_UP to 2 decimals.
+ * No JavaFX imports allowed.
+ */
+public final class TaxSchedule {
+
+    private static final long PPM = 1_000_000L;
+
+    /** Schedule with no brackets: always 0. */
+    public static final TaxSchedule EMPTY = new TaxSchedule(new long[0], new long[0], new long[0], new long[1], null);
+
+    /** Cumulative income (millimes) at which each bracket starts. */
+    private final long[] start;
+    /** Width of each bracket in millimes; Long.MAX_VALUE for an open-ended bracket. */
+    private final long[] width;
+    private final long[] ratePpm;
+    /** prefixTax[i] = tax of brackets 0..i-1 when fully consumed (millimes); length n + 1. */
+    private final long[] prefixTax;
+    private final LocalDate effectiveDate;
+
+    private TaxSchedule(long[] start, long[] width, long[] ratePpm, long[] prefixTax, LocalDate effectiveDate) {
+        this.start = start;
+        this.width = width;
+        this.ratePpm = ratePpm;
+        this.prefixTax = prefixTax;
+        this.effectiveDate = effectiveDate;
+    }
+
+    /**
+     * Compiles brackets sharing one effective date.
+     * Brackets after an open-ended one can never be reached and are ignored.
+     */
+    public static TaxSchedule compile(List<TaxConfiguration> brackets) {
+        if (brackets == null || brackets.isEmpty()) return EMPTY;
+        List<TaxConfiguration> sorted = new ArrayList<>(brackets);
+        sorted.sort(Comparator.comparing(TaxConfiguration::getMinBracket,
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        int n = sorted.size();
+        long[] start = new long[n];
+        long[] width = new long[n];
+        long[] rate = new long[n];
+        long[] prefix = new long[n + 1];
+        int count = 0;
+        long cursor = 0;
+        for (TaxConfiguration b : sorted) {
+            start[count] = cursor;
+            rate[count] = toPpm(b.getRate());
+            if (b.getMaxBracket() == null) {
+                width[count] = Long.MAX_VALUE;
+                count++;
+                break;
+            }
+            long min = b.getMinBracket() != null ? toMillimes(b.getMinBracket()) : 0L;
+            long w = Math.max(0L, toMillimes(b.getMaxBracket()) - min);
+            width[count] = w;
+            prefix[count + 1] = prefix[count] + bracketTax(w, rate[count]);
+            cursor += w;
+            count++;
+        }
+        return new TaxSchedule(Arrays.copyOf(start, count), Arrays.copyOf(width, count),
+                Arrays.copyOf(rate, count), Arrays.copyOf(prefix, count + 1),
+                sorted.get(0).getEffectiveDate());
+    }
+
+    /** Compiles a static {lower, upper, rate} table (upper null = open-ended). */
+    static TaxSchedule compile(BigDecimal[][] table) {
+        List<TaxConfiguration> brackets = new ArrayList<>(table.length);
+        for (BigDecimal[] row : table) {
+            TaxConfiguration tc = new TaxConfiguration();
+            tc.setMinBracket(row[0]);
+            tc.setMaxBracket(row[1]);
+            tc.setRate(row[2]);
+            brackets.add(tc);
+        }
+        return compile(brackets);
+    }
+
+    // ==================== Calculation ====================
+
+    /** Tax in millimes for an income in millimes. */
+    public long taxMillimes(long incomeMillimes) {
+        int n = start.length;
+        if (n == 0 || incomeMillimes <= 0) return 0L;
+
+        // Last bracket whose start is below the income
+        int lo = 0;
+        int hi = n - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (start[mid] < incomeMillimes) lo = mid;
+            else hi = mid - 1;
+        }
+        long inBracket = Math.min(incomeMillimes - start[lo], width[lo]);
+        return prefixTax[lo] + bracketTax(inBracket, ratePpm[lo]);
+    }
+
+    /** Tax in cents for an income in cents (the {@code Money} default scale). */
+    public long taxCents(long incomeCents) {
+        // Bracket taxes are whole cents, so the division is exact
+        return taxMillimes(Math.multiplyExact(incomeCents, 10L)) / 10L;
+    }
+
+    /** Tax for an income in TND, rounded to 2 decimals. */
+    public BigDecimal tax(BigDecimal income) {
+        if (income == null) return BigDecimal.ZERO.setScale(2);
+        long millimes = taxMillimes(toMillimes(income));
+        return BigDecimal.valueOf(millimes, 3).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    public boolean isEmpty() {
+        return start.length == 0;
+    }
+
+    public int size() {
+        return start.length;
+    }
+
+    /** Effective date of the compiled brackets (null if unspecified). */
+    public LocalDate getEffectiveDate() {
+        return effectiveDate;
+    }
+
+    // ==================== Fixed-point helpers ====================
+
+    /** Tax of one bracket slice, rounded HALF_UP to the cent (10 millimes). */
+    private static long bracketTax(long millimes, long ratePpm) {
+        if (millimes <= 0 || ratePpm == 0) return 0L;
+        // millimes * ppm / 1e6 = tax in millimes; / 10 more for cents
+        long cents = Math.addExact(Math.multiplyExact(millimes, ratePpm), 5 * PPM) / (10 * PPM);
+        return cents * 10;
+    }
+
+    static long toMillimes(BigDecimal amount) {
+        return amount.movePointRight(3).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static long toPpm(BigDecimal rate) {
+        return rate == null ? 0L : rate.movePointRight(6).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
@@ -0,0 +1,231 @@
+package com.skilora.finance.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * Money
+ *
+ * Fixed-point monetary amount: a {@code long} count of minor units at an explicit scale
+ * (2 by default — every amount column of the schema is DECIMAL(x,2)), tagged with a
+ * currency code. Rates (tax, CNSS, exchange) are {@code long} units at {@link #RATE_SCALE}.
+ * All rounding is HALF_UP, exactly as {@code BigDecimal.setScale(n, HALF_UP)}, so results
+ * are bit-identical to the former BigDecimal code.
+ *
+ * Hot paths (payroll runs, projections) use the static kernel on raw minor units and only
+ * build BigDecimal at the persistence boundary ({@link #toBigDecimal(long, int)}).
+ * No JavaFX imports allowed.
+ */
+public final class Money implements Comparable<Money> {
+
+    /** Scale of persisted amounts (DECIMAL(x,2)). */
+    public static final int DEFAULT_SCALE = 2;
+    /** Scale of rate units: exchange_rates.rate is DECIMAL(20,6), tax rates DECIMAL(8,4). */
+    public static final int RATE_SCALE = 6;
+
+    private static final long[] POW10 = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L,
+            100_000_000L, 1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L
+    };
+    private static final long RATE_ONE = POW10[RATE_SCALE];
+
+    private final long minor;
+    private final int scale;
+    private final String currency;
+
+    private Money(long minor, int scale, String currency) {
+        this.minor = minor;
+        this.scale = scale;
+        this.currency = currency;
+    }
+
+    // ==================== Factories ====================
+
+    public static Money of(BigDecimal amount, String currency) {
+        return of(amount, currency, DEFAULT_SCALE);
+    }
+
+    public static Money of(BigDecimal amount, String currency, int scale) {
+        checkScale(scale);
+        return new Money(toMinor(amount, scale), scale, normalize(currency));
+    }
+
+    public static Money ofMinor(long minor, String currency) {
+        return new Money(minor, DEFAULT_SCALE, normalize(currency));
+    }
+
+    public static Money ofMinor(long minor, String currency, int scale) {
+        checkScale(scale);
+        return new Money(minor, scale, normalize(currency));
+    }
+
+    public static Money zero(String currency) {
+        return new Money(0L, DEFAULT_SCALE, normalize(currency));
+    }
+
+    // ==================== Arithmetic ====================
+
+    public Money plus(Money other) {
+        checkCompatible(other);
+        return new Money(Math.addExact(minor, other.minor), scale, currency);
+    }
+
+    public Money minus(Money other) {
+        checkCompatible(other);
+        return new Money(Math.subtractExact(minor, other.minor), scale, currency);
+    }
+
+    public Money times(long factor) {
+        return new Money(Math.multiplyExact(minor, factor), scale, currency);
+    }
+
+    /** Multiplies by a rate, e.g. {@code times(Money.rate(new BigDecimal("0.0918")))}. */
+    public Money timesRate(long rateUnits) {
+        return new Money(applyRate(minor, rateUnits), scale, currency);
+    }
+
+    /** Divides by an integer, rounding HALF_UP (e.g. annual → monthly). */
+    public Money dividedBy(long divisor) {
+        return new Money(divide(minor, divisor), scale, currency);
+    }
+
+    /** Converts to another currency at {@code rateUnits} (1 unit of this = rate units of target). */
+    public Money convert(long rateUnits, String targetCurrency) {
+        return new Money(applyRate(minor, rateUnits), scale, normalize(targetCurrency));
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minor), scale, currency);
+    }
+
+    // ==================== Accessors ====================
+
+    public long getMinor() { return minor; }
+    public int getScale() { return scale; }
+    public String getCurrency() { return currency; }
+
+    public int signum() {
+        return Long.signum(minor);
+    }
+
+    public boolean isZero() {
+        return minor == 0L;
+    }
+
+    /** Persistence boundary: exact BigDecimal at this amount's scale. */
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(minor, scale);
+    }
+
+    /** Display boundary only — never feed the result back into calculations. */
+    public double toDouble() {
+        return toDouble(minor, scale);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        checkCompatible(other);
+        return Long.compare(minor, other.minor);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money)) return false;
+        Money m = (Money) o;
+        return minor == m.minor && scale == m.scale && currency.equals(m.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minor, scale, currency);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency;
+    }
+
+    // ==================== Kernel (raw minor units) ====================
+
+    /** BigDecimal → minor units at {@code scale}, HALF_UP. Null is 0. */
+    public static long toMinor(BigDecimal amount, int scale) {
+        if (amount == null) return 0L;
+        return amount.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /** Rate → units at {@link #RATE_SCALE}, HALF_UP. Null is 0. */
+    public static long rate(BigDecimal rate) {
+        return toMinor(rate, RATE_SCALE);
+    }
+
+    /** Minor units → BigDecimal at {@code scale}. */
+    public static BigDecimal toBigDecimal(long minor, int scale) {
+        return BigDecimal.valueOf(minor, scale);
+    }
+
+    /** Minor units → double, for display only. */
+    public static double toDouble(long minor, int scale) {
+        return (double) minor / POW10[scale];
+    }
+
+    /**
+     * {@code minor * rate}, rounded HALF_UP back to the scale of {@code minor}.
+     * Falls back to BigDecimal only if the intermediate product overflows a long.
+     */
+    public static long applyRate(long minor, long rateUnits) {
+        long product;
+        try {
+            product = Math.multiplyExact(minor, rateUnits);
+        } catch (ArithmeticException overflow) {
+            return BigDecimal.valueOf(minor).multiply(BigDecimal.valueOf(rateUnits))
+                    .divide(BigDecimal.valueOf(RATE_ONE), 0, RoundingMode.HALF_UP)
+                    .longValueExact();
+        }
+        return divide(product, RATE_ONE);
+    }
+
+    /** {@code dividend / divisor} rounded HALF_UP (ties away from zero, like BigDecimal). */
+    public static long divide(long dividend, long divisor) {
+        if (divisor == 0) throw new ArithmeticException("Division by zero");
+        if (divisor < 0) {
+            dividend = Math.negateExact(dividend);
+            divisor = -divisor;
+        }
+        long q = dividend / divisor;
+        long r = dividend % divisor;
+        // |r| >= divisor / 2, written to avoid overflowing 2 * |r|
+        if (Math.abs(r) >= divisor - Math.abs(r)) {
+            q += Long.signum(dividend);
+        }
+        return q;
+    }
+
+    /** Changes the scale of a minor-unit amount, HALF_UP when reducing. */
+    public static long rescale(long minor, int fromScale, int toScale) {
+        checkScale(fromScale);
+        checkScale(toScale);
+        if (toScale == fromScale) return minor;
+        if (toScale > fromScale) return Math.multiplyExact(minor, POW10[toScale - fromScale]);
+        return divide(minor, POW10[fromScale - toScale]);
+    }
+
+    // ==================== Private Helpers ====================
+
+    private void checkCompatible(Money other) {
+        if (scale != other.scale || !currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Incompatible amounts: " + this + " vs " + other);
+        }
+    }
+
+    private static void checkScale(int scale) {
+        if (scale < 0 || scale >= POW10.length) {
+            throw new IllegalArgumentException("Unsupported scale: " + scale);
+        }
+    }
+
+    private static String normalize(String currency) {
+        return currency == null || currency.isBlank() ? "TND" : currency.trim().toUpperCase();
+    }
+}
@@ -1,6 +1,7 @@
 package com.skilora.finance.utils;
 
 import com.lowagie.text.*;
+import com.lowagie.text.pdf.ColumnText;
 import com.lowagie.text.pdf.PdfContentByte;
 import com.lowagie.text.pdf.PdfPCell;
 import com.lowagie.text.pdf.PdfPTable;
@@ -11,12 +12,14 @@ import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 import java.awt.Color;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
@@ -24,6 +27,7 @@ import java.util.stream.Collectors;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Locale;
+import java.util.Optional;
 
 import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
 
@@ -48,6 +52,41 @@ public class PDFGenerator {
     private static final Color PDF_TEXT        = new Color(15, 23, 42);    // --text-main #0f172a
     private static final Color PDF_MUTED       = new Color(100, 116, 139); // --text-muted #64748b
 
+    // Pre-built fonts, shared by every document (never mutated). FontFactory.getFont
+    // resolves the family and allocates a new Font on each call.
+    private static final Font FONT_TEXT_10       = FontFactory.getFont(FontFactory.HELVETICA, 10, PDF_TEXT);
+    private static final Font FONT_TEXT_10_BOLD  = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10, PDF_TEXT);
+    private static final Font FONT_TEXT_13       = FontFactory.getFont(FontFactory.HELVETICA, 13, PDF_TEXT);
+    private static final Font FONT_TEXT_13_BOLD  = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 13, PDF_TEXT);
+    private static final Font FONT_TEXT_14       = FontFactory.getFont(FontFactory.HELVETICA, 14, PDF_TEXT);
+    private static final Font FONT_TEXT_16_BOLD  = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 16, PDF_TEXT);
+    private static final Font FONT_TEXT_20_BOLD  = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 20, PDF_TEXT);
+    private static final Font FONT_TEXT_26_BOLD  = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 26, PDF_TEXT);
+    private static final Font FONT_TEAL_7        = FontFactory.getFont(FontFactory.HELVETICA, 7, PDF_TEAL);
+    private static final Font FONT_TEAL_10       = FontFactory.getFont(FontFactory.HELVETICA, 10, PDF_TEAL);
+    private static final Font FONT_TEAL_11       = FontFactory.getFont(FontFactory.HELVETICA, 11, PDF_TEAL);
+    private static final Font FONT_TEAL_11_BOLD  = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 11, PDF_TEAL);
+    private static final Font FONT_TEAL_14_BOLD  = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14, PDF_TEAL);
+    private static final Font FONT_TEAL_16_BOLD  = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 16, PDF_TEAL);
+    private static final Font FONT_TEAL_18_BOLD  = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18, PDF_TEAL);
+    private static final Font FONT_MUTED_8       = FontFactory.getFont(FontFactory.HELVETICA, 8, PDF_MUTED);
+    private static final Font FONT_MUTED_10      = FontFactory.getFont(FontFactory.HELVETICA, 10, PDF_MUTED);
+
+    // Header band height reserved above the body (stamped from the cached chrome)
+    private static final float PAYSLIP_TOP_MARGIN = 90f;
+    private static final float REPORT_TOP_MARGIN  = 155f;
+
+    /** Page chrome rendered once per JVM, on first use. */
+    private static final class Chrome {
+        static final PdfTemplate PAYSLIP = PdfTemplate.render(PageSize.A4, PDFGenerator::paintPayslipChrome);
+        static final PdfTemplate REPORT  = PdfTemplate.render(PageSize.A4, PDFGenerator::paintReportChrome);
+    }
+
+    private static final DarkBackgroundEvent BACKGROUND = new DarkBackgroundEvent();
+
+    /** Rapport HTML template, read from the classpath once (empty if missing). */
+    private static volatile Optional<String> rapportTemplate;
+
     // ─── Public API ─────────────────────────────────────────────────────────
 
     /**
@@ -150,22 +189,34 @@ public class PDFGenerator {
             com.skilora.finance.entity.PayslipRow payslip,
             String employeeName, Stage ownerStage) {
 
-        String safeName = (employeeName != null ? employeeName : "Employe")
-                .replaceAll("[^a-zA-Z0-9_-]", "_");
-        String defaultName = "Bulletin_" + safeName + "_"
-                + payslip.getMonth() + "-" + payslip.getYear() + ".pdf";
+        File file = choosePayslipFile(payslip, employeeName, ownerStage);
+        return file != null ? generatePayslipToFile(file, payslip, employeeName) : null;
+    }
 
+    /**
+     * Asks where to save a payslip (FX thread). Returns the file with its extension fixed,
+     * or null if cancelled. Pair with {@link #generatePayslipToFile} off the FX thread.
+     */
+    public static File choosePayslipFile(
+            com.skilora.finance.entity.PayslipRow payslip,
+            String employeeName, Stage ownerStage) {
         FileChooser fileChooser = createFileChooser(
-                "Enregistrer le bulletin de paie", defaultName,
+                "Enregistrer le bulletin de paie", payslipFileName(payslip, employeeName),
                 "Rapports PDF (*.pdf)", "*.pdf",
                 "Fichiers HTML (*.html)", "*.html");
 
         File file = fileChooser.showSaveDialog(ownerStage);
         if (file == null) return null;
+        return ensureExtension(file, fileChooser.getSelectedExtensionFilter());
+    }
 
-        FileChooser.ExtensionFilter filter = fileChooser.getSelectedExtensionFilter();
-        file = ensureExtension(file, filter);
-
+    /**
+     * Write a payslip to a pre-chosen file, PDF or HTML by extension (no FileChooser — safe
+     * for background threads).
+     */
+    public static File generatePayslipToFile(File file,
+            com.skilora.finance.entity.PayslipRow payslip, String employeeName) {
+        if (file == null) return null;
         try {
             if (isPdf(file)) {
                 generatePayslipPDFInternal(file, payslip, employeeName);
@@ -179,6 +230,13 @@ public class PDFGenerator {
         }
     }
 
+    /** Default file name of a payslip, e.g. {@code Bulletin_Ali_Ben_Salah_3-2025.pdf}. */
+    public static String payslipFileName(com.skilora.finance.entity.PayslipRow payslip, String employeeName) {
+        String safeName = (employeeName != null ? employeeName : "Employe")
+                .replaceAll("[^a-zA-Z0-9_-]", "_");
+        return "Bulletin_" + safeName + "_" + payslip.getMonth() + "-" + payslip.getYear() + ".pdf";
+    }
+
     // ─── FileChooser helpers ────────────────────────────────────────────────
 
     private static FileChooser createFileChooser(String title, String initialFileName,
@@ -292,10 +350,8 @@ public class PDFGenerator {
         header.setWidthPercentage(100f);
         header.getDefaultCell().setBorder(Rectangle.NO_BORDER);
         header.getDefaultCell().setVerticalAlignment(Element.ALIGN_MIDDLE);
-        header.addCell(new Phrase(icon + "  ",
-                FontFactory.getFont(FontFactory.HELVETICA, 14, PDF_TEXT)));
-        header.addCell(new Phrase(sectionTitle,
-                FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14, PDF_TEAL)));
+        header.addCell(new Phrase(icon + "  ", FONT_TEXT_14));
+        header.addCell(new Phrase(sectionTitle, FONT_TEAL_14_BOLD));
 
         PdfPCell headerCell = new PdfPCell(header);
         headerCell.setBorder(Rectangle.LEFT);
@@ -323,37 +379,19 @@ public class PDFGenerator {
             String contractInfo, String bankInfo, String bonusInfo, String payslipInfo,
             String customSummary) throws DocumentException, IOException {
 
-        Document document = new Document(PageSize.A4, 40, 40, 50, 50);
-        PdfWriter writer = PdfWriter.getInstance(document, new FileOutputStream(file));
-        writer.setPageEvent(new DarkBackgroundEvent());
+        Document document = new Document(PageSize.A4, 40, 40, REPORT_TOP_MARGIN, 50);
+        PdfWriter writer = PdfWriter.getInstance(document,
+                new BufferedOutputStream(new FileOutputStream(file)));
+        writer.setPageEvent(BACKGROUND);
+        Chrome.REPORT.applyTo(writer);
         document.open();
 
-        Font fontReportTitle = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 26, PDF_TEXT);
-        Font fontSubtitle    = FontFactory.getFont(FontFactory.HELVETICA, 11, PDF_TEAL);
-        Font fontLogo        = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 20, PDF_TEXT);
-        Font fontTagline     = FontFactory.getFont(FontFactory.HELVETICA, 10, PDF_TEAL);
-        Font fontMetaLabel   = FontFactory.getFont(FontFactory.HELVETICA, 10, PDF_MUTED);
-        Font fontMetaValue   = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 13, PDF_TEXT);
-        Font fontBody        = FontFactory.getFont(FontFactory.HELVETICA, 13, PDF_TEXT);
-        Font fontFooter      = FontFactory.getFont(FontFactory.HELVETICA, 10, PDF_MUTED);
-
-        // HEADER
-        PdfPTable headerTable = new PdfPTable(2);
-        headerTable.setWidthPercentage(100f);
-        headerTable.getDefaultCell().setBorder(Rectangle.NO_BORDER);
-        headerTable.getDefaultCell().setVerticalAlignment(Element.ALIGN_TOP);
-        headerTable.addCell(new Phrase("Rapport\nFinancier", fontReportTitle));
-        Paragraph logoBlock = new Paragraph();
-        logoBlock.add(new Chunk("SKIL", fontLogo));
-        logoBlock.add(new Chunk("O", FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18, PDF_TEAL)));
-        logoBlock.add(new Chunk("RA", fontLogo));
-        logoBlock.setAlignment(Element.ALIGN_RIGHT);
-        headerTable.addCell(logoBlock);
-        document.add(headerTable);
-        document.add(new Paragraph("Document confidentiel · Gestion Finance", fontSubtitle));
-        document.add(new Paragraph("Prove your skills · Land your job", fontTagline));
-        document.add(new Paragraph(" ", fontBody));
-        document.add(new Paragraph(" ", fontBody));
+        Font fontMetaLabel   = FONT_MUTED_10;
+        Font fontMetaValue   = FONT_TEXT_13_BOLD;
+        Font fontBody        = FONT_TEXT_13;
+        Font fontFooter      = FONT_MUTED_10;
+
+        // HEADER: stamped from the cached chrome (see paintReportChrome)
 
         // META BAR
         PdfPTable metaTable = new PdfPTable(2);
@@ -393,8 +431,7 @@ public class PDFGenerator {
 
         document.add(new Paragraph(" ", fontBody));
         document.add(new Paragraph("— Document confidentiel — Skilora Gestion Finance —", fontFooter));
-        Paragraph seal = new Paragraph("\u2726",
-                FontFactory.getFont(FontFactory.HELVETICA, 10, PDF_TEAL));
+        Paragraph seal = new Paragraph("\u2726", FONT_TEAL_10);
         seal.setAlignment(Element.ALIGN_CENTER);
         document.add(seal);
         document.add(new Paragraph("© " + LocalDate.now().getYear() + " Skilora", fontFooter));
@@ -407,27 +444,27 @@ public class PDFGenerator {
             com.skilora.finance.entity.PayslipRow p, String empName)
             throws DocumentException, IOException {
 
-        Document document = new Document(PageSize.A4, 40, 40, 50, 50);
-        PdfWriter writer = PdfWriter.getInstance(document, new FileOutputStream(file));
-        writer.setPageEvent(new DarkBackgroundEvent());
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            writePayslipPdf(out, p, empName);
+        }
+    }
+
+    /**
+     * Renders a payslip PDF into {@code out} (closed when the document is closed).
+     * Thread-safe: fonts and page chrome are shared, everything else is per call.
+     */
+    public static void writePayslipPdf(OutputStream out,
+            com.skilora.finance.entity.PayslipRow p, String empName) throws DocumentException {
+
+        Document document = new Document(PageSize.A4, 40, 40, PAYSLIP_TOP_MARGIN, 50);
+        PdfWriter writer = PdfWriter.getInstance(document, out);
+        writer.setPageEvent(BACKGROUND);
+        Chrome.PAYSLIP.applyTo(writer);
         document.open();
 
-        Font fontTitle  = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 16, PDF_TEAL);
-        @SuppressWarnings("unused")
-        Font fontLabel  = FontFactory.getFont(FontFactory.HELVETICA, 9, PDF_MUTED);
-        Font fontValue  = FontFactory.getFont(FontFactory.HELVETICA, 10, PDF_TEXT);
-        Font fontAmount = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 11, PDF_TEAL);
-        Font fontFooter = FontFactory.getFont(FontFactory.HELVETICA, 8, PDF_MUTED);
-
-        Paragraph logo = new Paragraph();
-        logo.add(new Chunk("SKIL", FontFactory.getFont(FontFactory.HELVETICA_BOLD, 16, PDF_TEXT)));
-        logo.add(new Chunk("O", FontFactory.getFont(FontFactory.HELVETICA_BOLD, 16, PDF_TEAL)));
-        logo.add(new Chunk("RA", FontFactory.getFont(FontFactory.HELVETICA_BOLD, 16, PDF_TEXT)));
-        logo.setAlignment(Element.ALIGN_CENTER);
-        document.add(logo);
-        document.add(new Paragraph("Prove your skills · Land your job",
-                FontFactory.getFont(FontFactory.HELVETICA, 7, PDF_TEAL)));
-        document.add(new Paragraph(" ", fontValue));
+        Font fontTitle  = FONT_TEAL_16_BOLD;
+        Font fontValue  = FONT_TEXT_10;
+        Font fontAmount = FONT_TEAL_11_BOLD;
 
         document.add(new Paragraph("Bulletin de paie", fontTitle));
         document.add(new Paragraph("Periode : " + p.getMonth() + " / " + p.getYear(), fontValue));
@@ -458,23 +495,51 @@ public class PDFGenerator {
         document.add(new Paragraph("Net a payer : "
                 + String.format(Locale.FRANCE, "%.2f", p.getNet()) + " "
                 + (p.getCurrency() != null ? p.getCurrency() : "TND"), fontAmount));
-        document.add(new Paragraph(" ", fontValue));
-        document.add(new Paragraph(
-                "— Document genere electroniquement — Skilora Gestion Finance —", fontFooter));
         document.close();
     }
 
     private static PdfPCell cellPdf(String text, boolean header) {
-        Font f = header
-                ? FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10, PDF_TEXT)
-                : FontFactory.getFont(FontFactory.HELVETICA, 10, PDF_TEXT);
-        PdfPCell c = new PdfPCell(new Phrase(text, f));
+        PdfPCell c = new PdfPCell(new Phrase(text, header ? FONT_TEXT_10_BOLD : FONT_TEXT_10));
         c.setBackgroundColor(PDF_CARD_BG);
         c.setBorderColor(PDF_DARK_BORDER);
         c.setPadding(8);
         return c;
     }
 
+    // ─── Cached page chrome ─────────────────────────────────────────────────
+
+    private static void paintPayslipChrome(PdfContentByte cb, Rectangle page) {
+        float cx = page.getWidth() / 2f;
+        float top = page.getHeight() - 50f;
+        Phrase logo = new Phrase();
+        logo.add(new Chunk("SKIL", FONT_TEXT_16_BOLD));
+        logo.add(new Chunk("O", FONT_TEAL_16_BOLD));
+        logo.add(new Chunk("RA", FONT_TEXT_16_BOLD));
+        ColumnText.showTextAligned(cb, Element.ALIGN_CENTER, logo, cx, top - 14f, 0);
+        ColumnText.showTextAligned(cb, Element.ALIGN_CENTER,
+                new Phrase("Prove your skills · Land your job", FONT_TEAL_7), cx, top - 26f, 0);
+        ColumnText.showTextAligned(cb, Element.ALIGN_CENTER,
+                new Phrase("— Document genere electroniquement — Skilora Gestion Finance —", FONT_MUTED_8),
+                cx, 30f, 0);
+    }
+
+    private static void paintReportChrome(PdfContentByte cb, Rectangle page) {
+        float left = 40f;
+        float right = page.getWidth() - 40f;
+        float top = page.getHeight() - 50f;
+        ColumnText.showTextAligned(cb, Element.ALIGN_LEFT, new Phrase("Rapport", FONT_TEXT_26_BOLD), left, top - 24f, 0);
+        ColumnText.showTextAligned(cb, Element.ALIGN_LEFT, new Phrase("Financier", FONT_TEXT_26_BOLD), left, top - 52f, 0);
+        Phrase logo = new Phrase();
+        logo.add(new Chunk("SKIL", FONT_TEXT_20_BOLD));
+        logo.add(new Chunk("O", FONT_TEAL_18_BOLD));
+        logo.add(new Chunk("RA", FONT_TEXT_20_BOLD));
+        ColumnText.showTextAligned(cb, Element.ALIGN_RIGHT, logo, right, top - 20f, 0);
+        ColumnText.showTextAligned(cb, Element.ALIGN_LEFT,
+                new Phrase("Document confidentiel · Gestion Finance", FONT_TEAL_11), left, top - 76f, 0);
+        ColumnText.showTextAligned(cb, Element.ALIGN_LEFT,
+                new Phrase("Prove your skills · Land your job", FONT_TEAL_10), left, top - 90f, 0);
+    }
+
     // ─── Text utilities ─────────────────────────────────────────────────────
 
     private static String htmlToReadableText(String html) {
@@ -503,6 +568,15 @@ public class PDFGenerator {
     // ─── HTML Report Generation ─────────────────────────────────────────────
 
     private static String loadRapportTemplate() throws IOException {
+        Optional<String> cached = rapportTemplate;
+        if (cached == null) {
+            cached = Optional.ofNullable(readRapportTemplate());
+            rapportTemplate = cached;
+        }
+        return cached.orElse(null);
+    }
+
+    private static String readRapportTemplate() throws IOException {
         URL url = PDFGenerator.class.getResource("/com/skilora/view/finance/rapport_financier_template.html");
         if (url == null)
             url = PDFGenerator.class.getClassLoader()
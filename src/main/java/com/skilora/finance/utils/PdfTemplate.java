@@ -0,0 +1,88 @@
+package com.skilora.finance.utils;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.PdfContentByte;
+import com.lowagie.text.pdf.PdfImportedPage;
+import com.lowagie.text.pdf.PdfPageEventHelper;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.PdfWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * PdfTemplate
+ *
+ * Page chrome (header band, footer line) rendered once into a one-page PDF and reused by
+ * every document of the same kind. A document imports the cached page as a form XObject
+ * on its first page and stamps that reference on each page, instead of rebuilding the
+ * logo chunks and fonts per document.
+ *
+ * Immutable and thread-safe: the cached bytes are shared, each document gets its own
+ * reader and imported page.
+ * No JavaFX imports allowed.
+ */
+public final class PdfTemplate {
+
+    /** Draws the chrome onto an empty page of the given size. */
+    @FunctionalInterface
+    public interface Painter {
+        void paint(PdfContentByte canvas, Rectangle pageSize) throws DocumentException;
+    }
+
+    private final byte[] pdf;
+
+    private PdfTemplate(byte[] pdf) {
+        this.pdf = pdf;
+    }
+
+    /** Renders the chrome once. */
+    public static PdfTemplate render(Rectangle pageSize, Painter painter) {
+        Document document = new Document(pageSize, 0, 0, 0, 0);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            document.open();
+            painter.paint(writer.getDirectContent(), pageSize);
+            writer.setPageEmpty(false);
+            document.close();
+        } catch (DocumentException e) {
+            throw new IllegalStateException("Cannot render PDF template", e);
+        }
+        return new PdfTemplate(out.toByteArray());
+    }
+
+    /** Stamps the chrome on every page written by {@code writer}. Call before opening the document. */
+    public void applyTo(PdfWriter writer) {
+        apply(writer, false);
+    }
+
+    /** Like {@link #applyTo} but under the page content, for chrome that fills the page. */
+    public void applyAsBackground(PdfWriter writer) {
+        apply(writer, true);
+    }
+
+    private void apply(PdfWriter writer, boolean under) {
+        writer.setPageEvent(new PdfPageEventHelper() {
+            private PdfImportedPage page;
+
+            @Override
+            public void onEndPage(PdfWriter w, Document document) {
+                try {
+                    if (page == null) {
+                        page = w.getImportedPage(new PdfReader(pdf), 1);
+                    }
+                    (under ? w.getDirectContentUnder() : w.getDirectContent()).addTemplate(page, 0, 0);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Cannot import PDF template", e);
+                }
+            }
+        });
+    }
+
+    public int sizeInBytes() {
+        return pdf.length;
+    }
+}
@@ -4,6 +4,7 @@ import com.lowagie.text.Document;
 import com.lowagie.text.PageSize;
 import com.lowagie.text.pdf.PdfWriter;
 import com.skilora.formation.entity.Certificate;
+import com.skilora.formation.service.CertificateService;
 import com.skilora.formation.service.CertificateVerificationServer;
 import com.skilora.framework.components.TLButton;
 import com.skilora.framework.layouts.TLAppLayout;
@@ -225,8 +226,11 @@ public class CertificateViewController {
                 return;
             }
 
-            String qrUrl = "http://" + localIP + ":" + serverPort + "/verify/" + certId.trim();
-            String localhostUrl = "http://localhost:" + serverPort + "/verify/" + certId.trim();
+            // Signed token verifies without a certificate lookup; fall back to the plain ID
+            String signedToken = CertificateService.getInstance().getSignedVerificationToken(cert);
+            String verifyPath = signedToken != null ? "/verify/s/" + signedToken : "/verify/" + certId.trim();
+            String qrUrl = "http://" + localIP + ":" + serverPort + verifyPath;
+            String localhostUrl = "http://localhost:" + serverPort + verifyPath;
             logger.info("QR Code URL: {}", qrUrl);
 
             boolean isLanIP = localIP.startsWith("192.168.") || localIP.startsWith("10.") ||
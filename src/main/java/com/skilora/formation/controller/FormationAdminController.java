@@ -4,6 +4,7 @@ import com.skilora.framework.components.TLBadge;
 import com.skilora.framework.components.TLButton;
 import com.skilora.framework.components.TLCard;
 import com.skilora.framework.components.TLDialog;
+import com.skilora.framework.components.TLProgress;
 import com.skilora.framework.components.TLSelect;
 import com.skilora.framework.components.TLSeparator;
 import com.skilora.framework.components.TLTextField;
@@ -12,6 +13,8 @@ import com.skilora.framework.components.TLToast;
 import com.skilora.formation.entity.Formation;
 import com.skilora.formation.entity.FormationModule;
 import com.skilora.formation.enums.FormationLevel;
+import com.skilora.formation.service.CertificateGenerationService;
+import com.skilora.formation.service.CohortCertificationJob;
 import com.skilora.formation.service.EnrollmentService;
 import com.skilora.formation.service.FormationModuleService;
 import com.skilora.formation.service.FormationService;
@@ -43,6 +46,7 @@ import javafx.scene.layout.Priority;
 import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
+import javafx.stage.DirectoryChooser;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,6 +54,7 @@ import org.slf4j.LoggerFactory;
 import javax.imageio.ImageIO;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.net.URL;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -263,6 +268,9 @@ public class FormationAdminController implements Initializable {
         modulesBtn.setGraphic(SvgIcons.icon(SvgIcons.LAYERS, 14, "-fx-foreground"));
         modulesBtn.setOnAction(e -> showModulesDialog(formation));
 
+        TLButton certifyBtn = new TLButton(I18n.get("formation.admin.certify"), TLButton.ButtonVariant.SECONDARY, TLButton.ButtonSize.SM);
+        certifyBtn.setOnAction(e -> handleCertifyCohort(formation));
+
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
 
@@ -270,7 +278,7 @@ public class FormationAdminController implements Initializable {
         deleteBtn.setGraphic(SvgIcons.icon(SvgIcons.TRASH, 14, "-fx-destructive-foreground"));
         deleteBtn.setOnAction(e -> handleDelete(formation));
 
-        actionsRow.getChildren().addAll(editBtn, modulesBtn, spacer, deleteBtn);
+        actionsRow.getChildren().addAll(editBtn, modulesBtn, certifyBtn, spacer, deleteBtn);
 
         content.getChildren().addAll(badgeRow, titleLabel, metaRow, new TLSeparator(), actionsRow);
         card.getContent().add(content);
@@ -767,6 +775,55 @@ public class FormationAdminController implements Initializable {
         }
     }
 
+    // ═══════════════════════════════════════════════════════════════
+    //  Certify Cohort
+    // ═══════════════════════════════════════════════════════════════
+
+    private void handleCertifyCohort(Formation formation) {
+        DirectoryChooser chooser = new DirectoryChooser();
+        chooser.setTitle(I18n.get("formation.admin.certify_title"));
+        File outputDir = chooser.showDialog(formationsContainer.getScene().getWindow());
+        if (outputDir == null) return;
+
+        TLProgress progress = new TLProgress(0);
+        progress.setMaxWidth(Double.MAX_VALUE);
+        Label progressLabel = new Label(I18n.get("common.loading"));
+        progressLabel.getStyleClass().add("text-muted");
+
+        TLDialog<ButtonType> dialog = new TLDialog<>();
+        dialog.setTitle(I18n.get("formation.admin.certify_title"));
+        dialog.setDialogTitle(I18n.get("formation.admin.certify_title"));
+        dialog.setDescription(I18n.get("formation.admin.certify_desc", formation.getTitle()));
+        dialog.setContent(new VBox(10, progress, progressLabel));
+        dialog.addButton(ButtonType.CANCEL);
+        dialog.styleButtons();
+
+        CohortCertificationJob job = CertificateGenerationService.getInstance().certifyCohort(
+                formation.getId(), outputDir, (done, total) -> Platform.runLater(() -> {
+                    progress.setProgress(total == 0 ? 1 : (double) done / total);
+                    progressLabel.setText(I18n.get("formation.admin.certify_progress", done, total));
+                }));
+
+        job.getResult().whenComplete((result, ex) -> Platform.runLater(() -> {
+            dialog.close();
+            if (formationsContainer.getScene() == null) return;
+            if (ex != null) {
+                TLToast.error(formationsContainer.getScene(),
+                        I18n.get("common.error"), I18n.get("formation.admin.certify_error"));
+            } else if (result.isCancelled()) {
+                TLToast.warning(formationsContainer.getScene(), I18n.get("formation.admin.certify_title"),
+                        I18n.get("formation.admin.certify_cancelled", result.getIssued()));
+            } else {
+                TLToast.success(formationsContainer.getScene(), I18n.get("formation.admin.certify_title"),
+                        I18n.get("formation.admin.certify_done", result.getIssued(), result.getFailed()));
+            }
+        }));
+
+        // Closing the dialog before the job finishes means cancel
+        dialog.showAndWait();
+        if (!job.getResult().isDone()) job.cancel();
+    }
+
     // ═══════════════════════════════════════════════════════════════
     //  Manage Modules Dialog
     // ═══════════════════════════════════════════════════════════════
@@ -298,12 +298,43 @@ public class FormationsController implements Initializable {
         emptyState.setManaged(false);
         statsLabel.setText(I18n.get("formations.count", formations.size()));
 
+        Map<Integer, HBox> ratingRows = new HashMap<>();
         for (Formation f : formations) {
-            formationsGrid.getChildren().add(createFormationCard(f));
+            formationsGrid.getChildren().add(createFormationCard(f, ratingRows));
         }
+        loadCardRatings(ratingRows);
     }
 
-    private TLCard createFormationCard(Formation formation) {
+    /** Fills every card's rating row from one bulk statistics lookup. */
+    private void loadCardRatings(Map<Integer, HBox> ratingRows) {
+        AppThreadPool.execute(() -> {
+            try {
+                Map<Integer, FormationRatingService.RatingStatistics> stats =
+                        formationRatingService.getStatistics(ratingRows.keySet());
+                Platform.runLater(() -> ratingRows.forEach((id, row) -> {
+                    FormationRatingService.RatingStatistics s = stats.get(id);
+                    if (s != null && s.getTotalRatings() > 0) {
+                        Label avgLbl = new Label(String.format("%.1f", s.getAverageRating()));
+                        avgLbl.setGraphic(SvgIcons.filledIcon(SvgIcons.STAR, 12, "#facc15"));
+                        avgLbl.setStyle("-fx-font-weight: bold; -fx-font-size: 12px;");
+
+                        Label countLbl = new Label("(" + s.getTotalRatings() + ")");
+                        countLbl.getStyleClass().add("text-muted");
+
+                        Label thumbsLbl = new Label(s.getLikeCount() + " \u25b2  " + s.getDislikeCount() + " \u25bc");
+                        thumbsLbl.getStyleClass().add("text-muted");
+                        thumbsLbl.setStyle("-fx-font-size: 11px;");
+
+                        row.getChildren().setAll(avgLbl, countLbl, thumbsLbl);
+                    }
+                }));
+            } catch (Exception ex) {
+                logger.debug("Could not load rating stats for cards: {}", ex.getMessage());
+            }
+        });
+    }
+
+    private TLCard createFormationCard(Formation formation, Map<Integer, HBox> ratingRows) {
         TLCard card = new TLCard();
         card.setPrefWidth(320);
         card.setMinWidth(280);
@@ -352,29 +383,7 @@ public class FormationsController implements Initializable {
         // Rating stats row (aggregate from all users)
         HBox ratingRow = new HBox(8);
         ratingRow.setAlignment(Pos.CENTER_LEFT);
-        AppThreadPool.execute(() -> {
-            try {
-                FormationRatingService.RatingStatistics stats = formationRatingService.getStatistics(formation.getId());
-                if (stats.getTotalRatings() > 0) {
-                    Platform.runLater(() -> {
-                        Label avgLbl = new Label(String.format("%.1f", stats.getAverageRating()));
-                        avgLbl.setGraphic(SvgIcons.filledIcon(SvgIcons.STAR, 12, "#facc15"));
-                        avgLbl.setStyle("-fx-font-weight: bold; -fx-font-size: 12px;");
-
-                        Label countLbl = new Label("(" + stats.getTotalRatings() + ")");
-                        countLbl.getStyleClass().add("text-muted");
-
-                        Label thumbsLbl = new Label(stats.getLikeCount() + " \u25b2  " + stats.getDislikeCount() + " \u25bc");
-                        thumbsLbl.getStyleClass().add("text-muted");
-                        thumbsLbl.setStyle("-fx-font-size: 11px;");
-
-                        ratingRow.getChildren().setAll(avgLbl, countLbl, thumbsLbl);
-                    });
-                }
-            } catch (Exception ex) {
-                logger.debug("Could not load rating stats for card: {}", ex.getMessage());
-            }
-        });
+        ratingRows.put(formation.getId(), ratingRow);
 
         // Check if user is enrolled
         Enrollment enrollment = userEnrollments.get(formation.getId());
@@ -467,7 +476,12 @@ public class FormationsController implements Initializable {
         backRow.setAlignment(Pos.CENTER_LEFT);
         TLButton backBtn = new TLButton(I18n.get("common.back"), TLButton.ButtonVariant.OUTLINE);
         backBtn.setGraphic(SvgIcons.icon(SvgIcons.ARROW_LEFT, 14));
-        backBtn.setOnAction(e -> hideCourseDetail());
+        backBtn.setOnAction(e -> {
+            if (enrollment != null) {
+                AppThreadPool.execute(() -> lessonProgressService.endSession(enrollment.getId()));
+            }
+            hideCourseDetail();
+        });
         backRow.getChildren().add(backBtn);
 
         // ── Header section ──
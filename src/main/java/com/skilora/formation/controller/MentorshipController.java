@@ -4,6 +4,7 @@ import com.skilora.framework.components.*;
 import com.skilora.formation.entity.Mentorship;
 import com.skilora.formation.enums.MentorshipStatus;
 import com.skilora.user.entity.User;
+import com.skilora.formation.service.MentorMatchingEngine;
 import com.skilora.formation.service.MentorshipService;
 import com.skilora.utils.AppThreadPool;
 import com.skilora.utils.DialogUtils;
@@ -46,6 +47,8 @@ public class MentorshipController implements Initializable {
         titleLabel.setText(I18n.get("mentorship.title"));
         showingMentorView = false;
         loadMenteeView();
+        // Rank mentors ahead of time so the request dialog opens without scoring
+        AppThreadPool.execute(() -> MentorshipService.getInstance().suggestMentors(user.getId()));
     }
 
     @FXML
@@ -55,7 +58,21 @@ public class MentorshipController implements Initializable {
         Task<LinkedHashMap<Integer, String>> loadMentorsTask = new Task<>() {
             @Override
             protected LinkedHashMap<Integer, String> call() {
-                return MentorshipService.getInstance().findAvailableMentors(currentUser.getId());
+                MentorshipService service = MentorshipService.getInstance();
+                LinkedHashMap<Integer, String> available = service.findAvailableMentors(currentUser.getId());
+                // Best matches first, labelled with their compatibility
+                LinkedHashMap<Integer, String> ordered = new LinkedHashMap<>();
+                for (MentorMatchingEngine.Suggestion suggestion : service.suggestMentors(currentUser.getId())) {
+                    String name = available.get(suggestion.getMentorId());
+                    if (name != null) {
+                        ordered.put(suggestion.getMentorId(),
+                                I18n.get("mentorship.match", name, suggestion.getScorePercent()));
+                    }
+                }
+                for (Map.Entry<Integer, String> entry : available.entrySet()) {
+                    ordered.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+                return ordered;
             }
         };
 
@@ -4,6 +4,8 @@ import com.skilora.formation.entity.Quiz;
 import com.skilora.formation.entity.QuizQuestion;
 import com.skilora.formation.entity.QuizResult;
 import com.skilora.formation.service.QuizService;
+import com.skilora.formation.service.QuizSessionEngine;
+import com.skilora.formation.service.QuizSessionEngine.QuizSession;
 import com.skilora.framework.components.*;
 import com.skilora.utils.AppThreadPool;
 import com.skilora.utils.I18n;
@@ -23,7 +25,6 @@ import javafx.util.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -36,6 +37,7 @@ public class QuizController {
 
     private static final Logger logger = LoggerFactory.getLogger(QuizController.class);
     private static final QuizService quizService = QuizService.getInstance();
+    private static final QuizSessionEngine quizSessionEngine = QuizSessionEngine.getInstance();
 
     private QuizController() {}
 
@@ -150,20 +152,18 @@ public class QuizController {
 
     private static void openQuizSession(Quiz quiz, int userId, Scene scene) {
         AppThreadPool.execute(() -> {
-            List<QuizQuestion> questions = quizService.getQuestions(quiz.getId());
-            int attempts = quizService.getAttemptCount(quiz.getId(), userId);
-            QuizResult bestResult = quizService.getBestResult(quiz.getId(), userId);
+            QuizSession session = quizSessionEngine.startSession(quiz.getId(), userId);
 
             Platform.runLater(() -> {
-                if (questions == null || questions.isEmpty()) {
+                if (session == null || session.getBundle().getQuestions().isEmpty()) {
                     TLToast.warning(scene, I18n.get("quiz.title"), I18n.get("quiz.no_questions"));
                     return;
                 }
-                if (attempts >= quiz.getMaxAttempts()) {
-                    showMaxAttemptsDialog(quiz, bestResult, scene);
+                if (!session.hasAttemptsLeft()) {
+                    showMaxAttemptsDialog(quiz, session.getBestResult(), scene);
                     return;
                 }
-                showQuizTakingDialog(quiz, questions, userId, attempts, bestResult, scene);
+                showQuizTakingDialog(quiz, session, scene);
             });
         });
     }
@@ -200,13 +200,12 @@ public class QuizController {
 
     // ── Main quiz-taking dialog ─────────────────────────────────────
 
-    private static void showQuizTakingDialog(Quiz quiz, List<QuizQuestion> questions,
-                                              int userId, int previousAttempts,
-                                              QuizResult bestResult, Scene scene) {
+    private static void showQuizTakingDialog(Quiz quiz, QuizSession session, Scene scene) {
+        final List<QuizQuestion> questions = session.getBundle().getQuestions();
+        final QuizResult bestResult = session.getBestResult();
         final int totalQuestions = questions.size();
         final int[] currentIndex = {0};
         final Map<Integer, Character> answers = new HashMap<>();
-        final long startTime = System.currentTimeMillis();
 
         TLDialog<ButtonType> dialog = new TLDialog<>();
         dialog.initOwner(scene.getWindow());
@@ -310,8 +309,7 @@ public class QuizController {
                 }
                 if (remainingSeconds[0] <= 0) {
                     timer.stop();
-                    submitQuiz(quiz, questions, answers, userId, previousAttempts,
-                            startTime, dialog, scene);
+                    submitQuiz(quiz, session, answers, dialog, scene);
                 }
             }));
             timer.setCycleCount(Animation.INDEFINITE);
@@ -382,8 +380,7 @@ public class QuizController {
 
         submitBtn.setOnAction(e -> {
             timer.stop();
-            submitQuiz(quiz, questions, answers, userId, previousAttempts,
-                    startTime, dialog, scene);
+            submitQuiz(quiz, session, answers, dialog, scene);
         });
 
         // Cleanup timer when dialog closes
@@ -427,43 +424,21 @@ public class QuizController {
 
     // ── Submit & score ──────────────────────────────────────────────
 
-    private static void submitQuiz(Quiz quiz, List<QuizQuestion> questions,
-                                    Map<Integer, Character> answers, int userId,
-                                    int previousAttempts, long startTime,
+    private static void submitQuiz(Quiz quiz, QuizSession session, Map<Integer, Character> answers,
                                     TLDialog<ButtonType> quizDialog, Scene scene) {
-        int score = 0;
-        int maxScore = 0;
-        for (QuizQuestion q : questions) {
-            maxScore += q.getPoints();
-            Character userAnswer = answers.get(q.getId());
-            if (userAnswer != null && userAnswer == q.getCorrectOption()) {
-                score += q.getPoints();
-            }
-        }
-
-        int percentage = maxScore > 0 ? (int) Math.round((double) score / maxScore * 100) : 0;
-        boolean passed = percentage >= quiz.getPassScore();
-        int timeSpent = (int) ((System.currentTimeMillis() - startTime) / 1000);
-
-        QuizResult result = new QuizResult();
-        result.setQuizId(quiz.getId());
-        result.setUserId(userId);
-        result.setScore(score);
-        result.setMaxScore(maxScore);
-        result.setPassed(passed);
-        result.setAttemptNumber(previousAttempts + 1);
-        result.setTakenDate(LocalDateTime.now());
-        result.setTimeSpentSeconds(timeSpent);
+        // Graded in memory from the cached answer key; stored with every answer in one transaction
+        QuizResult result = session.grade(answers);
+        Map<Integer, Character> submitted = new HashMap<>(answers);
 
         quizDialog.setResult(ButtonType.CLOSE);
         quizDialog.close();
 
         AppThreadPool.execute(() -> {
-            int resultId = quizService.submitResult(result);
+            int resultId = quizSessionEngine.submit(session, result, submitted);
             if (resultId < 0) {
-                logger.error("Failed to save quiz result for quiz={}, user={}", quiz.getId(), userId);
+                logger.error("Failed to save quiz result for quiz={}, user={}", quiz.getId(), session.getUserId());
             }
-            Platform.runLater(() -> showResultDialog(result, quiz, questions, answers, scene));
+            Platform.runLater(() -> showResultDialog(result, quiz, session.getBundle().getQuestions(), submitted, scene));
         });
     }
 
@@ -0,0 +1,15 @@
+package com.skilora.formation.enums;
+
+/**
+ * Domain events that move a user towards a badge.
+ * Emitted by the owning services after the change is stored.
+ */
+public enum AchievementEvent {
+    CONNECTION_ACCEPTED,
+    CONNECTION_REMOVED,
+    POST_CREATED,
+    ARTICLE_PUBLISHED,
+    MENTORSHIP_COMPLETED,
+    EVENT_CREATED,
+    GROUP_CREATED
+}
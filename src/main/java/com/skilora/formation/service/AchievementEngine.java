@@ -0,0 +1,320 @@
+package com.skilora.formation.service;
+
+import com.skilora.community.enums.ConnectionStatus;
+import com.skilora.config.DatabaseConfig;
+import com.skilora.formation.entity.Achievement;
+import com.skilora.formation.enums.AchievementEvent;
+import com.skilora.formation.enums.BadgeRarity;
+import com.skilora.formation.enums.MentorshipStatus;
+import com.skilora.utils.I18n;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AchievementEngine
+ *
+ * Rule-based badge awarding driven by {@link AchievementEvent}s. Each user's activity counters
+ * and owned rule badges (one bit per rule) are cached; an event adjusts one counter and only
+ * the rules on that counter are evaluated, so awarding needs no entity lists and no
+ * per-badge lookups. A user's state is loaded with two queries the first time they are seen
+ * after a cache miss, and already reflects the event that caused the load.
+ * No JavaFX imports allowed.
+ */
+public class AchievementEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(AchievementEngine.class);
+    private static volatile AchievementEngine instance;
+
+    static final int MAX_CACHED_USERS = 5_000;
+
+    /** Activity counters; order matches the columns of {@link #COUNTERS_SQL}. */
+    enum Counter { CONNECTIONS, POSTS, ARTICLES, MENTORSHIPS, EVENTS, GROUPS }
+
+    private static final String COUNTERS_SQL = """
+        SELECT
+            (SELECT COUNT(*) FROM connections WHERE (user_id_1 = ? OR user_id_2 = ?) AND status = ?),
+            (SELECT COUNT(*) FROM posts WHERE author_id = ?),
+            (SELECT COUNT(*) FROM blog_articles WHERE author_id = ? AND is_published = TRUE),
+            (SELECT COUNT(*) FROM mentorships WHERE mentor_id = ? AND status = ?),
+            (SELECT COUNT(*) FROM events WHERE organizer_id = ?),
+            (SELECT COUNT(*) FROM community_groups WHERE creator_id = ?)
+        """;
+
+    /** A badge earned once a counter reaches a threshold. Immutable. */
+    static final class Rule {
+        final int bit;
+        final String badgeType;
+        final Counter counter;
+        final int threshold;
+        final BadgeRarity rarity;
+        final int points;
+        final String messageKey;
+
+        Rule(int bit, String badgeType, Counter counter, int threshold, BadgeRarity rarity, int points,
+             String messageKey) {
+            this.bit = bit;
+            this.badgeType = badgeType;
+            this.counter = counter;
+            this.threshold = threshold;
+            this.rarity = rarity;
+            this.points = points;
+            this.messageKey = messageKey;
+        }
+
+        Achievement toAchievement(int userId) {
+            Achievement ach = new Achievement();
+            ach.setUserId(userId);
+            ach.setBadgeType(badgeType);
+            ach.setTitle(I18n.get(messageKey + ".title"));
+            ach.setDescription(I18n.get(messageKey + ".desc"));
+            ach.setRarity(rarity);
+            ach.setPoints(points);
+            return ach;
+        }
+    }
+
+    static final Rule[] RULES = {
+        new Rule(0, "FIRST_CONNECTION", Counter.CONNECTIONS, 1, BadgeRarity.COMMON, 10, "achievement.first_connection"),
+        new Rule(1, "NETWORKER", Counter.CONNECTIONS, 10, BadgeRarity.UNCOMMON, 25, "achievement.networker"),
+        new Rule(2, "SUPER_NETWORKER", Counter.CONNECTIONS, 50, BadgeRarity.RARE, 50, "achievement.super_networker"),
+        new Rule(3, "FIRST_POST", Counter.POSTS, 1, BadgeRarity.COMMON, 10, "achievement.first_post"),
+        new Rule(4, "BLOGGER", Counter.ARTICLES, 1, BadgeRarity.UNCOMMON, 20, "achievement.blogger"),
+        new Rule(5, "MENTOR", Counter.MENTORSHIPS, 1, BadgeRarity.RARE, 40, "achievement.mentor"),
+        new Rule(6, "EVENT_ORGANIZER", Counter.EVENTS, 1, BadgeRarity.UNCOMMON, 30, "achievement.organizer"),
+        new Rule(7, "COMMUNITY_BUILDER", Counter.GROUPS, 1, BadgeRarity.RARE, 50, "achievement.community_builder"),
+    };
+
+    private static final Map<Counter, List<Rule>> RULES_BY_COUNTER = new EnumMap<>(Counter.class);
+    private static final Map<String, Rule> RULES_BY_BADGE = new LinkedHashMap<>();
+
+    static {
+        for (Counter c : Counter.values()) RULES_BY_COUNTER.put(c, new ArrayList<>());
+        for (Rule r : RULES) {
+            RULES_BY_COUNTER.get(r.counter).add(r);
+            RULES_BY_BADGE.put(r.badgeType, r);
+        }
+    }
+
+    /** Counters and owned rule badges of one user. Guarded by its own monitor. */
+    static final class UserState {
+        private final int[] counters = new int[Counter.values().length];
+        private long owned;
+
+        UserState(int[] counters, long owned) {
+            System.arraycopy(counters, 0, this.counters, 0, this.counters.length);
+            this.owned = owned;
+        }
+
+        /** Applies a counter change and claims the rules it satisfies. */
+        synchronized List<Rule> apply(Counter counter, int delta) {
+            counters[counter.ordinal()] = Math.max(0, counters[counter.ordinal()] + delta);
+            return delta > 0 ? claim(RULES_BY_COUNTER.get(counter)) : List.of();
+        }
+
+        /** Claims every satisfied rule; used right after a load. */
+        synchronized List<Rule> claimAll() {
+            return claim(List.of(RULES));
+        }
+
+        private List<Rule> claim(List<Rule> rules) {
+            List<Rule> due = null;
+            for (Rule r : rules) {
+                long bit = 1L << r.bit;
+                if ((owned & bit) == 0 && counters[r.counter.ordinal()] >= r.threshold) {
+                    owned |= bit;
+                    if (due == null) due = new ArrayList<>(2);
+                    due.add(r);
+                }
+            }
+            return due != null ? due : List.of();
+        }
+
+        synchronized boolean owns(Rule rule) {
+            return (owned & (1L << rule.bit)) != 0;
+        }
+
+        synchronized void grant(Rule rule) {
+            owned |= 1L << rule.bit;
+        }
+
+        /** Gives a claim back when the insert failed, so the next event retries it. */
+        synchronized void release(Rule rule) {
+            owned &= ~(1L << rule.bit);
+        }
+
+        synchronized int get(Counter counter) {
+            return counters[counter.ordinal()];
+        }
+    }
+
+    private final Map<Integer, UserState> states = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, UserState> eldest) {
+            return size() > MAX_CACHED_USERS;
+        }
+    };
+
+    private AchievementEngine() {}
+
+    public static AchievementEngine getInstance() {
+        if (instance == null) {
+            synchronized (AchievementEngine.class) {
+                if (instance == null) {
+                    instance = new AchievementEngine();
+                }
+            }
+        }
+        return instance;
+    }
+
+    // ==================== Events ====================
+
+    /**
+     * Records an event for a user and awards the badges it unlocks.
+     * Never throws: badge awarding must not fail the action that triggered it.
+     */
+    public void onEvent(int userId, AchievementEvent event) {
+        if (userId <= 0 || event == null) return;
+        try {
+            UserState state = cached(userId);
+            List<Rule> due;
+            if (state != null) {
+                due = state.apply(counterOf(event), event == AchievementEvent.CONNECTION_REMOVED ? -1 : 1);
+            } else {
+                // Loaded after the change was stored, so the counters already include it
+                state = load(userId);
+                if (state == null) return;
+                due = state.claimAll();
+            }
+            grant(userId, state, due);
+        } catch (RuntimeException e) {
+            logger.error("Error processing achievement event {} for user {}: {}", event, userId, e.getMessage(), e);
+        }
+    }
+
+    /** Reloads a user's counters and badges from the database and awards anything outstanding. */
+    public void resync(int userId) {
+        if (userId <= 0) return;
+        synchronized (states) {
+            states.remove(userId);
+        }
+        UserState state = load(userId);
+        if (state != null) grant(userId, state, state.claimAll());
+    }
+
+    // ==================== Queries ====================
+
+    /**
+     * Whether the user owns a rule badge, answered from the cache.
+     * @return null if the badge is not rule-based or the user is not cached
+     */
+    Boolean owns(int userId, String badgeType) {
+        Rule rule = RULES_BY_BADGE.get(badgeType);
+        if (rule == null) return null;
+        UserState state = cached(userId);
+        return state != null ? state.owns(rule) : null;
+    }
+
+    /** Keeps the cache in step with badges awarded outside the engine. */
+    void noteAwarded(int userId, String badgeType) {
+        Rule rule = RULES_BY_BADGE.get(badgeType);
+        UserState state = rule != null ? cached(userId) : null;
+        if (state != null) state.grant(rule);
+    }
+
+    int cachedUsers() {
+        synchronized (states) {
+            return states.size();
+        }
+    }
+
+    // ==================== Internals ====================
+
+    private static Counter counterOf(AchievementEvent event) {
+        switch (event) {
+            case CONNECTION_ACCEPTED:
+            case CONNECTION_REMOVED:
+                return Counter.CONNECTIONS;
+            case POST_CREATED:
+                return Counter.POSTS;
+            case ARTICLE_PUBLISHED:
+                return Counter.ARTICLES;
+            case MENTORSHIP_COMPLETED:
+                return Counter.MENTORSHIPS;
+            case EVENT_CREATED:
+                return Counter.EVENTS;
+            case GROUP_CREATED:
+                return Counter.GROUPS;
+            default:
+                throw new IllegalArgumentException("Unknown achievement event: " + event);
+        }
+    }
+
+    private UserState cached(int userId) {
+        synchronized (states) {
+            return states.get(userId);
+        }
+    }
+
+    private void grant(int userId, UserState state, List<Rule> due) {
+        for (Rule rule : due) {
+            if (AchievementService.getInstance().insert(rule.toAchievement(userId)) < 0) {
+                state.release(rule);
+            }
+        }
+    }
+
+    /** Loads and caches a user's state; returns the instance that ends up cached, or null on error. */
+    private UserState load(int userId) {
+        int[] counters = new int[Counter.values().length];
+        long owned = 0;
+        try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(COUNTERS_SQL)) {
+                stmt.setInt(1, userId);
+                stmt.setInt(2, userId);
+                stmt.setString(3, ConnectionStatus.ACCEPTED.name());
+                stmt.setInt(4, userId);
+                stmt.setInt(5, userId);
+                stmt.setInt(6, userId);
+                stmt.setString(7, MentorshipStatus.COMPLETED.name());
+                stmt.setInt(8, userId);
+                stmt.setInt(9, userId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        for (int i = 0; i < counters.length; i++) counters[i] = rs.getInt(i + 1);
+                    }
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT badge_type FROM achievements WHERE user_id = ?")) {
+                stmt.setInt(1, userId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Rule rule = RULES_BY_BADGE.get(rs.getString("badge_type"));
+                        if (rule != null) owned |= 1L << rule.bit;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error loading achievement state for user {}: {}", userId, e.getMessage(), e);
+            return null;
+        }
+        UserState loaded = new UserState(counters, owned);
+        synchronized (states) {
+            UserState existing = states.get(userId);
+            if (existing != null) return existing;
+            states.put(userId, loaded);
+        }
+        return loaded;
+    }
+}
@@ -2,16 +2,7 @@ package com.skilora.formation.service;
 
 import com.skilora.config.DatabaseConfig;
 import com.skilora.formation.entity.Achievement;
-import com.skilora.formation.entity.Mentorship;
 import com.skilora.formation.enums.BadgeRarity;
-import com.skilora.formation.enums.MentorshipStatus;
-import com.skilora.community.entity.CommunityGroup;
-import com.skilora.community.service.ConnectionService;
-import com.skilora.community.service.PostService;
-import com.skilora.community.service.BlogService;
-import com.skilora.community.service.EventService;
-import com.skilora.community.service.GroupService;
-import com.skilora.utils.I18n;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,7 +33,15 @@ public class AchievementService {
         if (hasAchievement(achievement.getUserId(), achievement.getBadgeType())) {
             return -1;
         }
-        
+        int id = insert(achievement);
+        if (id > 0) {
+            AchievementEngine.getInstance().noteAwarded(achievement.getUserId(), achievement.getBadgeType());
+        }
+        return id;
+    }
+
+    /** Stores a badge without the ownership check; the engine has already done it in memory. */
+    int insert(Achievement achievement) {
         String sql = "INSERT INTO achievements (user_id, badge_type, title, description, icon_url, rarity, points, earned_date) " +
                     "VALUES (?, ?, ?, ?, ?, ?, ?, NOW())";
         try (Connection conn = DatabaseConfig.getInstance().getConnection();
@@ -101,6 +100,8 @@ public class AchievementService {
     }
 
     public boolean hasAchievement(int userId, String badgeType) {
+        Boolean cached = AchievementEngine.getInstance().owns(userId, badgeType);
+        if (cached != null) return cached;
         String sql = "SELECT 1 FROM achievements WHERE user_id = ? AND badge_type = ?";
         try (Connection conn = DatabaseConfig.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -115,135 +116,13 @@ public class AchievementService {
     }
 
     /**
-     * Auto-award badges based on user activity
+     * Auto-award badges based on user activity.
+     * Re-reads the user's activity counters and awards anything outstanding; services report
+     * individual changes through {@link AchievementEngine#onEvent} instead.
      */
     public void checkAndAward(int userId) {
         try {
-            // FIRST_CONNECTION - when connection count reaches 1
-            if (!hasAchievement(userId, "FIRST_CONNECTION")) {
-                int connectionCount = ConnectionService.getInstance().getConnectionCount(userId);
-                if (connectionCount >= 1) {
-                    Achievement ach = new Achievement();
-                    ach.setUserId(userId);
-                    ach.setBadgeType("FIRST_CONNECTION");
-                    ach.setTitle(I18n.get("achievement.first_connection.title"));
-                    ach.setDescription(I18n.get("achievement.first_connection.desc"));
-                    ach.setRarity(BadgeRarity.COMMON);
-                    ach.setPoints(10);
-                    award(ach);
-                }
-            }
-
-            // NETWORKER - when connection count reaches 10
-            if (!hasAchievement(userId, "NETWORKER")) {
-                int connectionCount = ConnectionService.getInstance().getConnectionCount(userId);
-                if (connectionCount >= 10) {
-                    Achievement ach = new Achievement();
-                    ach.setUserId(userId);
-                    ach.setBadgeType("NETWORKER");
-                    ach.setTitle(I18n.get("achievement.networker.title"));
-                    ach.setDescription(I18n.get("achievement.networker.desc"));
-                    ach.setRarity(BadgeRarity.UNCOMMON);
-                    ach.setPoints(25);
-                    award(ach);
-                }
-            }
-
-            // SUPER_NETWORKER - when connections reach 50
-            if (!hasAchievement(userId, "SUPER_NETWORKER")) {
-                int connectionCount = ConnectionService.getInstance().getConnectionCount(userId);
-                if (connectionCount >= 50) {
-                    Achievement ach = new Achievement();
-                    ach.setUserId(userId);
-                    ach.setBadgeType("SUPER_NETWORKER");
-                    ach.setTitle(I18n.get("achievement.super_networker.title"));
-                    ach.setDescription(I18n.get("achievement.super_networker.desc"));
-                    ach.setRarity(BadgeRarity.RARE);
-                    ach.setPoints(50);
-                    award(ach);
-                }
-            }
-
-            // FIRST_POST - when user creates first post
-            if (!hasAchievement(userId, "FIRST_POST")) {
-                List<?> posts = PostService.getInstance().getByAuthor(userId);
-                if (!posts.isEmpty()) {
-                    Achievement ach = new Achievement();
-                    ach.setUserId(userId);
-                    ach.setBadgeType("FIRST_POST");
-                    ach.setTitle(I18n.get("achievement.first_post.title"));
-                    ach.setDescription(I18n.get("achievement.first_post.desc"));
-                    ach.setRarity(BadgeRarity.COMMON);
-                    ach.setPoints(10);
-                    award(ach);
-                }
-            }
-
-            // BLOGGER - when user publishes first blog article
-            if (!hasAchievement(userId, "BLOGGER")) {
-                List<?> articles = BlogService.getInstance().findByAuthor(userId);
-                if (!articles.isEmpty()) {
-                    Achievement ach = new Achievement();
-                    ach.setUserId(userId);
-                    ach.setBadgeType("BLOGGER");
-                    ach.setTitle(I18n.get("achievement.blogger.title"));
-                    ach.setDescription(I18n.get("achievement.blogger.desc"));
-                    ach.setRarity(BadgeRarity.UNCOMMON);
-                    ach.setPoints(20);
-                    award(ach);
-                }
-            }
-
-            // MENTOR - when user completes first mentorship
-            if (!hasAchievement(userId, "MENTOR")) {
-                List<?> mentorships = MentorshipService.getInstance().findByMentor(userId);
-                boolean hasCompleted = mentorships.stream()
-                    .anyMatch(m -> ((Mentorship) m).getStatus() 
-                        == MentorshipStatus.COMPLETED);
-                if (hasCompleted) {
-                    Achievement ach = new Achievement();
-                    ach.setUserId(userId);
-                    ach.setBadgeType("MENTOR");
-                    ach.setTitle(I18n.get("achievement.mentor.title"));
-                    ach.setDescription(I18n.get("achievement.mentor.desc"));
-                    ach.setRarity(BadgeRarity.RARE);
-                    ach.setPoints(40);
-                    award(ach);
-                }
-            }
-
-            // EVENT_ORGANIZER - when user creates first event
-            if (!hasAchievement(userId, "EVENT_ORGANIZER")) {
-                List<?> events = EventService.getInstance().findByOrganizer(userId);
-                if (!events.isEmpty()) {
-                    Achievement ach = new Achievement();
-                    ach.setUserId(userId);
-                    ach.setBadgeType("EVENT_ORGANIZER");
-                    ach.setTitle(I18n.get("achievement.organizer.title"));
-                    ach.setDescription(I18n.get("achievement.organizer.desc"));
-                    ach.setRarity(BadgeRarity.UNCOMMON);
-                    ach.setPoints(30);
-                    award(ach);
-                }
-            }
-
-            // COMMUNITY_BUILDER - when user creates a group
-            if (!hasAchievement(userId, "COMMUNITY_BUILDER")) {
-                List<?> groups = GroupService.getInstance().findByMember(userId);
-                boolean isCreator = groups.stream()
-                    .anyMatch(g -> ((CommunityGroup) g).getCreatorId() == userId);
-                if (isCreator) {
-                    Achievement ach = new Achievement();
-                    ach.setUserId(userId);
-                    ach.setBadgeType("COMMUNITY_BUILDER");
-                    ach.setTitle(I18n.get("achievement.community_builder.title"));
-                    ach.setDescription(I18n.get("achievement.community_builder.desc"));
-                    ach.setRarity(BadgeRarity.RARE);
-                    ach.setPoints(50);
-                    award(ach);
-                }
-            }
-
+            AchievementEngine.getInstance().resync(userId);
         } catch (Exception e) {
             logger.error("Error checking/awarding achievements: {}", e.getMessage(), e);
         }
@@ -6,13 +6,19 @@ import com.skilora.formation.entity.Enrollment;
 import com.skilora.formation.entity.Formation;
 import com.skilora.formation.enums.BadgeRarity;
 import com.skilora.formation.enums.EnrollmentStatus;
+import com.skilora.utils.AppThreadPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CertificateGenerationService {
 
@@ -24,11 +30,27 @@ public class CertificateGenerationService {
     private final FormationService formationService;
     private final AchievementService achievementService;
 
+    /** Renders cohort certificates; when the queue is full the submitting job renders itself. */
+    private final ThreadPoolExecutor renderPool;
+
     private CertificateGenerationService() {
         this.certificateService = CertificateService.getInstance();
         this.enrollmentService = EnrollmentService.getInstance();
         this.formationService = FormationService.getInstance();
         this.achievementService = AchievementService.getInstance();
+
+        int workers = Math.max(2, Runtime.getRuntime().availableProcessors());
+        AtomicInteger seq = new AtomicInteger();
+        this.renderPool = new ThreadPoolExecutor(workers, workers, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(CohortCertificationJob.CHUNK_SIZE),
+                r -> {
+                    Thread t = new Thread(r);
+                    t.setDaemon(true);
+                    t.setName("certificate-render-" + seq.incrementAndGet());
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.renderPool.allowCoreThreadTimeOut(true);
     }
 
     public static CertificateGenerationService getInstance() {
@@ -124,6 +146,20 @@ public class CertificateGenerationService {
         return certId;
     }
 
+    /**
+     * Starts certifying every completed enrollment of the formation that has no certificate
+     * yet, writing the PDFs to {@code outputDir}. Returns immediately; follow the job through
+     * {@link CohortCertificationJob#getResult()} and {@code listener}.
+     */
+    public CohortCertificationJob certifyCohort(int formationId, File outputDir,
+                                                CohortCertificationJob.ProgressListener listener) {
+        if (formationId <= 0) throw new IllegalArgumentException("Valid formation ID is required");
+        if (outputDir == null) throw new IllegalArgumentException("Output directory is required");
+        CohortCertificationJob job = new CohortCertificationJob(formationId, outputDir, listener, renderPool);
+        AppThreadPool.execute(job::run);
+        return job;
+    }
+
     // ── Private helpers ──
 
     private void awardFirstCertificateAchievement(int userId) {
@@ -153,7 +189,7 @@ public class CertificateGenerationService {
         }
     }
 
-    private String sha256(String input) {
+    static String sha256(String input) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             byte[] hash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
@@ -0,0 +1,213 @@
+package com.skilora.formation.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.Image;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.BaseFont;
+import com.lowagie.text.pdf.ColumnText;
+import com.lowagie.text.pdf.PdfContentByte;
+import com.lowagie.text.pdf.PdfWriter;
+import com.skilora.finance.utils.PdfTemplate;
+import com.skilora.formation.entity.Formation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Color;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * CertificatePdfRenderer
+ *
+ * Certificate PDFs for one formation, in the same dark and gold layout as the on-screen
+ * certificate. Everything shared by the cohort (background, borders, headings, formation
+ * title, director signature) is rendered once into a {@link PdfTemplate}; each document
+ * only draws the holder name, number, date and a vector QR code on top.
+ *
+ * Thread-safe: one renderer can serve every worker of a batch.
+ * No JavaFX imports allowed.
+ */
+public final class CertificatePdfRenderer {
+
+    private static final Logger logger = LoggerFactory.getLogger(CertificatePdfRenderer.class);
+
+    private static final Rectangle PAGE = PageSize.A4.rotate();
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MMMM dd, yyyy");
+
+    private static final Color BACKGROUND = new Color(0x11, 0x11, 0x13);
+    private static final Color GOLD = new Color(0xC9, 0xA8, 0x4C);
+    private static final Color GOLD_LIGHT = new Color(0xD4, 0xB8, 0x6A);
+    private static final Color MUTED = new Color(0x71, 0x71, 0x7A);
+    private static final Color RULE = new Color(0x27, 0x27, 0x2A);
+
+    private static final BaseFont SANS = font(BaseFont.HELVETICA);
+    private static final BaseFont SANS_BOLD = font(BaseFont.HELVETICA_BOLD);
+
+    private static final float QR_SIZE = 78f;
+
+    private final PdfTemplate chrome;
+
+    public CertificatePdfRenderer(Formation formation) {
+        String title = formation != null && formation.getTitle() != null ? formation.getTitle() : "—";
+        byte[] signature = decodeSignature(formation != null ? formation.getDirectorSignature() : null);
+        this.chrome = PdfTemplate.render(PAGE, (canvas, size) -> paintChrome(canvas, size, title, signature));
+    }
+
+    private static BaseFont font(String name) {
+        try {
+            return BaseFont.createFont(name, BaseFont.WINANSI, BaseFont.NOT_EMBEDDED);
+        } catch (DocumentException | IOException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Renders one certificate.
+     *
+     * @param verificationUrl encoded in the QR code
+     */
+    public byte[] render(String holderName, String certificateNumber, LocalDate issuedDate,
+                         String verificationUrl) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(24 * 1024);
+        Document document = new Document(PAGE, 0, 0, 0, 0);
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            chrome.applyAsBackground(writer);
+            document.open();
+            PdfContentByte canvas = writer.getDirectContent();
+            float cx = PAGE.getWidth() / 2;
+
+            text(canvas, SANS_BOLD, 30, Color.WHITE, holderName != null ? holderName : "—", cx, 330);
+
+            String date = issuedDate != null ? issuedDate.format(DATE_FORMAT) : "—";
+            text(canvas, SANS, 10, MUTED, date + "   ·   N° " + certificateNumber, cx, 205);
+
+            drawQr(canvas, verificationUrl, PAGE.getWidth() - 70 - QR_SIZE, 62);
+            writer.setPageEmpty(false);
+            document.close();
+        } catch (DocumentException | WriterException e) {
+            throw new IOException("Certificate " + certificateNumber + " rendering failed: " + e.getMessage(), e);
+        }
+        return out.toByteArray();
+    }
+
+    // ── Shared page ──
+
+    private static void paintChrome(PdfContentByte canvas, Rectangle size, String formationTitle, byte[] signature)
+            throws DocumentException {
+        float w = size.getWidth();
+        float h = size.getHeight();
+        float cx = w / 2;
+
+        canvas.setColorFill(BACKGROUND);
+        canvas.rectangle(0, 0, w, h);
+        canvas.fill();
+
+        canvas.setColorStroke(GOLD);
+        canvas.setLineWidth(2f);
+        canvas.roundRectangle(28, 28, w - 56, h - 56, 12);
+        canvas.stroke();
+        canvas.setLineWidth(0.5f);
+        canvas.roundRectangle(36, 36, w - 72, h - 72, 8);
+        canvas.stroke();
+
+        line(canvas, GOLD, cx - 120, h - 92, cx + 120, h - 92);
+        text(canvas, SANS, 11, GOLD, "C E R T I F I C A T E   O F   C O M P L E T I O N", cx, h - 118);
+        text(canvas, SANS_BOLD, 14, GOLD_LIGHT, "SKILORA", cx, h - 148);
+        text(canvas, SANS, 12, MUTED, "This certifies that", cx, h - 205);
+        line(canvas, RULE, cx - 150, 318, cx + 150, 318);
+        text(canvas, SANS, 12, MUTED, "has successfully completed the formation", cx, 290);
+
+        ColumnText column = new ColumnText(canvas);
+        column.setSimpleColumn(new Phrase(formationTitle, new Font(SANS_BOLD, 18, Font.NORMAL, GOLD_LIGHT)),
+                120, 222, w - 120, 280, 22, Element.ALIGN_CENTER);
+        column.go();
+
+        // Signatures: director (drawn image when the formation has one) and platform
+        float left = 200;
+        float right = w - 200;
+        if (signature != null) {
+            try {
+                Image image = Image.getInstance(signature);
+                image.scaleToFit(140, 56);
+                image.setAbsolutePosition(left - image.getScaledWidth() / 2, 110);
+                canvas.addImage(image);
+            } catch (IOException | DocumentException e) {
+                logger.debug("Director signature could not be drawn: {}", e.getMessage());
+                text(canvas, SANS_BOLD, 12, GOLD, "Director", left, 118);
+            }
+        } else {
+            text(canvas, SANS_BOLD, 12, GOLD, "Director", left, 118);
+        }
+        text(canvas, SANS_BOLD, 12, GOLD, "Skilora", right - 60, 118);
+        line(canvas, GOLD, left - 80, 104, left + 80, 104);
+        line(canvas, GOLD, right - 140, 104, right + 20, 104);
+        text(canvas, SANS, 9, GOLD_LIGHT, "Formation Director", left, 90);
+        text(canvas, SANS, 9, GOLD_LIGHT, "Platform", right - 60, 90);
+        text(canvas, SANS, 7, MUTED, "Scan to verify", w - 70 - QR_SIZE / 2, 50);
+    }
+
+    // ── Drawing helpers ──
+
+    private static void text(PdfContentByte canvas, BaseFont font, float size, Color color,
+                             String value, float x, float y) {
+        canvas.beginText();
+        canvas.setFontAndSize(font, size);
+        canvas.setColorFill(color);
+        canvas.showTextAligned(Element.ALIGN_CENTER, value, x, y, 0);
+        canvas.endText();
+    }
+
+    private static void line(PdfContentByte canvas, Color color, float x1, float y1, float x2, float y2) {
+        canvas.setColorStroke(color);
+        canvas.setLineWidth(0.75f);
+        canvas.moveTo(x1, y1);
+        canvas.lineTo(x2, y2);
+        canvas.stroke();
+    }
+
+    /** QR modules as filled rectangles: no raster image to encode per document. */
+    private static void drawQr(PdfContentByte canvas, String url, float x, float y) throws WriterException {
+        BitMatrix matrix = new QRCodeWriter().encode(url, BarcodeFormat.QR_CODE, 0, 0,
+                Map.of(EncodeHintType.MARGIN, 0));
+        int n = matrix.getWidth();
+        float module = QR_SIZE / n;
+
+        canvas.setColorFill(Color.WHITE);
+        canvas.rectangle(x - 4, y - 4, QR_SIZE + 8, QR_SIZE + 8);
+        canvas.fill();
+        canvas.setColorFill(Color.BLACK);
+        for (int row = 0; row < n; row++) {
+            for (int col = 0; col < n; col++) {
+                if (matrix.get(col, row)) {
+                    canvas.rectangle(x + col * module, y + (n - 1 - row) * module, module, module);
+                }
+            }
+        }
+        canvas.fill();
+    }
+
+    private static byte[] decodeSignature(String base64) {
+        if (base64 == null || base64.isBlank()) return null;
+        try {
+            return Base64.getMimeDecoder().decode(base64.trim());
+        } catch (IllegalArgumentException e) {
+            logger.debug("Director signature is not valid base64: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.skilora.formation.service;
+
+import com.skilora.config.DatabaseConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.BitSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CertificateRevocationList
+ *
+ * Revoked certificate ids as a bitmap indexed by certificate id. Signed tokens
+ * ({@link CertificateSigner}) are checked against it instead of the database; the bitmap is
+ * reloaded every {@value #REFRESH_INTERVAL_SECONDS} s and the last good copy is kept if the
+ * database is unreachable. Revocations made through this instance apply immediately.
+ * No JavaFX imports allowed.
+ */
+public class CertificateRevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(CertificateRevocationList.class);
+
+    static final long REFRESH_INTERVAL_SECONDS = 60;
+
+    private static volatile CertificateRevocationList instance;
+
+    /** Published snapshot; never modified after publication. */
+    private volatile BitSet revoked = new BitSet();
+    private volatile long refreshedAt;
+    /** Bumped by every local revocation; lets a refresh detect revocations made while it ran. Guarded by this. */
+    private long version;
+    /** Set after the first load attempt, successful or not, so a dead database is not queried per check. */
+    private volatile boolean attempted;
+
+    private final ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> refreshTask;
+
+    private CertificateRevocationList() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "certificate-crl-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+        ensureTable();
+    }
+
+    public static CertificateRevocationList getInstance() {
+        if (instance == null) {
+            synchronized (CertificateRevocationList.class) {
+                if (instance == null) {
+                    instance = new CertificateRevocationList();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private void ensureTable() {
+        String sql = """
+            CREATE TABLE IF NOT EXISTS certificate_revocations (
+                certificate_id INT PRIMARY KEY,
+                reason VARCHAR(255),
+                revoked_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            )
+            """;
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+        } catch (SQLException e) {
+            logger.error("Error creating certificate_revocations table: {}", e.getMessage(), e);
+        }
+    }
+
+    // ==================== Lifecycle ====================
+
+    public synchronized void start() {
+        if (refreshTask == null || refreshTask.isDone()) {
+            refreshTask = scheduler.scheduleWithFixedDelay(this::refresh,
+                    attempted ? REFRESH_INTERVAL_SECONDS : 0, REFRESH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    public synchronized void stop() {
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+            refreshTask = null;
+        }
+    }
+
+    // ==================== Queries ====================
+
+    /** Whether the certificate is revoked, as of the last refresh. Loads the list on first use. */
+    public boolean isRevoked(int certificateId) {
+        if (!attempted) refresh();
+        return certificateId > 0 && revoked.get(certificateId);
+    }
+
+    public int getRevokedCount() {
+        return revoked.cardinality();
+    }
+
+    /** Epoch millis of the last successful load, 0 if none yet. */
+    public long getRefreshedAt() {
+        return refreshedAt;
+    }
+
+    // ==================== Updates ====================
+
+    /** Revokes a certificate. Tokens already handed out stop verifying. */
+    public boolean revoke(int certificateId, String reason) {
+        if (certificateId <= 0) throw new IllegalArgumentException("Valid certificate ID is required");
+        String sql = "INSERT IGNORE INTO certificate_revocations (certificate_id, reason) VALUES (?, ?)";
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, certificateId);
+            stmt.setString(2, reason);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Error revoking certificate {}: {}", certificateId, e.getMessage(), e);
+            return false;
+        }
+        synchronized (this) {
+            BitSet next = (BitSet) revoked.clone();
+            next.set(certificateId);
+            revoked = next;
+            version++;
+        }
+        logger.info("Certificate {} revoked ({})", certificateId, reason);
+        return true;
+    }
+
+    /**
+     * Reloads the bitmap; keeps the current one if the database cannot be read.
+     * A revocation made through {@link #revoke} while the query ran may be missing from
+     * its result, so in that case the current bitmap is merged in rather than replaced.
+     */
+    public void refresh() {
+        long startVersion;
+        synchronized (this) {
+            startVersion = version;
+        }
+        BitSet next = new BitSet();
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT certificate_id FROM certificate_revocations")) {
+            while (rs.next()) {
+                next.set(rs.getInt(1));
+            }
+        } catch (SQLException e) {
+            logger.warn("Could not refresh certificate revocations, keeping last copy: {}", e.getMessage());
+            attempted = true;
+            return;
+        }
+        synchronized (this) {
+            if (version != startVersion) next.or(revoked);
+            revoked = next;
+        }
+        refreshedAt = System.currentTimeMillis();
+        attempted = true;
+    }
+}
@@ -51,6 +51,8 @@ public class CertificateService {
             ResultSet rs = stmt.getGeneratedKeys();
             if (rs.next()) {
                 int id = rs.getInt(1);
+                CertificateViewCache.getInstance().invalidateAll();
+                FormationDashboardService.getInstance().onCertificateChanged(0);
                 logger.info("Certificate issued: id={}, number={}", id, cert.getCertificateNumber());
                 return id;
             }
@@ -133,12 +135,22 @@ public class CertificateService {
         return false;
     }
 
+    /**
+     * Deletes a certificate and revokes it, so signed tokens already handed out for it stop
+     * verifying.
+     */
     public boolean delete(int id) {
         String sql = "DELETE FROM certificates WHERE id = ?";
         try (Connection conn = DatabaseConfig.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            if (deleted) {
+                CertificateRevocationList.getInstance().revoke(id, "deleted");
+                CertificateViewCache.getInstance().invalidateAll();
+                FormationDashboardService.getInstance().onCertificateChanged(0);
+            }
+            return deleted;
         } catch (SQLException e) {
             logger.error("Error deleting certificate: {}", e.getMessage(), e);
         }
@@ -184,6 +196,8 @@ public class CertificateService {
                     cert.setVerificationToken(verificationToken);
                     cert.setIssuedDate(now);
                     cert.setCompletedAt(now);
+                    CertificateViewCache.getInstance().invalidateAll();
+                    FormationDashboardService.getInstance().onCertificateChanged(userId);
                     logger.info("Certificate created: id={}, number={}", cert.getId(), certNumber);
                     return cert;
                 }
@@ -281,6 +295,18 @@ public class CertificateService {
         return null;
     }
 
+    /**
+     * Signed verification token for the certificate, verifiable offline with the public key
+     * of {@link CertificateSigner}. Null if the certificate cannot be found.
+     */
+    public String getSignedVerificationToken(Certificate cert) {
+        if (cert == null || cert.getCertificateNumber() == null) return null;
+        CertificateViewCache.View view = CertificateViewCache.getInstance().byNumber(cert.getCertificateNumber(), null);
+        if (view == null) return null;
+        return CertificateSigner.getInstance().sign(new CertificateSigner.SignedCertificate(view.getCertificateId(),
+                view.getCertificateNumber(), view.getHolderName(), view.getTrainingTitle(), view.getIssuedDate()));
+    }
+
     /**
      * Ensure all certificates for a user have verification tokens.
      */
@@ -291,6 +317,7 @@ public class CertificateService {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, userId);
             ResultSet rs = stmt.executeQuery();
+            boolean assigned = false;
             while (rs.next()) {
                 int certId = rs.getInt("id");
                 String token = UUID.randomUUID().toString().replace("-", "").toUpperCase();
@@ -300,7 +327,9 @@ public class CertificateService {
                     updateStmt.setInt(2, certId);
                     updateStmt.executeUpdate();
                 }
+                assigned = true;
             }
+            if (assigned) CertificateViewCache.getInstance().invalidateAll();
         } catch (SQLException e) {
             logger.error("Error ensuring verification tokens for user {}: {}", userId, e.getMessage(), e);
         }
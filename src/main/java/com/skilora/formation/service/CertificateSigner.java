@@ -0,0 +1,231 @@
+package com.skilora.formation.service;
+
+import com.skilora.config.DatabaseConfig;
+import com.skilora.config.EnvConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * CertificateSigner
+ *
+ * Ed25519-signed certificate tokens. A token carries the certificate id, number, holder,
+ * formation title and issue date together with their signature, so whoever holds the
+ * public key can verify it without the database; only revocation
+ * ({@link CertificateRevocationList}) needs a lookup.
+ *
+ * Token: {@code base64url(claims) "." base64url(signature)}, where claims are the UTF-8
+ * lines {@code v1, id, number, holder, title, yyyy-MM-dd}.
+ *
+ * Keys come from {@code certificate.signing.private.key} / {@code certificate.signing.public.key}
+ * (base64 PKCS#8 / X.509); without them a key pair is generated once and kept in
+ * {@code certificate_signing_keys} so every instance signs with the same key.
+ * No JavaFX imports allowed.
+ */
+public class CertificateSigner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CertificateSigner.class);
+
+    private static final String ALGORITHM = "Ed25519";
+    private static final String VERSION = "v1";
+
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64_DECODER = Base64.getUrlDecoder();
+
+    /** Verified contents of a signed token. Immutable. */
+    public static final class SignedCertificate {
+        private final int certificateId;
+        private final String certificateNumber;
+        private final String holderName;
+        private final String trainingTitle;
+        private final LocalDate issuedDate;
+
+        public SignedCertificate(int certificateId, String certificateNumber, String holderName,
+                                 String trainingTitle, LocalDate issuedDate) {
+            this.certificateId = certificateId;
+            this.certificateNumber = certificateNumber;
+            this.holderName = holderName;
+            this.trainingTitle = trainingTitle;
+            this.issuedDate = issuedDate;
+        }
+
+        public int getCertificateId() { return certificateId; }
+        public String getCertificateNumber() { return certificateNumber; }
+        public String getHolderName() { return holderName; }
+        public String getTrainingTitle() { return trainingTitle; }
+        public LocalDate getIssuedDate() { return issuedDate; }
+    }
+
+    private static volatile CertificateSigner instance;
+
+    private final PrivateKey privateKey;
+    private final PublicKey publicKey;
+
+    private CertificateSigner(PrivateKey privateKey, PublicKey publicKey) {
+        this.privateKey = privateKey;
+        this.publicKey = publicKey;
+    }
+
+    public static CertificateSigner getInstance() {
+        if (instance == null) {
+            synchronized (CertificateSigner.class) {
+                if (instance == null) {
+                    instance = loadConfigured();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** Standalone signer for the given keys; {@code privateKey} may be null for a verify-only instance. */
+    public static CertificateSigner withKeys(PrivateKey privateKey, PublicKey publicKey) {
+        if (publicKey == null) throw new IllegalArgumentException("Public key is required");
+        return new CertificateSigner(privateKey, publicKey);
+    }
+
+    public static KeyPair generateKeyPair() {
+        try {
+            return KeyPairGenerator.getInstance(ALGORITHM).generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Ed25519 is not available", e);
+        }
+    }
+
+    /** Base64 X.509 encoding of the public key, for offline verifiers. */
+    public String getPublicKeyBase64() {
+        return Base64.getEncoder().encodeToString(publicKey.getEncoded());
+    }
+
+    // ==================== Sign / verify ====================
+
+    public String sign(SignedCertificate cert) {
+        if (privateKey == null) throw new IllegalStateException("This signer has no private key");
+        byte[] claims = encodeClaims(cert);
+        try {
+            Signature signature = Signature.getInstance(ALGORITHM);
+            signature.initSign(privateKey);
+            signature.update(claims);
+            return B64.encodeToString(claims) + "." + B64.encodeToString(signature.sign());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign certificate " + cert.getCertificateNumber(), e);
+        }
+    }
+
+    /**
+     * Checks the token's signature and decodes its claims. Does not consult revocation.
+     * @return the claims, or null if the token is malformed or the signature does not match
+     */
+    public SignedCertificate verify(String token) {
+        if (token == null) return null;
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) return null;
+        try {
+            byte[] claims = B64_DECODER.decode(token.substring(0, dot));
+            byte[] sig = B64_DECODER.decode(token.substring(dot + 1));
+            Signature signature = Signature.getInstance(ALGORITHM);
+            signature.initVerify(publicKey);
+            signature.update(claims);
+            if (!signature.verify(sig)) return null;
+            return decodeClaims(claims);
+        } catch (IllegalArgumentException | DateTimeParseException | GeneralSecurityException e) {
+            return null;
+        }
+    }
+
+    private static byte[] encodeClaims(SignedCertificate cert) {
+        String issued = cert.getIssuedDate() != null ? cert.getIssuedDate().toString() : "";
+        return String.join("\n", VERSION, Integer.toString(cert.getCertificateId()),
+                clean(cert.getCertificateNumber()), clean(cert.getHolderName()),
+                clean(cert.getTrainingTitle()), issued).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static SignedCertificate decodeClaims(byte[] claims) {
+        String[] f = new String(claims, StandardCharsets.UTF_8).split("\n", -1);
+        if (f.length != 6 || !VERSION.equals(f[0])) return null;
+        return new SignedCertificate(Integer.parseInt(f[1]), f[2], f[3], f[4],
+                f[5].isEmpty() ? null : LocalDate.parse(f[5]));
+    }
+
+    /** Newlines separate the claims, so they cannot appear inside one. */
+    private static String clean(String value) {
+        return value == null ? "" : value.replace('\n', ' ').replace('\r', ' ');
+    }
+
+    // ==================== Keys ====================
+
+    private static CertificateSigner loadConfigured() {
+        try {
+            String priv = EnvConfig.get("certificate.signing.private.key");
+            String pub = EnvConfig.get("certificate.signing.public.key");
+            if (pub != null && !pub.isBlank()) {
+                return new CertificateSigner(priv != null && !priv.isBlank() ? decodePrivate(priv) : null,
+                        decodePublic(pub));
+            }
+            return loadFromDatabase();
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid certificate signing key: " + e.getMessage(), e);
+        }
+    }
+
+    private static CertificateSigner loadFromDatabase() throws GeneralSecurityException {
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS certificate_signing_keys (
+                    id INT PRIMARY KEY,
+                    private_key TEXT NOT NULL,
+                    public_key TEXT NOT NULL,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+                """);
+            KeyPair generated = generateKeyPair();
+            // INSERT IGNORE: if another instance got there first, everyone reads its key back
+            try (PreparedStatement ins = conn.prepareStatement(
+                    "INSERT IGNORE INTO certificate_signing_keys (id, private_key, public_key) VALUES (1, ?, ?)")) {
+                ins.setString(1, Base64.getEncoder().encodeToString(generated.getPrivate().getEncoded()));
+                ins.setString(2, Base64.getEncoder().encodeToString(generated.getPublic().getEncoded()));
+                if (ins.executeUpdate() > 0) logger.info("Generated certificate signing key");
+            }
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT private_key, public_key FROM certificate_signing_keys WHERE id = 1")) {
+                if (rs.next()) {
+                    return new CertificateSigner(decodePrivate(rs.getString("private_key")),
+                            decodePublic(rs.getString("public_key")));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Could not load certificate signing key: {}", e.getMessage(), e);
+        }
+        logger.warn("Using a temporary certificate signing key; tokens will not verify after restart");
+        KeyPair temporary = generateKeyPair();
+        return new CertificateSigner(temporary.getPrivate(), temporary.getPublic());
+    }
+
+    private static PrivateKey decodePrivate(String base64) throws GeneralSecurityException {
+        return KeyFactory.getInstance(ALGORITHM).generatePrivate(
+                new PKCS8EncodedKeySpec(Base64.getDecoder().decode(base64.trim())));
+    }
+
+    private static PublicKey decodePublic(String base64) throws GeneralSecurityException {
+        return KeyFactory.getInstance(ALGORITHM).generatePublic(
+                new X509EncodedKeySpec(Base64.getDecoder().decode(base64.trim())));
+    }
+}
@@ -1,25 +1,27 @@
 package com.skilora.formation.service;
 
-import com.skilora.formation.entity.Certificate;
-import com.skilora.formation.entity.Formation;
-import com.skilora.user.entity.User;
-import com.skilora.user.service.UserService;
+import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.*;
 import java.nio.charset.StandardCharsets;
-import java.time.format.DateTimeFormatter;
 import java.util.Enumeration;
-import java.util.Optional;
-import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * CertificateVerificationServer
@@ -33,6 +35,14 @@ import java.util.concurrent.Executors;
  *   /verify/{certId}              → serves the verification HTML page
  *   /api/verify/{certId}          → returns JSON with certificate details
  *   /api/verify/token/{token}     → returns JSON with certificate details
+ *   /verify/s/{signed}            → serves the verification HTML page
+ *   /api/verify/signed/{signed}   → checks a {@link CertificateSigner} token locally; only the
+ *                                   revocation bitmap is consulted, not the certificate tables
+ *   /api/verify/metrics           → request counters (loopback only)
+ * 
+ * The page is read once and kept encoded and gzipped; certificate responses come from
+ * {@link CertificateViewCache}. Both carry an ETag so repeat scans get a 304. Requests run
+ * on virtual threads when the runtime has them, otherwise on a bounded pool.
  * 
  * Adapted from branch VerificationServer.java.
  */
@@ -40,7 +50,12 @@ public class CertificateVerificationServer {
 
     private static final Logger logger = LoggerFactory.getLogger(CertificateVerificationServer.class);
     private static HttpServer server;
+    private static ExecutorService executor;
     private static final int DEFAULT_PORT = 8443;
+    private static final int BACKLOG = 512;
+
+    private static final VerificationMetrics metrics = new VerificationMetrics();
+    private static volatile Page page;
 
     // ─── Lifecycle ──────────────────────────────────────────────────────────
 
@@ -54,14 +69,17 @@ public class CertificateVerificationServer {
 
         for (int attempt = 0; attempt < maxAttempts; attempt++) {
             try {
-                server = HttpServer.create(new InetSocketAddress("0.0.0.0", port), 50);
+                server = HttpServer.create(new InetSocketAddress("0.0.0.0", port), BACKLOG);
 
                 server.createContext("/verify/", new PageHandler());
                 server.createContext("/verify/certificate/", new PageHandler());
                 server.createContext("/api/verify/", new ApiHandler());
                 server.createContext("/api/verify/token/", new TokenApiHandler());
+                server.createContext("/api/verify/signed/", new SignedApiHandler());
+                server.createContext("/api/verify/metrics", new MetricsHandler());
 
-                server.setExecutor(Executors.newFixedThreadPool(4));
+                executor = newExecutor();
+                server.setExecutor(executor);
                 server.start();
 
                 String localIP = getLocalIPAddress();
@@ -99,7 +117,9 @@ public class CertificateVerificationServer {
         if (server != null) {
             server.stop(0);
             server = null;
-            logger.info("Verification Server stopped.");
+            executor.shutdown();
+            executor = null;
+            logger.info("Verification Server stopped. {}", metrics);
         }
     }
 
@@ -111,12 +131,37 @@ public class CertificateVerificationServer {
         return server != null ? server.getAddress().getPort() : -1;
     }
 
+    public static VerificationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * One virtual thread per request on Java 21+ (looked up reflectively, the build targets 17);
+     * otherwise a bounded pool whose queue pushes back onto the accept thread when full.
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threads = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+            AtomicInteger seq = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(1024), r -> {
+                        Thread t = new Thread(r, "cert-verify-" + seq.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    }, new ThreadPoolExecutor.CallerRunsPolicy());
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
     // ─── Helpers ────────────────────────────────────────────────────────────
 
     private static void addCorsHeaders(HttpExchange exchange) {
         exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
         exchange.getResponseHeaders().set("Access-Control-Allow-Methods", "GET, OPTIONS");
-        exchange.getResponseHeaders().set("Access-Control-Allow-Headers", "Content-Type");
+        exchange.getResponseHeaders().set("Access-Control-Allow-Headers", "Content-Type, If-None-Match");
     }
 
     private static boolean handlePreflight(HttpExchange exchange) throws IOException {
@@ -138,12 +183,47 @@ public class CertificateVerificationServer {
     private static void sendError(HttpExchange exchange, int code, String message) throws IOException {
         byte[] body = message.getBytes(StandardCharsets.UTF_8);
         exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+        send(exchange, code, body);
+    }
+
+    private static void send(HttpExchange exchange, int code, byte[] body) throws IOException {
         exchange.sendResponseHeaders(code, body.length);
         try (OutputStream os = exchange.getResponseBody()) {
             os.write(body);
         }
     }
 
+    /** Answers 304 if the client already holds {@code etag}. */
+    private static boolean notModified(HttpExchange exchange, String etag) throws IOException {
+        exchange.getResponseHeaders().set("ETag", etag);
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.startsWith("W/")) c = c.substring(2);
+            if (c.equals(etag) || c.equals("*")) {
+                metrics.onNotModified();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(Headers headers) {
+        for (String value : headers.getOrDefault("Accept-Encoding", java.util.List.of())) {
+            if (value.toLowerCase().contains("gzip")) return true;
+        }
+        return false;
+    }
+
+    private static String etagOf(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return "\"" + Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(bytes.length) + "\"";
+    }
+
     private static String toJson(String status, String message) {
         return "{\"status\":\"" + escapeJson(status) + "\",\"message\":\"" + escapeJson(message) + "\"}";
     }
@@ -153,70 +233,66 @@ public class CertificateVerificationServer {
         return s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n").replace("\r", "\\r");
     }
 
-    private static String buildCertificateJson(Certificate cert) {
-        StringBuilder json = new StringBuilder("{");
-        json.append("\"status\":\"valid\"");
-        json.append(",\"certId\":\"").append(escapeJson(cert.getCertificateNumber())).append("\"");
-
-        // Holder name — try direct userId first, then fallback via enrollment
-        String holderName = "Unknown";
-        try {
-            int uid = cert.getUserId();
-            if (uid <= 0) {
-                // Fallback: resolve user via enrollment
-                var enrollment = com.skilora.formation.service.EnrollmentService.getInstance()
-                        .findById(cert.getEnrollmentId());
-                if (enrollment != null) uid = enrollment.getUserId();
-            }
-            if (uid > 0) {
-                Optional<User> user = UserService.getInstance().findById(uid);
-                if (user.isPresent()) {
-                    User u = user.get();
-                    holderName = (u.getFullName() != null && !u.getFullName().isBlank())
-                            ? u.getFullName() : u.getUsername();
-                }
+    /** Wraps a handler with latency/error accounting. */
+    private abstract static class MeteredHandler implements HttpHandler {
+        @Override
+        public final void handle(HttpExchange exchange) throws IOException {
+            long started = System.nanoTime();
+            try {
+                if (handlePreflight(exchange)) return;
+                serve(exchange);
+            } catch (IOException | RuntimeException e) {
+                metrics.onError();
+                throw e;
+            } finally {
+                metrics.onRequest(System.nanoTime() - started);
             }
-        } catch (Exception e) {
-            logger.warn("Could not resolve user for certificate: {}", e.getMessage());
         }
-        json.append(",\"holderName\":\"").append(escapeJson(holderName)).append("\"");
 
-        // Formation title and director signature — try direct formationId first, then fallback via enrollment
-        String formationTitle = "Unknown Formation";
-        String directorSignature = null;
-        try {
-            int fid = cert.getFormationId();
-            if (fid <= 0) {
-                // Fallback: resolve formation via enrollment
-                var enrollment = com.skilora.formation.service.EnrollmentService.getInstance()
-                        .findById(cert.getEnrollmentId());
-                if (enrollment != null) fid = enrollment.getFormationId();
+        abstract void serve(HttpExchange exchange) throws IOException;
+    }
+
+    // ─── Verification page ──────────────────────────────────────────────────
+
+    /** The verification page, read once, as identity and gzip bytes. */
+    static final class Page {
+        final byte[] identity;
+        final byte[] gzip;
+        final String etag;
+
+        Page(byte[] identity) throws IOException {
+            this.identity = identity;
+            ByteArrayOutputStream out = new ByteArrayOutputStream(identity.length / 3 + 64);
+            try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+                gz.write(identity);
             }
-            if (fid > 0) {
-                Formation formation = FormationService.getInstance().findById(fid);
-                if (formation != null) {
-                    formationTitle = formation.getTitle();
-                    String sig = formation.getDirectorSignature();
-                    if (sig != null && !sig.isBlank()) directorSignature = sig;
+            this.gzip = out.toByteArray();
+            this.etag = etagOf(identity);
+        }
+    }
+
+    /** Loads the page on first use; null if it is not on the classpath. */
+    private static Page page() throws IOException {
+        Page p = page;
+        if (p == null) {
+            synchronized (CertificateVerificationServer.class) {
+                p = page;
+                if (p == null) {
+                    InputStream is = CertificateVerificationServer.class
+                            .getResourceAsStream("/com/skilora/view/formation/verification_page.html");
+                    if (is == null) {
+                        // Fallback to root classpath
+                        is = CertificateVerificationServer.class.getResourceAsStream("/verification_page.html");
+                    }
+                    if (is == null) return null;
+                    try (InputStream in = is) {
+                        p = new Page(in.readAllBytes());
+                    }
+                    page = p;
                 }
             }
-        } catch (Exception e) {
-            logger.warn("Could not resolve formation for certificate: {}", e.getMessage());
-        }
-        json.append(",\"trainingTitle\":\"").append(escapeJson(formationTitle)).append("\"");
-        if (directorSignature != null) {
-            json.append(",\"directorSignature\":\"").append(escapeJson(directorSignature)).append("\"");
         }
-
-        // Completion date
-        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("MMMM dd, yyyy");
-        String date = cert.getCompletedAt() != null
-                ? cert.getCompletedAt().format(fmt)
-                : (cert.getIssuedDate() != null ? cert.getIssuedDate().format(fmt) : "Unknown");
-        json.append(",\"completionDate\":\"").append(escapeJson(date)).append("\"");
-
-        json.append("}");
-        return json.toString();
+        return p;
     }
 
     /**
@@ -266,115 +342,145 @@ public class CertificateVerificationServer {
 
     // ─── Page Handler ────────────────────────────────────────────────────────
 
-    static class PageHandler implements HttpHandler {
+    static class PageHandler extends MeteredHandler {
         @Override
-        public void handle(HttpExchange exchange) throws IOException {
-            logger.info("Page Request: {} {}", exchange.getRequestMethod(), exchange.getRequestURI().getPath());
-            if (handlePreflight(exchange)) return;
+        void serve(HttpExchange exchange) throws IOException {
+            logger.debug("Page Request: {} {}", exchange.getRequestMethod(), exchange.getRequestURI().getPath());
 
-            InputStream is = getClass().getResourceAsStream("/com/skilora/view/formation/verification_page.html");
-            if (is == null) {
-                // Fallback to root classpath
-                is = getClass().getResourceAsStream("/verification_page.html");
-            }
-            if (is == null) {
+            Page p = page();
+            if (p == null) {
                 logger.error("verification_page.html NOT FOUND in classpath!");
+                metrics.onNotFound();
                 sendError(exchange, 404, "Verification page not found.");
                 return;
             }
 
-            String content;
-            try (Scanner s = new Scanner(is, StandardCharsets.UTF_8)) {
-                content = s.useDelimiter("\\A").hasNext() ? s.next() : "";
-            }
-
-            byte[] response = content.getBytes(StandardCharsets.UTF_8);
             addCorsHeaders(exchange);
-            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
-            exchange.sendResponseHeaders(200, response.length);
-            try (OutputStream os = exchange.getResponseBody()) {
-                os.write(response);
+            Headers headers = exchange.getResponseHeaders();
+            headers.set("Content-Type", "text/html; charset=UTF-8");
+            headers.set("Cache-Control", "public, max-age=300");
+            headers.set("Vary", "Accept-Encoding");
+            if (notModified(exchange, p.etag)) return;
+
+            if (acceptsGzip(exchange.getRequestHeaders())) {
+                headers.set("Content-Encoding", "gzip");
+                send(exchange, 200, p.gzip);
+            } else {
+                send(exchange, 200, p.identity);
             }
         }
     }
 
-    // ─── API Handler (by certificate number) ────────────────────────────────
+    // ─── API Handlers ────────────────────────────────────────────────────────
 
-    static class ApiHandler implements HttpHandler {
-        @Override
-        public void handle(HttpExchange exchange) throws IOException {
-            if (handlePreflight(exchange)) return;
+    /** Shared body of the two lookup endpoints. */
+    private abstract static class CertificateApiHandler extends MeteredHandler {
+        private final String kind;
 
-            String certificateId = extractIdentifier(exchange.getRequestURI().getPath());
-            logger.info("API verify request → certificateId='{}'", certificateId);
+        CertificateApiHandler(String kind) {
+            this.kind = kind;
+        }
+
+        abstract CertificateViewCache.View lookup(String identifier);
+
+        @Override
+        void serve(HttpExchange exchange) throws IOException {
+            String identifier = extractIdentifier(exchange.getRequestURI().getPath());
+            logger.debug("API verify request ({}) → '{}'", kind, identifier);
 
             addCorsHeaders(exchange);
             exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
 
-            String responseBody;
-            int statusCode;
-
-            if (certificateId.isEmpty()) {
-                statusCode = 400;
-                responseBody = toJson("invalid", "No certificate ID provided.");
-            } else {
-                Certificate cert = CertificateService.getInstance().getCertificateByNumber(certificateId);
-                if (cert == null) {
-                    statusCode = 404;
-                    responseBody = toJson("invalid", "Certificate not found for ID: " + certificateId);
-                    logger.warn("Certificate not found for ID: {}", certificateId);
-                } else {
-                    statusCode = 200;
-                    responseBody = buildCertificateJson(cert);
-                    logger.info("Certificate verified successfully: {}", cert.getCertificateNumber());
-                }
+            if (identifier.isEmpty()) {
+                send(exchange, 400, toJson("invalid", "No certificate " + kind + " provided.")
+                        .getBytes(StandardCharsets.UTF_8));
+                return;
             }
 
-            byte[] bytes = responseBody.getBytes(StandardCharsets.UTF_8);
-            exchange.sendResponseHeaders(statusCode, bytes.length);
-            try (OutputStream os = exchange.getResponseBody()) {
-                os.write(bytes);
+            CertificateViewCache.View view = lookup(identifier);
+            if (view == null) {
+                metrics.onNotFound();
+                logger.debug("Certificate not found for {}: {}", kind, identifier);
+                send(exchange, 404, toJson("invalid", "Certificate not found for " + kind + ": " + identifier)
+                        .getBytes(StandardCharsets.UTF_8));
+                return;
             }
+            if (notModified(exchange, view.getEtag())) return;
+            send(exchange, 200, view.getJson());
         }
     }
 
-    // ─── Token API Handler ───────────────────────────────────────────────────
+    static class ApiHandler extends CertificateApiHandler {
+        ApiHandler() {
+            super("ID");
+        }
 
-    static class TokenApiHandler implements HttpHandler {
         @Override
-        public void handle(HttpExchange exchange) throws IOException {
-            if (handlePreflight(exchange)) return;
+        CertificateViewCache.View lookup(String certificateId) {
+            return CertificateViewCache.getInstance().byNumber(certificateId, metrics);
+        }
+    }
+
+    static class TokenApiHandler extends CertificateApiHandler {
+        TokenApiHandler() {
+            super("token");
+        }
+
+        @Override
+        CertificateViewCache.View lookup(String token) {
+            return CertificateViewCache.getInstance().byToken(token, metrics);
+        }
+    }
+
+    // ─── Signed Token Handler ────────────────────────────────────────────────
 
+    static class SignedApiHandler extends MeteredHandler {
+        @Override
+        void serve(HttpExchange exchange) throws IOException {
             String token = extractIdentifier(exchange.getRequestURI().getPath());
-            logger.info("API verify request (token) → token='{}'", token);
 
             addCorsHeaders(exchange);
             exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
 
-            String responseBody;
-            int statusCode;
-
-            if (token.isEmpty()) {
-                statusCode = 400;
-                responseBody = toJson("invalid", "No certificate token provided.");
-            } else {
-                Certificate cert = CertificateService.getInstance().getCertificateByToken(token);
-                if (cert == null) {
-                    statusCode = 404;
-                    responseBody = toJson("invalid", "Certificate not found for token: " + token);
-                    logger.warn("Certificate not found for token: {}", token);
-                } else {
-                    statusCode = 200;
-                    responseBody = buildCertificateJson(cert);
-                    logger.info("Certificate verified (token): {}", cert.getCertificateNumber());
-                }
+            CertificateSigner.SignedCertificate cert = CertificateSigner.getInstance().verify(token);
+            if (cert == null) {
+                metrics.onNotFound();
+                send(exchange, 404, toJson("invalid", "Certificate signature is not valid.")
+                        .getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            if (CertificateRevocationList.getInstance().isRevoked(cert.getCertificateId())) {
+                metrics.onRevoked();
+                logger.debug("Revoked certificate presented: {}", cert.getCertificateNumber());
+                send(exchange, 410, toJson("revoked", "Certificate " + cert.getCertificateNumber()
+                        + " has been revoked.").getBytes(StandardCharsets.UTF_8));
+                return;
             }
+            metrics.onSignedVerified();
+
+            String date = cert.getIssuedDate() != null
+                    ? cert.getIssuedDate().format(CertificateViewCache.DATE_FORMAT) : "Unknown";
+            byte[] body = CertificateViewCache.toJson(cert.getCertificateNumber(), cert.getHolderName(),
+                    cert.getTrainingTitle(), null, date).getBytes(StandardCharsets.UTF_8);
+            if (notModified(exchange, etagOf(body))) return;
+            send(exchange, 200, body);
+        }
+    }
 
-            byte[] bytes = responseBody.getBytes(StandardCharsets.UTF_8);
-            exchange.sendResponseHeaders(statusCode, bytes.length);
-            try (OutputStream os = exchange.getResponseBody()) {
-                os.write(bytes);
+    // ─── Metrics Handler ─────────────────────────────────────────────────────
+
+    static class MetricsHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!exchange.getRemoteAddress().getAddress().isLoopbackAddress()) {
+                sendError(exchange, 403, "Forbidden");
+                return;
             }
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+            exchange.getResponseHeaders().set("Cache-Control", "no-store");
+            send(exchange, 200, metrics.toJson().getBytes(StandardCharsets.UTF_8));
         }
     }
 }
@@ -0,0 +1,229 @@
+package com.skilora.formation.service;
+
+import com.skilora.config.DatabaseConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * CertificateViewCache
+ *
+ * Public verification views of certificates, keyed by certificate number and by
+ * verification token. A view holds the response already encoded as JSON bytes plus its
+ * ETag, so a hit costs one map lookup. A miss resolves certificate, holder and formation
+ * in one joined query. Unknown identifiers are remembered briefly too, so a burst of bad
+ * scans does not reach the database. Bounded LRU with a TTL; cleared whenever
+ * certificates are issued, tokenised or deleted.
+ */
+public class CertificateViewCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CertificateViewCache.class);
+
+    static final int MAX_ENTRIES = 10_000;
+    static final long TTL_NANOS = TimeUnit.MINUTES.toNanos(5);
+    static final long NOT_FOUND_TTL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MMMM dd, yyyy");
+
+    private static final String VIEW_SQL = """
+            SELECT c.id, c.certificate_number, c.issued_date, c.completed_at,
+                   COALESCE(NULLIF(u.full_name, ''), u.username) AS holder_name,
+                   f.title AS formation_title, f.director_signature
+            FROM certificates c
+            LEFT JOIN enrollments e ON e.id = c.enrollment_id
+            LEFT JOIN users u ON u.id = COALESCE(NULLIF(c.user_id, 0), e.user_id)
+            LEFT JOIN formations f ON f.id = COALESCE(NULLIF(c.formation_id, 0), e.formation_id)
+            """;
+
+    /** Encoded verification response of one certificate. Immutable. */
+    public static final class View {
+        private final int certificateId;
+        private final String certificateNumber;
+        private final String holderName;
+        private final String trainingTitle;
+        private final LocalDate issuedDate;
+        private final byte[] json;
+        private final String etag;
+        private final long loadedAt;
+
+        View(int certificateId, String certificateNumber, String holderName, String trainingTitle,
+             LocalDate issuedDate, byte[] json, long loadedAt) {
+            this.certificateId = certificateId;
+            this.certificateNumber = certificateNumber;
+            this.holderName = holderName;
+            this.trainingTitle = trainingTitle;
+            this.issuedDate = issuedDate;
+            this.json = json;
+            this.loadedAt = loadedAt;
+            CRC32 crc = new CRC32();
+            crc.update(json);
+            this.etag = "\"" + Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(json.length) + "\"";
+        }
+
+        public int getCertificateId() { return certificateId; }
+        public String getCertificateNumber() { return certificateNumber; }
+        public String getHolderName() { return holderName; }
+        public String getTrainingTitle() { return trainingTitle; }
+        /** Issue date, or null if the row has none. */
+        public LocalDate getIssuedDate() { return issuedDate; }
+        /** Shared; do not modify. */
+        public byte[] getJson() { return json; }
+        public String getEtag() { return etag; }
+    }
+
+    /** Cached "no such certificate". */
+    private static final View NOT_FOUND = new View(0, null, null, null, null, new byte[0], 0L);
+
+    private static volatile CertificateViewCache instance;
+
+    private final Map<String, View> views = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, View> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private final Map<String, Long> missedAt = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    /** Bumped by {@link #invalidateAll}; a load that started before the bump is not cached. */
+    private long generation;
+
+    private CertificateViewCache() {}
+
+    public static CertificateViewCache getInstance() {
+        if (instance == null) {
+            synchronized (CertificateViewCache.class) {
+                if (instance == null) {
+                    instance = new CertificateViewCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    // ==================== Lookups ====================
+
+    /** View by certificate number, or null if there is no such certificate. */
+    public View byNumber(String certificateNumber, VerificationMetrics metrics) {
+        return lookup("n:" + certificateNumber, "c.certificate_number", certificateNumber, metrics);
+    }
+
+    /** View by verification token, or null if there is no such certificate. */
+    public View byToken(String token, VerificationMetrics metrics) {
+        return lookup("t:" + token, "c.verification_token", token, metrics);
+    }
+
+    /** Drops every cached view, e.g. after certificates change. */
+    public synchronized void invalidateAll() {
+        generation++;
+        views.clear();
+        missedAt.clear();
+    }
+
+    public synchronized int size() {
+        return views.size();
+    }
+
+    private View lookup(String key, String column, String value, VerificationMetrics metrics) {
+        long now = System.nanoTime();
+        long startedIn;
+        synchronized (this) {
+            View cached = views.get(key);
+            if (cached != null && now - cached.loadedAt < TTL_NANOS) {
+                if (metrics != null) metrics.onCacheHit();
+                return cached;
+            }
+            Long missed = missedAt.get(key);
+            if (missed != null && now - missed < NOT_FOUND_TTL_NANOS) {
+                if (metrics != null) metrics.onCacheHit();
+                return null;
+            }
+            startedIn = generation;
+        }
+
+        if (metrics != null) metrics.onCacheMiss();
+        View loaded = load(column, value, now);
+        synchronized (this) {
+            // Certificates changed while loading: serve this answer but don't cache it
+            boolean current = startedIn == generation;
+            if (loaded == NOT_FOUND) {
+                if (current) missedAt.put(key, now);
+                return null;
+            }
+            if (loaded != null && current) views.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    /** One joined query; NOT_FOUND if absent, null on database error (not cached). */
+    private View load(String column, String value, long now) {
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(VIEW_SQL + " WHERE " + column + " = ? LIMIT 1")) {
+            stmt.setString(1, value);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) return NOT_FOUND;
+                String number = rs.getString("certificate_number");
+                Timestamp completed = rs.getTimestamp("completed_at");
+                Timestamp issued = rs.getTimestamp("issued_date");
+                String date = completed != null ? completed.toLocalDateTime().format(DATE_FORMAT)
+                        : (issued != null ? issued.toLocalDateTime().format(DATE_FORMAT) : "Unknown");
+                String holder = rs.getString("holder_name");
+                if (holder == null || holder.isBlank()) holder = "Unknown";
+                String title = rs.getString("formation_title");
+                if (title == null) title = "Unknown Formation";
+                String json = toJson(number, holder, title, rs.getString("director_signature"), date);
+                return new View(rs.getInt("id"), number, holder, title,
+                        issued != null ? issued.toLocalDateTime().toLocalDate() : null,
+                        json.getBytes(StandardCharsets.UTF_8), now);
+            }
+        } catch (SQLException e) {
+            logger.error("Error loading certificate view for {}: {}", column, e.getMessage());
+            return null;
+        }
+    }
+
+    static String toJson(String number, String holder, String title, String signature, String date) {
+        StringBuilder json = new StringBuilder(256).append("{\"status\":\"valid\"");
+        field(json, "certId", number);
+        field(json, "holderName", holder);
+        field(json, "trainingTitle", title);
+        if (signature != null && !signature.isBlank()) field(json, "directorSignature", signature);
+        field(json, "completionDate", date);
+        return json.append('}').toString();
+    }
+
+    private static void field(StringBuilder json, String name, String value) {
+        json.append(",\"").append(name).append("\":\"");
+        String s = value != null ? value : "";
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            switch (ch) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (ch < 0x20) json.append(String.format("\\u%04x", (int) ch));
+                    else json.append(ch);
+                }
+            }
+        }
+        json.append('"');
+    }
+}
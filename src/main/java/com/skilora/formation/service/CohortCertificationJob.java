@@ -0,0 +1,440 @@
+package com.skilora.formation.service;
+
+import com.skilora.config.DatabaseConfig;
+import com.skilora.formation.entity.Formation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CohortCertificationJob
+ *
+ * Certifies every completed enrollment of a formation that has no certificate yet. The
+ * formation and all enrollments with their holders are fetched up front; certificate rows
+ * are inserted {@value #CHUNK_SIZE} at a time in one batch, then their PDFs (signed QR
+ * code included) are rendered in parallel by {@link CertificatePdfRenderer} and written to
+ * the output directory.
+ *
+ * A certificate is kept only once its PDF is on disk: rows of documents that failed or
+ * were skipped by {@link #cancel()} are deleted again. If a chunk cannot be finished, its
+ * rows and the PDFs already written are removed before the job fails. Enrollments
+ * certified meanwhile by another path (completion of the last lesson) are skipped. Created through
+ * {@link CertificateGenerationService#certifyCohort}.
+ * No JavaFX imports allowed.
+ */
+public final class CohortCertificationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(CohortCertificationJob.class);
+
+    static final int CHUNK_SIZE = 100;
+
+    /** Called from worker threads after each document; {@code done} counts failures too. */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(int done, int total);
+    }
+
+    /** Outcome of a job. Immutable. */
+    public static final class Result {
+        private final int total;
+        private final int issued;
+        private final int failed;
+        private final int skipped;
+        private final boolean cancelled;
+
+        Result(int total, int issued, int failed, int skipped, boolean cancelled) {
+            this.total = total;
+            this.issued = issued;
+            this.failed = failed;
+            this.skipped = skipped;
+            this.cancelled = cancelled;
+        }
+
+        /** Enrollments that needed a certificate. */
+        public int getTotal() { return total; }
+        /** Certificates inserted and rendered. */
+        public int getIssued() { return issued; }
+        public int getFailed() { return failed; }
+        /** Enrollments that got a certificate from elsewhere while the job ran. */
+        public int getSkipped() { return skipped; }
+        public boolean isCancelled() { return cancelled; }
+
+        @Override
+        public String toString() {
+            return "Result{total=" + total + ", issued=" + issued + ", failed=" + failed
+                    + ", skipped=" + skipped + ", cancelled=" + cancelled + "}";
+        }
+    }
+
+    /** One enrollment to certify, with everything the document needs. */
+    private static final class Candidate {
+        final int enrollmentId;
+        final int userId;
+        final String holderName;
+        final LocalDateTime completedAt;
+        final String certificateNumber;
+        final String verificationToken;
+        int certificateId;
+        volatile boolean failed;
+
+        Candidate(int enrollmentId, int userId, String holderName, LocalDateTime completedAt,
+                  String certificateNumber, String verificationToken) {
+            this.enrollmentId = enrollmentId;
+            this.userId = userId;
+            this.holderName = holderName;
+            this.completedAt = completedAt;
+            this.certificateNumber = certificateNumber;
+            this.verificationToken = verificationToken;
+        }
+    }
+
+    private final int formationId;
+    private final File outputDir;
+    private final ProgressListener listener;
+    private final ExecutorService renderPool;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final AtomicInteger done = new AtomicInteger();
+    private final CompletableFuture<Result> result = new CompletableFuture<>();
+
+    CohortCertificationJob(int formationId, File outputDir, ProgressListener listener, ExecutorService renderPool) {
+        this.formationId = formationId;
+        this.outputDir = outputDir;
+        this.listener = listener;
+        this.renderPool = renderPool;
+    }
+
+    /** Stops after the documents already being rendered; nothing further is issued. */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    public int getFormationId() {
+        return formationId;
+    }
+
+    /** Completes with the outcome, or exceptionally if the job could not run at all. */
+    public CompletableFuture<Result> getResult() {
+        return result;
+    }
+
+    // ==================== Pipeline ====================
+
+    void run() {
+        try {
+            result.complete(execute());
+        } catch (Exception e) {
+            logger.error("Cohort certification failed for formation {}", formationId, e);
+            result.completeExceptionally(e);
+        }
+    }
+
+    private Result execute() throws SQLException, IOException {
+        long start = System.nanoTime();
+        Formation formation = FormationService.getInstance().findById(formationId);
+        if (formation == null) throw new IllegalArgumentException("Formation " + formationId + " not found");
+        Files.createDirectories(outputDir.toPath());
+
+        List<Candidate> candidates = loadCandidates();
+        int total = candidates.size();
+        report(0, total);
+        if (total == 0) return new Result(0, 0, 0, 0, false);
+
+        CertificatePdfRenderer renderer = new CertificatePdfRenderer(formation);
+        CertificateSigner signer = CertificateSigner.getInstance();
+        String verifyBase = verificationBaseUrl();
+        LocalDateTime issuedAt = LocalDateTime.now();
+        String title = formation.getTitle() != null ? formation.getTitle() : "Unknown Formation";
+
+        int issued = 0;
+        int failed = 0;
+        int skipped = 0;
+        try {
+            for (int from = 0; from < total && !cancelled.get(); from += CHUNK_SIZE) {
+                List<Candidate> slice = candidates.subList(from, Math.min(total, from + CHUNK_SIZE));
+                List<Candidate> chunk = insertChunk(slice, issuedAt);
+                if (chunk.size() < slice.size()) {
+                    skipped += slice.size() - chunk.size();
+                    report(done.addAndGet(slice.size() - chunk.size()), total);
+                    if (chunk.isEmpty()) continue;
+                }
+
+                List<Candidate> kept = new ArrayList<>(chunk.size());
+                List<String> urls = new ArrayList<>(chunk.size());
+                List<Integer> dropped = new ArrayList<>();
+                int chunkFailed = 0;
+                List<Future<String>> rendered = new ArrayList<>(chunk.size());
+                try {
+                    for (Candidate c : chunk) {
+                        rendered.add(renderPool.submit(() -> renderOne(c, title, renderer, signer, verifyBase, issuedAt, total)));
+                    }
+                    for (int i = 0; i < chunk.size(); i++) {
+                        String url = await(rendered.get(i), chunk.get(i));
+                        if (url != null) {
+                            kept.add(chunk.get(i));
+                            urls.add(url);
+                        } else {
+                            dropped.add(chunk.get(i).certificateId);
+                            if (chunk.get(i).failed) chunkFailed++;
+                        }
+                    }
+                    finishChunk(kept, urls, dropped);
+                } catch (SQLException | RuntimeException e) {
+                    discardChunk(chunk, rendered);
+                    throw e;
+                }
+                issued += kept.size();
+                failed += chunkFailed;
+            }
+        } finally {
+            CertificateViewCache.getInstance().invalidateAll();
+            FormationDashboardService.getInstance().onCertificateChanged(0);
+        }
+
+        logger.info("Cohort certification of formation {}: {} issued, {} failed, {} skipped of {}{} in {} ms",
+                formationId, issued, failed, skipped, total, cancelled.get() ? " (cancelled)" : "",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return new Result(total, issued, failed, skipped, cancelled.get());
+    }
+
+    /** Completed enrollments of the formation without a certificate, holders joined in. */
+    private List<Candidate> loadCandidates() throws SQLException {
+        String sql = """
+            SELECT e.id, e.user_id, e.completed_date,
+                   COALESCE(NULLIF(u.full_name, ''), u.username) AS holder_name
+            FROM enrollments e
+            JOIN users u ON u.id = e.user_id
+            LEFT JOIN certificates c ON c.enrollment_id = e.id
+            WHERE e.formation_id = ? AND e.status = 'COMPLETED' AND c.id IS NULL
+            ORDER BY e.id
+            """;
+        List<Candidate> list = new ArrayList<>();
+        CertificateService certificates = CertificateService.getInstance();
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, formationId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp completed = rs.getTimestamp("completed_date");
+                    list.add(new Candidate(rs.getInt("id"), rs.getInt("user_id"), rs.getString("holder_name"),
+                            completed != null ? completed.toLocalDateTime() : null,
+                            certificates.generateCertificateNumber(),
+                            UUID.randomUUID().toString().replace("-", "").toUpperCase()));
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Inserts the chunk's certificate rows in one transaction. An enrollment certified since
+     * the candidates were loaded keeps its certificate: the duplicate is not inserted, and
+     * the candidate is left out of the returned list.
+     *
+     * @return the candidates whose rows were inserted, with their ids set
+     */
+    private List<Candidate> insertChunk(List<Candidate> chunk, LocalDateTime issuedAt) throws SQLException {
+        String sql = "INSERT INTO certificates (user_id, formation_id, enrollment_id, certificate_number, "
+                + "verification_token, issued_date, completed_at, hash_value) VALUES (?, ?, ?, ?, ?, ?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE id = id";
+        String idsSql = "SELECT id, enrollment_id, certificate_number FROM certificates "
+                + "WHERE enrollment_id BETWEEN ? AND ?";
+        try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql);
+                 PreparedStatement ids = conn.prepareStatement(idsSql)) {
+                for (Candidate c : chunk) {
+                    LocalDateTime completed = c.completedAt != null ? c.completedAt : issuedAt;
+                    stmt.setInt(1, c.userId);
+                    stmt.setInt(2, formationId);
+                    stmt.setInt(3, c.enrollmentId);
+                    stmt.setString(4, c.certificateNumber);
+                    stmt.setString(5, c.verificationToken);
+                    stmt.setTimestamp(6, Timestamp.valueOf(issuedAt));
+                    stmt.setTimestamp(7, Timestamp.valueOf(completed));
+                    stmt.setString(8, CertificateGenerationService.sha256(
+                            c.enrollmentId + "|" + c.userId + "|" + formationId + "|" + completed));
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+
+                // Ours are the rows carrying the number we generated; candidates are ordered by enrollment id
+                Map<Integer, Candidate> byEnrollment = new HashMap<>(chunk.size() * 2);
+                for (Candidate c : chunk) byEnrollment.put(c.enrollmentId, c);
+                ids.setInt(1, chunk.get(0).enrollmentId);
+                ids.setInt(2, chunk.get(chunk.size() - 1).enrollmentId);
+                try (ResultSet rs = ids.executeQuery()) {
+                    while (rs.next()) {
+                        Candidate c = byEnrollment.get(rs.getInt("enrollment_id"));
+                        if (c != null && c.certificateNumber.equals(rs.getString("certificate_number"))) {
+                            c.certificateId = rs.getInt("id");
+                        }
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        List<Candidate> inserted = new ArrayList<>(chunk.size());
+        for (Candidate c : chunk) {
+            if (c.certificateId > 0) {
+                inserted.add(c);
+            } else {
+                logger.info("Enrollment {} was certified meanwhile, skipped", c.enrollmentId);
+            }
+        }
+        return inserted;
+    }
+
+    /** Renders and writes one PDF; returns its verification URL, or null if skipped or failed. */
+    private String renderOne(Candidate c, String title, CertificatePdfRenderer renderer, CertificateSigner signer,
+                             String verifyBase, LocalDateTime issuedAt, int total) {
+        if (cancelled.get()) return null;
+        try {
+            String holder = c.holderName != null && !c.holderName.isBlank() ? c.holderName : "Unknown";
+            String token = signer.sign(new CertificateSigner.SignedCertificate(c.certificateId,
+                    c.certificateNumber, holder, title, issuedAt.toLocalDate()));
+            String url = verifyBase + "/verify/s/" + token;
+            byte[] pdf = renderer.render(holder, c.certificateNumber, issuedAt.toLocalDate(), url);
+            Files.write(new File(outputDir, c.certificateNumber + ".pdf").toPath(), pdf);
+            return url;
+        } catch (IOException | RuntimeException e) {
+            c.failed = true;
+            logger.warn("Certificate {} for enrollment {} failed: {}", c.certificateNumber, c.enrollmentId,
+                    e.getMessage());
+            return null;
+        } finally {
+            report(done.incrementAndGet(), total);
+        }
+    }
+
+    /** Records PDF paths and QR targets of rendered certificates; removes the others. */
+    private void finishChunk(List<Candidate> kept, List<String> urls, List<Integer> dropped) throws SQLException {
+        try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement update = conn.prepareStatement(
+                         "UPDATE certificates SET pdf_url = ?, qr_code = ? WHERE id = ?");
+                 PreparedStatement delete = conn.prepareStatement("DELETE FROM certificates WHERE id = ?")) {
+                for (int i = 0; i < kept.size(); i++) {
+                    Candidate c = kept.get(i);
+                    update.setString(1, new File(outputDir, c.certificateNumber + ".pdf").getAbsolutePath());
+                    update.setString(2, urls.get(i));
+                    update.setInt(3, c.certificateId);
+                    update.addBatch();
+                }
+                for (int id : dropped) {
+                    delete.setInt(1, id);
+                    delete.addBatch();
+                }
+                if (!kept.isEmpty()) update.executeBatch();
+                if (!dropped.isEmpty()) delete.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Undoes a chunk that could not be finished: deletes its certificate rows and any PDF
+     * already written, so a rerun certifies these enrollments again from scratch. The job is
+     * cancelled and submitted renders are awaited first, so no PDF appears after the cleanup.
+     * Best effort; what cannot be removed is logged.
+     */
+    private void discardChunk(List<Candidate> chunk, List<Future<String>> rendered) {
+        cancelled.set(true);
+        for (Future<String> f : rendered) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                // Nothing written for this one
+            }
+        }
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement delete = conn.prepareStatement("DELETE FROM certificates WHERE id = ?")) {
+            for (Candidate c : chunk) {
+                if (c.certificateId <= 0) continue;
+                delete.setInt(1, c.certificateId);
+                delete.addBatch();
+            }
+            delete.executeBatch();
+        } catch (SQLException e) {
+            logger.error("Could not remove certificate rows of a failed chunk (formation {}, enrollments {}..{}): {}",
+                    formationId, chunk.get(0).enrollmentId, chunk.get(chunk.size() - 1).enrollmentId,
+                    e.getMessage(), e);
+        }
+        for (Candidate c : chunk) {
+            try {
+                Files.deleteIfExists(new File(outputDir, c.certificateNumber + ".pdf").toPath());
+            } catch (IOException e) {
+                logger.warn("Could not delete {}.pdf of a failed chunk: {}", c.certificateNumber, e.getMessage());
+            }
+        }
+    }
+
+    private String await(Future<String> future, Candidate c) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled.set(true);
+            return null;
+        } catch (ExecutionException e) {
+            c.failed = true;
+            logger.warn("Certificate {} failed: {}", c.certificateNumber, e.getCause() != null
+                    ? e.getCause().getMessage() : e.getMessage());
+            return null;
+        }
+    }
+
+    private void report(int count, int total) {
+        if (listener == null) return;
+        try {
+            listener.onProgress(count, total);
+        } catch (RuntimeException e) {
+            logger.debug("Progress listener failed: {}", e.getMessage());
+        }
+    }
+
+    /** The LAN verification server when it runs, else the public site. */
+    private static String verificationBaseUrl() {
+        int port = CertificateVerificationServer.getPort();
+        return port > 0
+                ? "http://" + CertificateVerificationServer.getLocalIPAddress() + ":" + port
+                : "https://skilora.com";
+    }
+}
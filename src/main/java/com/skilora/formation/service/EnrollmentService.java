@@ -59,6 +59,7 @@ public class EnrollmentService {
                 try (ResultSet keys = stmt.getGeneratedKeys()) {
                     if (keys.next()) {
                         int id = keys.getInt(1);
+                        FormationDashboardService.getInstance().onEnrollmentChanged(userId);
                         logger.info("User {} enrolled in formation {} with enrollment ID: {}", userId, formationId, id);
                         return id;
                     }
@@ -132,6 +133,7 @@ public class EnrollmentService {
 
             int rows = stmt.executeUpdate();
             if (rows > 0) {
+                FormationDashboardService.getInstance().onEnrollmentChanged(0);
                 logger.info("Enrollment ID {} status updated to {}", enrollmentId, status);
                 return true;
             }
@@ -210,7 +212,10 @@ public class EnrollmentService {
             stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
             stmt.setInt(3, enrollmentId);
             boolean updated = stmt.executeUpdate() > 0;
-            if (updated) logger.info("Enrollment {} completed", enrollmentId);
+            if (updated) {
+                FormationDashboardService.getInstance().onEnrollmentChanged(0);
+                logger.info("Enrollment {} completed", enrollmentId);
+            }
             return updated;
         } catch (SQLException e) {
             logger.error("Error completing enrollment: {}", e.getMessage(), e);
@@ -257,8 +262,10 @@ public class EnrollmentService {
 
     /**
      * Mark formation as completed for a user and automatically generate certificate.
+     *
+     * @return true if the enrollment is now marked completed
      */
-    public void markCompleted(int userId, int formationId) {
+    public boolean markCompleted(int userId, int formationId) {
         logger.info("Marking formation as completed: user={}, formation={}", userId, formationId);
         String sql = "UPDATE enrollments SET status = 'COMPLETED', progress = 100.00, completed = TRUE, " +
                 "completed_date = ? WHERE user_id = ? AND formation_id = ?";
@@ -269,6 +276,7 @@ public class EnrollmentService {
             stmt.setInt(3, formationId);
             int rows = stmt.executeUpdate();
             if (rows > 0) {
+                FormationDashboardService.getInstance().onEnrollmentChanged(userId);
                 logger.info("Formation marked as completed: user={}, formation={}", userId, formationId);
                 // Automatically generate certificate if it doesn't exist
                 try {
@@ -281,9 +289,11 @@ public class EnrollmentService {
                     logger.error("Error auto-generating certificate: user={}, formation={}", userId, formationId, e);
                 }
             }
+            return rows > 0;
         } catch (SQLException e) {
             logger.error("Error marking formation completed: user={}, formation={}", userId, formationId, e);
         }
+        return false;
     }
 
     /**
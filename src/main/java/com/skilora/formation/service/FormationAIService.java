@@ -4,6 +4,7 @@ import com.skilora.formation.entity.Formation;
 import com.skilora.support.service.GeminiAIService;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -29,6 +30,15 @@ public final class FormationAIService {
      * Answer a user question about formations using Gemini, falling back to simple replies on failure.
      */
     public String answer(String question, List<Formation> formations) {
+        return answer(question, formations, null);
+    }
+
+    /**
+     * Same as {@link #answer(String, List)}, but when {@code onToken} is given the AI reply is
+     * streamed to it as it is generated. The complete reply is still returned; a rule-based
+     * fallback is returned without being streamed.
+     */
+    public String answer(String question, List<Formation> formations, Consumer<String> onToken) {
         if (question == null || question.isBlank()) return "";
         int n = formations != null ? formations.size() : 0;
 
@@ -40,17 +50,10 @@ public final class FormationAIService {
         try {
             GeminiAIService aiService = GeminiAIService.getInstance();
             if (aiService != null && aiService.isAiAvailable()) {
-                String formationsContext = formations.stream()
-                        .map(f -> "- " + f.getTitle() + " (" + f.getLevel() + ") : " + (f.isFree() ? "Gratuit" : f.getCost() + " " + f.getCurrency()))
-                        .collect(Collectors.joining("\n"));
-
-                String prompt = "You are a helpful and concise assistant for Skilora Formations (in French). "
-                        + "Answer the user's question based strictly on this list of available formations:\n"
-                        + formationsContext + "\n\n"
-                        + "Question: " + question + "\n"
-                        + "Do not invent any formations. If the answer is not in the list, state it politely. Keep it brief (1-3 sentences) and in French.";
-
-                String aiResponse = aiService.askGemini(prompt);
+                String prompt = buildPrompt(question, formations);
+                String aiResponse = onToken != null
+                        ? aiService.askGeminiStreaming(prompt, onToken).join()
+                        : aiService.askGemini(prompt);
                 if (aiResponse != null && !aiResponse.isBlank()) {
                     return aiResponse;
                 }
@@ -60,6 +63,23 @@ public final class FormationAIService {
             System.err.println("Gemini AI failed for formation chatbot: " + e.getMessage());
         }
 
+        return fallbackAnswer(question, formations);
+    }
+
+    private static String buildPrompt(String question, List<Formation> formations) {
+        String formationsContext = formations.stream()
+                .map(f -> "- " + f.getTitle() + " (" + f.getLevel() + ") : " + (f.isFree() ? "Gratuit" : f.getCost() + " " + f.getCurrency()))
+                .collect(Collectors.joining("\n"));
+
+        return "You are a helpful and concise assistant for Skilora Formations (in French). "
+                + "Answer the user's question based strictly on this list of available formations:\n"
+                + formationsContext + "\n\n"
+                + "Question: " + question + "\n"
+                + "Do not invent any formations. If the answer is not in the list, state it politely. Keep it brief (1-3 sentences) and in French.";
+    }
+
+    private static String fallbackAnswer(String question, List<Formation> formations) {
+        int n = formations.size();
         // Fallback rule-based logic
         String q = question.trim().toLowerCase();
         if (q.contains("disponible") || q.contains("quelle") || q.contains("liste") || q.contains("toutes")) {
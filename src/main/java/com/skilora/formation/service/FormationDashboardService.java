@@ -1,6 +1,7 @@
 package com.skilora.formation.service;
 
 import com.skilora.config.DatabaseConfig;
+import com.skilora.config.EnvConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -8,6 +9,10 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * FormationDashboardService
@@ -15,13 +20,76 @@ import java.sql.SQLException;
  * Combined service providing both admin and user-specific dashboard statistics.
  * Merges DashboardService + UserDashboardService from the branch.
  * Uses direct SQL via DatabaseConfig.
+ *
+ * Each scope (catalog, user) is loaded with one aggregate query and kept as a snapshot
+ * for at most {@code formation.dashboard.max.staleness.seconds} (default 60). Enrollment,
+ * certificate and catalog changes drop the affected snapshots, so the next read reloads them.
  */
 public class FormationDashboardService {
 
     private static final Logger logger = LoggerFactory.getLogger(FormationDashboardService.class);
     private static volatile FormationDashboardService instance;
 
-    private FormationDashboardService() {}
+    static final int MAX_CACHED_USERS = 5_000;
+    static final long DEFAULT_MAX_STALENESS_SECONDS = 60;
+
+    private static final String CATALOG_SQL = """
+        SELECT
+            (SELECT COUNT(*) FROM formations) AS total,
+            (SELECT COUNT(*) FROM formations f
+                WHERE EXISTS (SELECT 1 FROM formation_modules fm WHERE fm.formation_id = f.id)) AS processed,
+            (SELECT COUNT(*) FROM certificates) AS certificates
+        """;
+
+    private static final String USER_SQL = """
+        SELECT
+            COUNT(*) AS enrolled,
+            COALESCE(SUM(CASE WHEN status = 'COMPLETED' OR completed = TRUE THEN 1 ELSE 0 END), 0) AS completed,
+            (SELECT COUNT(*) FROM certificates c JOIN enrollments ce ON c.enrollment_id = ce.id
+                WHERE ce.user_id = ?) AS earned
+        FROM enrollments WHERE user_id = ?
+        """;
+
+    /** Enrollment counters of one user, as loaded. Immutable. */
+    private static final class UserCounters {
+        final int enrolled;
+        final int completed;
+        final int earned;
+        final long loadedAt;
+
+        UserCounters(int enrolled, int completed, int earned, long loadedAt) {
+            this.enrolled = enrolled;
+            this.completed = completed;
+            this.earned = earned;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private volatile DashboardStats catalog;
+    private volatile long catalogLoadedAt;
+    private final Map<Integer, UserCounters> users = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, UserCounters> eldest) {
+            return size() > MAX_CACHED_USERS;
+        }
+    };
+    /** Bumped on every invalidation, so a load that raced with a change is not kept. */
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final AtomicLong usersVersion = new AtomicLong();
+    private volatile long maxStalenessNanos;
+
+    private FormationDashboardService() {
+        long seconds = DEFAULT_MAX_STALENESS_SECONDS;
+        String configured = EnvConfig.get("formation.dashboard.max.staleness.seconds", null);
+        if (configured != null) {
+            try {
+                seconds = Long.parseLong(configured.trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid formation.dashboard.max.staleness.seconds '{}', using {}", configured, seconds);
+            }
+        }
+        setMaxStaleness(seconds, TimeUnit.SECONDS);
+    }
 
     public static FormationDashboardService getInstance() {
         if (instance == null) {
@@ -42,57 +110,49 @@ public class FormationDashboardService {
      * Get total number of formations.
      */
     public int getTotalFormations() {
-        String sql = "SELECT COUNT(*) as total FROM formations";
-        try (Connection conn = DatabaseConfig.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            if (rs.next()) return rs.getInt("total");
-        } catch (SQLException e) {
-            logger.error("Error fetching total formations count", e);
-        }
-        return 0;
+        return getDashboardStats().getTotalFormations();
     }
 
     /**
      * Get number of processed formations (those with at least one module/lesson).
      */
     public int getProcessedFormations() {
-        String sql = "SELECT COUNT(DISTINCT f.id) as processed FROM formations f " +
-                "WHERE EXISTS (SELECT 1 FROM formation_modules fm WHERE fm.formation_id = f.id)";
-        try (Connection conn = DatabaseConfig.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            if (rs.next()) return rs.getInt("processed");
-        } catch (SQLException e) {
-            logger.error("Error fetching processed formations count", e);
-        }
-        return 0;
+        return getDashboardStats().getProcessedFormations();
     }
 
     /**
      * Get total number of certificates generated.
      */
     public int getCertificatesGenerated() {
-        String sql = "SELECT COUNT(*) as total FROM certificates";
-        try (Connection conn = DatabaseConfig.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            if (rs.next()) return rs.getInt("total");
-        } catch (SQLException e) {
-            logger.error("Error fetching certificates count", e);
-        }
-        return 0;
+        return getDashboardStats().getCertificatesGenerated();
     }
 
     /**
      * Get all admin dashboard statistics in one call.
      */
     public DashboardStats getDashboardStats() {
-        return new DashboardStats(
-                getTotalFormations(),
-                getProcessedFormations(),
-                getCertificatesGenerated()
-        );
+        DashboardStats current = catalog;
+        if (current != null && isFresh(catalogLoadedAt)) return current;
+        synchronized (this) {
+            if (catalog != null && isFresh(catalogLoadedAt)) return catalog;
+            long version = catalogVersion.get();
+            try (Connection conn = DatabaseConfig.getInstance().getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(CATALOG_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                DashboardStats loaded = rs.next()
+                        ? new DashboardStats(rs.getInt("total"), rs.getInt("processed"), rs.getInt("certificates"))
+                        : new DashboardStats(0, 0, 0);
+                if (catalogVersion.get() == version) {
+                    catalogLoadedAt = System.nanoTime();
+                    catalog = loaded;
+                }
+                return loaded;
+            } catch (SQLException e) {
+                logger.error("Error fetching formation dashboard statistics", e);
+            }
+            // Serve the last snapshot rather than zeros while the database is unavailable
+            return catalog != null ? catalog : new DashboardStats(0, 0, 0);
+        }
     }
 
     // ═══════════════════════════════════════════════════════════
@@ -110,78 +170,128 @@ public class FormationDashboardService {
      * Get number of formations the user is enrolled in.
      */
     public int getEnrolledFormations(int userId) {
-        String sql = "SELECT COUNT(*) as total FROM enrollments WHERE user_id = ?";
-        try (Connection conn = DatabaseConfig.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, userId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) return rs.getInt("total");
-            }
-        } catch (SQLException e) {
-            logger.error("Error fetching enrolled formations count for user {}", userId, e);
-        }
-        return 0;
+        return userCounters(userId).enrolled;
     }
 
     /**
      * Get number of formations the user has completed.
      */
     public int getCompletedFormations(int userId) {
-        String sql = "SELECT COUNT(*) as total FROM enrollments WHERE user_id = ? AND (status = 'COMPLETED' OR completed = TRUE)";
-        try (Connection conn = DatabaseConfig.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, userId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) return rs.getInt("total");
-            }
-        } catch (SQLException e) {
-            logger.error("Error fetching completed formations count for user {}", userId, e);
-        }
-        return 0;
+        return userCounters(userId).completed;
     }
 
     /**
      * Get number of certificates earned by the user.
      */
     public int getCertificatesEarned(int userId) {
-        String sql = "SELECT COUNT(*) as total FROM certificates c " +
-                "JOIN enrollments e ON c.enrollment_id = e.id " +
-                "WHERE e.user_id = ?";
-        try (Connection conn = DatabaseConfig.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, userId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) return rs.getInt("total");
-            }
-        } catch (SQLException e) {
-            logger.error("Error fetching certificates count for user {}", userId, e);
-        }
-        return 0;
+        return userCounters(userId).earned;
     }
 
     /**
      * Calculate progress percentage (completed / enrolled).
      */
     public int getProgressPercentage(int userId) {
-        int enrolled = getEnrolledFormations(userId);
-        if (enrolled == 0) return 0;
-        int completed = getCompletedFormations(userId);
-        return (int) Math.round((completed * 100.0) / enrolled);
+        return progressPercentage(userCounters(userId));
     }
 
     /**
      * Get all user dashboard statistics in one call.
      */
     public UserDashboardStats getUserDashboardStats(int userId) {
+        UserCounters counters = userCounters(userId);
         return new UserDashboardStats(
                 getTotalAvailableFormations(),
-                getEnrolledFormations(userId),
-                getCompletedFormations(userId),
-                getCertificatesEarned(userId),
-                getProgressPercentage(userId)
+                counters.enrolled,
+                counters.completed,
+                counters.earned,
+                progressPercentage(counters)
         );
     }
 
+    // ═══════════════════════════════════════════════════════════
+    // Snapshot Maintenance
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * A user's enrollments changed (enrolled, completed, status updated).
+     * @param userId the user, or 0 when unknown, which drops every user's snapshot
+     */
+    public void onEnrollmentChanged(int userId) {
+        usersVersion.incrementAndGet();
+        synchronized (users) {
+            if (userId > 0) users.remove(userId);
+            else users.clear();
+        }
+    }
+
+    /**
+     * A certificate was issued or deleted.
+     * @param userId the holder, or 0 when unknown, which drops every user's snapshot
+     */
+    public void onCertificateChanged(int userId) {
+        onCatalogChanged();
+        onEnrollmentChanged(userId);
+    }
+
+    /** Formations or their modules were created or deleted. */
+    public void onCatalogChanged() {
+        catalogVersion.incrementAndGet();
+        catalog = null;
+    }
+
+    /** Drops every snapshot. */
+    public void invalidateAll() {
+        onCatalogChanged();
+        onEnrollmentChanged(0);
+    }
+
+    /** How old a snapshot may get before it is reloaded; 0 reloads on every read. */
+    public void setMaxStaleness(long duration, TimeUnit unit) {
+        if (duration < 0) throw new IllegalArgumentException("Staleness bound cannot be negative");
+        this.maxStalenessNanos = unit.toNanos(duration);
+    }
+
+    public long getMaxStaleness(TimeUnit unit) {
+        return unit.convert(maxStalenessNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private boolean isFresh(long loadedAt) {
+        return System.nanoTime() - loadedAt < maxStalenessNanos;
+    }
+
+    private UserCounters userCounters(int userId) {
+        UserCounters cached;
+        synchronized (users) {
+            cached = users.get(userId);
+        }
+        if (cached != null && isFresh(cached.loadedAt)) return cached;
+
+        long version = usersVersion.get();
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(USER_SQL)) {
+            stmt.setInt(1, userId);
+            stmt.setInt(2, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                UserCounters loaded = rs.next()
+                        ? new UserCounters(rs.getInt("enrolled"), rs.getInt("completed"), rs.getInt("earned"),
+                                System.nanoTime())
+                        : new UserCounters(0, 0, 0, System.nanoTime());
+                synchronized (users) {
+                    if (usersVersion.get() == version) users.put(userId, loaded);
+                }
+                return loaded;
+            }
+        } catch (SQLException e) {
+            logger.error("Error fetching dashboard statistics for user {}", userId, e);
+        }
+        return cached != null ? cached : new UserCounters(0, 0, 0, 0L);
+    }
+
+    private static int progressPercentage(UserCounters counters) {
+        if (counters.enrolled == 0) return 0;
+        return (int) Math.round((counters.completed * 100.0) / counters.enrolled);
+    }
+
     // ═══════════════════════════════════════════════════════════
     // Inner Data Classes
     // ═══════════════════════════════════════════════════════════
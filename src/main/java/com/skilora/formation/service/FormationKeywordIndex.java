@@ -0,0 +1,238 @@
+package com.skilora.formation.service;
+
+import com.skilora.formation.entity.Formation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FormationKeywordIndex
+ *
+ * Keywords of the formation catalog, built once from {@link FormationService#findAll()} and
+ * dropped whenever a formation is created, updated or deleted. Keywords are interned to int
+ * ids; each formation keeps its ids as a sorted {@code int[]}, and each keyword keeps the
+ * sorted positions of the formations using it, so matching is a sorted-set intersection.
+ *
+ * A keyword is a whitespace-separated word of title, description and category, lowercased,
+ * stripped to {@code [a-z0-9]} and longer than two characters.
+ * No JavaFX imports allowed.
+ */
+public class FormationKeywordIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(FormationKeywordIndex.class);
+    private static volatile FormationKeywordIndex instance;
+
+    private static final int[] NONE = new int[0];
+
+    /** One immutable build of the index. */
+    public static final class Snapshot {
+        private final List<Formation> formations;
+        /** Lowercased title, description and category per formation. */
+        private final String[] texts;
+        private final int[][] keywords;
+        private final Map<String, Integer> dictionary;
+        private final int[][] postings;
+
+        private Snapshot(List<Formation> formations) {
+            this.formations = Collections.unmodifiableList(new ArrayList<>(formations));
+            int n = formations.size();
+            this.texts = new String[n];
+            this.keywords = new int[n][];
+            this.dictionary = new HashMap<>();
+
+            List<int[]> postingLists = new ArrayList<>();
+            int[] postingSizes = new int[16];
+            for (int i = 0; i < n; i++) {
+                texts[i] = searchableText(formations.get(i));
+                int[] ids = intern(tokenize(texts[i]));
+                keywords[i] = ids;
+                for (int id : ids) {
+                    if (id == postingLists.size()) {
+                        postingLists.add(new int[4]);
+                        if (id == postingSizes.length) postingSizes = Arrays.copyOf(postingSizes, id * 2);
+                    }
+                    int[] list = postingLists.get(id);
+                    if (postingSizes[id] == list.length) {
+                        list = Arrays.copyOf(list, list.length * 2);
+                        postingLists.set(id, list);
+                    }
+                    // Formations are visited in order, so each posting list stays sorted
+                    list[postingSizes[id]++] = i;
+                }
+            }
+            this.postings = new int[postingLists.size()][];
+            for (int id = 0; id < postings.length; id++) {
+                postings[id] = Arrays.copyOf(postingLists.get(id), postingSizes[id]);
+            }
+        }
+
+        private int[] intern(List<String> tokens) {
+            int[] ids = new int[tokens.size()];
+            for (int i = 0; i < ids.length; i++) {
+                Integer id = dictionary.get(tokens.get(i));
+                if (id == null) {
+                    id = dictionary.size();
+                    dictionary.put(tokens.get(i), id);
+                }
+                ids[i] = id;
+            }
+            return sortedUnique(ids);
+        }
+
+        public List<Formation> getFormations() { return formations; }
+        public int size() { return formations.size(); }
+        public Formation get(int position) { return formations.get(position); }
+        public String getText(int position) { return texts[position]; }
+
+        /** Sorted, distinct keyword ids of the formation at {@code position}. */
+        public int[] getKeywords(int position) { return keywords[position]; }
+
+        /** Id of a keyword, or -1 if no formation uses it. */
+        public int keywordId(String keyword) {
+            Integer id = dictionary.get(keyword);
+            return id != null ? id : -1;
+        }
+
+        /** Sorted, distinct ids of the given strings that are keywords of some formation. */
+        public int[] keywordIds(Collection<String> words) {
+            int[] ids = new int[words.size()];
+            int n = 0;
+            for (String w : words) {
+                Integer id = dictionary.get(w);
+                if (id != null) ids[n++] = id;
+            }
+            return sortedUnique(Arrays.copyOf(ids, n));
+        }
+
+        /** Sorted positions of the formations containing every given keyword id. */
+        public int[] formationsWithAll(int[] keywordIds) {
+            if (keywordIds.length == 0) return NONE;
+            int[] result = null;
+            for (int id : keywordIds) {
+                if (id < 0 || id >= postings.length) return NONE;
+                result = result == null ? postings[id] : intersect(result, postings[id]);
+                if (result.length == 0) return NONE;
+            }
+            return result;
+        }
+    }
+
+    private volatile Snapshot snapshot;
+    /** Bumped by {@link #invalidate()} so a build that raced with a change is not kept. */
+    private final AtomicInteger version = new AtomicInteger();
+
+    private FormationKeywordIndex() {}
+
+    public static FormationKeywordIndex getInstance() {
+        if (instance == null) {
+            synchronized (FormationKeywordIndex.class) {
+                if (instance == null) {
+                    instance = new FormationKeywordIndex();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * The current index, built on first use after an invalidation. If the catalog cannot be
+     * read, an empty index is returned without being kept, so the next call retries.
+     */
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) return current;
+        synchronized (this) {
+            if (snapshot != null) return snapshot;
+            int built = version.get();
+            long start = System.nanoTime();
+            Snapshot fresh;
+            try {
+                fresh = new Snapshot(FormationService.getInstance().loadAll());
+            } catch (SQLException e) {
+                logger.error("Cannot build formation keyword index: {}", e.getMessage(), e);
+                return new Snapshot(Collections.emptyList());
+            }
+            logger.debug("Built formation keyword index: {} formations, {} keywords in {} ms",
+                    fresh.size(), fresh.dictionary.size(), (System.nanoTime() - start) / 1_000_000);
+            if (version.get() == built) snapshot = fresh;
+            return fresh;
+        }
+    }
+
+    /** Drops the index; the next {@link #snapshot()} rebuilds it. */
+    public void invalidate() {
+        version.incrementAndGet();
+        snapshot = null;
+    }
+
+    // ── Static helpers ──
+
+    /** Keywords of a text, in order, possibly repeated. */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0, len = text.length(); i <= len; i++) {
+            char c = i < len ? text.charAt(i) : ' ';
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B') {
+                if (sb.length() > 2) tokens.add(sb.toString());
+                sb.setLength(0);
+            } else if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                sb.append(c);
+            } else if (c >= 'A' && c <= 'Z') {
+                sb.append((char) (c + ('a' - 'A')));
+            }
+        }
+        return tokens;
+    }
+
+    static String searchableText(Formation formation) {
+        StringBuilder sb = new StringBuilder();
+        if (formation.getTitle() != null) sb.append(formation.getTitle()).append(" ");
+        if (formation.getDescription() != null) sb.append(formation.getDescription()).append(" ");
+        if (formation.getCategory() != null) sb.append(formation.getCategory());
+        return sb.toString().toLowerCase();
+    }
+
+    static int[] sortedUnique(int[] values) {
+        if (values.length < 2) return values;
+        int[] copy = values.clone();
+        Arrays.sort(copy);
+        int n = 1;
+        for (int i = 1; i < copy.length; i++) {
+            if (copy[i] != copy[n - 1]) copy[n++] = copy[i];
+        }
+        return n == copy.length ? copy : Arrays.copyOf(copy, n);
+    }
+
+    static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int n = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else { out[n++] = a[i]; i++; j++; }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /** Size of the intersection of two sorted, distinct arrays. */
+    public static int intersectionSize(int[] a, int[] b) {
+        int n = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else { n++; i++; j++; }
+        }
+        return n;
+    }
+}
@@ -21,13 +21,13 @@ public class FormationMatchingService {
     private static final Logger logger = LoggerFactory.getLogger(FormationMatchingService.class);
     private static volatile FormationMatchingService instance;
 
-    private final FormationService formationService;
+    private final FormationKeywordIndex keywordIndex;
     private final EnrollmentService enrollmentService;
     private final ProfileService profileService;
     private final JobService jobService;
 
     private FormationMatchingService() {
-        this.formationService = FormationService.getInstance();
+        this.keywordIndex = FormationKeywordIndex.getInstance();
         this.enrollmentService = EnrollmentService.getInstance();
         this.profileService = ProfileService.getInstance();
         this.jobService = JobService.getInstance();
@@ -68,10 +68,14 @@ public class FormationMatchingService {
             String userField = extractUserField(profile);
             int userExpLevel = inferExperienceLevel(experiences, userSkills);
 
-            List<Formation> allFormations = formationService.findAll();
+            FormationKeywordIndex.Snapshot index = keywordIndex.snapshot();
+            int[] ownedKeywords = index.keywordIds(ownedSkillNames);
+            List<String> fieldTokens = userField.isEmpty()
+                    ? Collections.emptyList() : Arrays.asList(userField.toLowerCase().split("\\s+"));
             List<ScoredFormation> scored = new ArrayList<>();
 
-            for (Formation f : allFormations) {
+            for (int i = 0; i < index.size(); i++) {
+                Formation f = index.get(i);
                 if (enrolledFormationIds.contains(f.getId())) {
                     continue;
                 }
@@ -79,8 +83,8 @@ public class FormationMatchingService {
                     continue;
                 }
 
-                double skillGapScore = computeSkillGapScore(f, ownedSkillNames);
-                double categoryScore = computeCategoryScore(f, userField);
+                double skillGapScore = computeSkillGapScore(index.getKeywords(i), ownedKeywords);
+                double categoryScore = computeCategoryScore(index.getText(i), fieldTokens);
                 double levelScore = computeLevelScore(f, userExpLevel);
 
                 double total = (skillGapScore * 0.50) + (categoryScore * 0.30) + (levelScore * 0.20);
@@ -140,10 +144,23 @@ public class FormationMatchingService {
                     .map(Enrollment::getFormationId)
                     .collect(Collectors.toSet());
 
-            List<Formation> allFormations = formationService.findAll();
-            List<ScoredFormation> scored = new ArrayList<>();
+            // Formations teaching each missing skill, then grouped per formation
+            FormationKeywordIndex.Snapshot index = keywordIndex.snapshot();
+            List<List<String>> matchedByFormation = new ArrayList<>(Collections.nCopies(index.size(), null));
+            for (String skill : missingSkills) {
+                for (int i : formationsTeaching(index, skill)) {
+                    if (matchedByFormation.get(i) == null) matchedByFormation.set(i, new ArrayList<>());
+                    matchedByFormation.get(i).add(skill);
+                }
+            }
 
-            for (Formation f : allFormations) {
+            List<ScoredFormation> scored = new ArrayList<>();
+            for (int i = 0; i < index.size(); i++) {
+                List<String> matched = matchedByFormation.get(i);
+                if (matched == null) {
+                    continue;
+                }
+                Formation f = index.get(i);
                 if (enrolledIds.contains(f.getId())) {
                     continue;
                 }
@@ -151,22 +168,12 @@ public class FormationMatchingService {
                     continue;
                 }
 
-                long matchCount = missingSkills.stream()
-                        .filter(skill -> containsKeyword(f, skill))
-                        .count();
-
-                if (matchCount > 0) {
-                    double score = ((double) matchCount / missingSkills.size()) * 100.0;
-                    score = Math.round(score * 100.0) / 100.0;
+                double score = ((double) matched.size() / missingSkills.size()) * 100.0;
+                score = Math.round(score * 100.0) / 100.0;
 
-                    List<String> matched = missingSkills.stream()
-                            .filter(skill -> containsKeyword(f, skill))
-                            .collect(Collectors.toList());
-
-                    String reason = "Teaches missing skills: " + String.join(", ", matched)
-                            + " (required for " + job.getTitle() + ")";
-                    scored.add(new ScoredFormation(f, score, reason));
-                }
+                String reason = "Teaches missing skills: " + String.join(", ", matched)
+                        + " (required for " + job.getTitle() + ")";
+                scored.add(new ScoredFormation(f, score, reason));
             }
 
             scored.sort(Comparator.comparingDouble(ScoredFormation::getScore).reversed());
@@ -181,49 +188,31 @@ public class FormationMatchingService {
 
     // ── Scoring helpers ──
 
-    private double computeSkillGapScore(Formation formation, Set<String> ownedSkills) {
-        String corpus = buildSearchableText(formation);
-        if (corpus.isEmpty()) {
-            return 0;
-        }
-
-        String[] keywords = corpus.split("\\s+");
-        Set<String> formationKeywords = new HashSet<>();
-        for (String kw : keywords) {
-            String clean = kw.replaceAll("[^a-zA-Z0-9]", "").toLowerCase();
-            if (clean.length() > 2) {
-                formationKeywords.add(clean);
-            }
-        }
-
-        long gapSkills = formationKeywords.stream()
-                .filter(kw -> !ownedSkills.contains(kw))
-                .count();
-
-        if (formationKeywords.isEmpty()) {
+    /**
+     * Share of the formation's keywords the user does not already have as a skill.
+     * Both arrays are sorted keyword ids from the index.
+     */
+    private double computeSkillGapScore(int[] formationKeywords, int[] ownedKeywords) {
+        if (formationKeywords.length == 0) {
             return 0;
         }
-
-        return Math.min(100.0, (gapSkills * 100.0) / Math.max(formationKeywords.size(), 1));
+        int gapSkills = formationKeywords.length - FormationKeywordIndex.intersectionSize(formationKeywords, ownedKeywords);
+        return Math.min(100.0, (gapSkills * 100.0) / formationKeywords.length);
     }
 
-    private double computeCategoryScore(Formation formation, String userField) {
-        if (userField == null || userField.isEmpty()) {
+    /** @param text the formation's lowercased title, description and category */
+    private double computeCategoryScore(String text, List<String> fieldTokens) {
+        if (fieldTokens.isEmpty()) {
             return 0;
         }
-        String category = formation.getCategory() != null ? formation.getCategory().toLowerCase() : "";
-        String title = formation.getTitle() != null ? formation.getTitle().toLowerCase() : "";
-        String description = formation.getDescription() != null ? formation.getDescription().toLowerCase() : "";
-
-        String[] fieldTokens = userField.toLowerCase().split("\\s+");
         int matches = 0;
         for (String token : fieldTokens) {
             if (token.length() <= 2) continue;
-            if (category.contains(token) || title.contains(token) || description.contains(token)) {
+            if (text.contains(token)) {
                 matches++;
             }
         }
-        double ratio = (double) matches / Math.max(fieldTokens.length, 1);
+        double ratio = (double) matches / fieldTokens.size();
         return Math.min(100.0, ratio * 100.0);
     }
 
@@ -273,17 +262,26 @@ public class FormationMatchingService {
         return sb.toString().trim();
     }
 
-    private boolean containsKeyword(Formation formation, String keyword) {
-        String text = buildSearchableText(formation);
-        return text.contains(keyword);
-    }
-
-    private String buildSearchableText(Formation formation) {
-        StringBuilder sb = new StringBuilder();
-        if (formation.getTitle() != null) sb.append(formation.getTitle()).append(" ");
-        if (formation.getDescription() != null) sb.append(formation.getDescription()).append(" ");
-        if (formation.getCategory() != null) sb.append(formation.getCategory());
-        return sb.toString().toLowerCase();
+    /**
+     * Positions of the formations whose keywords include every keyword of the skill.
+     * Skills without a keyword of three or more characters (e.g. "C", "Go") fall back
+     * to a substring search of the formation text.
+     */
+    private int[] formationsTeaching(FormationKeywordIndex.Snapshot index, String skill) {
+        List<String> tokens = FormationKeywordIndex.tokenize(skill);
+        if (!tokens.isEmpty()) {
+            int[] ids = new int[tokens.size()];
+            for (int t = 0; t < ids.length; t++) {
+                ids[t] = index.keywordId(tokens.get(t));
+            }
+            return index.formationsWithAll(ids);
+        }
+        int[] found = new int[index.size()];
+        int n = 0;
+        for (int i = 0; i < index.size(); i++) {
+            if (index.getText(i).contains(skill)) found[n++] = i;
+        }
+        return Arrays.copyOf(found, n);
     }
 
     private String buildReason(double skillGap, double category, double level, Formation f) {
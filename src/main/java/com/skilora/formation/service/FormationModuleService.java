@@ -49,6 +49,7 @@ public class FormationModuleService {
             ResultSet rs = stmt.getGeneratedKeys();
             if (rs.next()) {
                 int id = rs.getInt(1);
+                FormationDashboardService.getInstance().onCatalogChanged();
                 logger.info("Formation module created: id={}", id);
                 return id;
             }
@@ -112,7 +113,9 @@ public class FormationModuleService {
         try (Connection conn = DatabaseConfig.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            if (deleted) FormationDashboardService.getInstance().onCatalogChanged();
+            return deleted;
         } catch (SQLException e) {
             logger.error("Error deleting module: {}", e.getMessage(), e);
         }
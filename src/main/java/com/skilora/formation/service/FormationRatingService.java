@@ -7,7 +7,12 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * FormationRatingService
@@ -15,13 +20,31 @@ import java.util.Optional;
  * Handles business logic for formation ratings.
  * Ensures users can only rate completed formations and only once per formation.
  * Uses direct SQL via DatabaseConfig (no repository pattern).
+ *
+ * Per-formation aggregates (count, star sum, likes, dislikes) are kept in
+ * {@code formation_rating_stats}, adjusted in the same transaction as each rating, and
+ * served from memory: the table is re-read at most every {@link #RELOAD_NANOS} so ratings
+ * written by other clients show up; this client's own changes are applied as deltas.
+ * The table is recounted from formation_ratings at startup, which repairs rows left
+ * stale by cascading deletes.
  */
 public class FormationRatingService {
 
     private static final Logger logger = LoggerFactory.getLogger(FormationRatingService.class);
     private static volatile FormationRatingService instance;
 
-    private FormationRatingService() {}
+    static final long RELOAD_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    /** formationId -> aggregate; formations without ratings have no entry. Replaced on reload. */
+    private volatile Map<Integer, Aggregate> aggregates = new ConcurrentHashMap<>();
+    private volatile boolean aggregatesLoaded;
+    private volatile long aggregatesLoadedAt;
+    /** Serialises reloads with rating writes, so no delta is lost or counted twice. */
+    private final Object aggregatesLock = new Object();
+
+    private FormationRatingService() {
+        ensureStatsTable();
+    }
 
     public static FormationRatingService getInstance() {
         if (instance == null) {
@@ -34,6 +57,40 @@ public class FormationRatingService {
         return instance;
     }
 
+    private void ensureStatsTable() {
+        String sql = """
+            CREATE TABLE IF NOT EXISTS formation_rating_stats (
+                formation_id INT PRIMARY KEY,
+                rating_count INT NOT NULL DEFAULT 0,
+                rating_sum INT NOT NULL DEFAULT 0,
+                like_count INT NOT NULL DEFAULT 0,
+                dislike_count INT NOT NULL DEFAULT 0,
+                FOREIGN KEY (formation_id) REFERENCES formations(id) ON DELETE CASCADE
+            )
+            """;
+        // Recount: overwrites every existing row, so drift (e.g. ratings removed by a user
+        // delete cascade) is repaired, and backfills formations rated before the table existed
+        String recount = "INSERT INTO formation_rating_stats " +
+                "(formation_id, rating_count, rating_sum, like_count, dislike_count) " +
+                "SELECT formation_id, COUNT(*), COALESCE(SUM(star_rating), 0), " +
+                "SUM(CASE WHEN is_like = TRUE THEN 1 ELSE 0 END), " +
+                "SUM(CASE WHEN is_like = FALSE THEN 1 ELSE 0 END) " +
+                "FROM formation_ratings GROUP BY formation_id " +
+                "ON DUPLICATE KEY UPDATE rating_count = VALUES(rating_count), " +
+                "rating_sum = VALUES(rating_sum), like_count = VALUES(like_count), " +
+                "dislike_count = VALUES(dislike_count)";
+        String orphans = "DELETE FROM formation_rating_stats WHERE NOT EXISTS " +
+                "(SELECT 1 FROM formation_ratings r WHERE r.formation_id = formation_rating_stats.formation_id)";
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+            stmt.executeUpdate(recount);
+            stmt.executeUpdate(orphans);
+        } catch (SQLException e) {
+            logger.error("Error creating formation_rating_stats table: {}", e.getMessage(), e);
+        }
+    }
+
     /**
      * Submit or update a rating for a formation.
      * Validates that:
@@ -60,22 +117,71 @@ public class FormationRatingService {
         if (existing.isPresent()) {
             // Update existing rating
             FormationRating rating = existing.get();
+            Aggregate delta = Aggregate.of(rating.getStarRating(), rating.getIsLiked()).negate()
+                    .plus(Aggregate.of(starRating, isLiked));
             rating.setIsLiked(isLiked);
             rating.setStarRating(starRating);
             rating.setUpdatedAt(LocalDateTime.now());
-            updateRating(rating);
-            logger.info("Updated existing rating: id={}", rating.getId());
+            if (saveWithStats(rating, delta, false)) {
+                logger.info("Updated existing rating: id={}", rating.getId());
+            }
             return rating;
         } else {
             // Create new rating
             FormationRating rating = new FormationRating(userId, formationId, isLiked, starRating);
-            int id = insertRating(rating);
-            rating.setId(id);
-            logger.info("Created new rating: id={}", id);
+            rating.setId(-1);
+            if (saveWithStats(rating, Aggregate.of(starRating, isLiked), true)) {
+                logger.info("Created new rating: id={}", rating.getId());
+            }
             return rating;
         }
     }
 
+    /**
+     * Writes the rating and adjusts the formation's aggregate in one transaction,
+     * then applies the same delta in memory. Runs under the reload lock: a reload either
+     * reads the table before this commit (and the delta is applied on top) or after it.
+     */
+    private boolean saveWithStats(FormationRating rating, Aggregate delta, boolean insert) {
+        String statsSql = "INSERT INTO formation_rating_stats " +
+                "(formation_id, rating_count, rating_sum, like_count, dislike_count) VALUES (?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE rating_count = rating_count + VALUES(rating_count), " +
+                "rating_sum = rating_sum + VALUES(rating_sum), like_count = like_count + VALUES(like_count), " +
+                "dislike_count = dislike_count + VALUES(dislike_count)";
+        synchronized (aggregatesLock) {
+            try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+                conn.setAutoCommit(false);
+                try (PreparedStatement stmt = conn.prepareStatement(statsSql)) {
+                    if (insert) {
+                        rating.setId(insertRating(conn, rating));
+                    } else {
+                        updateRating(conn, rating);
+                    }
+                    stmt.setInt(1, rating.getFormationId());
+                    stmt.setInt(2, delta.count);
+                    stmt.setInt(3, delta.sum);
+                    stmt.setInt(4, delta.likes);
+                    stmt.setInt(5, delta.dislikes);
+                    stmt.executeUpdate();
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                logger.error("Error saving rating: userId={}, formationId={}: {}",
+                        rating.getUserId(), rating.getFormationId(), e.getMessage(), e);
+                return false;
+            }
+            if (aggregatesLoaded) {
+                aggregates.merge(rating.getFormationId(), delta, Aggregate::plus);
+            }
+            return true;
+        }
+    }
+
     /**
      * Get the user's rating for a formation, if it exists.
      */
@@ -116,28 +222,50 @@ public class FormationRatingService {
      * Get aggregated statistics for a formation.
      */
     public RatingStatistics getStatistics(int formationId) {
-        String sql = "SELECT COUNT(*) as total_ratings, " +
-                "COALESCE(AVG(star_rating), 0) as avg_rating, " +
-                "SUM(CASE WHEN is_like = TRUE THEN 1 ELSE 0 END) as like_count, " +
-                "SUM(CASE WHEN is_like = FALSE THEN 1 ELSE 0 END) as dislike_count " +
-                "FROM formation_ratings WHERE formation_id = ?";
-        try (Connection conn = DatabaseConfig.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, formationId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return new RatingStatistics(
-                            rs.getInt("total_ratings"),
-                            rs.getDouble("avg_rating"),
-                            rs.getInt("like_count"),
-                            rs.getInt("dislike_count")
-                    );
+        loadAggregates();
+        return aggregates.getOrDefault(formationId, Aggregate.EMPTY).toStatistics();
+    }
+
+    /**
+     * Aggregated statistics for several formations at once, e.g. a catalog page.
+     * Every requested id is present in the result; unrated formations have zero counts.
+     */
+    public Map<Integer, RatingStatistics> getStatistics(Collection<Integer> formationIds) {
+        loadAggregates();
+        Map<Integer, RatingStatistics> result = new HashMap<>(formationIds.size() * 2);
+        for (Integer id : formationIds) {
+            result.put(id, aggregates.getOrDefault(id, Aggregate.EMPTY).toStatistics());
+        }
+        return result;
+    }
+
+    /**
+     * Reads every aggregate when none are loaded or the last read is older than
+     * {@link #RELOAD_NANOS}. On a database error the previous aggregates keep being
+     * served and the next call retries.
+     */
+    private void loadAggregates() {
+        if (aggregatesLoaded && System.nanoTime() - aggregatesLoadedAt < RELOAD_NANOS) return;
+        synchronized (aggregatesLock) {
+            if (aggregatesLoaded && System.nanoTime() - aggregatesLoadedAt < RELOAD_NANOS) return;
+            String sql = "SELECT formation_id, rating_count, rating_sum, like_count, dislike_count " +
+                    "FROM formation_rating_stats";
+            try (Connection conn = DatabaseConfig.getInstance().getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                Map<Integer, Aggregate> fresh = new ConcurrentHashMap<>();
+                while (rs.next()) {
+                    fresh.put(rs.getInt("formation_id"), new Aggregate(rs.getInt("rating_count"),
+                            rs.getInt("rating_sum"), rs.getInt("like_count"), rs.getInt("dislike_count")));
                 }
+                aggregates = fresh;
+                aggregatesLoadedAt = System.nanoTime();
+                aggregatesLoaded = true;
+                logger.debug("Loaded rating aggregates for {} formations", fresh.size());
+            } catch (SQLException e) {
+                logger.error("Error loading rating aggregates: {}", e.getMessage(), e);
             }
-        } catch (SQLException e) {
-            logger.error("Error getting rating statistics: formationId={}", formationId, e);
         }
-        return new RatingStatistics(0, 0.0, 0, 0);
     }
 
     /**
@@ -160,11 +288,10 @@ public class FormationRatingService {
 
     // ── Private helpers ──
 
-    private int insertRating(FormationRating rating) {
+    private int insertRating(Connection conn, FormationRating rating) throws SQLException {
         String sql = "INSERT INTO formation_ratings (user_id, formation_id, is_like, star_rating, created_date, updated_date) " +
                 "VALUES (?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DatabaseConfig.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setInt(1, rating.getUserId());
             stmt.setInt(2, rating.getFormationId());
             if (rating.getIsLiked() != null) {
@@ -179,16 +306,13 @@ public class FormationRatingService {
             try (ResultSet rs = stmt.getGeneratedKeys()) {
                 if (rs.next()) return rs.getInt(1);
             }
-        } catch (SQLException e) {
-            logger.error("Error inserting rating: {}", e.getMessage(), e);
         }
         return -1;
     }
 
-    private void updateRating(FormationRating rating) {
+    private void updateRating(Connection conn, FormationRating rating) throws SQLException {
         String sql = "UPDATE formation_ratings SET is_like = ?, star_rating = ?, updated_date = ? WHERE id = ?";
-        try (Connection conn = DatabaseConfig.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             if (rating.getIsLiked() != null) {
                 stmt.setBoolean(1, rating.getIsLiked());
             } else {
@@ -198,8 +322,6 @@ public class FormationRatingService {
             stmt.setTimestamp(3, Timestamp.valueOf(rating.getUpdatedAt()));
             stmt.setInt(4, rating.getId());
             stmt.executeUpdate();
-        } catch (SQLException e) {
-            logger.error("Error updating rating: {}", e.getMessage(), e);
         }
     }
 
@@ -220,7 +342,41 @@ public class FormationRatingService {
         return rating;
     }
 
-    // ── Inner class ──
+    // ── Inner classes ──
+
+    /** Running totals for one formation, or a change to them. Immutable. */
+    static final class Aggregate {
+        static final Aggregate EMPTY = new Aggregate(0, 0, 0, 0);
+
+        final int count;
+        final int sum;
+        final int likes;
+        final int dislikes;
+
+        Aggregate(int count, int sum, int likes, int dislikes) {
+            this.count = count;
+            this.sum = sum;
+            this.likes = likes;
+            this.dislikes = dislikes;
+        }
+
+        /** The contribution of a single rating. */
+        static Aggregate of(int stars, Boolean isLiked) {
+            return new Aggregate(1, stars, Boolean.TRUE.equals(isLiked) ? 1 : 0, Boolean.FALSE.equals(isLiked) ? 1 : 0);
+        }
+
+        Aggregate plus(Aggregate other) {
+            return new Aggregate(count + other.count, sum + other.sum, likes + other.likes, dislikes + other.dislikes);
+        }
+
+        Aggregate negate() {
+            return new Aggregate(-count, -sum, -likes, -dislikes);
+        }
+
+        RatingStatistics toStatistics() {
+            return new RatingStatistics(count, count > 0 ? (double) sum / count : 0.0, likes, dislikes);
+        }
+    }
 
     /**
      * Aggregated rating statistics for a formation.
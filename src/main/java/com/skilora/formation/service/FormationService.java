@@ -66,6 +66,8 @@ public class FormationService {
                     if (keys.next()) {
                         int id = keys.getInt(1);
                         formation.setId(id);
+                        FormationKeywordIndex.getInstance().invalidate();
+                        FormationDashboardService.getInstance().onCatalogChanged();
                         logger.info("Formation created successfully with ID: {}", id);
                         return id;
                     }
@@ -81,6 +83,16 @@ public class FormationService {
      * Find all formations.
      */
     public List<Formation> findAll() {
+        try {
+            return loadAll();
+        } catch (SQLException e) {
+            logger.error("Error finding all formations: {}", e.getMessage(), e);
+            return new ArrayList<>();
+        }
+    }
+
+    /** Same as {@link #findAll()}, but a database error is thrown instead of yielding an empty list. */
+    List<Formation> loadAll() throws SQLException {
         String sql = "SELECT * FROM formations ORDER BY created_date DESC LIMIT 500";
         List<Formation> formations = new ArrayList<>();
 
@@ -92,8 +104,6 @@ public class FormationService {
                 formations.add(mapResultSet(rs));
             }
             logger.debug("Retrieved {} formations", formations.size());
-        } catch (SQLException e) {
-            logger.error("Error finding all formations: {}", e.getMessage(), e);
         }
         return formations;
     }
@@ -183,7 +193,10 @@ public class FormationService {
             stmt.setString(12, formation.getDirectorSignature());
             stmt.setInt(13, formation.getId());
             boolean updated = stmt.executeUpdate() > 0;
-            if (updated) logger.info("Formation {} updated", formation.getId());
+            if (updated) {
+                FormationKeywordIndex.getInstance().invalidate();
+                logger.info("Formation {} updated", formation.getId());
+            }
             return updated;
         } catch (SQLException e) {
             logger.error("Error updating formation {}: {}", formation.getId(), e.getMessage(), e);
@@ -200,7 +213,12 @@ public class FormationService {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
             boolean deleted = stmt.executeUpdate() > 0;
-            if (deleted) logger.info("Formation {} deleted", id);
+            if (deleted) {
+                FormationKeywordIndex.getInstance().invalidate();
+                // Enrollments and certificates of the formation go with it
+                FormationDashboardService.getInstance().invalidateAll();
+                logger.info("Formation {} deleted", id);
+            }
             return deleted;
         } catch (SQLException e) {
             logger.error("Error deleting formation {}: {}", id, e.getMessage(), e);
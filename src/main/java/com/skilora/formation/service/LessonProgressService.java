@@ -5,22 +5,196 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * LessonProgressService
- * 
+ *
  * Handles business logic for lesson progress tracking within formations.
  * Uses direct SQL via DatabaseConfig.
+ *
+ * Progress of active enrollments is tracked in memory: per-lesson percentages plus a
+ * completed-lessons counter, loaded once per session. Updates only touch that state;
+ * changed lessons are written in one batched upsert every {@value #FLUSH_INTERVAL_SECONDS} s
+ * and when the session ends ({@link #endSession}), and formation completion is detected
+ * from the counter instead of re-counting rows after every tick.
  */
 public class LessonProgressService {
 
     private static final Logger logger = LoggerFactory.getLogger(LessonProgressService.class);
     private static volatile LessonProgressService instance;
 
-    private LessonProgressService() {}
+    static final long FLUSH_INTERVAL_SECONDS = 2;
+    /** Clean trackers untouched for this long are dropped by the flusher. */
+    static final long IDLE_EVICT_MILLIS = TimeUnit.MINUTES.toMillis(15);
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO lesson_progress (enrollment_id, module_id, user_id, progress_percentage, completed, " +
+            "completed_date, last_accessed) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE progress_percentage = VALUES(progress_percentage), " +
+            "completed = VALUES(completed), completed_date = COALESCE(VALUES(completed_date), completed_date), " +
+            "last_accessed = VALUES(last_accessed)";
+
+    /** Outcome of {@link EnrollmentProgress#set}. */
+    enum Update { RECORDED, COMPLETED_FORMATION, CLOSED }
+
+    /**
+     * In-memory progress of one enrollment. Lessons get array slots in the order they are
+     * first seen. Guarded by its own monitor. Once closed (evicted after its rows were
+     * written) it refuses updates, and the caller tracks the enrollment again.
+     */
+    static final class EnrollmentProgress {
+        final int enrollmentId;
+        final int userId;
+        final int formationId;
+        final int totalLessons;
+
+        private final Map<Integer, Integer> slots = new HashMap<>();
+        private int[] lessonIds = new int[8];
+        private int[] percent = new int[8];
+        private long[] touchedAt = new long[8];
+        private long[] completedAt = new long[8];
+        private int size;
+        private int completedLessons;
+        private boolean formationCompleted;
+        private boolean closed;
+        private final BitSet dirty = new BitSet();
+        private long lastTouched = System.currentTimeMillis();
+
+        EnrollmentProgress(int enrollmentId, int userId, int formationId, int totalLessons,
+                           boolean formationCompleted) {
+            this.enrollmentId = enrollmentId;
+            this.userId = userId;
+            this.formationId = formationId;
+            this.totalLessons = totalLessons;
+            this.formationCompleted = formationCompleted;
+        }
+
+        private int slot(int lessonId) {
+            Integer slot = slots.get(lessonId);
+            if (slot != null) return slot;
+            if (size == lessonIds.length) {
+                int n = size * 2;
+                lessonIds = Arrays.copyOf(lessonIds, n);
+                percent = Arrays.copyOf(percent, n);
+                touchedAt = Arrays.copyOf(touchedAt, n);
+                completedAt = Arrays.copyOf(completedAt, n);
+            }
+            lessonIds[size] = lessonId;
+            slots.put(lessonId, size);
+            return size++;
+        }
+
+        /** Loads a persisted value; not marked dirty. */
+        synchronized void load(int lessonId, int percentage) {
+            int slot = slot(lessonId);
+            percent[slot] = percentage;
+            if (percentage >= 100) completedLessons++;
+        }
+
+        /**
+         * Records a new percentage.
+         * @return COMPLETED_FORMATION if this update completed the last missing lesson of the
+         *         formation, CLOSED if the tracker was evicted and nothing was recorded
+         */
+        synchronized Update set(int lessonId, int percentage, long now) {
+            if (closed) return Update.CLOSED;
+            int slot = slot(lessonId);
+            int old = percent[slot];
+            percent[slot] = percentage;
+            touchedAt[slot] = now;
+            lastTouched = now;
+            if (old < 100 && percentage >= 100) {
+                completedLessons++;
+                completedAt[slot] = now;
+            } else if (old >= 100 && percentage < 100) {
+                completedLessons--;
+                completedAt[slot] = 0;
+            }
+            dirty.set(slot);
+
+            if (!formationCompleted && totalLessons > 0 && completedLessons >= totalLessons) {
+                formationCompleted = true;
+                return Update.COMPLETED_FORMATION;
+            }
+            return Update.RECORDED;
+        }
+
+        /** Completion could not be recorded: the next update at the threshold retries it. */
+        synchronized void reopenCompletion() {
+            formationCompleted = false;
+        }
+
+        synchronized int getCompletedLessons() {
+            return completedLessons;
+        }
+
+        synchronized Map<Integer, Integer> snapshot() {
+            Map<Integer, Integer> map = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) map.put(lessonIds[i], percent[i]);
+            return map;
+        }
+
+        synchronized boolean isDirty() {
+            return !dirty.isEmpty();
+        }
+
+        synchronized boolean isClosed() {
+            return closed;
+        }
+
+        /** Closes the tracker if everything it holds is written. */
+        synchronized boolean closeIfClean() {
+            if (!dirty.isEmpty()) return false;
+            closed = true;
+            return true;
+        }
+
+        /** Closes the tracker if it is clean and has not been touched for {@link #IDLE_EVICT_MILLIS}. */
+        synchronized boolean closeIfIdle(long now) {
+            return now - lastTouched > IDLE_EVICT_MILLIS && closeIfClean();
+        }
+
+        /** Takes the dirty lessons as upsert rows and clears them. */
+        synchronized List<Object[]> drain() {
+            List<Object[]> rows = new ArrayList<>(dirty.cardinality());
+            for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+                rows.add(new Object[]{lessonIds[i], percent[i], touchedAt[i], completedAt[i]});
+            }
+            dirty.clear();
+            return rows;
+        }
+
+        /** Puts back rows whose write failed, unless the lesson changed again meanwhile. */
+        synchronized void restore(List<Object[]> rows) {
+            for (Object[] row : rows) {
+                int slot = slots.get((Integer) row[0]);
+                if (touchedAt[slot] == (Long) row[2]) dirty.set(slot);
+            }
+        }
+    }
+
+    private final Map<Integer, EnrollmentProgress> active = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    private LessonProgressService() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "lesson-progress-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushAndEvict, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS,
+                TimeUnit.SECONDS);
+    }
 
     public static LessonProgressService getInstance() {
         if (instance == null) {
@@ -33,122 +207,177 @@ public class LessonProgressService {
         return instance;
     }
 
+    // ==================== Tracking ====================
+
     /**
-     * Resolve the user_id for a given enrollment.
+     * Update progress for a specific lesson in an enrollment.
+     * Recorded in memory and written with the next flush; if it completes the formation,
+     * the enrollment's progress is flushed and the enrollment marked completed right away.
      */
-    private int resolveUserId(int enrollmentId) {
-        String sql = "SELECT user_id FROM enrollments WHERE id = ?";
-        try (Connection conn = DatabaseConfig.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, enrollmentId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("user_id");
-                }
+    public void updateProgress(int enrollmentId, int lessonId, int percentage) {
+        logger.debug("Updating progress: enrollmentId={}, lessonId={}, percentage={}", enrollmentId, lessonId, percentage);
+        int clamped = Math.max(0, Math.min(100, percentage));
+        Update result;
+        EnrollmentProgress progress;
+        do {
+            progress = track(enrollmentId);
+            if (progress == null) {
+                logger.error("Cannot resolve enrollment {}, skipping progress update", enrollmentId);
+                return;
             }
-        } catch (SQLException e) {
-            logger.error("Error resolving user_id for enrollmentId={}", enrollmentId, e);
+            // CLOSED: evicted after our lookup, its rows are written — track it again
+            result = progress.set(lessonId, clamped, System.currentTimeMillis());
+        } while (result == Update.CLOSED);
+        if (result == Update.COMPLETED_FORMATION) {
+            completeFormation(progress);
         }
-        return -1;
     }
 
     /**
-     * Update progress for a specific lesson in an enrollment.
-     * Uses UPSERT to insert or update in one call.
-     * After updating, checks if the entire formation is now complete.
+     * Mark a lesson as completed (100% progress).
+     * After marking, checks if the entire formation is complete.
      */
-    public void updateProgress(int enrollmentId, int lessonId, int percentage) {
-        logger.debug("Updating progress: enrollmentId={}, lessonId={}, percentage={}", enrollmentId, lessonId, percentage);
-        int userId = resolveUserId(enrollmentId);
-        if (userId < 0) {
-            logger.error("Cannot resolve user_id for enrollmentId={}, skipping progress update", enrollmentId);
-            return;
-        }
-        String sql = "INSERT INTO lesson_progress (enrollment_id, module_id, user_id, progress_percentage, last_accessed) " +
-                "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE progress_percentage = ?, last_accessed = ?";
-        try (Connection conn = DatabaseConfig.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            LocalDateTime now = LocalDateTime.now();
-            stmt.setInt(1, enrollmentId);
-            stmt.setInt(2, lessonId);
-            stmt.setInt(3, userId);
-            stmt.setInt(4, percentage);
-            stmt.setTimestamp(5, Timestamp.valueOf(now));
-            stmt.setInt(6, percentage);
-            stmt.setTimestamp(7, Timestamp.valueOf(now));
-            stmt.executeUpdate();
-            logger.debug("Progress updated successfully: enrollmentId={}, lessonId={}, percentage={}",
-                    enrollmentId, lessonId, percentage);
-
-            // Check if formation is now complete
-            checkAndMarkFormationComplete(enrollmentId);
-        } catch (SQLException e) {
-            logger.error("Error updating lesson progress: enrollmentId={}, lessonId={}, percentage={}",
-                    enrollmentId, lessonId, percentage, e);
-        }
+    public void markLessonCompleted(int enrollmentId, int lessonId) {
+        logger.info("Marking lesson as completed: enrollmentId={}, lessonId={}", enrollmentId, lessonId);
+        updateProgress(enrollmentId, lessonId, 100);
     }
 
     /**
-     * Check if formation is complete (all lessons at 100%) and automatically
-     * mark the enrollment as completed, triggering certificate generation.
+     * Writes the enrollment's pending progress and stops tracking it in memory. The tracker
+     * stays if an update lands during the write or the write fails; the flusher retries it.
      */
-    private void checkAndMarkFormationComplete(int enrollmentId) {
+    public void endSession(int enrollmentId) {
+        active.computeIfPresent(enrollmentId, (id, progress) -> {
+            flush(List.of(progress));
+            return progress.closeIfClean() ? null : progress;
+        });
+    }
+
+    /** Writes every pending update, e.g. on shutdown. */
+    public void flushAll() {
+        flush(new ArrayList<>(active.values()));
+    }
+
+    private void flushAndEvict() {
         try {
-            // Get enrollment details to find user_id and formation_id
-            String enrollmentSql = "SELECT user_id, formation_id, completed FROM enrollments WHERE id = ?";
-            try (Connection conn = DatabaseConfig.getInstance().getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(enrollmentSql)) {
+            flushAll();
+            long now = System.currentTimeMillis();
+            active.values().removeIf(p -> p.closeIfIdle(now));
+        } catch (RuntimeException e) {
+            logger.error("Lesson progress flush failed", e);
+        }
+    }
+
+    /** The tracker of an enrollment, loaded on first use; null if the enrollment does not exist. */
+    private EnrollmentProgress track(int enrollmentId) {
+        EnrollmentProgress progress = active.get(enrollmentId);
+        if (progress != null) {
+            if (!progress.isClosed()) return progress;
+            active.remove(enrollmentId, progress);
+        }
+        EnrollmentProgress loaded = load(enrollmentId);
+        if (loaded == null) return null;
+        EnrollmentProgress raced = active.putIfAbsent(enrollmentId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    private EnrollmentProgress load(int enrollmentId) {
+        String enrollmentSql = "SELECT e.user_id, e.formation_id, e.completed, f.lesson_count " +
+                "FROM enrollments e LEFT JOIN formations f ON f.id = e.formation_id WHERE e.id = ?";
+        String progressSql = "SELECT module_id, progress_percentage FROM lesson_progress WHERE enrollment_id = ?";
+        try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+            EnrollmentProgress progress;
+            try (PreparedStatement stmt = conn.prepareStatement(enrollmentSql)) {
+                stmt.setInt(1, enrollmentId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) return null;
+                    progress = new EnrollmentProgress(enrollmentId, rs.getInt("user_id"), rs.getInt("formation_id"),
+                            rs.getInt("lesson_count"), rs.getBoolean("completed"));
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(progressSql)) {
                 stmt.setInt(1, enrollmentId);
                 try (ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        int userId = rs.getInt("user_id");
-                        int formationId = rs.getInt("formation_id");
-                        boolean alreadyCompleted = rs.getBoolean("completed");
-
-                        if (alreadyCompleted) {
-                            logger.debug("Formation already completed: enrollmentId={}", enrollmentId);
-                            return;
-                        }
-
-                        // Get total number of lessons for this formation
-                        String formationSql = "SELECT lesson_count FROM formations WHERE id = ?";
-                        try (PreparedStatement fStmt = conn.prepareStatement(formationSql)) {
-                            fStmt.setInt(1, formationId);
-                            try (ResultSet fRs = fStmt.executeQuery()) {
-                                if (fRs.next()) {
-                                    int totalLessons = fRs.getInt("lesson_count");
-                                    if (totalLessons == 0) {
-                                        logger.debug("Formation has no lessons, skipping completion check: formationId={}", formationId);
-                                        return;
-                                    }
-
-                                    int completedLessons = getCompletedLessonsCount(enrollmentId);
-                                    logger.debug("Progress check: enrollmentId={}, totalLessons={}, completedLessons={}",
-                                            enrollmentId, totalLessons, completedLessons);
-
-                                    if (completedLessons >= totalLessons) {
-                                        logger.info("All lessons completed! Marking formation as completed: enrollmentId={}, userId={}, formationId={}",
-                                                enrollmentId, userId, formationId);
-                                        EnrollmentService.getInstance().markCompleted(userId, formationId);
-                                    }
-                                }
-                            }
-                        }
+                    while (rs.next()) {
+                        progress.load(rs.getInt("module_id"), rs.getInt("progress_percentage"));
                     }
                 }
             }
+            return progress;
         } catch (SQLException e) {
-            logger.error("Error checking formation completion: enrollmentId={}", enrollmentId, e);
+            logger.error("Error loading lesson progress for enrollmentId={}", enrollmentId, e);
+            return null;
+        }
+    }
+
+    /**
+     * All lessons are at 100%: persist them, then mark the enrollment completed,
+     * which triggers certificate generation. If that fails, the tracker is reopened so
+     * the next progress update retries the completion.
+     */
+    private void completeFormation(EnrollmentProgress progress) {
+        flush(List.of(progress));
+        logger.info("All lessons completed! Marking formation as completed: enrollmentId={}, userId={}, formationId={}",
+                progress.enrollmentId, progress.userId, progress.formationId);
+        boolean marked = false;
+        try {
+            marked = EnrollmentService.getInstance().markCompleted(progress.userId, progress.formationId);
         } catch (Exception e) {
-            logger.error("Unexpected error checking formation completion: enrollmentId={}", enrollmentId, e);
+            logger.error("Unexpected error marking formation completed: enrollmentId={}", progress.enrollmentId, e);
+        }
+        if (!marked) {
+            logger.warn("Formation completion not recorded, will retry: enrollmentId={}", progress.enrollmentId);
+            progress.reopenCompletion();
+        }
+    }
+
+    /** One batched upsert over the dirty lessons of the given enrollments. */
+    private void flush(List<EnrollmentProgress> trackers) {
+        Map<EnrollmentProgress, List<Object[]>> pending = new HashMap<>();
+        for (EnrollmentProgress p : trackers) {
+            if (!p.isDirty()) continue;
+            List<Object[]> rows = p.drain();
+            if (!rows.isEmpty()) pending.put(p, rows);
+        }
+        if (pending.isEmpty()) return;
+
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPSERT_SQL)) {
+            int count = 0;
+            for (Map.Entry<EnrollmentProgress, List<Object[]>> e : pending.entrySet()) {
+                EnrollmentProgress p = e.getKey();
+                for (Object[] row : e.getValue()) {
+                    int pct = (Integer) row[1];
+                    long completed = (Long) row[3];
+                    stmt.setInt(1, p.enrollmentId);
+                    stmt.setInt(2, (Integer) row[0]);
+                    stmt.setInt(3, p.userId);
+                    stmt.setInt(4, pct);
+                    stmt.setBoolean(5, pct >= 100);
+                    stmt.setTimestamp(6, completed > 0 ? new Timestamp(completed) : null);
+                    stmt.setTimestamp(7, new Timestamp((Long) row[2]));
+                    stmt.addBatch();
+                    count++;
+                }
+            }
+            stmt.executeBatch();
+            logger.debug("Flushed {} lesson progress rows for {} enrollments", count, pending.size());
+        } catch (SQLException e) {
+            logger.error("Error flushing lesson progress, will retry: {}", e.getMessage(), e);
+            pending.forEach(EnrollmentProgress::restore);
         }
     }
 
+    // ==================== Queries ====================
+
     /**
      * Get progress map for all lessons in an enrollment.
      * Key = lessonId, Value = progress percentage.
      */
     public Map<Integer, Integer> getProgressByEnrollment(int enrollmentId) {
+        EnrollmentProgress tracked = active.get(enrollmentId);
+        if (tracked != null) return tracked.snapshot();
+
         Map<Integer, Integer> progress = new HashMap<>();
         String sql = "SELECT module_id, progress_percentage FROM lesson_progress WHERE enrollment_id = ?";
         try (Connection conn = DatabaseConfig.getInstance().getConnection();
@@ -181,6 +410,9 @@ public class LessonProgressService {
      * A lesson is considered completed if progress_percentage >= 100.
      */
     public int getCompletedLessonsCount(int enrollmentId) {
+        EnrollmentProgress tracked = active.get(enrollmentId);
+        if (tracked != null) return tracked.getCompletedLessons();
+
         String sql = "SELECT COUNT(*) as completed FROM lesson_progress WHERE enrollment_id = ? AND progress_percentage >= 100";
         try (Connection conn = DatabaseConfig.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -195,37 +427,4 @@ public class LessonProgressService {
         }
         return 0;
     }
-
-    /**
-     * Mark a lesson as completed (100% progress).
-     * After marking, checks if the entire formation is complete.
-     */
-    public void markLessonCompleted(int enrollmentId, int lessonId) {
-        logger.info("Marking lesson as completed: enrollmentId={}, lessonId={}", enrollmentId, lessonId);
-        int userId = resolveUserId(enrollmentId);
-        if (userId < 0) {
-            logger.error("Cannot resolve user_id for enrollmentId={}, skipping mark completed", enrollmentId);
-            return;
-        }
-        String sql = "INSERT INTO lesson_progress (enrollment_id, module_id, user_id, progress_percentage, completed, completed_date, last_accessed) " +
-                "VALUES (?, ?, ?, 100, TRUE, ?, ?) " +
-                "ON DUPLICATE KEY UPDATE progress_percentage = 100, completed = TRUE, completed_date = ?, last_accessed = ?";
-        try (Connection conn = DatabaseConfig.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            LocalDateTime now = LocalDateTime.now();
-            stmt.setInt(1, enrollmentId);
-            stmt.setInt(2, lessonId);
-            stmt.setInt(3, userId);
-            stmt.setTimestamp(4, Timestamp.valueOf(now));
-            stmt.setTimestamp(5, Timestamp.valueOf(now));
-            stmt.setTimestamp(6, Timestamp.valueOf(now));
-            stmt.setTimestamp(7, Timestamp.valueOf(now));
-            stmt.executeUpdate();
-            logger.debug("Lesson marked as completed: enrollmentId={}, lessonId={}", enrollmentId, lessonId);
-
-            checkAndMarkFormationComplete(enrollmentId);
-        } catch (SQLException e) {
-            logger.error("Error marking lesson as completed: enrollmentId={}, lessonId={}", enrollmentId, lessonId, e);
-        }
-    }
 }
@@ -0,0 +1,595 @@
+package com.skilora.formation.service;
+
+import com.skilora.config.DatabaseConfig;
+import com.skilora.formation.enums.MentorshipStatus;
+import com.skilora.user.entity.Experience;
+import com.skilora.user.entity.Profile;
+import com.skilora.user.entity.Skill;
+import com.skilora.user.enums.ProficiencyLevel;
+import com.skilora.user.service.ProfileService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * MentorMatchingEngine
+ *
+ * Ranks available mentors for a mentee. Every active user is a candidate mentor with a
+ * profile vector: skill weights (proficiency scaled by years of practice) over interned skill
+ * ids, plus total years of experience. A mentor's score is a weighted sum of skill cosine
+ * similarity and seniority over the mentee, reduced by the mentor's open mentorships.
+ * Mentors already paired with the mentee (pending or active) are left out.
+ *
+ * Vectors of all active users are loaded in three round trips and kept in memory. Each
+ * mentee's best {@value #KEPT} candidates are cached; scoring a mentee against every mentor
+ * runs in parallel above {@value #PARALLEL_THRESHOLD} mentors. Profile and mentorship
+ * changes only mark state dirty; the next suggestion request reloads the changed profiles
+ * through {@link ProfileService} and patches the cached lists instead of recomputing them.
+ * No JavaFX imports allowed.
+ */
+public class MentorMatchingEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(MentorMatchingEngine.class);
+    private static volatile MentorMatchingEngine instance;
+
+    public static final int TOP_K = 10;
+    /** Candidates kept per mentee; the slack absorbs mentors dropping out between recomputes. */
+    static final int KEPT = TOP_K * 2;
+    static final int MAX_CACHED_MENTEES = 5_000;
+    static final int PARALLEL_THRESHOLD = 2_000;
+    /** Full reload interval, which also picks up activated and deactivated users. */
+    static final long REBUILD_NANOS = TimeUnit.MINUTES.toNanos(30);
+
+    static final double SKILL_WEIGHT = 0.7;
+    static final double SENIORITY_WEIGHT = 0.3;
+    /** Years of extra experience at which the seniority term saturates. */
+    static final double SENIORITY_SPAN_YEARS = 10.0;
+    /** Score reduction per open (pending or active) mentorship of the mentor. */
+    static final double LOAD_PENALTY = 0.05;
+
+    private static final String USERS_SQL = "SELECT id, full_name FROM users WHERE is_active = 1";
+
+    private static final String ACTIVE_USER_SQL = "SELECT full_name FROM users WHERE id = ? AND is_active = 1";
+
+    private static final String SKILLS_SQL = """
+        SELECT p.id AS profile_id, p.user_id, s.skill_name, s.proficiency_level, s.years_experience
+        FROM profiles p LEFT JOIN skills s ON s.profile_id = p.id
+        """;
+
+    private static final String EXPERIENCES_SQL = """
+        SELECT p.user_id, e.start_date, e.end_date, e.current_job
+        FROM profiles p JOIN experiences e ON e.profile_id = p.id
+        """;
+
+    private static final String OPEN_MENTORSHIPS_SQL =
+            "SELECT mentor_id, mentee_id FROM mentorships WHERE status IN (?, ?)";
+
+    /** A ranked mentor. Immutable. */
+    public static final class Suggestion {
+        private final int mentorId;
+        private final String mentorName;
+        private final double score;
+
+        Suggestion(int mentorId, String mentorName, double score) {
+            this.mentorId = mentorId;
+            this.mentorName = mentorName;
+            this.score = score;
+        }
+
+        public int getMentorId() { return mentorId; }
+        public String getMentorName() { return mentorName; }
+        /** Compatibility in [0, 1]. */
+        public double getScore() { return score; }
+        public int getScorePercent() { return (int) Math.round(score * 100); }
+    }
+
+    /** Skills and experience of one user as a sparse vector over interned skill ids. Immutable. */
+    public static final class ProfileVector {
+        private static final ProfileVector EMPTY = new ProfileVector(new int[0], new double[0], 0.0);
+
+        private final int[] skills;
+        private final double[] weights;
+        private final double norm;
+        private final double years;
+
+        private ProfileVector(int[] skills, double[] weights, double years) {
+            this.skills = skills;
+            this.weights = weights;
+            double sum = 0;
+            for (double w : weights) sum += w * w;
+            this.norm = Math.sqrt(sum);
+            this.years = years;
+        }
+
+        /**
+         * Builds a vector from profile data, interning skill names (trimmed, lowercased)
+         * through {@code dictionary}.
+         */
+        public static ProfileVector of(List<Skill> skills, List<Experience> experiences,
+                                       Map<String, Integer> dictionary, LocalDate today) {
+            Map<Integer, Double> byId = new HashMap<>();
+            for (Skill s : skills) {
+                if (s.getSkillName() == null || s.getSkillName().isBlank()) continue;
+                String key = s.getSkillName().trim().toLowerCase();
+                Integer id = dictionary.get(key);
+                if (id == null) {
+                    id = dictionary.size();
+                    dictionary.put(key, id);
+                }
+                byId.merge(id, skillWeight(s), Math::max);
+            }
+            int[] ids = new int[byId.size()];
+            int n = 0;
+            for (int id : byId.keySet()) ids[n++] = id;
+            Arrays.sort(ids);
+            double[] weights = new double[ids.length];
+            for (int i = 0; i < ids.length; i++) weights[i] = byId.get(ids[i]);
+
+            double years = 0;
+            for (Experience e : experiences) {
+                if (e.getStartDate() == null) continue;
+                LocalDate end = e.isCurrentJob() || e.getEndDate() == null ? today : e.getEndDate();
+                long months = ChronoUnit.MONTHS.between(e.getStartDate(), end);
+                if (months > 0) years += months / 12.0;
+            }
+            return ids.length == 0 && years == 0 ? EMPTY : new ProfileVector(ids, weights, Math.min(years, 40));
+        }
+
+        public int skillCount() { return skills.length; }
+        public double getYears() { return years; }
+
+        /** Cosine similarity of the skill parts, 0 if either has no skills. */
+        public double skillSimilarity(ProfileVector other) {
+            if (norm == 0 || other.norm == 0) return 0;
+            double dot = 0;
+            int[] a = skills, b = other.skills;
+            for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+                if (a[i] < b[j]) i++;
+                else if (a[i] > b[j]) j++;
+                else dot += weights[i++] * other.weights[j++];
+            }
+            return dot / (norm * other.norm);
+        }
+    }
+
+    /** Best candidates of one mentee, by descending score. Guarded by the engine. */
+    private static final class Candidates {
+        final ProfileVector mentee;
+        final int[] mentorIds = new int[KEPT];
+        final double[] scores = new double[KEPT];
+        int size;
+        /** True when every scorable mentor is in the list, i.e. nothing was cut at {@link #KEPT}. */
+        boolean exhaustive;
+
+        Candidates(ProfileVector mentee) {
+            this.mentee = mentee;
+        }
+
+        boolean remove(int mentorId) {
+            for (int i = 0; i < size; i++) {
+                if (mentorIds[i] == mentorId) {
+                    System.arraycopy(mentorIds, i + 1, mentorIds, i, size - i - 1);
+                    System.arraycopy(scores, i + 1, scores, i, size - i - 1);
+                    size--;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** Inserts in score order if the mentor belongs in the list; returns whether it was added. */
+        boolean offer(int mentorId, double score) {
+            boolean belongs = size > 0 && score > scores[size - 1] || size < KEPT && exhaustive;
+            if (!belongs) {
+                if (size == KEPT) exhaustive = false;
+                return false;
+            }
+            int pos = size;
+            while (pos > 0 && scores[pos - 1] < score) pos--;
+            int last = Math.min(size, KEPT - 1);
+            System.arraycopy(mentorIds, pos, mentorIds, pos + 1, last - pos);
+            System.arraycopy(scores, pos, scores, pos + 1, last - pos);
+            mentorIds[pos] = mentorId;
+            scores[pos] = score;
+            if (size < KEPT) size++;
+            else exhaustive = false;
+            return true;
+        }
+    }
+
+    // ── State, guarded by this ──
+
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final Map<Integer, ProfileVector> vectors = new HashMap<>();
+    private final Map<Integer, Integer> profileOwners = new HashMap<>();
+    private final Map<Integer, String> names = new HashMap<>();
+    private int[] mentorIds = new int[0];
+    private ProfileVector[] mentorVectors = new ProfileVector[0];
+    private final Map<Integer, Integer> openLoad = new HashMap<>();
+    private final Set<Long> openPairs = new HashSet<>();
+    private final Map<Integer, Candidates> candidates = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Candidates> eldest) {
+            return size() > MAX_CACHED_MENTEES;
+        }
+    };
+    private long builtAt;
+    private boolean built;
+
+    // ── Change marks, written without the monitor so writers never wait for a rebuild ──
+
+    private final Set<Integer> dirtyProfiles = ConcurrentHashMap.newKeySet();
+    private volatile boolean mentorshipsDirty;
+    private volatile boolean rebuildRequested;
+
+    private MentorMatchingEngine() {}
+
+    public static MentorMatchingEngine getInstance() {
+        if (instance == null) {
+            synchronized (MentorMatchingEngine.class) {
+                if (instance == null) {
+                    instance = new MentorMatchingEngine();
+                }
+            }
+        }
+        return instance;
+    }
+
+    // ==================== Suggestions ====================
+
+    /** The {@value #TOP_K} best mentors for a mentee. */
+    public List<Suggestion> suggestMentors(int menteeId) {
+        return suggestMentors(menteeId, TOP_K);
+    }
+
+    /** The {@code limit} (at most {@value #TOP_K}) best mentors for a mentee, best first. */
+    public synchronized List<Suggestion> suggestMentors(int menteeId, int limit) {
+        if (menteeId <= 0 || limit <= 0) return List.of();
+        try {
+            refresh();
+            Candidates list = candidates.get(menteeId);
+            if (list == null) {
+                ProfileVector mentee = vectors.get(menteeId);
+                if (mentee == null) mentee = loadUserVector(menteeId);
+                list = rank(menteeId, mentee);
+                candidates.put(menteeId, list);
+            }
+            int n = Math.min(Math.min(limit, TOP_K), list.size);
+            List<Suggestion> result = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                int mentorId = list.mentorIds[i];
+                result.add(new Suggestion(mentorId, names.get(mentorId), list.scores[i]));
+            }
+            return result;
+        } catch (SQLException e) {
+            logger.error("Error matching mentors for user {}: {}", menteeId, e.getMessage(), e);
+            return List.of();
+        }
+    }
+
+    // ==================== Change notifications ====================
+
+    /**
+     * A profile's skills or experiences changed. Cheap; the profile is reloaded on the next
+     * suggestion request.
+     * @param profileId the profile, or 0 when unknown, which reloads everything
+     */
+    public void onProfileChanged(int profileId) {
+        if (profileId > 0) dirtyProfiles.add(profileId);
+        else rebuildRequested = true;
+    }
+
+    /** A mentorship was requested, accepted, completed, cancelled or deleted. Cheap. */
+    public void onMentorshipChanged() {
+        mentorshipsDirty = true;
+    }
+
+    /** Drops everything; the next request reloads all profiles. */
+    public void invalidateAll() {
+        rebuildRequested = true;
+    }
+
+    // ==================== Scoring ====================
+
+    /**
+     * Compatibility of a mentor for a mentee in [0, 1]: skill similarity and seniority,
+     * divided by {@code 1 + LOAD_PENALTY × openMentorships}.
+     */
+    public static double score(ProfileVector mentee, ProfileVector mentor, int openMentorships) {
+        double seniority = Math.min(1.0, Math.max(0.0, (mentor.years - mentee.years) / SENIORITY_SPAN_YEARS));
+        double raw = SKILL_WEIGHT * mentee.skillSimilarity(mentor) + SENIORITY_WEIGHT * seniority;
+        return raw / (1.0 + LOAD_PENALTY * openMentorships);
+    }
+
+    static double skillWeight(Skill skill) {
+        ProficiencyLevel level = skill.getProficiencyLevel() != null ? skill.getProficiencyLevel() : ProficiencyLevel.BEGINNER;
+        return level.getLevel() * (1.0 + Math.min(Math.max(skill.getYearsExperience(), 0), 10) / 10.0);
+    }
+
+    /** Score of a mentor for a mentee, or NaN if the mentor cannot be suggested or shares nothing. */
+    private double scoreFor(int menteeId, ProfileVector mentee, int mentorId, ProfileVector mentor) {
+        if (mentorId == menteeId || openPairs.contains(pair(mentorId, menteeId))) return Double.NaN;
+        double s = score(mentee, mentor, openLoad.getOrDefault(mentorId, 0));
+        return s > 0 ? s : Double.NaN;
+    }
+
+    /** Scores every mentor for a mentee and keeps the best {@link #KEPT}. */
+    private Candidates rank(int menteeId, ProfileVector mentee) {
+        int n = mentorIds.length;
+        double[] all = new double[n];
+        IntStream range = IntStream.range(0, n);
+        if (n > PARALLEL_THRESHOLD) range = range.parallel();
+        range.forEach(i -> all[i] = scoreFor(menteeId, mentee, mentorIds[i], mentorVectors[i]));
+
+        Candidates list = new Candidates(mentee);
+        list.exhaustive = true;
+        for (int i = 0; i < n; i++) {
+            if (!Double.isNaN(all[i])) list.offer(mentorIds[i], all[i]);
+        }
+        return list;
+    }
+
+    // ==================== Incremental maintenance ====================
+
+    /**
+     * Applies pending change marks. Marks are taken before the data is read, so a change
+     * recorded while a reload runs stays marked for the next request.
+     */
+    private void refresh() throws SQLException {
+        if (!built || rebuildRequested || System.nanoTime() - builtAt > REBUILD_NANOS) {
+            rebuildRequested = false;
+            mentorshipsDirty = false;
+            dirtyProfiles.clear();
+            try {
+                build();
+            } catch (SQLException e) {
+                rebuildRequested = true;
+                throw e;
+            }
+            return;
+        }
+        Set<Integer> changedMentors = new HashSet<>();
+        for (Iterator<Integer> it = dirtyProfiles.iterator(); it.hasNext(); ) {
+            int profileId = it.next();
+            it.remove();
+            int userId = reloadProfile(profileId);
+            if (userId > 0) changedMentors.add(userId);
+        }
+        if (mentorshipsDirty) {
+            mentorshipsDirty = false;
+            try {
+                changedMentors.addAll(reloadMentorships());
+            } catch (SQLException e) {
+                mentorshipsDirty = true;
+                throw e;
+            }
+        }
+        if (!changedMentors.isEmpty()) {
+            for (int mentorId : changedMentors) rescore(mentorId);
+            logger.debug("Patched mentor suggestions of {} mentees for {} changed mentors",
+                    candidates.size(), changedMentors.size());
+        }
+    }
+
+    /** Re-evaluates one mentor in every cached list, dropping lists that can no longer fill {@link #TOP_K}. */
+    private void rescore(int mentorId) {
+        ProfileVector mentor = vectors.get(mentorId);
+        for (Iterator<Map.Entry<Integer, Candidates>> it = candidates.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Integer, Candidates> entry = it.next();
+            Candidates list = entry.getValue();
+            list.remove(mentorId);
+            double s = mentor != null ? scoreFor(entry.getKey(), list.mentee, mentorId, mentor) : Double.NaN;
+            if (!Double.isNaN(s)) list.offer(mentorId, s);
+            if (list.size < TOP_K && !list.exhaustive) it.remove();
+        }
+    }
+
+    /** Reloads one profile through {@link ProfileService}; returns its user, or 0 if unknown. */
+    private int reloadProfile(int profileId) {
+        ProfileService profiles = ProfileService.getInstance();
+        try {
+            Profile profile = profiles.findProfileById(profileId);
+            Integer owner = profile != null ? Integer.valueOf(profile.getUserId()) : profileOwners.remove(profileId);
+            if (owner == null) return 0;
+            int userId = owner;
+            ProfileVector vector = profile != null
+                    ? ProfileVector.of(profiles.findSkillsByProfileId(profileId),
+                            profiles.findExperiencesByProfileId(profileId), dictionary, LocalDate.now())
+                    : ProfileVector.EMPTY;
+            // Names come from users.full_name, as in build(); only active users become mentors
+            String name = null;
+            if (profile != null) {
+                profileOwners.put(profileId, userId);
+                name = loadActiveUserName(userId);
+                if (name != null) names.put(userId, name);
+            }
+            vectors.put(userId, vector);
+            int pos = indexOf(userId);
+            if (pos >= 0) {
+                mentorVectors[pos] = vector;
+            } else if (name != null) {
+                mentorIds = Arrays.copyOf(mentorIds, mentorIds.length + 1);
+                mentorVectors = Arrays.copyOf(mentorVectors, mentorVectors.length + 1);
+                mentorIds[mentorIds.length - 1] = userId;
+                mentorVectors[mentorVectors.length - 1] = vector;
+            }
+            // The user's own suggestions depend on their vector
+            candidates.remove(userId);
+            return userId;
+        } catch (SQLException e) {
+            logger.error("Error reloading profile {} for mentor matching: {}", profileId, e.getMessage(), e);
+            rebuildRequested = true;
+            return 0;
+        }
+    }
+
+    /** Reloads open mentorships; returns the mentors whose load or pairs changed. */
+    private Set<Integer> reloadMentorships() throws SQLException {
+        Map<Integer, Integer> load = new HashMap<>();
+        Set<Long> pairs = new HashSet<>();
+        try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+            loadOpenMentorships(conn, load, pairs);
+        }
+        Set<Integer> changed = new HashSet<>();
+        for (long p : pairs) if (!openPairs.contains(p)) changed.add((int) (p >>> 32));
+        for (long p : openPairs) if (!pairs.contains(p)) changed.add((int) (p >>> 32));
+        Set<Integer> mentors = new HashSet<>(load.keySet());
+        mentors.addAll(openLoad.keySet());
+        for (int m : mentors) {
+            if (!load.getOrDefault(m, 0).equals(openLoad.getOrDefault(m, 0))) changed.add(m);
+        }
+        openLoad.clear();
+        openLoad.putAll(load);
+        openPairs.clear();
+        openPairs.addAll(pairs);
+        return changed;
+    }
+
+    // ==================== Loading ====================
+
+    private void build() throws SQLException {
+        long start = System.nanoTime();
+        Map<Integer, String> users = new LinkedHashMap<>();
+        Map<Integer, List<Skill>> skills = new HashMap<>();
+        Map<Integer, List<Experience>> experiences = new HashMap<>();
+        Map<Integer, Integer> owners = new HashMap<>();
+        Map<Integer, Integer> load = new HashMap<>();
+        Set<Long> pairs = new HashSet<>();
+
+        try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(USERS_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) users.put(rs.getInt("id"), rs.getString("full_name"));
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(SKILLS_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int userId = rs.getInt("user_id");
+                    owners.put(rs.getInt("profile_id"), userId);
+                    String name = rs.getString("skill_name");
+                    if (name == null) continue;
+                    Skill skill = new Skill(rs.getInt("profile_id"), name, proficiency(rs.getString("proficiency_level")),
+                            rs.getInt("years_experience"));
+                    skills.computeIfAbsent(userId, k -> new ArrayList<>()).add(skill);
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(EXPERIENCES_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Experience exp = new Experience();
+                    Date startDate = rs.getDate("start_date");
+                    Date endDate = rs.getDate("end_date");
+                    exp.setStartDate(startDate != null ? startDate.toLocalDate() : null);
+                    exp.setEndDate(endDate != null ? endDate.toLocalDate() : null);
+                    exp.setCurrentJob(rs.getBoolean("current_job"));
+                    experiences.computeIfAbsent(rs.getInt("user_id"), k -> new ArrayList<>()).add(exp);
+                }
+            }
+            loadOpenMentorships(conn, load, pairs);
+        }
+
+        dictionary.clear();
+        vectors.clear();
+        LocalDate today = LocalDate.now();
+        int[] ids = new int[users.size()];
+        ProfileVector[] vecs = new ProfileVector[users.size()];
+        int n = 0;
+        for (int userId : users.keySet()) {
+            ProfileVector v = ProfileVector.of(skills.getOrDefault(userId, Collections.emptyList()),
+                    experiences.getOrDefault(userId, Collections.emptyList()), dictionary, today);
+            vectors.put(userId, v);
+            ids[n] = userId;
+            vecs[n++] = v;
+        }
+        mentorIds = ids;
+        mentorVectors = vecs;
+        names.clear();
+        names.putAll(users);
+        profileOwners.clear();
+        profileOwners.putAll(owners);
+        openLoad.clear();
+        openLoad.putAll(load);
+        openPairs.clear();
+        openPairs.addAll(pairs);
+        candidates.clear();
+        built = true;
+        builtAt = System.nanoTime();
+        logger.debug("Built mentor matching index: {} mentors, {} skills in {} ms",
+                ids.length, dictionary.size(), TimeUnit.NANOSECONDS.toMillis(builtAt - start));
+    }
+
+    private static void loadOpenMentorships(Connection conn, Map<Integer, Integer> load, Set<Long> pairs)
+            throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(OPEN_MENTORSHIPS_SQL)) {
+            stmt.setString(1, MentorshipStatus.PENDING.name());
+            stmt.setString(2, MentorshipStatus.ACTIVE.name());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int mentorId = rs.getInt("mentor_id");
+                    load.merge(mentorId, 1, Integer::sum);
+                    pairs.add(pair(mentorId, rs.getInt("mentee_id")));
+                }
+            }
+        }
+    }
+
+    /** {@code users.full_name} of an active user, or null if the user is inactive or unknown. */
+    private static String loadActiveUserName(int userId) throws SQLException {
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(ACTIVE_USER_SQL)) {
+            stmt.setInt(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString("full_name") : null;
+            }
+        }
+    }
+
+    /** Vector of a user who is not an indexed mentor (e.g. inactive), read through {@link ProfileService}. */
+    private ProfileVector loadUserVector(int userId) throws SQLException {
+        ProfileService profiles = ProfileService.getInstance();
+        Profile profile = profiles.findProfileByUserId(userId);
+        if (profile == null) return ProfileVector.EMPTY;
+        return ProfileVector.of(profiles.findSkillsByProfileId(profile.getId()),
+                profiles.findExperiencesByProfileId(profile.getId()), dictionary, LocalDate.now());
+    }
+
+    private int indexOf(int userId) {
+        for (int i = 0; i < mentorIds.length; i++) {
+            if (mentorIds[i] == userId) return i;
+        }
+        return -1;
+    }
+
+    private static long pair(int mentorId, int menteeId) {
+        return ((long) mentorId << 32) | (menteeId & 0xFFFFFFFFL);
+    }
+
+    private static ProficiencyLevel proficiency(String value) {
+        if (value == null) return ProficiencyLevel.BEGINNER;
+        try {
+            return ProficiencyLevel.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            return ProficiencyLevel.BEGINNER;
+        }
+    }
+}
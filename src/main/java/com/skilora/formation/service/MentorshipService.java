@@ -2,6 +2,7 @@ package com.skilora.formation.service;
 
 import com.skilora.config.DatabaseConfig;
 import com.skilora.formation.entity.Mentorship;
+import com.skilora.formation.enums.AchievementEvent;
 import com.skilora.formation.enums.MentorshipStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -69,6 +70,13 @@ public class MentorshipService {
         return mentors;
     }
 
+    /**
+     * Best-matching mentors for a mentee, best first (see {@link MentorMatchingEngine}).
+     */
+    public List<MentorMatchingEngine.Suggestion> suggestMentors(int menteeId) {
+        return MentorMatchingEngine.getInstance().suggestMentors(menteeId);
+    }
+
     public int requestMentorship(int menteeId, int mentorId, String topic, String goals) {
         String sql = "INSERT INTO mentorships (mentor_id, mentee_id, status, topic, goals, created_date) VALUES (?, ?, ?, ?, ?, NOW())";
         try (Connection conn = DatabaseConfig.getInstance().getConnection();
@@ -83,6 +91,7 @@ public class MentorshipService {
             ResultSet rs = stmt.getGeneratedKeys();
             if (rs.next()) {
                 int id = rs.getInt(1);
+                MentorMatchingEngine.getInstance().onMentorshipChanged();
                 logger.info("Mentorship requested: id {}", id);
                 return id;
             }
@@ -99,7 +108,9 @@ public class MentorshipService {
             stmt.setString(1, MentorshipStatus.ACTIVE.name());
             stmt.setDate(2, Date.valueOf(LocalDate.now()));
             stmt.setInt(3, id);
-            return stmt.executeUpdate() > 0;
+            boolean accepted = stmt.executeUpdate() > 0;
+            if (accepted) MentorMatchingEngine.getInstance().onMentorshipChanged();
+            return accepted;
         } catch (SQLException e) {
             logger.error("Error accepting mentorship: {}", e.getMessage(), e);
         }
@@ -117,6 +128,7 @@ public class MentorshipService {
             stmt.setInt(5, id);
             
             if (stmt.executeUpdate() > 0) {
+                MentorMatchingEngine.getInstance().onMentorshipChanged();
                 // Get mentor_id for achievement
                 String getSql = "SELECT mentor_id FROM mentorships WHERE id = ?";
                 try (PreparedStatement getStmt = conn.prepareStatement(getSql)) {
@@ -124,7 +136,7 @@ public class MentorshipService {
                     ResultSet rs = getStmt.executeQuery();
                     if (rs.next()) {
                         int mentorId = rs.getInt("mentor_id");
-                        AchievementService.getInstance().checkAndAward(mentorId);
+                        AchievementEngine.getInstance().onEvent(mentorId, AchievementEvent.MENTORSHIP_COMPLETED);
                     }
                 }
                 return true;
@@ -141,7 +153,9 @@ public class MentorshipService {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, MentorshipStatus.CANCELLED.name());
             stmt.setInt(2, id);
-            return stmt.executeUpdate() > 0;
+            boolean cancelled = stmt.executeUpdate() > 0;
+            if (cancelled) MentorMatchingEngine.getInstance().onMentorshipChanged();
+            return cancelled;
         } catch (SQLException e) {
             logger.error("Error cancelling mentorship: {}", e.getMessage(), e);
         }
@@ -232,7 +246,9 @@ public class MentorshipService {
         try (Connection conn = DatabaseConfig.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            if (deleted) MentorMatchingEngine.getInstance().onMentorshipChanged();
+            return deleted;
         } catch (SQLException e) {
             logger.error("Error deleting mentorship: {}", e.getMessage(), e);
         }
@@ -126,7 +126,9 @@ public class QuizService {
                 stmt.setNull(6, Types.INTEGER);
             }
             stmt.setInt(7, quiz.getId());
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            if (updated) QuizSessionEngine.getInstance().invalidate(quiz.getId());
+            return updated;
         } catch (SQLException e) {
             logger.error("Error updating quiz: {}", e.getMessage(), e);
         }
@@ -138,7 +140,9 @@ public class QuizService {
         try (Connection conn = DatabaseConfig.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            if (deleted) QuizSessionEngine.getInstance().invalidate(id);
+            return deleted;
         } catch (SQLException e) {
             logger.error("Error deleting quiz: {}", e.getMessage(), e);
         }
@@ -169,6 +173,7 @@ public class QuizService {
             stmt.setInt(8, q.getPoints());
             stmt.setInt(9, q.getOrderIndex());
             stmt.executeUpdate();
+            QuizSessionEngine.getInstance().invalidate(q.getQuizId());
             ResultSet rs = stmt.getGeneratedKeys();
             if (rs.next()) return rs.getInt(1);
         } catch (SQLException e) {
@@ -208,7 +213,9 @@ public class QuizService {
             stmt.setInt(7, q.getPoints());
             stmt.setInt(8, q.getOrderIndex());
             stmt.setInt(9, q.getId());
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            if (updated) regrade(q.getQuizId() > 0 ? q.getQuizId() : quizOfQuestion(conn, q.getId()));
+            return updated;
         } catch (SQLException e) {
             logger.error("Error updating question: {}", e.getMessage(), e);
         }
@@ -219,14 +226,39 @@ public class QuizService {
         String sql = "DELETE FROM quiz_questions WHERE id = ?";
         try (Connection conn = DatabaseConfig.getInstance().getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int quizId = quizOfQuestion(conn, id);
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            if (deleted) regrade(quizId);
+            return deleted;
         } catch (SQLException e) {
             logger.error("Error deleting question: {}", e.getMessage(), e);
         }
         return false;
     }
 
+    /** Quiz of a question, 0 if it does not exist. */
+    private int quizOfQuestion(Connection conn, int questionId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT quiz_id FROM quiz_questions WHERE id = ?")) {
+            stmt.setInt(1, questionId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * A question's key, points or existence changed: re-scores the stored attempts of its
+     * quiz (which also reloads the bundle), or drops every bundle if the quiz is unknown.
+     */
+    private void regrade(int quizId) {
+        if (quizId > 0) {
+            QuizSessionEngine.getInstance().regradeAll(quizId);
+        } else {
+            QuizSessionEngine.getInstance().invalidateAll();
+        }
+    }
+
     // ── QuizResult operations ──
 
     public int submitResult(QuizResult result) {
@@ -320,7 +352,7 @@ public class QuizService {
 
     // ── Mappers ──
 
-    private Quiz mapQuiz(ResultSet rs) throws SQLException {
+    Quiz mapQuiz(ResultSet rs) throws SQLException {
         Quiz q = new Quiz();
         q.setId(rs.getInt("id"));
         q.setFormationId(rs.getInt("formation_id"));
@@ -334,7 +366,7 @@ public class QuizService {
         return q;
     }
 
-    private QuizQuestion mapQuestion(ResultSet rs) throws SQLException {
+    QuizQuestion mapQuestion(ResultSet rs) throws SQLException {
         QuizQuestion q = new QuizQuestion();
         q.setId(rs.getInt("id"));
         q.setQuizId(rs.getInt("quiz_id"));
@@ -350,7 +382,7 @@ public class QuizService {
         return q;
     }
 
-    private QuizResult mapResult(ResultSet rs) throws SQLException {
+    QuizResult mapResult(ResultSet rs) throws SQLException {
         QuizResult r = new QuizResult();
         r.setId(rs.getInt("id"));
         r.setQuizId(rs.getInt("quiz_id"));
@@ -0,0 +1,412 @@
+package com.skilora.formation.service;
+
+import com.skilora.config.DatabaseConfig;
+import com.skilora.formation.entity.Quiz;
+import com.skilora.formation.entity.QuizQuestion;
+import com.skilora.formation.entity.QuizResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QuizSessionEngine
+ *
+ * Quiz taking without a round trip per step. A quiz and its questions are loaded once into
+ * an immutable {@link QuizBundle} shared by every learner taking it; answers are graded in
+ * memory and the result is stored together with each answer in one transaction at submit.
+ * {@link #regradeAll(int)} re-scores every stored attempt after a question changed.
+ *
+ * Bundles are dropped by {@link QuizService} whenever the quiz or one of its questions changes,
+ * and reloaded after {@link #RELOAD_NANOS} so edits made from another client are picked up.
+ * No JavaFX imports allowed.
+ */
+public class QuizSessionEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuizSessionEngine.class);
+    private static volatile QuizSessionEngine instance;
+
+    static final long RELOAD_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    /**
+     * A quiz with its questions in display order, plus the answer key as arrays.
+     * Immutable; the {@link Quiz} and {@link QuizQuestion} objects are shared between
+     * sessions and must not be modified.
+     */
+    public static final class QuizBundle {
+        private final Quiz quiz;
+        private final List<QuizQuestion> questions;
+        private final Map<Integer, Integer> positions;
+        private final char[] correct;
+        private final int[] points;
+        private final int maxScore;
+        private final long loadedAt = System.nanoTime();
+
+        public QuizBundle(Quiz quiz, List<QuizQuestion> questions) {
+            this.quiz = quiz;
+            this.questions = Collections.unmodifiableList(new ArrayList<>(questions));
+            int n = questions.size();
+            this.positions = new HashMap<>(n * 2);
+            this.correct = new char[n];
+            this.points = new int[n];
+            int max = 0;
+            for (int i = 0; i < n; i++) {
+                QuizQuestion q = questions.get(i);
+                positions.put(q.getId(), i);
+                correct[i] = q.getCorrectOption();
+                points[i] = q.getPoints();
+                max += q.getPoints();
+            }
+            this.maxScore = max;
+        }
+
+        public Quiz getQuiz() { return quiz; }
+        public List<QuizQuestion> getQuestions() { return questions; }
+        public int getMaxScore() { return maxScore; }
+
+        /** Whether {@code answer} is right for the question; false for unknown questions. */
+        public boolean isCorrect(int questionId, Character answer) {
+            Integer i = positions.get(questionId);
+            return i != null && answer != null && answer == correct[i];
+        }
+
+        /** Points earned by a set of answers (questionId to option). */
+        public int score(Map<Integer, Character> answers) {
+            int score = 0;
+            for (int i = 0; i < correct.length; i++) {
+                Character answer = answers.get(questions.get(i).getId());
+                if (answer != null && answer == correct[i]) score += points[i];
+            }
+            return score;
+        }
+
+        /** Grades an attempt into an unsaved result. */
+        public QuizResult grade(int userId, int attemptNumber, Map<Integer, Character> answers, int timeSpentSeconds) {
+            int score = score(answers);
+            int percentage = maxScore > 0 ? (int) Math.round((double) score / maxScore * 100) : 0;
+            QuizResult result = new QuizResult(quiz.getId(), userId, score, maxScore);
+            result.setPassed(percentage >= quiz.getPassScore());
+            result.setAttemptNumber(attemptNumber);
+            result.setTakenDate(LocalDateTime.now());
+            result.setTimeSpentSeconds(timeSpentSeconds);
+            return result;
+        }
+    }
+
+    /** One learner's attempt: the shared bundle plus their attempt history. */
+    public static final class QuizSession {
+        private final QuizBundle bundle;
+        private final int userId;
+        private final int previousAttempts;
+        private final QuizResult bestResult;
+        private final long startedAt = System.currentTimeMillis();
+
+        QuizSession(QuizBundle bundle, int userId, int previousAttempts, QuizResult bestResult) {
+            this.bundle = bundle;
+            this.userId = userId;
+            this.previousAttempts = previousAttempts;
+            this.bestResult = bestResult;
+        }
+
+        public QuizBundle getBundle() { return bundle; }
+        public int getUserId() { return userId; }
+        public int getPreviousAttempts() { return previousAttempts; }
+        /** Highest-scoring earlier attempt, or null. */
+        public QuizResult getBestResult() { return bestResult; }
+
+        public boolean hasAttemptsLeft() {
+            return previousAttempts < bundle.getQuiz().getMaxAttempts();
+        }
+
+        /** Grades the answers in memory; nothing is stored. */
+        public QuizResult grade(Map<Integer, Character> answers) {
+            int timeSpent = (int) ((System.currentTimeMillis() - startedAt) / 1000);
+            return bundle.grade(userId, previousAttempts + 1, answers, timeSpent);
+        }
+    }
+
+    private final Map<Integer, QuizBundle> bundles = new ConcurrentHashMap<>();
+
+    private QuizSessionEngine() {
+        ensureTable();
+    }
+
+    public static QuizSessionEngine getInstance() {
+        if (instance == null) {
+            synchronized (QuizSessionEngine.class) {
+                if (instance == null) {
+                    instance = new QuizSessionEngine();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private void ensureTable() {
+        String sql = """
+            CREATE TABLE IF NOT EXISTS quiz_answers (
+                result_id INT NOT NULL,
+                question_id INT NOT NULL,
+                selected_option CHAR(1),
+                is_correct BOOLEAN NOT NULL DEFAULT FALSE,
+                PRIMARY KEY (result_id, question_id),
+                FOREIGN KEY (result_id) REFERENCES quiz_results(id) ON DELETE CASCADE,
+                FOREIGN KEY (question_id) REFERENCES quiz_questions(id) ON DELETE CASCADE
+            )
+            """;
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+        } catch (SQLException e) {
+            logger.error("Error creating quiz_answers table: {}", e.getMessage(), e);
+        }
+    }
+
+    // ==================== Bundles ====================
+
+    /**
+     * The cached bundle of a quiz, loaded on first use and reloaded once older than
+     * {@link #RELOAD_NANOS}; null if the quiz does not exist. On a database error the
+     * previous bundle keeps being served and the next call retries.
+     */
+    public QuizBundle getBundle(int quizId) {
+        QuizBundle cached = bundles.get(quizId);
+        if (cached != null && System.nanoTime() - cached.loadedAt < RELOAD_NANOS) return cached;
+        // Concurrent requests for the same quiz wait for a single load
+        return bundles.compute(quizId, (id, current) -> {
+            if (current != null && System.nanoTime() - current.loadedAt < RELOAD_NANOS) return current;
+            try {
+                return loadBundle(id);
+            } catch (SQLException e) {
+                logger.error("Error loading quiz bundle {}: {}", id, e.getMessage(), e);
+                return current;
+            }
+        });
+    }
+
+    public void invalidate(int quizId) {
+        bundles.remove(quizId);
+    }
+
+    public void invalidateAll() {
+        bundles.clear();
+    }
+
+    /** The quiz with its questions; null if the quiz does not exist. */
+    private QuizBundle loadBundle(int quizId) throws SQLException {
+        QuizService quizService = QuizService.getInstance();
+        try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+            Quiz quiz = null;
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT * FROM quizzes WHERE id = ?")) {
+                stmt.setInt(1, quizId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) quiz = quizService.mapQuiz(rs);
+                }
+            }
+            if (quiz == null) return null;
+            List<QuizQuestion> questions = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT * FROM quiz_questions WHERE quiz_id = ? ORDER BY order_index, id")) {
+                stmt.setInt(1, quizId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) questions.add(quizService.mapQuestion(rs));
+                }
+            }
+            logger.debug("Loaded quiz bundle {} with {} questions", quizId, questions.size());
+            return new QuizBundle(quiz, questions);
+        }
+    }
+
+    // ==================== Sessions ====================
+
+    /**
+     * Starts an attempt: the cached bundle plus the learner's attempt count and best result,
+     * read in one query. Returns null if the quiz does not exist.
+     */
+    public QuizSession startSession(int quizId, int userId) {
+        QuizBundle bundle = getBundle(quizId);
+        if (bundle == null) return null;
+        int attempts = 0;
+        QuizResult best = null;
+        String sql = "SELECT * FROM quiz_results WHERE quiz_id = ? AND user_id = ? ORDER BY score DESC";
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, quizId);
+            stmt.setInt(2, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (best == null) best = QuizService.getInstance().mapResult(rs);
+                    attempts++;
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error reading attempts for quiz {}, user {}: {}", quizId, userId, e.getMessage(), e);
+        }
+        return new QuizSession(bundle, userId, attempts, best);
+    }
+
+    /**
+     * Stores a graded result and every answer in one transaction; sets the result id.
+     * Answers to questions deleted since the session started are not stored; the score is
+     * corrected by the {@link #regradeAll} that follows the deletion.
+     * @return the new result id, or -1 if nothing was stored
+     */
+    public int submit(QuizSession session, QuizResult result, Map<Integer, Character> answers) {
+        if (result == null) throw new IllegalArgumentException("QuizResult cannot be null");
+        if (result.getUserId() <= 0) throw new IllegalArgumentException("userId must be positive");
+        String resultSql = """
+            INSERT INTO quiz_results (quiz_id, user_id, score, max_score, passed,
+                attempt_number, taken_date, time_spent_seconds)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+        // A question deleted during the attempt is skipped instead of failing the whole attempt on its FK
+        String answerSql = "INSERT INTO quiz_answers (result_id, question_id, selected_option, is_correct) "
+                + "SELECT ?, ?, ?, ? FROM DUAL WHERE EXISTS (SELECT 1 FROM quiz_questions WHERE id = ?)";
+        QuizBundle bundle = session.getBundle();
+        try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(resultSql, Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement answerStmt = conn.prepareStatement(answerSql)) {
+                stmt.setInt(1, result.getQuizId());
+                stmt.setInt(2, result.getUserId());
+                stmt.setInt(3, result.getScore());
+                stmt.setInt(4, result.getMaxScore());
+                stmt.setBoolean(5, result.isPassed());
+                stmt.setInt(6, result.getAttemptNumber());
+                stmt.setTimestamp(7, Timestamp.valueOf(result.getTakenDate()));
+                stmt.setInt(8, result.getTimeSpentSeconds());
+                stmt.executeUpdate();
+                int resultId;
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    if (!keys.next()) throw new SQLException("No id generated for quiz result");
+                    resultId = keys.getInt(1);
+                }
+
+                for (QuizQuestion q : bundle.getQuestions()) {
+                    Character answer = answers.get(q.getId());
+                    answerStmt.setInt(1, resultId);
+                    answerStmt.setInt(2, q.getId());
+                    if (answer != null) {
+                        answerStmt.setString(3, String.valueOf(answer));
+                    } else {
+                        answerStmt.setNull(3, Types.CHAR);
+                    }
+                    answerStmt.setBoolean(4, bundle.isCorrect(q.getId(), answer));
+                    answerStmt.setInt(5, q.getId());
+                    answerStmt.addBatch();
+                }
+                answerStmt.executeBatch();
+                conn.commit();
+                result.setId(resultId);
+                logger.info("Quiz result submitted: id={}, score={}/{}, passed={}",
+                        resultId, result.getScore(), result.getMaxScore(), result.isPassed());
+                return resultId;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error submitting quiz result for quiz={}, user={}: {}",
+                    result.getQuizId(), result.getUserId(), e.getMessage(), e);
+        }
+        return -1;
+    }
+
+    // ==================== Bulk grading ====================
+
+    /**
+     * Re-scores every stored attempt of a quiz against its current questions; run by
+     * {@link QuizService} after a question is edited or deleted. Attempts stored without answers (before answers were kept)
+     * are left as they are. Reads all answers in one query and writes in one transaction.
+     *
+     * @return the number of attempts whose score or pass status changed, or -1 on error
+     */
+    public int regradeAll(int quizId) {
+        invalidate(quizId);
+        QuizBundle bundle = getBundle(quizId);
+        if (bundle == null) return -1;
+
+        String readSql = "SELECT r.id, r.score, r.passed, a.question_id, a.selected_option " +
+                "FROM quiz_results r JOIN quiz_answers a ON a.result_id = r.id " +
+                "WHERE r.quiz_id = ? ORDER BY r.id";
+        Map<Integer, Map<Integer, Character>> answersByResult = new LinkedHashMap<>();
+        Map<Integer, QuizResult> storedByResult = new HashMap<>();
+        try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(readSql)) {
+                stmt.setInt(1, quizId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        int resultId = rs.getInt("id");
+                        if (!storedByResult.containsKey(resultId)) {
+                            QuizResult stored = new QuizResult();
+                            stored.setScore(rs.getInt("score"));
+                            stored.setPassed(rs.getBoolean("passed"));
+                            storedByResult.put(resultId, stored);
+                        }
+                        Map<Integer, Character> answers = answersByResult.computeIfAbsent(resultId, k -> new HashMap<>());
+                        String option = rs.getString("selected_option");
+                        if (option != null && !option.isEmpty()) answers.put(rs.getInt("question_id"), option.charAt(0));
+                    }
+                }
+            }
+            if (answersByResult.isEmpty()) return 0;
+
+            int changed = 0;
+            conn.setAutoCommit(false);
+            try (PreparedStatement update = conn.prepareStatement(
+                         "UPDATE quiz_results SET score = ?, max_score = ?, passed = ? WHERE id = ?");
+                 PreparedStatement answerUpdate = conn.prepareStatement(
+                         "UPDATE quiz_answers SET is_correct = ? WHERE result_id = ? AND question_id = ?")) {
+                for (Map.Entry<Integer, Map<Integer, Character>> e : answersByResult.entrySet()) {
+                    int resultId = e.getKey();
+                    Map<Integer, Character> answers = e.getValue();
+                    QuizResult graded = bundle.grade(0, 0, answers, 0);
+                    QuizResult stored = storedByResult.get(resultId);
+                    if (graded.getScore() != stored.getScore() || graded.isPassed() != stored.isPassed()) changed++;
+
+                    update.setInt(1, graded.getScore());
+                    update.setInt(2, graded.getMaxScore());
+                    update.setBoolean(3, graded.isPassed());
+                    update.setInt(4, resultId);
+                    update.addBatch();
+                    for (QuizQuestion q : bundle.getQuestions()) {
+                        answerUpdate.setBoolean(1, bundle.isCorrect(q.getId(), answers.get(q.getId())));
+                        answerUpdate.setInt(2, resultId);
+                        answerUpdate.setInt(3, q.getId());
+                        answerUpdate.addBatch();
+                    }
+                }
+                update.executeBatch();
+                answerUpdate.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            logger.info("Regraded quiz {}: {} attempts, {} changed", quizId, answersByResult.size(), changed);
+            return changed;
+        } catch (SQLException e) {
+            logger.error("Error regrading quiz {}: {}", quizId, e.getMessage(), e);
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.skilora.formation.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters maintained by {@link CertificateVerificationServer}. All methods are lock-free.
+ * The request rate is computed over the last {@value #WINDOW_SECONDS} seconds from a ring of
+ * per-second buckets.
+ */
+public final class VerificationMetrics {
+
+    static final int WINDOW_SECONDS = 10;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder notFound = new LongAdder();
+    private final LongAdder signedVerified = new LongAdder();
+    private final LongAdder revoked = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /** buckets[s % WINDOW] counts requests of epoch second stamps[s % WINDOW]. */
+    private final AtomicLongArray buckets = new AtomicLongArray(WINDOW_SECONDS);
+    private final AtomicLongArray stamps = new AtomicLongArray(WINDOW_SECONDS);
+
+    void onCacheHit() { cacheHits.increment(); }
+    void onCacheMiss() { cacheMisses.increment(); }
+    void onNotModified() { notModified.increment(); }
+    void onNotFound() { notFound.increment(); }
+    void onSignedVerified() { signedVerified.increment(); }
+    void onRevoked() { revoked.increment(); }
+    void onError() { errors.increment(); }
+
+    void onRequest(long nanos) {
+        requests.increment();
+        latencyNanos.add(nanos);
+        maxLatencyNanos.accumulateAndGet(nanos, Math::max);
+
+        long second = System.currentTimeMillis() / 1000;
+        int slot = (int) (second % WINDOW_SECONDS);
+        long stamp = stamps.get(slot);
+        if (stamp != second && stamps.compareAndSet(slot, stamp, second)) {
+            buckets.set(slot, 0);
+        }
+        buckets.incrementAndGet(slot);
+    }
+
+    public long getRequests() { return requests.sum(); }
+    public long getCacheHits() { return cacheHits.sum(); }
+    /** Lookups that had to query the database. */
+    public long getCacheMisses() { return cacheMisses.sum(); }
+    /** Requests answered 304 from a matching ETag. */
+    public long getNotModified() { return notModified.sum(); }
+    public long getNotFound() { return notFound.sum(); }
+    /** Signed tokens accepted without a database lookup. */
+    public long getSignedVerified() { return signedVerified.sum(); }
+    public long getRevoked() { return revoked.sum(); }
+    public long getErrors() { return errors.sum(); }
+
+    public double getAverageLatencyMicros() {
+        long n = requests.sum();
+        return n == 0 ? 0d : latencyNanos.sum() / 1000d / n;
+    }
+
+    public double getMaxLatencyMicros() {
+        return maxLatencyNanos.get() / 1000d;
+    }
+
+    /** Requests per second over the last full {@value #WINDOW_SECONDS} seconds. */
+    public double getRequestsPerSecond() {
+        long now = System.currentTimeMillis() / 1000;
+        long total = 0;
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            long stamp = stamps.get(i);
+            if (stamp < now && stamp >= now - WINDOW_SECONDS) total += buckets.get(i);
+        }
+        return (double) total / WINDOW_SECONDS;
+    }
+
+    String toJson() {
+        return String.format(java.util.Locale.ROOT,
+                "{\"requests\":%d,\"ratePerSecond\":%.1f,\"cacheHits\":%d,\"cacheMisses\":%d,"
+                        + "\"notModified\":%d,\"notFound\":%d,\"signedVerified\":%d,\"revoked\":%d,\"errors\":%d,"
+                        + "\"avgLatencyMicros\":%.1f,\"maxLatencyMicros\":%.1f}",
+                getRequests(), getRequestsPerSecond(), getCacheHits(), getCacheMisses(),
+                getNotModified(), getNotFound(), getSignedVerified(), getRevoked(), getErrors(),
+                getAverageLatencyMicros(), getMaxLatencyMicros());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("requests=%d rate=%.1f/s cacheHits=%d misses=%d notModified=%d notFound=%d errors=%d avgLatency=%.1fus max=%.1fus",
+                getRequests(), getRequestsPerSecond(), getCacheHits(), getCacheMisses(), getNotModified(),
+                getNotFound(), getErrors(), getAverageLatencyMicros(), getMaxLatencyMicros());
+    }
+}
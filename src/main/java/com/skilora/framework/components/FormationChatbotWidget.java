@@ -2,6 +2,7 @@ package com.skilora.framework.components;
 
 import com.skilora.formation.entity.Formation;
 import com.skilora.formation.service.FormationAIService;
+import com.skilora.utils.StreamingTextBuffer;
 import javafx.animation.FadeTransition;
 import javafx.animation.TranslateTransition;
 import javafx.application.Platform;
@@ -233,28 +234,39 @@ public class FormationChatbotWidget extends StackPane {
         messageInput.setDisable(true);
         sendButton.setDisable(true);
 
+        // Streamed tokens open the bot bubble on first arrival and are appended in coalesced batches
+        Label[] botBubble = new Label[1];
+        StreamingTextBuffer stream = new StreamingTextBuffer(chunk -> {
+            if (botBubble[0] == null) botBubble[0] = addMessage("", false);
+            botBubble[0].setText(botBubble[0].getText() + chunk);
+        });
+
         javafx.concurrent.Task<String> task = new javafx.concurrent.Task<>() {
             @Override
             protected String call() {
-                return aiService.answer(message, formations);
+                return aiService.answer(message, formations, stream::append);
             }
         };
         task.setOnSucceeded(e -> {
             String reply = task.getValue();
-            if (reply != null && !reply.isEmpty()) addMessage(reply, false);
+            if (reply != null && !reply.isEmpty()) {
+                if (botBubble[0] != null) botBubble[0].setText(reply);
+                else addMessage(reply, false);
+            }
             messageInput.setDisable(false);
             sendButton.setDisable(false);
             Platform.runLater(() -> chatScrollPane.setVvalue(1.0));
         });
         task.setOnFailed(e -> {
-            addMessage("Désolé, une erreur s'est produite. Réessayez.", false);
+            if (botBubble[0] != null) botBubble[0].setText("Désolé, une erreur s'est produite. Réessayez.");
+            else addMessage("Désolé, une erreur s'est produite. Réessayez.", false);
             messageInput.setDisable(false);
             sendButton.setDisable(false);
         });
         new Thread(task).start();
     }
 
-    private void addMessage(String text, boolean isUser) {
+    private Label addMessage(String text, boolean isUser) {
         HBox row = new HBox(8);
         row.setAlignment(isUser ? Pos.CENTER_RIGHT : Pos.CENTER_LEFT);
         row.setMaxWidth(Double.MAX_VALUE);
@@ -281,5 +293,6 @@ public class FormationChatbotWidget extends StackPane {
         tt.setFromY(10);
         tt.setToY(0);
         tt.play();
+        return bubble;
     }
 }
@@ -1,7 +1,11 @@
 package com.skilora.framework.components;
 
+import com.skilora.utils.LazyPagedList;
+import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 
+import java.util.Map;
+
 /**
  * TLTable - shadcn/ui Table (theme-adaptive TableView).
  */
@@ -21,4 +25,12 @@ public class TLTable<T> extends TableView<T> {
         // TableView already virtualizes rows, but this hint improves performance
         setFixedCellSize(42); // Standard row height for consistency
     }
+
+    /**
+     * Backs the table with a keyset-paginated list: pages load while scrolling and
+     * column sorts are executed by the data provider. See {@link LazyPagedList}.
+     */
+    public void setPagedItems(LazyPagedList<T> items, Map<TableColumn<T, ?>, String> sortKeys) {
+        items.attach(this, sortKeys);
+    }
 }
@@ -24,6 +24,7 @@ import org.slf4j.LoggerFactory;
 import java.awt.Desktop;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -33,7 +34,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.lowagie.text.Document;
 import com.lowagie.text.DocumentException;
@@ -772,10 +775,14 @@ public class SupportAdminController implements Initializable {
             TLButton voiceBtn = new TLButton("🎤", TLButton.ButtonVariant.OUTLINE);
             voiceBtn.setTooltip(new Tooltip("Speech-to-text"));
             AtomicBoolean isRecording = new AtomicBoolean(false);
+            // Upload starts with the recording; the transcript is ready shortly after stop
+            AtomicReference<CompletableFuture<String>> pendingTranscript = new AtomicReference<>();
             voiceBtn.setOnAction(e -> {
                 if (!isRecording.get()) {
                     try {
-                        audioRecorder.start();
+                        InputStream pcm = audioRecorder.startStreaming();
+                        pendingTranscript.set(deepgramService.transcribeStreaming(
+                                pcm, AudioRecorderService.STREAM_SAMPLE_RATE));
                         isRecording.set(true);
                         voiceBtn.setText("⏹");
                         voiceBtn.setStyle("-fx-background-color: #EF4444; -fx-text-fill: white;");
@@ -784,25 +791,27 @@ public class SupportAdminController implements Initializable {
                     }
                 } else {
                     try {
-                        byte[] audioData = audioRecorder.stop();
+                        audioRecorder.stopStreaming();
                         isRecording.set(false);
                         voiceBtn.setText("🎤");
                         voiceBtn.setStyle("");
-                        if (audioData != null && audioData.length > 0) {
+                        CompletableFuture<String> transcriptFuture = pendingTranscript.getAndSet(null);
+                        if (transcriptFuture != null) {
                             voiceBtn.setDisable(true);
-                            Task<String> sttTask = new Task<>() {
-                                @Override protected String call() { return deepgramService.transcribe(audioData); }
-                            };
-                            sttTask.setOnSucceeded(ev -> Platform.runLater(() -> {
-                                String transcript = sttTask.getValue();
+                            transcriptFuture.whenComplete((transcript, err) -> Platform.runLater(() -> {
+                                if (err != null) {
+                                    logger.error("Speech-to-text failed", err);
+                                    if (contentPane != null && contentPane.getScene() != null) {
+                                        TLToast.error(contentPane.getScene(), I18n.get("common.error"),
+                                                I18n.get("support.admin.stt_error", "Speech-to-text failed"));
+                                    }
+                                }
                                 if (transcript != null && !transcript.isBlank()) {
                                     String current = replyArea.getText() != null ? replyArea.getText() : "";
                                     replyArea.setText(current.isEmpty() ? transcript : current + " " + transcript);
                                 }
                                 voiceBtn.setDisable(false);
                             }));
-                            sttTask.setOnFailed(ev -> Platform.runLater(() -> voiceBtn.setDisable(false)));
-                            AppThreadPool.execute(sttTask);
                         }
                     } catch (Exception ex) {
                         logger.error("Failed to stop recording", ex);
@@ -7,6 +7,7 @@ import com.skilora.utils.AppThreadPool;
 import com.skilora.utils.I18n;
 import com.skilora.utils.DialogUtils;
 import com.skilora.utils.SvgIcons;
+import com.skilora.utils.StreamingTextBuffer;
 import com.skilora.framework.components.*;
 import javafx.animation.*;
 import javafx.application.Platform;
@@ -28,6 +29,7 @@ import org.slf4j.LoggerFactory;
 import java.awt.Desktop;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -37,7 +39,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class SupportController implements Initializable {
 
@@ -665,10 +669,14 @@ public class SupportController implements Initializable {
             TLButton voiceBtn = new TLButton("🎤", TLButton.ButtonVariant.OUTLINE);
             voiceBtn.setTooltip(new Tooltip("Speech-to-text"));
             AtomicBoolean isRecording = new AtomicBoolean(false);
+            // Upload starts with the recording; the transcript is ready shortly after stop
+            AtomicReference<CompletableFuture<String>> pendingTranscript = new AtomicReference<>();
             voiceBtn.setOnAction(e -> {
                 if (!isRecording.get()) {
                     try {
-                        audioRecorder.start();
+                        InputStream pcm = audioRecorder.startStreaming();
+                        pendingTranscript.set(deepgramService.transcribeStreaming(
+                                pcm, AudioRecorderService.STREAM_SAMPLE_RATE));
                         isRecording.set(true);
                         voiceBtn.setText("⏹");
                         voiceBtn.setStyle("-fx-background-color: #EF4444; -fx-text-fill: white;");
@@ -678,28 +686,21 @@ public class SupportController implements Initializable {
                     }
                 } else {
                     try {
-                        byte[] audioData = audioRecorder.stop();
+                        audioRecorder.stopStreaming();
                         isRecording.set(false);
                         voiceBtn.setText("🎤");
                         voiceBtn.setStyle("");
-                        if (audioData != null && audioData.length > 0) {
+                        CompletableFuture<String> transcriptFuture = pendingTranscript.getAndSet(null);
+                        if (transcriptFuture != null) {
                             voiceBtn.setDisable(true);
-                            Task<String> sttTask = new Task<>() {
-                                @Override protected String call() { return deepgramService.transcribe(audioData); }
-                            };
-                            sttTask.setOnSucceeded(ev -> Platform.runLater(() -> {
-                                String transcript = sttTask.getValue();
+                            transcriptFuture.whenComplete((transcript, err) -> Platform.runLater(() -> {
+                                if (err != null) logger.error("STT failed", err);
                                 if (transcript != null && !transcript.isBlank()) {
                                     String current = replyField.getText() != null ? replyField.getText() : "";
                                     replyField.setText(current.isEmpty() ? transcript : current + " " + transcript);
                                 }
                                 voiceBtn.setDisable(false);
                             }));
-                            sttTask.setOnFailed(ev -> Platform.runLater(() -> {
-                                logger.error("STT failed", sttTask.getException());
-                                voiceBtn.setDisable(false);
-                            }));
-                            AppThreadPool.execute(sttTask);
                         }
                     } catch (Exception ex) {
                         logger.error("Failed to stop recording", ex);
@@ -1115,6 +1116,8 @@ public class SupportController implements Initializable {
         messageArea.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
         messageArea.getStyleClass().addAll("bg-transparent", "msg-scroll");
         VBox.setVgrow(messageArea, Priority.ALWAYS);
+        // Keep the latest (possibly still streaming) reply in view
+        chatMessages.heightProperty().addListener((obs, oldH, newH) -> messageArea.setVvalue(1.0));
 
         // Welcome
         addBotMessage(I18n.get("chatbot.welcome"));
@@ -1183,8 +1186,8 @@ public class SupportController implements Initializable {
         chatMessages.getChildren().add(row);
     }
 
-    private void addBotMessage(String message) {
-        if (chatMessages == null) return;
+    private Label addBotMessage(String message) {
+        if (chatMessages == null) return null;
 
         HBox row = new HBox(8);
         row.setAlignment(Pos.CENTER_LEFT);
@@ -1200,6 +1203,7 @@ public class SupportController implements Initializable {
 
         row.getChildren().addAll(avatar, msg);
         chatMessages.getChildren().add(row);
+        return msg;
     }
 
     private void showTypingIndicator() {
@@ -1245,6 +1249,18 @@ public class SupportController implements Initializable {
     private void handleChatbotResponse(String userMessage) {
         showTypingIndicator();
 
+        // AI replies are streamed: the first token replaces the typing indicator with a bubble,
+        // later tokens are appended in coalesced batches on the FX thread.
+        Label[] botBubble = new Label[1];
+        StreamingTextBuffer stream = new StreamingTextBuffer(chunk -> {
+            if (botBubble[0] == null) {
+                hideTypingIndicator();
+                botBubble[0] = addBotMessage("");
+                if (botBubble[0] == null) return;
+            }
+            botBubble[0].setText(botBubble[0].getText() + chunk);
+        });
+
         Task<String> task = new Task<>() {
             @Override protected String call() {
                 if (currentConversationId > 0 && currentUser != null) {
@@ -1255,7 +1271,7 @@ public class SupportController implements Initializable {
                 // 2) If no match, use AI with app-only system prompt (Centre d'aide assistant)
                 if (response == null && geminiService.isAiAvailable()) {
                     List<String> history = buildChatHistoryForAi();
-                    response = geminiService.replyHelpCenter(userMessage, history);
+                    response = geminiService.replyHelpCenterStreaming(userMessage, history, stream::append).join();
                 }
                 if (currentConversationId > 0) {
                     String botReply = response != null ? response : I18n.get("chatbot.no_match");
@@ -1266,11 +1282,13 @@ public class SupportController implements Initializable {
         };
         task.setOnSucceeded(e -> Platform.runLater(() -> {
             hideTypingIndicator();
-            addBotMessage(task.getValue());
+            if (botBubble[0] != null) botBubble[0].setText(task.getValue());
+            else addBotMessage(task.getValue());
         }));
         task.setOnFailed(e -> Platform.runLater(() -> {
             hideTypingIndicator();
-            addBotMessage(I18n.get("chatbot.no_match"));
+            if (botBubble[0] != null) botBubble[0].setText(I18n.get("chatbot.no_match"));
+            else addBotMessage(I18n.get("chatbot.no_match"));
         }));
         AppThreadPool.execute(task);
     }
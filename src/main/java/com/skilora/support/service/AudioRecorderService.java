@@ -1,5 +1,6 @@
 package com.skilora.support.service;
 
+import com.skilora.utils.PcmRingBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -7,11 +8,16 @@ import javax.sound.sampled.*;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Service for recording audio from the system microphone.
  * Captures audio in WAV format suitable for speech-to-text transcription.
  *
+ * {@link #startStreaming()} is the constant-memory variant: captured frames are
+ * downsampled to {@link #STREAM_SAMPLE_RATE} on the fly and pushed into a bounded
+ * {@link PcmRingBuffer} that the STT upload reads while the user is still speaking.
+ *
  * Singleton — obtain via {@link #getInstance()}.
  */
 public class AudioRecorderService {
@@ -19,9 +25,23 @@ public class AudioRecorderService {
     private static final Logger logger = LoggerFactory.getLogger(AudioRecorderService.class);
     private static volatile AudioRecorderService instance;
 
+    /** Capture rate of the microphone line */
+    private static final float CAPTURE_SAMPLE_RATE = 44100f;
+
+    /** Rate of the streamed PCM — speech models work at 16 kHz (2.75x less to upload) */
+    public static final int STREAM_SAMPLE_RATE = 16000;
+
+    /** ~4 s of 16 kHz mono PCM16: enough slack for network hiccups */
+    private static final int RING_CAPACITY = 128 * 1024;
+
+    /** How long {@link #stopStreaming()} waits for the capture thread to push its last frames */
+    private static final long STOP_JOIN_MILLIS = 500;
+
     private TargetDataLine line;
     private volatile boolean isRecording = false;
     private ByteArrayOutputStream out;
+    private PcmRingBuffer ring;
+    private Thread streamThread;
 
     // ── Singleton ──
 
@@ -106,10 +126,136 @@ public class AudioRecorderService {
         }
     }
 
+    /**
+     * Starts recording and returns the live PCM stream (16-bit little-endian mono at
+     * {@link #STREAM_SAMPLE_RATE}). The stream ends when {@link #stopStreaming()} is called.
+     *
+     * @throws LineUnavailableException if the audio line is not available
+     */
+    public InputStream startStreaming() throws LineUnavailableException {
+        AudioFormat format = new AudioFormat(CAPTURE_SAMPLE_RATE, 16, 1, true, false);
+        DataLine.Info info = new DataLine.Info(TargetDataLine.class, format);
+
+        if (!AudioSystem.isLineSupported(info)) {
+            throw new LineUnavailableException("Audio line not supported");
+        }
+
+        line = (TargetDataLine) AudioSystem.getLine(info);
+        line.open(format);
+        line.start();
+
+        isRecording = true;
+        PcmRingBuffer buffer = new PcmRingBuffer(RING_CAPACITY);
+        ring = buffer;
+        TargetDataLine captureLine = line;
+
+        Thread captureThread = new Thread(() -> {
+            Downsampler downsampler = new Downsampler(CAPTURE_SAMPLE_RATE, STREAM_SAMPLE_RATE);
+            byte[] frame = new byte[4096];
+            byte[] resampled = new byte[downsampler.maxOutputBytes(frame.length)];
+            try {
+                while (isRecording) {
+                    int count = captureLine.read(frame, 0, frame.length);
+                    if (count > 0) {
+                        int n = downsampler.process(frame, count, resampled);
+                        buffer.write(resampled, 0, n);
+                    }
+                }
+            } catch (IOException e) {
+                // Upload side closed the ring (request failed or cancelled)
+                logger.warn("Audio stream consumer closed: {}", e.getMessage());
+            } finally {
+                buffer.close();
+            }
+        }, "AudioRecorderService-stream");
+        captureThread.setDaemon(true);
+        streamThread = captureThread;
+        captureThread.start();
+
+        return buffer.inputStream();
+    }
+
+    /**
+     * Stops a recording started with {@link #startStreaming()}; the PCM stream reaches
+     * end-of-stream once the frames still in the ring have been uploaded.
+     * The capture thread is stopped first and given {@value #STOP_JOIN_MILLIS} ms to write
+     * its last frame, so the ring and the line are only closed once nothing writes to them.
+     */
+    public void stopStreaming() {
+        isRecording = false;
+        if (line != null) {
+            line.stop(); // unblocks a pending read
+        }
+        Thread capture = streamThread;
+        streamThread = null;
+        if (capture != null && capture != Thread.currentThread()) {
+            try {
+                capture.join(STOP_JOIN_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (capture.isAlive()) {
+                // Still blocked on a full ring (upload stalled): closing it releases the writer
+                logger.warn("Audio capture thread still running after {} ms, closing stream", STOP_JOIN_MILLIS);
+            }
+        }
+        if (line != null) {
+            line.close();
+        }
+        if (ring != null) {
+            ring.close();
+        }
+    }
+
     /**
      * @return true if currently recording audio
      */
     public boolean isRecording() {
         return isRecording;
     }
+
+    /**
+     * Streaming PCM16 mono resampler (linear interpolation). Keeps the last input
+     * sample and the fractional read position between chunks so consecutive
+     * {@link #process} calls produce a seamless stream.
+     */
+    static final class Downsampler {
+        private final double step;
+        private double pos;
+        private short prev;
+
+        Downsampler(float inRate, float outRate) {
+            this.step = inRate / outRate;
+        }
+
+        int maxOutputBytes(int inputBytes) {
+            return ((int) Math.ceil((inputBytes / 2 + 1) / step) + 1) * 2;
+        }
+
+        /** Resamples {@code len} bytes of {@code in} into {@code out}; returns bytes written. */
+        int process(byte[] in, int len, byte[] out) {
+            int samples = len / 2;
+            int o = 0;
+            // Index -1 refers to the last sample of the previous chunk
+            while (pos + 1 < samples) {
+                int i = (int) Math.floor(pos);
+                double frac = pos - i;
+                int a = i < 0 ? prev : sample(in, i);
+                int b = sample(in, i + 1);
+                int v = (int) Math.round(a + (b - a) * frac);
+                out[o++] = (byte) v;
+                out[o++] = (byte) (v >> 8);
+                pos += step;
+            }
+            if (samples > 0) {
+                prev = (short) sample(in, samples - 1);
+                pos -= samples;
+            }
+            return o;
+        }
+
+        private static int sample(byte[] buf, int i) {
+            return (short) ((buf[2 * i] & 0xFF) | (buf[2 * i + 1] << 8));
+        }
+    }
 }
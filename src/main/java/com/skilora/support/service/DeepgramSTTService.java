@@ -6,13 +6,22 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service d'intégration avec l'API Deepgram pour la transcription vocale (Speech-to-Text).
@@ -20,6 +29,10 @@ import java.util.UUID;
  *
  * When Deepgram key is not configured, automatically falls back to OpenAI Whisper.
  *
+ * {@link #transcribeStreaming} uploads raw PCM while it is still being recorded
+ * (chunked request body fed from an {@link InputStream}), so memory stays constant
+ * for long voice notes and the server already has the audio when recording stops.
+ *
  * Singleton — obtain via {@link #getInstance()}.
  */
 public class DeepgramSTTService {
@@ -37,6 +50,18 @@ public class DeepgramSTTService {
     private static final String API_URL_TEMPLATE =
             "https://api.deepgram.com/v1/listen?model=%s&smart_format=true";
 
+    /** Resolved listen URL (model already applied) */
+    private final String listenUrl;
+
+    /** Upper bound for a streamed upload: the request stays open while the user speaks */
+    private static final Duration STREAM_TIMEOUT = Duration.ofMinutes(10);
+
+    /** Shared client — one connection pool for all transcriptions */
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(15))
+            .build();
+
     // ── OpenAI Whisper Fallback ──
     private static final String OPENAI_WHISPER_URL = "https://api.openai.com/v1/audio/transcriptions";
     private final String openaiKey;
@@ -47,6 +72,7 @@ public class DeepgramSTTService {
     private DeepgramSTTService() {
         this.apiKey = EnvConfig.get("deepgram.api.key", "PLACEHOLDER");
         this.model = EnvConfig.get("deepgram.model", "nova-2");
+        this.listenUrl = String.format(API_URL_TEMPLATE, model);
 
         boolean deepgramConfigured = !"PLACEHOLDER".equals(this.apiKey) && !this.apiKey.isBlank();
 
@@ -69,6 +95,19 @@ public class DeepgramSTTService {
         }
     }
 
+    /**
+     * Deepgram-only service bound to an explicit listen endpoint (tests, proxies).
+     *
+     * @param listenUrl full listen URL including its query string
+     */
+    public DeepgramSTTService(String apiKey, String model, String listenUrl) {
+        this.apiKey = apiKey;
+        this.model = model;
+        this.listenUrl = listenUrl;
+        this.useOpenAI = false;
+        this.openaiKey = null;
+    }
+
     public static DeepgramSTTService getInstance() {
         if (instance == null) {
             synchronized (DeepgramSTTService.class) {
@@ -95,44 +134,76 @@ public class DeepgramSTTService {
         return transcribeWithDeepgram(audioData);
     }
 
+    /**
+     * Transcribes raw 16-bit little-endian mono PCM read from {@code pcm} while it is
+     * being produced. The stream is uploaded as it is read (chunked transfer) and
+     * closed when the request completes, successfully or not.
+     *
+     * @param pcm        PCM source; end-of-stream ends the upload
+     * @param sampleRate sample rate of {@code pcm} in Hz
+     * @return future transcript, or an empty string if transcription fails
+     */
+    public CompletableFuture<String> transcribeStreaming(InputStream pcm, int sampleRate) {
+        CompletableFuture<String> result = useOpenAI
+                ? streamToWhisper(pcm, sampleRate)
+                : streamToDeepgram(pcm, sampleRate);
+        return result.whenComplete((text, err) -> closeQuietly(pcm));
+    }
+
     /** Transcribe using the Deepgram API. */
     private String transcribeWithDeepgram(byte[] audioData) {
         try {
-            HttpClient client = HttpClient.newBuilder()
-                    .version(HttpClient.Version.HTTP_1_1)
-                    .build();
-
-            String url = String.format(API_URL_TEMPLATE, model);
-
             HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
+                    .uri(URI.create(listenUrl))
                     .header("Authorization", "Token " + apiKey)
                     .header("Content-Type", "audio/wav")
                     .POST(HttpRequest.BodyPublishers.ofByteArray(audioData))
                     .build();
 
             HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() == 200) {
-                JSONObject json = new JSONObject(response.body());
-                String transcript = json.getJSONObject("results")
-                        .getJSONArray("channels")
-                        .getJSONObject(0)
-                        .getJSONArray("alternatives")
-                        .getJSONObject(0)
-                        .getString("transcript");
-
-                // Remove periods that appear after each word
-                return transcript.replaceAll("\\.\\s*", " ").trim();
-            } else {
-                logger.error("Deepgram Error: {} - {}", response.statusCode(), response.body());
-            }
+            return parseDeepgram(response);
         } catch (Exception e) {
             logger.error("Deepgram transcription failed", e);
         }
         return "";
     }
 
+    /** Raw linear16 upload: Deepgram is told the encoding, so no WAV header is needed. */
+    private CompletableFuture<String> streamToDeepgram(InputStream pcm, int sampleRate) {
+        String url = listenUrl + "&encoding=linear16&channels=1&sample_rate=" + sampleRate;
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(STREAM_TIMEOUT)
+                .header("Authorization", "Token " + apiKey)
+                .header("Content-Type", "application/octet-stream")
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> pcm))
+                .build();
+
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(this::parseDeepgram)
+                .exceptionally(e -> {
+                    logger.error("Deepgram streaming transcription failed", e);
+                    return "";
+                });
+    }
+
+    private String parseDeepgram(HttpResponse<String> response) {
+        if (response.statusCode() == 200) {
+            JSONObject json = new JSONObject(response.body());
+            String transcript = json.getJSONObject("results")
+                    .getJSONArray("channels")
+                    .getJSONObject(0)
+                    .getJSONArray("alternatives")
+                    .getJSONObject(0)
+                    .getString("transcript");
+
+            // Remove periods that appear after each word
+            return transcript.replaceAll("\\.\\s*", " ").trim();
+        }
+        logger.error("Deepgram Error: {} - {}", response.statusCode(), response.body());
+        return "";
+    }
+
     /**
      * Transcribe using OpenAI Whisper API as fallback.
      * Uses multipart/form-data to upload the audio file.
@@ -151,10 +222,6 @@ public class DeepgramSTTService {
             System.arraycopy(audioData, 0, body, prefix.length, audioData.length);
             System.arraycopy(suffix, 0, body, prefix.length + audioData.length, suffix.length);
 
-            HttpClient client = HttpClient.newBuilder()
-                    .connectTimeout(Duration.ofSeconds(15))
-                    .build();
-
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create(OPENAI_WHISPER_URL))
                     .timeout(Duration.ofSeconds(60))
@@ -164,21 +231,75 @@ public class DeepgramSTTService {
                     .build();
 
             HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
-
-            if (response.statusCode() == 200) {
-                JSONObject json = new JSONObject(response.body());
-                String text = json.getString("text");
-                logger.info("Whisper transcription successful ({} chars)", text.length());
-                return text.trim();
-            } else {
-                logger.error("OpenAI Whisper Error: {} - {}", response.statusCode(), response.body());
-            }
+            return parseWhisper(response);
         } catch (Exception e) {
             logger.error("OpenAI Whisper transcription failed", e);
         }
         return "";
     }
 
+    /**
+     * Whisper only takes files, so the PCM is wrapped on the fly in a multipart body
+     * holding a WAV with "unknown length" sizes (0xFFFFFFFF), as streaming encoders do.
+     */
+    private CompletableFuture<String> streamToWhisper(InputStream pcm, int sampleRate) {
+        String boundary = "----AudioBoundary" + UUID.randomUUID().toString().replace("-", "");
+        byte[] prefix = buildMultipartPrefix(boundary);
+        byte[] suffix = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(OPENAI_WHISPER_URL))
+                .timeout(STREAM_TIMEOUT)
+                .header("Authorization", "Bearer " + openaiKey)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new SequenceInputStream(
+                        Collections.enumeration(List.of(
+                                new ByteArrayInputStream(prefix),
+                                new ByteArrayInputStream(streamingWavHeader(sampleRate)),
+                                pcm,
+                                new ByteArrayInputStream(suffix))))))
+                .build();
+
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                .thenApply(this::parseWhisper)
+                .exceptionally(e -> {
+                    logger.error("OpenAI Whisper streaming transcription failed", e);
+                    return "";
+                });
+    }
+
+    private String parseWhisper(HttpResponse<String> response) {
+        if (response.statusCode() == 200) {
+            JSONObject json = new JSONObject(response.body());
+            String text = json.getString("text");
+            logger.info("Whisper transcription successful ({} chars)", text.length());
+            return text.trim();
+        }
+        logger.error("OpenAI Whisper Error: {} - {}", response.statusCode(), response.body());
+        return "";
+    }
+
+    /** 44-byte PCM16 mono WAV header whose RIFF/data sizes are left open-ended. */
+    private static byte[] streamingWavHeader(int sampleRate) {
+        ByteBuffer b = ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN);
+        b.put("RIFF".getBytes(StandardCharsets.US_ASCII)).putInt(0xFFFFFFFF)
+         .put("WAVE".getBytes(StandardCharsets.US_ASCII))
+         .put("fmt ".getBytes(StandardCharsets.US_ASCII)).putInt(16)
+         .putShort((short) 1).putShort((short) 1)       // PCM, mono
+         .putInt(sampleRate).putInt(sampleRate * 2)     // byte rate
+         .putShort((short) 2).putShort((short) 16)      // block align, bits per sample
+         .put("data".getBytes(StandardCharsets.US_ASCII)).putInt(0xFFFFFFFF);
+        return b.array();
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException ignored) {
+            // nothing left to release
+        }
+    }
+
     /** Build the multipart/form-data prefix with model field and file header. */
     private byte[] buildMultipartPrefix(String boundary) {
         StringBuilder sb = new StringBuilder();
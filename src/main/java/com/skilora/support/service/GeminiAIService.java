@@ -5,15 +5,19 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.skilora.ai.AIGateway;
+import com.skilora.ai.AIProvider;
+import com.skilora.ai.AIRequest;
+import com.skilora.ai.AIResponse;
 import com.skilora.config.EnvConfig;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Service d'intégration avec l'API Gemini de Google.
@@ -24,6 +28,8 @@ import java.util.List;
  * - Correction grammaticale et orthographique
  *
  * When Gemini key is not configured, automatically falls back to OpenAI.
+ * All HTTP traffic goes through the shared {@link AIGateway} (rate limiting,
+ * retries, caching, circuit breaking).
  *
  * Singleton — obtain via {@link #getInstance()}.
  */
@@ -42,16 +48,28 @@ public class GeminiAIService {
     private static final String API_URL_TEMPLATE =
             "https://generativelanguage.googleapis.com/v1beta/models/%s:generateContent?key=%s";
 
+    /** Server-sent-events variant used for token streaming */
+    private static final String STREAM_URL_TEMPLATE =
+            "https://generativelanguage.googleapis.com/v1beta/models/%s:streamGenerateContent?alt=sse&key=%s";
+
     // ── OpenAI Fallback ──
     private static final String OPENAI_URL = "https://api.openai.com/v1/chat/completions";
     private static final String OPENAI_MODEL = "gpt-4.1-mini";
     private final String openaiKey;
     private final boolean useOpenAI;
 
-    /** Shared HTTP client */
-    private final HttpClient client = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(15))
-            .build();
+    /** Identical one-shot prompts (category, sentiment, correction) are answered from cache for this long. */
+    private static final Duration PROMPT_CACHE_TTL = Duration.ofMinutes(30);
+
+    /**
+     * Longest a streamed reply may take in total. The request timeout only covers the
+     * response headers, so a stream that stalls afterwards would otherwise never complete.
+     */
+    static final Duration STREAM_DEADLINE = Duration.ofSeconds(90);
+
+    private final AIGateway gateway = AIGateway.getInstance();
+    /** Resolved tickets, consulted before any remote call when triaging. */
+    private final TicketSimilarityIndex similarityIndex = TicketSimilarityIndex.getInstance();
 
     /**
      * System prompt for the Help Center (Centre d'aide) Assistant.
@@ -146,43 +164,37 @@ public class GeminiAIService {
         return callGeminiHelpCenter(userMessage, conversationHistory);
     }
 
+    /**
+     * Streaming variant of {@link #replyHelpCenter}: partial text is pushed to {@code onToken}
+     * (from a network thread) as soon as the model produces it.
+     *
+     * @return future completing with the full reply, or null if AI is not configured or the request fails;
+     *         completes within {@link #STREAM_DEADLINE}
+     */
+    public CompletableFuture<String> replyHelpCenterStreaming(String userMessage, List<String> conversationHistory,
+                                                              Consumer<String> onToken) {
+        if (!isAiAvailable() || userMessage == null || userMessage.isBlank()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (useOpenAI) {
+            JSONObject body = openAIHelpCenterBody(userMessage, conversationHistory);
+            return streamOpenAI(body, onToken);
+        }
+        return streamGemini(geminiHelpCenterBody(userMessage, conversationHistory), onToken);
+    }
+
     /** Call Gemini with system instruction and optional conversation context. */
     private String callGeminiHelpCenter(String userMessage, List<String> conversationHistory) {
         try {
-            JSONObject requestBody = new JSONObject();
-            requestBody.put("systemInstruction", new JSONObject()
-                    .put("parts", new JSONArray().put(new JSONObject().put("text", HELP_CENTER_SYSTEM_PROMPT))));
-
-            StringBuilder userContent = new StringBuilder();
-            if (conversationHistory != null && !conversationHistory.isEmpty()) {
-                int start = Math.max(0, conversationHistory.size() - 10);
-                for (int i = start; i < conversationHistory.size(); i++) {
-                    userContent.append(conversationHistory.get(i)).append("\n");
-                }
-            }
-            userContent.append("User: ").append(userMessage.trim());
-
-            JSONArray contents = new JSONArray();
-            contents.put(new JSONObject()
-                    .put("role", "user")
-                    .put("parts", new JSONArray().put(new JSONObject().put("text", userContent.toString()))));
-            requestBody.put("contents", contents);
-
-            requestBody.put("generationConfig", new JSONObject()
-                    .put("maxOutputTokens", 512)
-                    .put("temperature", 0.4));
+            JSONObject requestBody = geminiHelpCenterBody(userMessage, conversationHistory);
 
             String url = String.format(API_URL_TEMPLATE, model, apiKey);
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(requestBody.toString()))
-                    .build();
-
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            AIResponse response = gateway.send(AIRequest.builder(AIProvider.GEMINI, url)
+                    .body(requestBody.toString())
+                    .build());
 
-            if (response.statusCode() == 200) {
-                JSONObject jsonResponse = new JSONObject(response.body());
+            if (response.getStatusCode() == 200) {
+                JSONObject jsonResponse = new JSONObject(response.getBody());
                 return jsonResponse.getJSONArray("candidates")
                         .getJSONObject(0)
                         .getJSONObject("content")
@@ -190,7 +202,7 @@ public class GeminiAIService {
                         .getJSONObject(0)
                         .getString("text").trim();
             } else {
-                logger.warn("Gemini Help Center API error: {}", response.statusCode());
+                logger.warn("Gemini Help Center API error: {}", response.getStatusCode());
                 return null;
             }
         } catch (Exception e) {
@@ -202,45 +214,21 @@ public class GeminiAIService {
     /** Call OpenAI with system prompt for Help Center (app-only). */
     private String callOpenAIHelpCenter(String userMessage, List<String> conversationHistory) {
         try {
-            JSONObject body = new JSONObject();
-            body.put("model", OPENAI_MODEL);
-            body.put("max_tokens", 512);
-            body.put("temperature", 0.4);
-
-            JSONArray messages = new JSONArray();
-            messages.put(new JSONObject().put("role", "system").put("content", HELP_CENTER_SYSTEM_PROMPT));
-            if (conversationHistory != null && !conversationHistory.isEmpty()) {
-                int start = Math.max(0, conversationHistory.size() - 10);
-                for (int i = start; i < conversationHistory.size(); i++) {
-                    String line = conversationHistory.get(i);
-                    if (line.startsWith("User:")) {
-                        messages.put(new JSONObject().put("role", "user").put("content", line.substring(5).trim()));
-                    } else if (line.startsWith("AI:") || line.startsWith("Assistant:")) {
-                        messages.put(new JSONObject().put("role", "assistant").put("content", line.replaceFirst("^(AI|Assistant):", "").trim()));
-                    }
-                }
-            }
-            messages.put(new JSONObject().put("role", "user").put("content", userMessage));
-            body.put("messages", messages);
+            JSONObject body = openAIHelpCenterBody(userMessage, conversationHistory);
 
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(OPENAI_URL))
-                    .timeout(Duration.ofSeconds(30))
-                    .header("Authorization", "Bearer " + openaiKey)
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.UTF_8))
-                    .build();
+            AIResponse response = gateway.send(AIRequest.builder(AIProvider.OPENAI, OPENAI_URL)
+                    .bearer(openaiKey)
+                    .body(body.toString())
+                    .build());
 
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
-
-            if (response.statusCode() == 200) {
-                JSONObject jsonResponse = new JSONObject(response.body());
+            if (response.getStatusCode() == 200) {
+                JSONObject jsonResponse = new JSONObject(response.getBody());
                 return jsonResponse.getJSONArray("choices")
                         .getJSONObject(0)
                         .getJSONObject("message")
                         .getString("content").trim();
             } else {
-                logger.warn("OpenAI Help Center API error: {}", response.statusCode());
+                logger.warn("OpenAI Help Center API error: {}", response.getStatusCode());
                 return null;
             }
         } catch (Exception e) {
@@ -249,6 +237,56 @@ public class GeminiAIService {
         }
     }
 
+    private JSONObject geminiHelpCenterBody(String userMessage, List<String> conversationHistory) {
+        JSONObject requestBody = new JSONObject();
+        requestBody.put("systemInstruction", new JSONObject()
+                .put("parts", new JSONArray().put(new JSONObject().put("text", HELP_CENTER_SYSTEM_PROMPT))));
+
+        StringBuilder userContent = new StringBuilder();
+        if (conversationHistory != null && !conversationHistory.isEmpty()) {
+            int start = Math.max(0, conversationHistory.size() - 10);
+            for (int i = start; i < conversationHistory.size(); i++) {
+                userContent.append(conversationHistory.get(i)).append("\n");
+            }
+        }
+        userContent.append("User: ").append(userMessage.trim());
+
+        JSONArray contents = new JSONArray();
+        contents.put(new JSONObject()
+                .put("role", "user")
+                .put("parts", new JSONArray().put(new JSONObject().put("text", userContent.toString()))));
+        requestBody.put("contents", contents);
+
+        requestBody.put("generationConfig", new JSONObject()
+                .put("maxOutputTokens", 512)
+                .put("temperature", 0.4));
+        return requestBody;
+    }
+
+    private JSONObject openAIHelpCenterBody(String userMessage, List<String> conversationHistory) {
+        JSONObject body = new JSONObject();
+        body.put("model", OPENAI_MODEL);
+        body.put("max_tokens", 512);
+        body.put("temperature", 0.4);
+
+        JSONArray messages = new JSONArray();
+        messages.put(new JSONObject().put("role", "system").put("content", HELP_CENTER_SYSTEM_PROMPT));
+        if (conversationHistory != null && !conversationHistory.isEmpty()) {
+            int start = Math.max(0, conversationHistory.size() - 10);
+            for (int i = start; i < conversationHistory.size(); i++) {
+                String line = conversationHistory.get(i);
+                if (line.startsWith("User:")) {
+                    messages.put(new JSONObject().put("role", "user").put("content", line.substring(5).trim()));
+                } else if (line.startsWith("AI:") || line.startsWith("Assistant:")) {
+                    messages.put(new JSONObject().put("role", "assistant").put("content", line.replaceFirst("^(AI|Assistant):", "").trim()));
+                }
+            }
+        }
+        messages.put(new JSONObject().put("role", "user").put("content", userMessage));
+        body.put("messages", messages);
+        return body;
+    }
+
     public String askGemini(String prompt) {
         if (useOpenAI) {
             return callOpenAI(prompt);
@@ -256,32 +294,37 @@ public class GeminiAIService {
         return callGemini(prompt);
     }
 
+    /**
+     * Streaming variant of {@link #askGemini}: partial text is pushed to {@code onToken}
+     * as it is generated.
+     *
+     * @return future completing with the full text, or null if the request fails;
+     *         completes within {@link #STREAM_DEADLINE}
+     */
+    public CompletableFuture<String> askGeminiStreaming(String prompt, Consumer<String> onToken) {
+        if (!isAiAvailable()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (useOpenAI) {
+            return streamOpenAI(openAIPromptBody(prompt), onToken);
+        }
+        return streamGemini(geminiPromptBody(prompt), onToken);
+    }
+
     /** Call the Gemini API directly. */
     private String callGemini(String prompt) {
         try {
-            JSONObject requestBody = new JSONObject();
-            JSONArray contents = new JSONArray();
-            JSONObject part = new JSONObject();
-            part.put("text", prompt);
-            JSONArray parts = new JSONArray();
-            parts.put(part);
-            JSONObject content = new JSONObject();
-            content.put("parts", parts);
-            contents.put(content);
-            requestBody.put("contents", contents);
+            JSONObject requestBody = geminiPromptBody(prompt);
 
             String url = String.format(API_URL_TEMPLATE, model, apiKey);
 
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(requestBody.toString()))
-                    .build();
-
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            AIResponse response = gateway.send(AIRequest.builder(AIProvider.GEMINI, url)
+                    .body(requestBody.toString())
+                    .cacheFor(PROMPT_CACHE_TTL)
+                    .build());
 
-            if (response.statusCode() == 200) {
-                JSONObject jsonResponse = new JSONObject(response.body());
+            if (response.getStatusCode() == 200) {
+                JSONObject jsonResponse = new JSONObject(response.getBody());
                 return jsonResponse.getJSONArray("candidates")
                         .getJSONObject(0)
                         .getJSONObject("content")
@@ -289,8 +332,8 @@ public class GeminiAIService {
                         .getJSONObject(0)
                         .getString("text").trim();
             } else {
-                logger.error("Gemini API Error: {}", response.body());
-                return "Error: " + response.statusCode();
+                logger.error("Gemini API Error: {}", response.getBody());
+                return "Error: " + response.getStatusCode();
             }
         } catch (Exception e) {
             logger.error("Gemini API call failed", e);
@@ -301,41 +344,23 @@ public class GeminiAIService {
     /** Call OpenAI chat completions as a fallback for Gemini. */
     private String callOpenAI(String prompt) {
         try {
-            JSONObject body = new JSONObject();
-            body.put("model", OPENAI_MODEL);
-            body.put("max_tokens", 500);
-            body.put("temperature", 0.4);
-
-            JSONArray messages = new JSONArray();
-            JSONObject systemMsg = new JSONObject();
-            systemMsg.put("role", "system");
-            systemMsg.put("content", "You are a helpful AI assistant for a support system. Be concise and professional.");
-            messages.put(systemMsg);
-            JSONObject userMsg = new JSONObject();
-            userMsg.put("role", "user");
-            userMsg.put("content", prompt);
-            messages.put(userMsg);
-            body.put("messages", messages);
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(OPENAI_URL))
-                    .timeout(Duration.ofSeconds(30))
-                    .header("Authorization", "Bearer " + openaiKey)
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.UTF_8))
-                    .build();
-
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
-
-            if (response.statusCode() == 200) {
-                JSONObject jsonResponse = new JSONObject(response.body());
+            JSONObject body = openAIPromptBody(prompt);
+
+            AIResponse response = gateway.send(AIRequest.builder(AIProvider.OPENAI, OPENAI_URL)
+                    .bearer(openaiKey)
+                    .body(body.toString())
+                    .cacheFor(PROMPT_CACHE_TTL)
+                    .build());
+
+            if (response.getStatusCode() == 200) {
+                JSONObject jsonResponse = new JSONObject(response.getBody());
                 return jsonResponse.getJSONArray("choices")
                         .getJSONObject(0)
                         .getJSONObject("message")
                         .getString("content").trim();
             } else {
-                logger.error("OpenAI fallback API Error {}: {}", response.statusCode(), response.body());
-                return "Error: " + response.statusCode();
+                logger.error("OpenAI fallback API Error {}: {}", response.getStatusCode(), response.getBody());
+                return "Error: " + response.getStatusCode();
             }
         } catch (Exception e) {
             logger.error("OpenAI fallback call failed", e);
@@ -343,6 +368,145 @@ public class GeminiAIService {
         }
     }
 
+    private JSONObject geminiPromptBody(String prompt) {
+        JSONObject requestBody = new JSONObject();
+        JSONArray contents = new JSONArray();
+        JSONObject part = new JSONObject();
+        part.put("text", prompt);
+        JSONArray parts = new JSONArray();
+        parts.put(part);
+        JSONObject content = new JSONObject();
+        content.put("parts", parts);
+        contents.put(content);
+        requestBody.put("contents", contents);
+        return requestBody;
+    }
+
+    private JSONObject openAIPromptBody(String prompt) {
+        JSONObject body = new JSONObject();
+        body.put("model", OPENAI_MODEL);
+        body.put("max_tokens", 500);
+        body.put("temperature", 0.4);
+
+        JSONArray messages = new JSONArray();
+        JSONObject systemMsg = new JSONObject();
+        systemMsg.put("role", "system");
+        systemMsg.put("content", "You are a helpful AI assistant for a support system. Be concise and professional.");
+        messages.put(systemMsg);
+        JSONObject userMsg = new JSONObject();
+        userMsg.put("role", "user");
+        userMsg.put("content", prompt);
+        messages.put(userMsg);
+        body.put("messages", messages);
+        return body;
+    }
+
+    // ── Streaming (server-sent events) ──
+
+    /** Gemini {@code streamGenerateContent?alt=sse}: each {@code data:} event carries a candidate text delta. */
+    private CompletableFuture<String> streamGemini(JSONObject requestBody, Consumer<String> onToken) {
+        String url = String.format(STREAM_URL_TEMPLATE, model, apiKey);
+        return stream("Gemini", AIRequest.builder(AIProvider.GEMINI, url)
+                        .body(requestBody.toString())
+                        .timeout(Duration.ofSeconds(60))
+                        .build(),
+                GeminiAIService::extractGeminiDelta, onToken);
+    }
+
+    /** OpenAI {@code stream: true}: each {@code data:} event carries {@code choices[0].delta.content}. */
+    private CompletableFuture<String> streamOpenAI(JSONObject body, Consumer<String> onToken) {
+        body.put("stream", true);
+        body.put("stream_options", new JSONObject().put("include_usage", true));
+        return stream("OpenAI", AIRequest.builder(AIProvider.OPENAI, OPENAI_URL)
+                        .bearer(openaiKey)
+                        .body(body.toString())
+                        .timeout(Duration.ofSeconds(60))
+                        .build(),
+                GeminiAIService::extractOpenAIDelta, onToken);
+    }
+
+    /**
+     * Streams a request, pushing each text delta to {@code onToken}. Past {@link #STREAM_DEADLINE}
+     * the reply completes with the text received so far and later deltas are dropped.
+     */
+    private CompletableFuture<String> stream(String provider, AIRequest request,
+                                             Function<String, String> extractDelta, Consumer<String> onToken) {
+        StringBuilder full = new StringBuilder();
+        AtomicBoolean finished = new AtomicBoolean();
+        return gateway.stream(request, line -> {
+                    if (!finished.get()) emit(extractDelta.apply(line), full, onToken);
+                })
+                .orTimeout(STREAM_DEADLINE.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((response, err) -> {
+                    finished.set(true);
+                    return finishStream(provider, response, err, full);
+                });
+    }
+
+    private static void emit(String delta, StringBuilder full, Consumer<String> onToken) {
+        if (delta == null || delta.isEmpty()) return;
+        synchronized (full) {
+            full.append(delta);
+        }
+        if (onToken != null) onToken.accept(delta);
+    }
+
+    private String finishStream(String provider, AIResponse response, Throwable err, StringBuilder full) {
+        if (err != null) {
+            logger.warn("{} streaming call failed: {}", provider, err.getMessage());
+        } else if (!response.isSuccess()) {
+            logger.warn("{} streaming API error {}: {}", provider, response.getStatusCode(), response.getBody());
+        }
+        String text;
+        synchronized (full) {
+            text = full.toString().trim();
+        }
+        // Keep whatever was already shown if the stream broke midway
+        return text.isEmpty() ? null : text;
+    }
+
+    /** Returns the JSON payload of an SSE {@code data:} line, or null for comments, keep-alives and [DONE]. */
+    static String ssePayload(String line) {
+        if (line == null || !line.startsWith("data:")) return null;
+        String data = line.substring(5).trim();
+        return data.isEmpty() || "[DONE]".equals(data) ? null : data;
+    }
+
+    static String extractGeminiDelta(String line) {
+        String data = ssePayload(line);
+        if (data == null) return null;
+        try {
+            JSONArray candidates = new JSONObject(data).optJSONArray("candidates");
+            if (candidates == null || candidates.length() == 0) return null;
+            JSONObject content = candidates.getJSONObject(0).optJSONObject("content");
+            JSONArray parts = content != null ? content.optJSONArray("parts") : null;
+            if (parts == null) return null;
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < parts.length(); i++) {
+                JSONObject part = parts.optJSONObject(i);
+                if (part != null) sb.append(part.optString("text", ""));
+            }
+            return sb.toString();
+        } catch (Exception e) {
+            logger.debug("Ignoring malformed Gemini SSE event: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    static String extractOpenAIDelta(String line) {
+        String data = ssePayload(line);
+        if (data == null) return null;
+        try {
+            JSONArray choices = new JSONObject(data).optJSONArray("choices");
+            if (choices == null || choices.length() == 0) return null;
+            JSONObject delta = choices.getJSONObject(0).optJSONObject("delta");
+            return delta != null ? delta.optString("content", "") : null;
+        } catch (Exception e) {
+            logger.debug("Ignoring malformed OpenAI SSE event: {}", e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Analyse le sentiment d'un texte de feedback utilisateur.
      *
@@ -357,12 +521,19 @@ public class GeminiAIService {
 
     /**
      * Prédit la catégorie la plus appropriée pour un ticket de support.
+     * Répond d'abord via {@link TicketSimilarityIndex} ; le LLM n'est appelé
+     * que si les tickets résolus similaires ne sont pas assez concordants.
      *
      * @param subject     Le sujet du ticket
      * @param description La description détaillée du problème
      * @return La catégorie prédite en majuscules : "TECHNICAL", "BILLING" ou "GENERAL"
      */
     public String predictCategory(String subject, String description) {
+        TicketSimilarityIndex.Prediction local = similarityIndex.predictCategory(subject, description);
+        if (local != null && local.isConfident()) {
+            logger.debug("Category predicted locally: {} (confidence {})", local.getCategory(), local.getConfidence());
+            return local.getCategory();
+        }
         String prompt = "Based on the subject and description of this support ticket, "
                 + "categorize it into ONLY one of these categories: 'TECHNICAL', 'BILLING', or 'GENERAL'. "
                 + "Answer with ONLY the category name.\n\nSubject: " + subject
@@ -393,6 +564,14 @@ public class GeminiAIService {
      * @return Suggested reply text, or error message if the request fails
      */
     public String suggestReplyWithContext(String subject, String description, String category, String conversation) {
+        // Without a thread, the reply of a near-identical resolved ticket is good enough
+        if (conversation == null || conversation.isBlank()) {
+            String local = similarityIndex.suggestReply(subject, description);
+            if (local != null) {
+                logger.debug("Reply suggested from a similar resolved ticket");
+                return local;
+            }
+        }
         StringBuilder prompt = new StringBuilder();
         prompt.append("You are a professional support agent. Suggest a single, polite and helpful reply for this ticket. ");
         prompt.append("Keep it concise (2–4 sentences). ");
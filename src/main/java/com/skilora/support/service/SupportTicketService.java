@@ -316,7 +316,11 @@ public class SupportTicketService {
             }
             stmt.setInt(3, id);
             
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            if (updated && ("RESOLVED".equals(status) || "CLOSED".equals(status))) {
+                TicketSimilarityIndex.getInstance().markStale();
+            }
+            return updated;
         } catch (SQLException e) {
             logger.error("Failed to update ticket status", e);
         }
@@ -0,0 +1,425 @@
+package com.skilora.support.service;
+
+import com.skilora.config.DatabaseConfig;
+import com.skilora.utils.AppThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Index local des tickets résolus, utilisé pour trier les nouveaux tickets sans appel LLM.
+ *
+ * Chaque ticket (sujet + description) est projeté en TF-IDF haché sur {@link #DIMENSIONS}
+ * composantes, normalisé L2 et rangé dans une matrice {@code float[]} contiguë, par
+ * colonne (composante-major). Une requête ne touche que les colonnes de ses quelques
+ * termes non nuls : chaque colonne est une boucle {@code scores[i] += w * col[i]} sans
+ * dépendance, que le JIT vectorise (SIMD), puis un top-K partiel. Moins d'une
+ * milliseconde pour plusieurs milliers de tickets.
+ *
+ * {@link GeminiAIService} consulte cet index avant le modèle distant et ne l'appelle
+ * que lorsque la confiance locale est insuffisante.
+ */
+public class TicketSimilarityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketSimilarityIndex.class);
+    private static volatile TicketSimilarityIndex instance;
+
+    static final int DIMENSIONS = 2048;
+    private static final int TOP_K = 5;
+
+    /** Similarité minimale pour qu'un voisin compte dans le vote. */
+    private static final float MIN_SIMILARITY = 0.20f;
+    /** Seuils de confiance pour répondre localement. */
+    private static final float CATEGORY_MIN_TOP_SCORE = 0.30f;
+    private static final float CATEGORY_MIN_SHARE = 0.60f;
+    private static final float REPLY_MIN_SCORE = 0.60f;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "les", "des", "une", "est", "pour", "dans", "que", "qui", "pas", "sur", "avec", "mon", "mes",
+            "son", "ses", "par", "plus", "mais", "ete", "suis", "avez", "vous", "nous", "votre", "cette",
+            "the", "and", "for", "with", "that", "this", "have", "has", "not", "are", "was", "you", "your",
+            "can", "but", "from", "bonjour", "hello", "merci", "thanks");
+
+    private static final long REFRESH_INTERVAL_MS = 10 * 60 * 1000L;
+
+    private static final String LOAD_SQL = """
+        SELECT t.id, t.category, t.subject, t.description,
+               (SELECT m.message FROM ticket_messages m
+                 WHERE m.ticket_id = t.id AND m.sender_id <> t.user_id AND m.is_internal = FALSE
+                 ORDER BY m.created_date DESC, m.id DESC LIMIT 1) AS reply
+        FROM support_tickets t
+        WHERE t.status IN ('RESOLVED', 'CLOSED') AND t.category IS NOT NULL
+        """;
+
+    /** Voisin retourné par {@link #search}. */
+    public static final class Match {
+        private final int ticketId;
+        private final String category;
+        private final String reply;
+        private final float score;
+
+        Match(int ticketId, String category, String reply, float score) {
+            this.ticketId = ticketId;
+            this.category = category;
+            this.reply = reply;
+            this.score = score;
+        }
+
+        public int getTicketId() { return ticketId; }
+        public String getCategory() { return category; }
+        public String getReply() { return reply; }
+        public float getScore() { return score; }
+    }
+
+    /** Catégorie prédite avec sa confiance (part pondérée des votes, 0..1). */
+    public static final class Prediction {
+        private final String category;
+        private final float confidence;
+        private final float topScore;
+
+        Prediction(String category, float confidence, float topScore) {
+            this.category = category;
+            this.confidence = confidence;
+            this.topScore = topScore;
+        }
+
+        public String getCategory() { return category; }
+        public float getConfidence() { return confidence; }
+        public float getTopScore() { return topScore; }
+
+        /** True si la prédiction est assez sûre pour se passer du LLM. */
+        public boolean isConfident() {
+            return topScore >= CATEGORY_MIN_TOP_SCORE && confidence >= CATEGORY_MIN_SHARE;
+        }
+    }
+
+    /** Ticket brut (TF non pondéré) ; la matrice est recalculée à partir de ces lignes. */
+    private static final class Entry {
+        final int ticketId;
+        final String category;
+        final String reply;
+        final int[] buckets;
+        final float[] tf;
+
+        Entry(int ticketId, String category, String reply, int[] buckets, float[] tf) {
+            this.ticketId = ticketId;
+            this.category = category;
+            this.reply = reply;
+            this.buckets = buckets;
+            this.tf = tf;
+        }
+    }
+
+    /** Instantané immuable interrogé sans verrou. */
+    private static final class Snapshot {
+        final Entry[] entries;
+        final float[] matrix;
+        final float[] idf;
+
+        Snapshot(Entry[] entries, float[] matrix, float[] idf) {
+            this.entries = entries;
+            this.matrix = matrix;
+            this.idf = idf;
+        }
+    }
+
+    private static final Snapshot EMPTY = new Snapshot(new Entry[0], new float[0], new float[DIMENSIONS]);
+
+    private final boolean backedByDatabase;
+    private final List<Entry> entries = new ArrayList<>();
+    private volatile Snapshot snapshot = EMPTY;
+    private volatile boolean dirty;
+    private volatile long loadedAt;
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    private TicketSimilarityIndex(boolean backedByDatabase) {
+        this.backedByDatabase = backedByDatabase;
+    }
+
+    /** Index en mémoire, non relié à la base (alimenté via {@link #add}). */
+    public TicketSimilarityIndex() {
+        this(false);
+    }
+
+    public static TicketSimilarityIndex getInstance() {
+        if (instance == null) {
+            synchronized (TicketSimilarityIndex.class) {
+                if (instance == null) {
+                    instance = new TicketSimilarityIndex(true);
+                }
+            }
+        }
+        return instance;
+    }
+
+    // ── Alimentation ──
+
+    /** Ajoute (ou remplace) un ticket résolu. */
+    public synchronized void add(int ticketId, String subject, String description, String category, String reply) {
+        if (category == null || category.isBlank()) return;
+        entries.removeIf(e -> e.ticketId == ticketId);
+        Map<Integer, Float> counts = termCounts(subject, description);
+        if (counts.isEmpty()) return;
+        int[] buckets = new int[counts.size()];
+        float[] tf = new float[counts.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Float> c : counts.entrySet()) {
+            buckets[i] = c.getKey();
+            tf[i] = c.getValue();
+            i++;
+        }
+        entries.add(new Entry(ticketId, category.trim().toUpperCase(Locale.ROOT),
+                reply != null && !reply.isBlank() ? reply.trim() : null, buckets, tf));
+        dirty = true;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        snapshot = EMPTY;
+        dirty = false;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** Force un rechargement depuis la base à la prochaine requête (ex. ticket résolu). */
+    public void markStale() {
+        loadedAt = 0;
+    }
+
+    // ── Requêtes ──
+
+    /** Les {@code k} tickets résolus les plus proches, par cosinus décroissant. */
+    public List<Match> search(String subject, String description, int k) {
+        Snapshot s = currentSnapshot();
+        int n = s.entries.length;
+        if (n == 0 || k <= 0) return List.of();
+
+        float[] query = vectorize(termCounts(subject, description), s.idf);
+        if (query == null) return List.of();
+
+        // scores = M · q, colonne par colonne (seules les composantes non nulles de q)
+        float[] m = s.matrix;
+        float[] scores = new float[n];
+        for (int d = 0; d < DIMENSIONS; d++) {
+            float w = query[d];
+            if (w == 0f) continue;
+            int col = d * n;
+            for (int row = 0; row < n; row++) {
+                scores[row] += w * m[col + row];
+            }
+        }
+
+        k = Math.min(k, n);
+        int[] topIdx = new int[k];
+        float[] topScore = new float[k];
+        Arrays.fill(topScore, Float.NEGATIVE_INFINITY);
+        for (int row = 0; row < n; row++) {
+            float dot = scores[row];
+            if (dot > topScore[k - 1]) {
+                int pos = k - 1;
+                while (pos > 0 && topScore[pos - 1] < dot) {
+                    topScore[pos] = topScore[pos - 1];
+                    topIdx[pos] = topIdx[pos - 1];
+                    pos--;
+                }
+                topScore[pos] = dot;
+                topIdx[pos] = row;
+            }
+        }
+
+        List<Match> result = new ArrayList<>(k);
+        for (int i = 0; i < k; i++) {
+            if (topScore[i] <= 0f) break;
+            Entry e = s.entries[topIdx[i]];
+            result.add(new Match(e.ticketId, e.category, e.reply, topScore[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Vote pondéré par la similarité parmi les plus proches voisins.
+     *
+     * @return la prédiction, ou null si aucun voisin n'est assez proche
+     */
+    public Prediction predictCategory(String subject, String description) {
+        List<Match> neighbours = search(subject, description, TOP_K);
+        Map<String, Float> votes = new HashMap<>();
+        float total = 0f;
+        for (Match m : neighbours) {
+            if (m.score < MIN_SIMILARITY) break;
+            votes.merge(m.category, m.score, Float::sum);
+            total += m.score;
+        }
+        if (votes.isEmpty()) return null;
+        Map.Entry<String, Float> best = null;
+        for (Map.Entry<String, Float> v : votes.entrySet()) {
+            if (best == null || v.getValue() > best.getValue()) best = v;
+        }
+        return new Prediction(best.getKey(), best.getValue() / total, neighbours.get(0).score);
+    }
+
+    /**
+     * Réponse d'un ticket résolu quasi identique, ou null si aucun n'est assez proche.
+     */
+    public String suggestReply(String subject, String description) {
+        for (Match m : search(subject, description, TOP_K)) {
+            if (m.score < REPLY_MIN_SCORE) break;
+            if (m.reply != null) return m.reply;
+        }
+        return null;
+    }
+
+    // ── Chargement / recalcul ──
+
+    private Snapshot currentSnapshot() {
+        if (backedByDatabase) {
+            if (loadedAt == 0 && snapshot == EMPTY) {
+                reload();
+            } else if (System.currentTimeMillis() - loadedAt > REFRESH_INTERVAL_MS
+                    && reloading.compareAndSet(false, true)) {
+                // L'ancien instantané reste servi pendant le rechargement
+                AppThreadPool.execute(() -> {
+                    try {
+                        reload();
+                    } finally {
+                        reloading.set(false);
+                    }
+                });
+            }
+        }
+        if (dirty) {
+            rebuild();
+        }
+        return snapshot;
+    }
+
+    /** Recharge tous les tickets résolus depuis la base. */
+    public void reload() {
+        long start = System.currentTimeMillis();
+        List<Object[]> rows = new ArrayList<>();
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(LOAD_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                rows.add(new Object[]{rs.getInt("id"), rs.getString("subject"), rs.getString("description"),
+                        rs.getString("category"), rs.getString("reply")});
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to load resolved tickets for similarity index", e);
+            loadedAt = System.currentTimeMillis();
+            return;
+        }
+        synchronized (this) {
+            entries.clear();
+            dirty = true;
+            for (Object[] r : rows) {
+                add((Integer) r[0], (String) r[1], (String) r[2], (String) r[3], (String) r[4]);
+            }
+            rebuild();
+        }
+        loadedAt = System.currentTimeMillis();
+        logger.info("Ticket similarity index loaded: {} tickets in {} ms", rows.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    /** Recalcule l'IDF et la matrice normalisée à partir des lignes brutes. */
+    private synchronized void rebuild() {
+        if (!dirty) return;
+        int n = entries.size();
+        int[] df = new int[DIMENSIONS];
+        for (Entry e : entries) {
+            for (int b : e.buckets) df[b]++;
+        }
+        float[] idf = new float[DIMENSIONS];
+        for (int d = 0; d < DIMENSIONS; d++) {
+            idf[d] = (float) Math.log((1.0 + n) / (1.0 + df[d])) + 1f;
+        }
+        float[] matrix = new float[n * DIMENSIONS];
+        Entry[] arr = entries.toArray(new Entry[0]);
+        for (int row = 0; row < n; row++) {
+            Entry e = arr[row];
+            double norm = 0;
+            for (int i = 0; i < e.buckets.length; i++) {
+                float w = e.tf[i] * idf[e.buckets[i]];
+                norm += (double) w * w;
+            }
+            float inv = norm > 0 ? (float) (1.0 / Math.sqrt(norm)) : 0f;
+            for (int i = 0; i < e.buckets.length; i++) {
+                matrix[e.buckets[i] * n + row] = e.tf[i] * idf[e.buckets[i]] * inv;
+            }
+        }
+        snapshot = new Snapshot(arr, matrix, idf);
+        dirty = false;
+    }
+
+    // ── Vectorisation ──
+
+    private static float[] vectorize(Map<Integer, Float> counts, float[] idf) {
+        if (counts.isEmpty()) return null;
+        float[] v = new float[DIMENSIONS];
+        double norm = 0;
+        for (Map.Entry<Integer, Float> c : counts.entrySet()) {
+            float w = c.getValue() * idf[c.getKey()];
+            v[c.getKey()] = w;
+            norm += (double) w * w;
+        }
+        if (norm == 0) return null;
+        float inv = (float) (1.0 / Math.sqrt(norm));
+        for (int d = 0; d < DIMENSIONS; d++) v[d] *= inv;
+        return v;
+    }
+
+    /** Bucket haché -> 1 + log(tf), sur les unigrammes et bigrammes du texte. */
+    static Map<Integer, Float> termCounts(String subject, String description) {
+        Map<Integer, Integer> raw = new HashMap<>();
+        // Le sujet est court et dense : ses termes comptent double
+        countTerms(tokenize(subject), 2, raw);
+        countTerms(tokenize(description), 1, raw);
+
+        Map<Integer, Float> counts = new HashMap<>(raw.size() * 2);
+        for (Map.Entry<Integer, Integer> r : raw.entrySet()) {
+            counts.put(r.getKey(), 1f + (float) Math.log(r.getValue()));
+        }
+        return counts;
+    }
+
+    private static void countTerms(List<String> tokens, int weight, Map<Integer, Integer> raw) {
+        String prev = null;
+        for (String t : tokens) {
+            raw.merge(bucket(t), weight, Integer::sum);
+            if (prev != null) raw.merge(bucket(prev + ' ' + t), weight, Integer::sum);
+            prev = t;
+        }
+    }
+
+    private static int bucket(String term) {
+        return Math.floorMod(term.hashCode() * 0x9E3779B1, DIMENSIONS);
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null || text.isBlank()) return out;
+        String normalized = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "");
+        // Les nombres (montants, identifiants) ne portent pas le sujet du ticket
+        for (String t : normalized.split("[^\\p{L}]+")) {
+            if (t.length() >= 3 && !STOP_WORDS.contains(t)) out.add(t);
+        }
+        return out;
+    }
+}
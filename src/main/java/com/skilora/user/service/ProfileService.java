@@ -1,6 +1,7 @@
 package com.skilora.user.service;
 
 import com.skilora.config.DatabaseConfig;
+import com.skilora.formation.service.MentorMatchingEngine;
 import com.skilora.user.entity.Experience;
 import com.skilora.user.entity.Profile;
 import com.skilora.user.entity.Skill;
@@ -78,6 +79,7 @@ public class ProfileService {
                 if (generatedKeys.next()) {
                     int generatedId = generatedKeys.getInt(1);
                     profile.setId(generatedId);
+                    MentorMatchingEngine.getInstance().onProfileChanged(generatedId);
                     return generatedId;
                 } else {
                     throw new SQLException("Creating profile failed, no ID obtained.");
@@ -176,7 +178,9 @@ public class ProfileService {
         try (Connection connection = DatabaseConfig.getInstance().getConnection();
              PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, profileId);
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            if (deleted) MentorMatchingEngine.getInstance().onProfileChanged(profileId);
+            return deleted;
         }
     }
 
@@ -272,7 +276,9 @@ public class ProfileService {
         try (Connection connection = DatabaseConfig.getInstance().getConnection();
              PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, profileId);
-            return stmt.executeUpdate();
+            int deleted = stmt.executeUpdate();
+            if (deleted > 0) MentorMatchingEngine.getInstance().onProfileChanged(profileId);
+            return deleted;
         }
     }
 
@@ -296,6 +302,7 @@ public class ProfileService {
 
             int updated = stmt.executeUpdate();
             if (updated > 0) {
+                MentorMatchingEngine.getInstance().onProfileChanged(skill.getProfileId());
                 try (ResultSet keys = stmt.getGeneratedKeys()) {
                     if (keys.next()) {
                         int id = keys.getInt(1);
@@ -325,8 +332,11 @@ public class ProfileService {
         String sql = "DELETE FROM skills WHERE id = ?";
         try (Connection connection = DatabaseConfig.getInstance().getConnection();
              PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int profileId = findOwningProfileId(connection, "skills", skillId);
             stmt.setInt(1, skillId);
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            if (deleted) MentorMatchingEngine.getInstance().onProfileChanged(profileId);
+            return deleted;
         }
     }
 
@@ -362,7 +372,9 @@ public class ProfileService {
         try (Connection connection = DatabaseConfig.getInstance().getConnection();
              PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, profileId);
-            return stmt.executeUpdate();
+            int deleted = stmt.executeUpdate();
+            if (deleted > 0) MentorMatchingEngine.getInstance().onProfileChanged(profileId);
+            return deleted;
         }
     }
 
@@ -384,6 +396,7 @@ public class ProfileService {
 
             int affected = stmt.executeUpdate();
             if (affected > 0) {
+                MentorMatchingEngine.getInstance().onProfileChanged(exp.getProfileId());
                 try (ResultSet keys = stmt.getGeneratedKeys()) {
                     if (keys.next()) {
                         int id = keys.getInt(1);
@@ -413,7 +426,9 @@ public class ProfileService {
             stmt.setString(5, exp.getDescription());
             stmt.setBoolean(6, exp.isCurrentJob());
             stmt.setInt(7, exp.getId());
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            if (updated) MentorMatchingEngine.getInstance().onProfileChanged(exp.getProfileId());
+            return updated;
         }
     }
 
@@ -421,8 +436,23 @@ public class ProfileService {
         String sql = "DELETE FROM experiences WHERE id = ?";
         try (Connection connection = DatabaseConfig.getInstance().getConnection();
              PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int profileId = findOwningProfileId(connection, "experiences", experienceId);
             stmt.setInt(1, experienceId);
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            if (deleted) MentorMatchingEngine.getInstance().onProfileChanged(profileId);
+            return deleted;
+        }
+    }
+
+    /**
+     * Profile owning a row of {@code skills} or {@code experiences}, or 0 if there is none.
+     */
+    private int findOwningProfileId(Connection connection, String table, int id) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT profile_id FROM " + table + " WHERE id = ?")) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt("profile_id") : 0;
+            }
         }
     }
 
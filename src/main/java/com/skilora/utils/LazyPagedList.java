@@ -0,0 +1,194 @@
+package com.skilora.utils;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.collections.ModifiableObservableListBase;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ObservableList backed by a keyset-paginated query, for tables too large to load at once.
+ *
+ * Holds only the pages fetched so far. The table's virtual flow asks for the rows it is
+ * about to draw; once it reads within {@link #PREFETCH_ROWS} of the end, the next page is
+ * fetched on {@link AppThreadPool} and appended on the FX thread — so pages load as the
+ * user scrolls. Sorting a column or changing the filter restarts from the first page with
+ * a server-side ORDER BY / WHERE ({@link #attach}); the rows are never sorted in memory.
+ *
+ * Single-row edits ({@code set/add/remove}) are allowed for delta refreshes and keep
+ * {@link #totalProperty()} in step.
+ *
+ * <pre>{@code
+ *   LazyPagedList<PayslipRow> rows = new LazyPagedList<>(service::getPayslipPage);
+ *   rows.attach(payslipTable, Map.of(payslip_periodCol, "period", payslip_userCol, "employee"));
+ * }</pre>
+ */
+public final class LazyPagedList<T> extends ModifiableObservableListBase<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(LazyPagedList.class);
+
+    /** Rows from the end at which the next page is requested. */
+    public static final int PREFETCH_ROWS = 50;
+
+    /** Loads one page; called on a background thread. */
+    @FunctionalInterface
+    public interface PageLoader<T> {
+        PageQuery.Page<T> load(PageQuery query) throws Exception;
+    }
+
+    private final PageLoader<T> loader;
+    private final List<T> rows = new ArrayList<>();
+    private final ReadOnlyIntegerWrapper total = new ReadOnlyIntegerWrapper(0);
+
+    private PageQuery first = PageQuery.first(null);
+    private PageQuery next;
+    private boolean loading;
+    private boolean appending;
+    /** Bumped on every reload so pages of a superseded query are dropped. */
+    private int generation;
+
+    public LazyPagedList(PageLoader<T> loader) {
+        this.loader = loader;
+    }
+
+    // ==================== Loading ====================
+
+    /** Restarts from the first page of {@code query}. FX thread only. */
+    public void reload(PageQuery query) {
+        first = query;
+        generation++;
+        loading = false;
+        next = query;
+        setAll(List.of());
+        total.set(0);
+        requestNextPage();
+    }
+
+    /** Restarts the current query, e.g. after a bulk change. FX thread only. */
+    public void reload() {
+        reload(first);
+    }
+
+    /** Same sort, new employee-name filter. */
+    public void setFilter(String filter) {
+        reload(PageQuery.first(first.getSortKey(), first.isAscending(), filter)
+                .withPageSize(first.getPageSize()));
+    }
+
+    public PageQuery getQuery() {
+        return first;
+    }
+
+    public boolean isFullyLoaded() {
+        return next == null && !loading;
+    }
+
+    /** Rows matching the current query in the database, not just the loaded ones. */
+    public ReadOnlyIntegerProperty totalProperty() {
+        return total.getReadOnlyProperty();
+    }
+
+    public int getTotal() {
+        return total.get();
+    }
+
+    private void requestNextPage() {
+        if (loading || next == null) return;
+        loading = true;
+        PageQuery query = next;
+        int gen = generation;
+        AppThreadPool.execute(() -> {
+            try {
+                PageQuery.Page<T> page = loader.load(query);
+                Platform.runLater(() -> applyPage(gen, page));
+            } catch (Exception e) {
+                logger.error("Failed to load page", e);
+                Platform.runLater(() -> {
+                    if (gen == generation) loading = false;
+                });
+            }
+        });
+    }
+
+    private void applyPage(int gen, PageQuery.Page<T> page) {
+        if (gen != generation) return;
+        loading = false;
+        next = page.getNext();
+        if (page.getTotal() >= 0) total.set(page.getTotal());
+        appending = true;
+        try {
+            addAll(page.getRows());
+        } finally {
+            appending = false;
+        }
+    }
+
+    // ==================== TableView binding ====================
+
+    /**
+     * Uses this list as the table's items and replaces the in-memory sort with a reload
+     * sorted on the server. Columns missing from {@code sortKeys} are made unsortable.
+     */
+    public void attach(TableView<T> table, Map<TableColumn<T, ?>, String> sortKeys) {
+        for (TableColumn<T, ?> column : table.getColumns()) {
+            column.setSortable(sortKeys.containsKey(column));
+        }
+        table.setSortPolicy(t -> {
+            String key = null;
+            boolean ascending = true;
+            if (!t.getSortOrder().isEmpty()) {
+                TableColumn<T, ?> column = t.getSortOrder().get(0);
+                key = sortKeys.get(column);
+                ascending = column.getSortType() == TableColumn.SortType.ASCENDING;
+            }
+            if (key == null) {
+                if (first.getSortKey() != null) {
+                    reload(PageQuery.first(first.getFilter()).withPageSize(first.getPageSize()));
+                }
+            } else if (!key.equals(first.getSortKey()) || ascending != first.isAscending()) {
+                reload(PageQuery.first(key, ascending, first.getFilter()).withPageSize(first.getPageSize()));
+            }
+            return true;
+        });
+        table.setItems(this);
+        if (rows.isEmpty() && next == null) reload(first);
+    }
+
+    // ==================== List ====================
+
+    @Override
+    public T get(int index) {
+        if (index >= rows.size() - PREFETCH_ROWS) requestNextPage();
+        return rows.get(index);
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+
+    @Override
+    protected void doAdd(int index, T element) {
+        rows.add(index, element);
+        if (!appending) total.set(total.get() + 1);
+    }
+
+    @Override
+    protected T doSet(int index, T element) {
+        return rows.set(index, element);
+    }
+
+    @Override
+    protected T doRemove(int index) {
+        T removed = rows.remove(index);
+        total.set(Math.max(0, total.get() - 1));
+        return removed;
+    }
+}
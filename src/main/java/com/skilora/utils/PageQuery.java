@@ -0,0 +1,101 @@
+package com.skilora.utils;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * PageQuery
+ *
+ * One request against a keyset-paginated table: sort key, direction, name filter, page size
+ * and the cursor (sort values + id of the last row already delivered).
+ * Immutable. The first page is built with {@link #first}; each {@link Page} carries the
+ * query for the page that follows it, so callers never deal with cursors directly.
+ *
+ * Sort keys are whitelisted per table by the data provider (e.g. FinanceDataService); an
+ * unknown or null key falls back to the table's default order. Displayed through
+ * {@link LazyPagedList}.
+ */
+public final class PageQuery {
+
+    public static final int DEFAULT_PAGE_SIZE = 200;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final String sortKey;
+    private final boolean ascending;
+    private final String filter;
+    private final int pageSize;
+    /** Sort values then id of the last delivered row; null on the first page. */
+    private final Object[] after;
+
+    private PageQuery(String sortKey, boolean ascending, String filter, int pageSize, Object[] after) {
+        this.sortKey = sortKey;
+        this.ascending = ascending;
+        this.filter = filter == null || filter.isBlank() ? null : filter.trim();
+        this.pageSize = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        this.after = after;
+    }
+
+    /** First page in the table's default order. */
+    public static PageQuery first(String filter) {
+        return new PageQuery(null, false, filter, DEFAULT_PAGE_SIZE, null);
+    }
+
+    /** First page sorted on {@code sortKey}. */
+    public static PageQuery first(String sortKey, boolean ascending, String filter) {
+        return new PageQuery(sortKey, ascending, filter, DEFAULT_PAGE_SIZE, null);
+    }
+
+    public PageQuery withPageSize(int pageSize) {
+        return new PageQuery(sortKey, ascending, filter, pageSize, after);
+    }
+
+    /** Same sort and filter, continuing after the given cursor. For data providers. */
+    public PageQuery after(Object[] cursor) {
+        return new PageQuery(sortKey, ascending, filter, pageSize, cursor);
+    }
+
+    public String getSortKey() { return sortKey; }
+    public boolean isAscending() { return ascending; }
+    public String getFilter() { return filter; }
+    public int getPageSize() { return pageSize; }
+
+    public boolean isFirstPage() {
+        return after == null;
+    }
+
+    /** Cursor of the previous page; null on the first page. For data providers. */
+    public Object[] getAfter() {
+        return after;
+    }
+
+    /**
+     * Page
+     *
+     * Rows of one page plus the query for the next one ({@code null} on the last page).
+     * The total row count matching the filter is only computed for the first page.
+     */
+    public static final class Page<T> {
+
+        private final List<T> rows;
+        private final PageQuery next;
+        private final int total;
+
+        public Page(List<T> rows, PageQuery next, int total) {
+            this.rows = Collections.unmodifiableList(rows);
+            this.next = next;
+            this.total = total;
+        }
+
+        public List<T> getRows() { return rows; }
+
+        /** Query for the following page, or null if this is the last one. */
+        public PageQuery getNext() { return next; }
+
+        public boolean hasMore() {
+            return next != null;
+        }
+
+        /** Rows matching the filter, or -1 when not counted (pages after the first). */
+        public int getTotal() { return total; }
+    }
+}
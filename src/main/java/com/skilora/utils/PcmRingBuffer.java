@@ -0,0 +1,133 @@
+package com.skilora.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+/**
+ * Bounded single-producer / single-consumer byte ring used to hand audio frames
+ * from a capture thread to an upload without ever holding the whole recording.
+ *
+ * The producer {@link #write}s PCM as it is captured and blocks when the ring is
+ * full (back-pressure from a slow upload); the consumer reads through
+ * {@link #inputStream()}, which returns end-of-stream once {@link #close()} has
+ * been called and the remaining bytes are drained.
+ *
+ * <pre>{@code
+ *   PcmRingBuffer ring = new PcmRingBuffer(64 * 1024);
+ *   HttpRequest.BodyPublishers.ofInputStream(ring::inputStream);
+ *   // capture thread: ring.write(frame, 0, n); ... ring.close();
+ * }</pre>
+ */
+public final class PcmRingBuffer {
+
+    private final byte[] ring;
+    private int readPos;
+    private int size;
+    private boolean closed;
+
+    public PcmRingBuffer(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+        this.ring = new byte[capacity];
+    }
+
+    public int capacity() {
+        return ring.length;
+    }
+
+    /** Bytes currently buffered (written but not yet read). */
+    public synchronized int available() {
+        return size;
+    }
+
+    /**
+     * Appends bytes, blocking while the ring is full.
+     *
+     * @throws IOException if the buffer was closed before everything was written
+     */
+    public void write(byte[] src, int off, int len) throws IOException {
+        while (len > 0) {
+            synchronized (this) {
+                while (size == ring.length && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while writing audio");
+                    }
+                }
+                if (closed) throw new IOException("Ring buffer closed");
+
+                int writePos = (readPos + size) % ring.length;
+                int n = Math.min(len, Math.min(ring.length - size, ring.length - writePos));
+                System.arraycopy(src, off, ring, writePos, n);
+                size += n;
+                off += n;
+                len -= n;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Reads up to {@code len} bytes, blocking until some are available.
+     *
+     * @return bytes read, or -1 once closed and drained
+     */
+    public synchronized int read(byte[] dst, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        while (size == 0 && !closed) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while reading audio");
+            }
+        }
+        if (size == 0) return -1;
+
+        int n = Math.min(len, Math.min(size, ring.length - readPos));
+        System.arraycopy(ring, readPos, dst, off, n);
+        readPos = (readPos + n) % ring.length;
+        size -= n;
+        notifyAll();
+        return n;
+    }
+
+    /** Marks the end of the stream; pending bytes can still be read. */
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /** Consumer view of the ring. Closing the stream closes the ring. */
+    public InputStream inputStream() {
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                byte[] one = new byte[1];
+                int n = PcmRingBuffer.this.read(one, 0, 1);
+                return n < 0 ? -1 : one[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return PcmRingBuffer.this.read(b, off, len);
+            }
+
+            @Override
+            public int available() {
+                return PcmRingBuffer.this.available();
+            }
+
+            @Override
+            public void close() {
+                PcmRingBuffer.this.close();
+            }
+        };
+    }
+}
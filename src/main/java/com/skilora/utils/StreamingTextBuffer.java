@@ -0,0 +1,62 @@
+package com.skilora.utils;
+
+import javafx.application.Platform;
+import javafx.scene.control.Labeled;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Collects text fragments produced on background threads (e.g. streamed AI tokens)
+ * and hands them to the FX thread in batches.
+ *
+ * At most one {@link Platform#runLater} is pending at a time: tokens that arrive
+ * while an update is queued are merged into it, so a fast stream costs one UI
+ * update per pulse instead of one per token.
+ *
+ * <pre>{@code
+ *   StreamingTextBuffer buf = StreamingTextBuffer.appendingTo(label);
+ *   service.askGeminiStreaming(prompt, buf::append);
+ * }</pre>
+ */
+public final class StreamingTextBuffer {
+
+    private final StringBuilder pending = new StringBuilder();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Consumer<String> sink;
+
+    /**
+     * @param sink receives each coalesced chunk on the FX thread
+     */
+    public StreamingTextBuffer(Consumer<String> sink) {
+        this.sink = sink;
+    }
+
+    /** Buffer that appends every chunk to the label's current text. */
+    public static StreamingTextBuffer appendingTo(Labeled label) {
+        return new StreamingTextBuffer(chunk -> label.setText(label.getText() + chunk));
+    }
+
+    /** Adds a fragment; safe to call from any thread. */
+    public void append(String fragment) {
+        if (fragment == null || fragment.isEmpty()) return;
+        synchronized (pending) {
+            pending.append(fragment);
+        }
+        if (scheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::drain);
+        }
+    }
+
+    private void drain() {
+        scheduled.set(false);
+        String chunk;
+        synchronized (pending) {
+            chunk = pending.toString();
+            pending.setLength(0);
+        }
+        if (!chunk.isEmpty()) {
+            sink.accept(chunk);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.skilora;
+
+import com.skilora.ai.AIGateway;
+import com.skilora.ai.AIMetrics;
+import com.skilora.ai.AIProvider;
+import com.skilora.ai.AIRequest;
+import com.skilora.ai.AIResponse;
+import com.skilora.community.service.AISummaryService;
+import com.skilora.community.service.AISummaryService.ChatLine;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ╔══════════════════════════════════════════════════════════════╗
+ *   SKILORA - AI Gateway Test Suite
+ *   Runs the gateway against a local JDK HttpServer stub:
+ *   caching, coalescing, retries, circuit breaking, metrics
+ * ╚══════════════════════════════════════════════════════════════╝
+ */
+@TestMethodOrder(OrderAnnotation.class)
+@DisplayName("AI Gateway Tests")
+class AIGatewayTests {
+
+    private static final String OK_BODY =
+            "{\"choices\":[{\"message\":{\"content\":\"ok\"}}],\"usage\":{\"total_tokens\":42}}";
+
+    private HttpServer server;
+    private String baseUrl;
+    private AIGateway gateway;
+
+    /** Per-path hit counters and scripted behaviour. */
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger failuresBeforeSuccess = new AtomicInteger();
+    private volatile int failureStatus = 503;
+    private volatile long delayMs;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        hits.set(0);
+        failuresBeforeSuccess.set(0);
+        failureStatus = 503;
+        delayMs = 0;
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        server.createContext("/v1/chat", this::handle);
+        server.createContext("/v1/stream", this::handleStream);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat";
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        gateway = new AIGateway(client, 2, Duration.ofMillis(10), 3, Duration.ofSeconds(30), 100);
+        gateway.setLimits(AIProvider.OPENAI, 6000, 8);
+    }
+
+    @AfterEach
+    void stopServer() {
+        gateway.shutdown();
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        hits.incrementAndGet();
+        ex.getRequestBody().readAllBytes();
+        if (delayMs > 0) {
+            try { Thread.sleep(delayMs); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        }
+        int status = 200;
+        String body = OK_BODY;
+        if (failuresBeforeSuccess.getAndDecrement() > 0) {
+            status = failureStatus;
+            body = "{\"error\":\"busy\"}";
+            if (status == 429) ex.getResponseHeaders().add("Retry-After", "0");
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    /** Server-sent events: three deltas flushed one by one, then [DONE]. */
+    private void handleStream(HttpExchange ex) throws IOException {
+        hits.incrementAndGet();
+        ex.getRequestBody().readAllBytes();
+        ex.getResponseHeaders().add("Content-Type", "text/event-stream");
+        ex.sendResponseHeaders(200, 0);
+        try (OutputStream os = ex.getResponseBody()) {
+            for (String token : new String[]{"Bon", "jour", " !"}) {
+                os.write(("data: {\"choices\":[{\"delta\":{\"content\":\"" + token + "\"}}]}\n\n")
+                        .getBytes(StandardCharsets.UTF_8));
+                os.flush();
+            }
+            os.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private AIRequest request(String prompt, Duration ttl) {
+        return AIRequest.builder(AIProvider.OPENAI, baseUrl)
+                .bearer("sk-test")
+                .body("{\"prompt\":\"" + prompt + "\"}")
+                .timeout(Duration.ofSeconds(5))
+                .cacheFor(ttl)
+                .build();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Successful call returns body and records tokens")
+    void successfulCall() throws Exception {
+        AIResponse r = gateway.send(request("hello", Duration.ZERO));
+        assertTrue(r.isSuccess());
+        assertEquals(OK_BODY, r.getBody());
+        assertEquals(42, r.getTotalTokens());
+        AIMetrics m = gateway.metrics(AIProvider.OPENAI);
+        assertEquals(1, m.getHttpCalls());
+        assertEquals(42, m.getTotalTokens());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Cached prompt is served without a second HTTP call")
+    void cacheHit() throws Exception {
+        gateway.send(request("cache-me", Duration.ofMinutes(1)));
+        AIResponse second = gateway.send(request("cache-me", Duration.ofMinutes(1)));
+        assertTrue(second.isFromCache());
+        assertEquals(1, hits.get());
+        assertEquals(1, gateway.metrics(AIProvider.OPENAI).getCacheHits());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Identical in-flight prompts are coalesced into one call")
+    void coalescing() throws Exception {
+        delayMs = 200;
+        CompletableFuture<AIResponse> a = gateway.submit(request("same", Duration.ZERO));
+        CompletableFuture<AIResponse> b = gateway.submit(request("same", Duration.ZERO));
+        assertEquals(a.get().getBody(), b.get().getBody());
+        assertEquals(1, hits.get());
+        assertEquals(1, gateway.metrics(AIProvider.OPENAI).getCoalesced());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("5xx responses are retried with backoff")
+    void retriesServerErrors() throws Exception {
+        failuresBeforeSuccess.set(2);
+        AIResponse r = gateway.send(request("retry", Duration.ZERO));
+        assertTrue(r.isSuccess());
+        assertEquals(3, hits.get());
+        assertEquals(2, gateway.metrics(AIProvider.OPENAI).getRetries());
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("429 honours Retry-After and eventually succeeds")
+    void retriesRateLimit() throws Exception {
+        failureStatus = 429;
+        failuresBeforeSuccess.set(1);
+        AIResponse r = gateway.send(request("limited", Duration.ZERO));
+        assertTrue(r.isSuccess());
+        assertEquals(2, hits.get());
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("Circuit opens after consecutive failures and rejects further calls")
+    void circuitBreaker() throws Exception {
+        failuresBeforeSuccess.set(100);
+        AIResponse r = gateway.send(request("down", Duration.ZERO));
+        assertEquals(503, r.getStatusCode());
+        assertEquals(3, hits.get());
+
+        assertThrows(IOException.class, () -> gateway.send(request("down-again", Duration.ZERO)));
+        assertEquals(3, hits.get(), "Open circuit must not reach the server");
+        assertEquals(1, gateway.metrics(AIProvider.OPENAI).getRejected());
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("Rate limiter spaces calls beyond the burst")
+    void rateLimiter() throws Exception {
+        // 60 rpm → burst of 10, then one call per second
+        gateway.setLimits(AIProvider.OPENAI, 60, 8);
+        long start = System.nanoTime();
+        for (int i = 0; i < 11; i++) {
+            gateway.send(request("rl-" + i, Duration.ZERO));
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMs >= 800, "11th call should wait for a refill, took " + elapsedMs + " ms");
+        assertEquals(11, hits.get());
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("Streaming call delivers SSE lines as they arrive")
+    void streaming() throws Exception {
+        java.util.List<String> lines = java.util.Collections.synchronizedList(new java.util.ArrayList<>());
+        AIRequest req = AIRequest.builder(AIProvider.OPENAI, baseUrl.replace("/v1/chat", "/v1/stream"))
+                .body("{\"stream\":true}")
+                .build();
+        AIResponse r = gateway.stream(req, lines::add).get();
+        assertTrue(r.isSuccess());
+        assertEquals(4, lines.size(), "3 data events + [DONE], blank separators skipped");
+        assertTrue(lines.get(0).startsWith("data: "));
+        assertEquals("data: [DONE]", lines.get(3));
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("A rate-limited half-open probe does not leave the circuit stuck")
+    void rateLimitedProbeReleasesCircuit() throws Exception {
+        gateway.shutdown();
+        gateway = new AIGateway(HttpClient.newHttpClient(), 2, Duration.ofMillis(10), 3, Duration.ofMillis(100), 100);
+        gateway.setLimits(AIProvider.OPENAI, 6000, 8);
+
+        failuresBeforeSuccess.set(3);
+        assertEquals(503, gateway.send(request("open-it", Duration.ZERO)).getStatusCode());
+        assertThrows(IOException.class, () -> gateway.send(request("while-open", Duration.ZERO)));
+
+        Thread.sleep(150);
+        failureStatus = 429;
+        failuresBeforeSuccess.set(1);
+        AIResponse probe = gateway.send(request("probe", Duration.ZERO));
+        assertTrue(probe.isSuccess(), "Retry after a 429 probe must be let through");
+        assertTrue(gateway.send(request("after-probe", Duration.ZERO)).isSuccess());
+    }
+
+    @Test
+    @Order(10)
+    @DisplayName("Incremental summary serves the stored summary while the provider fails")
+    void incrementalSummaryKeepsStoredOnFailure() {
+        AISummaryService summaries = new AISummaryService(gateway, baseUrl);
+        int conversationId = 999_997;
+        summaries.invalidate(AISummaryService.SCOPE_PRIVATE, conversationId);
+        List<ChatLine> messages = new ArrayList<>(List.of(new ChatLine(1, "Alice: bonjour")));
+        List<Integer> cursors = new ArrayList<>();
+        IntFunction<List<ChatLine>> loadAfter = afterId -> {
+            cursors.add(afterId);
+            return messages.stream().filter(l -> l.getId() > afterId).collect(Collectors.toList());
+        };
+        try {
+            assertEquals("ok", summaries.summarizeIncremental(AISummaryService.SCOPE_PRIVATE, conversationId, loadAfter));
+
+            messages.add(new ChatLine(2, "Bob: salut"));
+            failureStatus = 400;
+            failuresBeforeSuccess.set(1);
+            String whileDown = summaries.summarizeIncremental(AISummaryService.SCOPE_PRIVATE, conversationId, loadAfter);
+            assertEquals("ok", whileDown, "Stored summary must be served, not the local fallback");
+
+            summaries.summarizeIncremental(AISummaryService.SCOPE_PRIVATE, conversationId, loadAfter);
+            summaries.summarizeIncremental(AISummaryService.SCOPE_PRIVATE, conversationId, loadAfter);
+            assertEquals(List.of(0, 1, 1, 2), cursors, "Cursor only advances once the new message is summarized");
+        } finally {
+            summaries.invalidate(AISummaryService.SCOPE_PRIVATE, conversationId);
+        }
+    }
+}
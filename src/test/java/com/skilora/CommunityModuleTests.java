@@ -1388,6 +1388,28 @@ class CommunityModuleTests {
         void unreadCountZero() {
             assertEquals(0, service.getUnreadCount(999999));
         }
+
+        @Test @Order(3)
+        @DisplayName("getMessagesAfter returns empty list for non-existent conversation")
+        void messagesAfterEmpty() {
+            List<Message> msgs = service.getMessagesAfter(999999, 0, 50);
+            assertNotNull(msgs);
+            assertTrue(msgs.isEmpty());
+        }
+
+        @Test @Order(4)
+        @DisplayName("Incremental summary only loads messages after the stored cursor")
+        void incrementalSummaryCursor() {
+            AISummaryService summaries = AISummaryService.getInstance();
+            summaries.invalidate(AISummaryService.SCOPE_PRIVATE, 999999);
+            List<Integer> cursors = new ArrayList<>();
+            String result = summaries.summarizeIncremental(AISummaryService.SCOPE_PRIVATE, 999999, afterId -> {
+                cursors.add(afterId);
+                return Collections.emptyList();
+            });
+            assertEquals(List.of(0), cursors, "Nothing stored yet: cursor starts at 0");
+            assertEquals("Aucun message à résumer.", result);
+        }
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -7,6 +7,8 @@ import com.skilora.finance.enums.ContractType;
 import com.skilora.finance.enums.PaymentStatus;
 import com.skilora.finance.enums.TransactionType;
 import com.skilora.finance.service.*;
+import com.skilora.finance.utils.Money;
+import com.skilora.utils.PageQuery;
 
 // === Config ===
 import com.skilora.config.DatabaseConfig;
@@ -489,6 +491,60 @@ class FinanceModuleTests {
         }
     }
 
+    // ═══════════════════════════════════════════════════════════════
+    //  Section 7b: Money Fixed-Point Tests
+    // ═══════════════════════════════════════════════════════════════
+
+    @Nested
+    @Order(16)
+    @TestMethodOrder(OrderAnnotation.class)
+    @DisplayName("16. Money Fixed-Point")
+    class MoneyTests {
+
+        @Test @Order(1)
+        @DisplayName("BigDecimal round-trip at the persistence scale")
+        void roundTrip() {
+            Money m = Money.of(new BigDecimal("3500.005"), "tnd");
+            assertEquals(350001L, m.getMinor());
+            assertEquals("TND", m.getCurrency());
+            assertEquals(new BigDecimal("3500.01"), m.toBigDecimal());
+            assertEquals("3500.01 TND", m.toString());
+        }
+
+        @Test @Order(2)
+        @DisplayName("Rates and division round HALF_UP like BigDecimal")
+        void halfUpMatchesBigDecimal() {
+            BigDecimal gross = new BigDecimal("2345.67");
+            BigDecimal expected = gross.multiply(new BigDecimal("0.0918")).setScale(2, java.math.RoundingMode.HALF_UP);
+            long cents = Money.applyRate(Money.toMinor(gross, 2), Money.rate(new BigDecimal("0.0918")));
+            assertEquals(expected, Money.toBigDecimal(cents, 2));
+
+            assertEquals(3L, Money.divide(5, 2));
+            assertEquals(-3L, Money.divide(-5, 2));
+            assertEquals(2L, Money.divide(7, 3));
+            assertEquals(-1235L, Money.rescale(-12345, 3, 2));
+        }
+
+        @Test @Order(3)
+        @DisplayName("Arithmetic rejects mixed currencies")
+        void mixedCurrencies() {
+            Money tnd = Money.ofMinor(1000, "TND");
+            Money eur = Money.ofMinor(1000, "EUR");
+            assertEquals(Money.ofMinor(2000, "TND"), tnd.plus(tnd));
+            assertEquals(Money.ofMinor(83, "TND"), Money.ofMinor(1000, "TND").dividedBy(12));
+            assertThrows(IllegalArgumentException.class, () -> tnd.plus(eur));
+        }
+
+        @Test @Order(4)
+        @DisplayName("calculateCompleteSalary breakdown is consistent")
+        void completeSalaryConsistent() {
+            Map<String, BigDecimal> r = TaxConfigurationService.calculateCompleteSalary(new BigDecimal("2500"));
+            assertEquals(new BigDecimal("229.50"), r.get("cnssEmployee"));
+            assertEquals(0, r.get("netSalary").add(r.get("totalDeductions")).compareTo(new BigDecimal("2500")));
+            assertEquals(r.get("cnssEmployee").add(r.get("irpp")), r.get("totalDeductions"));
+        }
+    }
+
     // ═══════════════════════════════════════════════════════════════
     //  Section 8: Service Singleton Tests
     // ═══════════════════════════════════════════════════════════════
@@ -756,6 +812,162 @@ class FinanceModuleTests {
         }
     }
 
+    // ═══════════════════════════════════════════════════════════════
+    //  Section 12b: PayrollRunService Tests
+    // ═══════════════════════════════════════════════════════════════
+
+    @Nested
+    @Order(62)
+    @TestMethodOrder(OrderAnnotation.class)
+    @DisplayName("62. PayrollRunService Batch Run")
+    class PayrollRunServiceTests {
+
+        private static final PayrollRunService service = PayrollRunService.getInstance();
+        // Far-future period so the run never collides with real payslips
+        private static final int MONTH = 12;
+        private static final int YEAR = 2099;
+
+        @AfterAll
+        static void cleanup() throws SQLException {
+            try (Connection conn = DatabaseConfig.getInstance().getConnection();
+                 java.sql.Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM payslips WHERE period_year = " + YEAR);
+                stmt.executeUpdate("DELETE FROM payroll_runs WHERE period_year = " + YEAR);
+            }
+        }
+
+        @Test @Order(1)
+        @DisplayName("runPeriod rejects an invalid month")
+        void invalidMonth() {
+            assertThrows(IllegalArgumentException.class, () -> service.runPeriod(13, YEAR, null));
+        }
+
+        @Test @Order(2)
+        @DisplayName("runPeriod covers every active contract and reports progress")
+        void runPeriodCompletes() throws SQLException {
+            List<Integer> progress = new ArrayList<>();
+            PayrollRunService.RunResult r = service.runPeriod(MONTH, YEAR, (done, total) -> progress.add(done));
+            assertEquals(r.getTotal(), r.getCreated() + r.getSkipped() + r.getInvalid());
+            if (r.getTotal() > 0) {
+                assertEquals(r.getTotal(), progress.get(progress.size() - 1));
+            }
+            assertEquals("COMPLETED", service.getRunStatus(MONTH, YEAR));
+            // created counts rows really inserted, not batch entries
+            try (Connection conn = DatabaseConfig.getInstance().getConnection();
+                 java.sql.Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM payslips WHERE period_month = "
+                         + MONTH + " AND period_year = " + YEAR)) {
+                assertTrue(rs.next());
+                assertEquals(r.getCreated(), rs.getInt(1));
+            }
+        }
+
+        @Test @Order(3)
+        @DisplayName("Second run of the same period creates no duplicates")
+        void rerunIsIdempotent() throws SQLException {
+            PayrollRunService.RunResult r = service.runPeriod(MONTH, YEAR, null);
+            assertEquals(0, r.getCreated());
+            assertEquals(r.getTotal(), r.getSkipped() + r.getInvalid());
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    //  Section 12c: PdfRenderService Tests
+    // ═══════════════════════════════════════════════════════════════
+
+    @Nested
+    @Order(63)
+    @TestMethodOrder(OrderAnnotation.class)
+    @DisplayName("63. PdfRenderService")
+    class PdfRenderServiceTests {
+
+        private static final PdfRenderService service = PdfRenderService.getInstance();
+
+        @Test @Order(1)
+        @DisplayName("renderPayslip produces a PDF document")
+        void renderPayslip() throws Exception {
+            PayslipRow row = new PayslipRow(1, 5, "Ahmed", 6, 2025,
+                    2500.0, 2, 50.0, 200.0, "TND", "PENDING");
+            byte[] pdf = service.renderPayslip(row, "Ahmed");
+            assertTrue(pdf.length > 0);
+            assertEquals("%PDF", new String(pdf, 0, 4, java.nio.charset.StandardCharsets.US_ASCII));
+            // Second render reuses the cached chrome and gives the same size
+            assertEquals(pdf.length, service.renderPayslip(row, "Ahmed").length, 64);
+        }
+
+        @Test @Order(2)
+        @DisplayName("exportPeriodZip of an empty period writes an empty archive")
+        void exportEmptyPeriod() throws Exception {
+            java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+            assertEquals(0, service.exportPeriodZip(1, 2098, out));
+            try (java.util.zip.ZipInputStream zip = new java.util.zip.ZipInputStream(
+                    new java.io.ByteArrayInputStream(out.toByteArray()))) {
+                assertNull(zip.getNextEntry());
+            }
+        }
+
+        @Test @Order(3)
+        @DisplayName("Period export includes payslips with only period_* columns set")
+        void periodOnlyPayslipIncluded() throws SQLException {
+            int payslipId;
+            try (Connection conn = DatabaseConfig.getInstance().getConnection();
+                 java.sql.Statement stmt = conn.createStatement()) {
+                ResultSet rs = stmt.executeQuery("SELECT id, user_id FROM employment_contracts LIMIT 1");
+                Assumptions.assumeTrue(rs.next(), "Requires an employment contract");
+                stmt.executeUpdate("INSERT INTO payslips (contract_id, user_id, period_month, period_year, "
+                        + "gross_salary, net_salary, month, year) VALUES ("
+                        + rs.getInt(1) + ", " + rs.getInt(2) + ", 3, 2098, 1000, 800, NULL, NULL)",
+                        java.sql.Statement.RETURN_GENERATED_KEYS);
+                ResultSet keys = stmt.getGeneratedKeys();
+                assertTrue(keys.next());
+                payslipId = keys.getInt(1);
+            }
+            try {
+                List<PayslipRow> rows = FinanceDataService.getInstance().getPayslipsForPeriod(3, 2098);
+                assertEquals(1, rows.size());
+                assertEquals(payslipId, rows.get(0).getId());
+                assertEquals(3, rows.get(0).getMonth());
+                assertEquals(2098, rows.get(0).getYear());
+                // And the period export picks it up
+                assertEquals(1, service.exportPeriodZip(3, 2098, new java.io.ByteArrayOutputStream()));
+            } finally {
+                try (Connection conn = DatabaseConfig.getInstance().getConnection();
+                     java.sql.Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("DELETE FROM payslips WHERE id = " + payslipId);
+                }
+            }
+        }
+
+        @Test @Order(4)
+        @DisplayName("exportPeriodZip to a file replaces it only with a complete archive")
+        void exportToFileIsAtomic() throws Exception {
+            java.nio.file.Path dir = java.nio.file.Files.createTempDirectory("period-zip");
+            java.nio.file.Path target = dir.resolve("period.zip");
+            java.nio.file.Files.writeString(target, "previous");
+            try {
+                try {
+                    assertEquals(0, service.exportPeriodZip(1, 2098, target.toFile()));
+                    try (java.util.zip.ZipInputStream zip = new java.util.zip.ZipInputStream(
+                            java.nio.file.Files.newInputStream(target))) {
+                        assertNull(zip.getNextEntry());
+                    }
+                } catch (SQLException e) {
+                    // Failed before anything was written: the previous file is untouched
+                    assertEquals("previous", java.nio.file.Files.readString(target));
+                }
+                // No temporary file is left next to the target either way
+                try (java.util.stream.Stream<java.nio.file.Path> files = java.nio.file.Files.list(dir)) {
+                    assertEquals(List.of(target), files.toList());
+                }
+            } finally {
+                try (java.util.stream.Stream<java.nio.file.Path> files = java.nio.file.Files.list(dir)) {
+                    for (java.nio.file.Path f : files.toList()) java.nio.file.Files.deleteIfExists(f);
+                }
+                java.nio.file.Files.deleteIfExists(dir);
+            }
+        }
+    }
+
     // ═══════════════════════════════════════════════════════════════
     //  Section 13: PaymentTransactionService Tests
     // ═══════════════════════════════════════════════════════════════
@@ -798,6 +1010,119 @@ class FinanceModuleTests {
         }
     }
 
+    // ═══════════════════════════════════════════════════════════════
+    //  Section 13b: OutboxService Tests
+    // ═══════════════════════════════════════════════════════════════
+
+    @Nested
+    @Order(67)
+    @TestMethodOrder(OrderAnnotation.class)
+    @DisplayName("67. OutboxService")
+    class OutboxServiceTests {
+
+        private static final OutboxService outbox = OutboxService.getInstance();
+        private static final String KEY_PREFIX = "test-outbox-";
+
+        @AfterAll
+        static void cleanup() throws SQLException {
+            try (Connection conn = DatabaseConfig.getInstance().getConnection();
+                 java.sql.Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM finance_outbox WHERE idempotency_key LIKE '" + KEY_PREFIX + "%'");
+            }
+        }
+
+        @Test @Order(1)
+        @DisplayName("Failed delivery is retried with the same idempotency key")
+        void retriedWithSameKey() throws Exception {
+            List<String> keys = Collections.synchronizedList(new ArrayList<>());
+            outbox.registerHandler("TEST_FLAKY", (payload, key) -> {
+                keys.add(key);
+                if (keys.size() == 1) throw new java.io.IOException("HTTP 503");
+            });
+            String key = KEY_PREFIX + UUID.randomUUID();
+            long id;
+            try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+                id = outbox.enqueue(conn, "TEST_FLAKY", key, new org.json.JSONObject().put("n", 1));
+                // Same key again: no second event
+                assertEquals(id, outbox.enqueue(conn, "TEST_FLAKY", key, new org.json.JSONObject().put("n", 1)));
+            }
+            java.util.concurrent.CompletableFuture<Void> done = outbox.awaitDelivery(id);
+            outbox.wakeUp();
+            done.get(15, java.util.concurrent.TimeUnit.SECONDS);
+
+            assertEquals(List.of(key, key), keys);
+            assertEquals(OutboxService.STATUS_DONE, outbox.getStatus(id));
+        }
+
+        @Test @Order(2)
+        @DisplayName("Permanent failure is not retried")
+        void permanentFailure() throws Exception {
+            java.util.concurrent.atomic.AtomicInteger calls = new java.util.concurrent.atomic.AtomicInteger();
+            outbox.registerHandler("TEST_DECLINED", (payload, key) -> {
+                calls.incrementAndGet();
+                throw new OutboxService.PermanentFailureException("card_declined");
+            });
+            long id;
+            try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+                id = outbox.enqueue(conn, "TEST_DECLINED", KEY_PREFIX + UUID.randomUUID(), new org.json.JSONObject());
+            }
+            java.util.concurrent.CompletableFuture<Void> done = outbox.awaitDelivery(id);
+            outbox.wakeUp();
+            assertThrows(java.util.concurrent.ExecutionException.class,
+                    () -> done.get(15, java.util.concurrent.TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+            assertEquals(OutboxService.STATUS_DEAD, outbox.getStatus(id));
+        }
+
+        @Test @Order(3)
+        @DisplayName("Stripe client sends idempotency keys to a local stub server")
+        void stripeAgainstStub() throws Exception {
+            List<String> keys = Collections.synchronizedList(new ArrayList<>());
+            java.util.concurrent.atomic.AtomicInteger status = new java.util.concurrent.atomic.AtomicInteger(200);
+            com.sun.net.httpserver.HttpServer server =
+                    com.sun.net.httpserver.HttpServer.create(new java.net.InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/v1/payment_intents", exchange -> {
+                keys.add(exchange.getRequestHeaders().getFirst("Idempotency-Key"));
+                byte[] body = "{\"id\":\"pi_stub_1\",\"status\":\"succeeded\"}".getBytes();
+                exchange.sendResponseHeaders(status.get(), body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.start();
+            try {
+                StripePaymentService stripe = StripePaymentService.forEndpoint(
+                        "http://127.0.0.1:" + server.getAddress().getPort() + "/v1", "sk_test_stub");
+                assertEquals("pi_stub_1", stripe.createPaymentIntent(1000, "charge-1-intent"));
+                assertTrue(stripe.confirmPayment("pi_stub_1", "pm_card_visa", "charge-1-confirm"));
+                assertEquals(List.of("charge-1-intent", "charge-1-confirm"), keys);
+
+                status.set(402);
+                StripePaymentService.StripeApiException declined = assertThrows(
+                        StripePaymentService.StripeApiException.class, () -> stripe.createPaymentIntent(1000));
+                assertFalse(declined.isRetryable());
+                status.set(503);
+                assertTrue(assertThrows(StripePaymentService.StripeApiException.class,
+                        () -> stripe.createPaymentIntent(1000)).isRetryable());
+            } finally {
+                server.stop(0);
+            }
+        }
+
+        @Test @Order(4)
+        @DisplayName("A timed-out wait releases its waiter")
+        void timedOutWaitReleased() throws Exception {
+            long id = Long.MAX_VALUE - 1;
+            java.util.concurrent.CompletableFuture<Void> first = outbox.awaitDelivery(id)
+                    .orTimeout(50, java.util.concurrent.TimeUnit.MILLISECONDS);
+            assertThrows(java.util.concurrent.ExecutionException.class,
+                    () -> first.get(5, java.util.concurrent.TimeUnit.SECONDS));
+            java.util.concurrent.CompletableFuture<Void> second = outbox.awaitDelivery(id);
+            assertNotSame(first, second);
+            assertFalse(second.isDone());
+            second.cancel(false);
+        }
+    }
+
     // ═══════════════════════════════════════════════════════════════
     //  Section 14: ExchangeRateService Tests
     // ═══════════════════════════════════════════════════════════════
@@ -830,6 +1155,50 @@ class FinanceModuleTests {
             List<ExchangeRate> history = service.getHistory("TND", "EUR", 30);
             assertNotNull(history);
         }
+
+        @Test @Order(4)
+        @DisplayName("Rate matrix derives inverse and triangulated pairs")
+        void matrixTriangulation() {
+            LocalDate d = LocalDate.of(2026, 1, 1);
+            ExchangeRateMatrix m = ExchangeRateMatrix.build(List.of(
+                    new ExchangeRate("TND", "EUR", new BigDecimal("0.296"), d),
+                    new ExchangeRate("USD", "TND", new BigDecimal("3.1"), d),
+                    new ExchangeRate("TND", "EUR", new BigDecimal("0.300"), d.minusDays(1))));
+            assertEquals(new BigDecimal("0.296000"), m.getRate("TND", "EUR"));
+            assertEquals(new BigDecimal("3.378378"), m.getRate("EUR", "TND"));
+            assertEquals(new BigDecimal("0.917600"), m.getRate("USD", "EUR"));
+            assertEquals(new BigDecimal("91.76"), m.convert(new BigDecimal("100"), "usd", "EUR"));
+            assertNull(m.convert(BigDecimal.TEN, "XXX", "TND"));
+        }
+
+        @Test @Order(5)
+        @DisplayName("Rate matrix updates are copy-on-write")
+        void matrixCopyOnWrite() {
+            LocalDate d = LocalDate.of(2026, 1, 1);
+            ExchangeRateMatrix m = ExchangeRateMatrix.build(List.of(
+                    new ExchangeRate("TND", "EUR", new BigDecimal("0.296"), d)));
+            ExchangeRateMatrix updated = m.withRates(List.of(
+                    new ExchangeRate("GBP", "TND", new BigDecimal("4"), d)));
+            assertNull(m.getRate("GBP", "EUR"));
+            assertEquals(new BigDecimal("1.184000"), updated.getRate("GBP", "EUR"));
+            assertEquals(2, updated.size());
+        }
+
+        @Test @Order(6)
+        @DisplayName("saveAll with no rates writes nothing")
+        void saveAllEmpty() throws SQLException {
+            assertEquals(0, service.saveAll(List.of()));
+        }
+
+        @Test @Order(7)
+        @DisplayName("convert rounds once, after applying the rate")
+        void convertRoundsOnce() {
+            ExchangeRateMatrix m = ExchangeRateMatrix.build(List.of(
+                    new ExchangeRate("USD", "TND", new BigDecimal("3"), LocalDate.of(2026, 1, 1))));
+            // 0.005 * 3 = 0.015 -> 0.02 (rounding the amount first would give 0.01 * 3 = 0.03)
+            assertEquals(new BigDecimal("0.02"), m.convert(new BigDecimal("0.005"), "USD", "TND"));
+            assertEquals(new BigDecimal("3.70"), m.convert(new BigDecimal("1.234"), "USD", "TND"));
+        }
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -873,6 +1242,66 @@ class FinanceModuleTests {
             assertNotNull(result);
             assertFalse(result.isEmpty());
         }
+
+        private TaxConfiguration bracket(String min, String max, String rate) {
+            TaxConfiguration tc = new TaxConfiguration();
+            tc.setMinBracket(new BigDecimal(min));
+            tc.setMaxBracket(max != null ? new BigDecimal(max) : null);
+            tc.setRate(new BigDecimal(rate));
+            return tc;
+        }
+
+        @Test @Order(5)
+        @DisplayName("Compiled TaxSchedule applies brackets progressively")
+        void compiledScheduleProgressive() {
+            TaxSchedule schedule = TaxSchedule.compile(List.of(
+                    bracket("20000", "30000", "0.28"),
+                    bracket("0", "5000", "0"),
+                    bracket("50000", null, "0.35"),
+                    bracket("5000", "20000", "0.26"),
+                    bracket("30000", "50000", "0.32")));
+            assertEquals(5, schedule.size());
+            assertEquals(new BigDecimal("0.00"), schedule.tax(new BigDecimal("5000")));
+            assertEquals(new BigDecimal("6700.00"), schedule.tax(new BigDecimal("30000")));
+            assertEquals(new BigDecimal("16600.00"), schedule.tax(new BigDecimal("60000")));
+            assertEquals(16_600_000L, schedule.taxMillimes(60_000_000L));
+        }
+
+        @Test @Order(6)
+        @DisplayName("Empty TaxSchedule and non-positive income yield zero")
+        void compiledScheduleEdges() {
+            assertTrue(TaxSchedule.compile(List.of()).isEmpty());
+            assertEquals(0L, TaxSchedule.EMPTY.taxMillimes(1_000_000L));
+            TaxSchedule flat = TaxSchedule.compile(List.of(bracket("0", null, "0.10")));
+            assertEquals(0L, flat.taxMillimes(-5_000L));
+            assertEquals(new BigDecimal("123.46"), flat.tax(new BigDecimal("1234.56")));
+        }
+
+        @Test @Order(7)
+        @DisplayName("getSchedule is cached until invalidated")
+        void scheduleCache() {
+            TaxSchedule first = service.getSchedule("Tunisia", "IRPP");
+            assertSame(first, service.getSchedule("Tunisia", "IRPP"));
+            service.invalidateSchedules();
+            TaxSchedule reloaded = service.getSchedule("Tunisia", "IRPP");
+            assertNotNull(reloaded);
+            assertEquals(first.size(), reloaded.size());
+            assertEquals(0, service.calculateIRPP(new BigDecimal("36000"), "Tunisia")
+                    .compareTo(reloaded.tax(new BigDecimal("36000"))));
+        }
+
+        @Test @Order(8)
+        @DisplayName("calculateCompleteSalary taxes the whole taxable income progressively")
+        void completeSalaryProgressive() {
+            // 8808.63 - 9.18% CNSS (808.63) = 8000.00 taxable
+            Map<String, BigDecimal> r = TaxConfigurationService.calculateCompleteSalary(new BigDecimal("8808.63"));
+            assertEquals(new BigDecimal("8000.00"), r.get("taxableIncome"));
+            TaxSchedule schedule = service.getSchedule("Tunisia", "IRPP");
+            // Static 2025 fallback: 5000 exempt, then 3000 at 26%
+            BigDecimal expected = schedule.isEmpty()
+                    ? new BigDecimal("780.00") : schedule.tax(new BigDecimal("8000.00"));
+            assertEquals(expected, r.get("irpp"));
+        }
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -958,6 +1387,93 @@ class FinanceModuleTests {
             assertNotNull(list);
             assertTrue(list.isEmpty());
         }
+
+        @Test @Order(7)
+        @DisplayName("Summaries after full rebuild match incremental refresh")
+        void summariesRebuildAndRefresh() throws SQLException {
+            service.rebuildEmployeeSummaries();
+            List<EmployeeSummaryRow> rebuilt = service.getEmployeeSummaries();
+            assertNotNull(rebuilt);
+            service.refreshEmployeeSummaries(List.of());
+            service.refreshEmployeeSummaries(List.of(999999));
+            assertEquals(rebuilt.size(), service.getEmployeeSummaries().size());
+        }
+
+        @Test @Order(8)
+        @DisplayName("get*ById returns null for non-existent rows")
+        void getByIdMissing() throws SQLException {
+            assertNull(service.getBankAccountById(-1));
+            assertNull(service.getBonusById(-1));
+            assertNull(service.getPayslipById(-1));
+        }
+
+        @Test @Order(9)
+        @DisplayName("Keyset payslip pages cover every row exactly once")
+        void payslipPagesCoverAll() throws SQLException {
+            PageQuery.Page<PayslipRow> page = service.getPayslipPage(PageQuery.first(null).withPageSize(50));
+            int total = page.getTotal();
+            Set<Integer> seen = new HashSet<>();
+            while (true) {
+                for (PayslipRow row : page.getRows()) assertTrue(seen.add(row.getId()), "duplicate row " + row.getId());
+                if (!page.hasMore()) break;
+                page = service.getPayslipPage(page.getNext());
+            }
+            assertEquals(total, seen.size());
+        }
+
+        @Test @Order(10)
+        @DisplayName("Bonus pages follow the requested server-side sort")
+        void bonusPagesSorted() throws SQLException {
+            PageQuery.Page<BonusRow> page = service.getBonusPage(PageQuery.first("amount", true, null).withPageSize(20));
+            double previous = Double.NEGATIVE_INFINITY;
+            while (true) {
+                for (BonusRow row : page.getRows()) {
+                    assertTrue(row.getAmount() >= previous);
+                    previous = row.getAmount();
+                }
+                if (!page.hasMore()) break;
+                page = service.getBonusPage(page.getNext());
+            }
+        }
+
+        @Test @Order(11)
+        @DisplayName("Paging continues past a payslip with only period_* columns set")
+        void payslipPagesPastPeriodOnlyRow() throws SQLException {
+            int payslipId;
+            try (Connection conn = DatabaseConfig.getInstance().getConnection();
+                 java.sql.Statement stmt = conn.createStatement()) {
+                ResultSet rs = stmt.executeQuery("SELECT id, user_id FROM employment_contracts LIMIT 1");
+                Assumptions.assumeTrue(rs.next(), "Requires an employment contract");
+                int contractId = rs.getInt(1);
+                int userId = rs.getInt(2);
+                // Written the way PayslipService does: legacy month/year/base_salary left NULL
+                stmt.executeUpdate("INSERT INTO payslips (contract_id, user_id, period_month, period_year, "
+                        + "gross_salary, net_salary, month, year, base_salary) VALUES ("
+                        + contractId + ", " + userId + ", 10, 2098, 1000, 800, NULL, NULL, NULL)",
+                        java.sql.Statement.RETURN_GENERATED_KEYS);
+                ResultSet keys = stmt.getGeneratedKeys();
+                assertTrue(keys.next());
+                payslipId = keys.getInt(1);
+            }
+            try {
+                // Page size 1: the newest period is this row, so page 1 ends on it
+                PageQuery.Page<PayslipRow> page = service.getPayslipPage(PageQuery.first(null).withPageSize(1));
+                assertEquals(payslipId, page.getRows().get(0).getId());
+                int total = page.getTotal();
+                Set<Integer> seen = new HashSet<>();
+                while (true) {
+                    for (PayslipRow row : page.getRows()) assertTrue(seen.add(row.getId()), "duplicate row " + row.getId());
+                    if (!page.hasMore()) break;
+                    page = service.getPayslipPage(page.getNext());
+                }
+                assertEquals(total, seen.size());
+            } finally {
+                try (Connection conn = DatabaseConfig.getInstance().getConnection();
+                     java.sql.Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("DELETE FROM payslips WHERE id = " + payslipId);
+                }
+            }
+        }
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -983,6 +1499,54 @@ class FinanceModuleTests {
         void projectBalance() {
             assertNotNull(service.projectBalance(999999, 6));
         }
+
+        @Test @Order(3)
+        @DisplayName("validatePayroll returns empty list for non-existent contract")
+        void validatePayrollUnknown() {
+            assertTrue(service.validatePayroll(999999).isEmpty());
+        }
+
+        @Test @Order(4)
+        @DisplayName("Payroll audit agrees with per-contract validation")
+        void auditMatchesValidate() throws Exception {
+            Map<Integer, List<LocalDate>> gaps = PayrollAuditService.getInstance().findAllMissingMonths();
+            assertNotNull(gaps);
+            gaps.entrySet().stream().limit(3).forEach(e -> {
+                assertFalse(e.getValue().isEmpty());
+                assertEquals(e.getValue(), service.validatePayroll(e.getKey()));
+                assertTrue(e.getValue().stream().allMatch(d -> d.getDayOfMonth() == 1));
+            });
+        }
+
+        @Test @Order(5)
+        @DisplayName("Scenario engine applies raise and bonus schedule per user")
+        void scenarioEngine() {
+            BalanceScenarioEngine.Inputs inputs = BalanceScenarioEngine.Inputs.of(
+                    new int[]{1, 2}, new long[]{100_00, 0}, new long[]{1000_00, 0});
+            List<BalanceScenarioEngine.Scenario> scenarios = List.of(
+                    BalanceScenarioEngine.Scenario.baseline(),
+                    new BalanceScenarioEngine.Scenario("Raise").withRaise(new BigDecimal("10"))
+                            .withBonus(1, new BigDecimal("50")));
+            BalanceScenarioEngine.ScenarioGrid grid = BalanceScenarioEngine.getInstance()
+                    .project(inputs, scenarios, 3, TaxSchedule.EMPTY, ExchangeRateMatrix.EMPTY);
+
+            // 1000.00 gross - 91.80 CNSS = 908.20 net per month
+            assertEquals(100_00 + 3 * 908_20, grid.balanceMinor(0, 1, 2));
+            // 1100.00 gross - 100.98 CNSS = 999.02 net, plus 50.00 in month 1
+            assertEquals(100_00 + 3 * 999_02 + 50_00, grid.balanceMinor(1, 1, 2));
+            assertEquals(50_00, grid.balanceMinor(1, 2, 2));
+            assertEquals(grid.balanceMinor(1, 1, 2) + grid.balanceMinor(1, 2, 2), grid.teamBalanceMinor(1, 2));
+            assertEquals(1150.0, grid.getProjections(1, 1).get(1).getProjectedIncome(), 0.001);
+        }
+
+        @Test @Order(6)
+        @DisplayName("projectScenarios returns empty projections for non-existent user")
+        void projectScenariosUnknown() {
+            BalanceScenarioEngine.ScenarioGrid grid = service.projectScenarios(List.of(999999),
+                    List.of(BalanceScenarioEngine.Scenario.baseline()), 6);
+            assertNotNull(grid);
+            assertEquals(0L, grid.balanceMinor(0, 999999, 5));
+        }
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -2,6 +2,8 @@ package com.skilora;
 
 import com.skilora.formation.entity.Certificate;
 import com.skilora.formation.entity.FormationRating;
+import com.skilora.formation.service.CertificateSigner;
+import com.skilora.formation.service.CertificateSigner.SignedCertificate;
 import com.skilora.formation.service.CertificateVerificationServer;
 import com.skilora.formation.service.FormationRatingService;
 import com.skilora.formation.service.FormationRatingService.RatingStatistics;
@@ -11,7 +13,15 @@ import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.KeyPair;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -570,6 +580,92 @@ class FormationFeedbackAndQRTests {
                 CertificateVerificationServer.stop();
             }
         }
+
+        @Test @Order(9)
+        @DisplayName("Verification page carries an ETag and answers 304 when it matches")
+        void pageEtagAndNotModified() throws Exception {
+            try {
+                CertificateVerificationServer.start();
+                URI uri = URI.create("http://localhost:" + CertificateVerificationServer.getPort() + "/verify/SKL-TEST");
+                HttpClient client = HttpClient.newHttpClient();
+
+                HttpResponse<byte[]> first = client.send(HttpRequest.newBuilder(uri).build(),
+                        HttpResponse.BodyHandlers.ofByteArray());
+                assertEquals(200, first.statusCode());
+                String etag = first.headers().firstValue("ETag").orElse(null);
+                assertNotNull(etag, "Page response should carry an ETag");
+                assertTrue(first.body().length > 0);
+
+                HttpResponse<byte[]> second = client.send(HttpRequest.newBuilder(uri)
+                        .header("If-None-Match", etag).build(), HttpResponse.BodyHandlers.ofByteArray());
+                assertEquals(304, second.statusCode());
+                assertTrue(CertificateVerificationServer.getMetrics().getNotModified() >= 1);
+            } finally {
+                CertificateVerificationServer.stop();
+            }
+        }
+
+        @Test @Order(10)
+        @DisplayName("Verification page is served gzipped when the client accepts it")
+        void pageGzip() throws Exception {
+            try {
+                CertificateVerificationServer.start();
+                URI uri = URI.create("http://localhost:" + CertificateVerificationServer.getPort() + "/verify/SKL-TEST");
+                HttpClient client = HttpClient.newHttpClient();
+
+                HttpResponse<byte[]> plain = client.send(HttpRequest.newBuilder(uri).build(),
+                        HttpResponse.BodyHandlers.ofByteArray());
+                HttpResponse<byte[]> gzipped = client.send(HttpRequest.newBuilder(uri)
+                        .header("Accept-Encoding", "gzip").build(), HttpResponse.BodyHandlers.ofByteArray());
+                assertEquals("gzip", gzipped.headers().firstValue("Content-Encoding").orElse(null));
+                assertTrue(gzipped.body().length < plain.body().length, "Gzipped page should be smaller");
+
+                try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.body()))) {
+                    assertArrayEquals(plain.body(), in.readAllBytes());
+                }
+            } finally {
+                CertificateVerificationServer.stop();
+            }
+        }
+
+        @Test @Order(11)
+        @DisplayName("Signed token round-trips through a verify-only signer")
+        void signedTokenRoundTrip() {
+            KeyPair keys = CertificateSigner.generateKeyPair();
+            String token = CertificateSigner.withKeys(keys.getPrivate(), keys.getPublic()).sign(
+                    new SignedCertificate(42, "SKL-AB12CD34", "Amira Ben Ali", "Java avancé | \"pro\"",
+                            LocalDate.of(2026, 3, 1)));
+
+            SignedCertificate verified = CertificateSigner.withKeys(null, keys.getPublic()).verify(token);
+            assertNotNull(verified, "Token should verify with the matching public key");
+            assertEquals(42, verified.getCertificateId());
+            assertEquals("SKL-AB12CD34", verified.getCertificateNumber());
+            assertEquals("Amira Ben Ali", verified.getHolderName());
+            assertEquals("Java avancé | \"pro\"", verified.getTrainingTitle());
+            assertEquals(LocalDate.of(2026, 3, 1), verified.getIssuedDate());
+        }
+
+        @Test @Order(12)
+        @DisplayName("Tampered, malformed or foreign-key tokens are rejected")
+        void signedTokenRejected() {
+            KeyPair keys = CertificateSigner.generateKeyPair();
+            CertificateSigner signer = CertificateSigner.withKeys(keys.getPrivate(), keys.getPublic());
+            String token = signer.sign(new SignedCertificate(7, "SKL-00000007", "Holder", "Title", null));
+            assertNotNull(signer.verify(token));
+
+            char[] chars = token.toCharArray();
+            chars[3] = chars[3] == 'A' ? 'B' : 'A';
+            assertNull(signer.verify(new String(chars)), "Altered claims must not verify");
+            assertNull(signer.verify("not-a-token"));
+            assertNull(signer.verify("a.b.c"));
+            assertNull(signer.verify(null));
+
+            KeyPair other = CertificateSigner.generateKeyPair();
+            assertNull(CertificateSigner.withKeys(null, other.getPublic()).verify(token),
+                    "Token must not verify under another key");
+            assertThrows(IllegalStateException.class, () -> CertificateSigner.withKeys(null, keys.getPublic())
+                    .sign(new SignedCertificate(8, "SKL-00000008", "Holder", "Title", null)));
+        }
     }
 
     // ═══════════════════════════════════════════════════════════════
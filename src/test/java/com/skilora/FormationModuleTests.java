@@ -7,17 +7,23 @@ import com.skilora.formation.service.*;
 
 // === Config ===
 import com.skilora.config.DatabaseConfig;
+import com.skilora.user.entity.Experience;
+import com.skilora.user.entity.Skill;
+import com.skilora.user.enums.ProficiencyLevel;
 
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.*;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -1186,6 +1192,100 @@ class FormationModuleTests {
         void hasPassedFalse() {
             assertFalse(quizService.hasPassedQuiz(999999, 999999));
         }
+
+        @Test @Order(5)
+        @DisplayName("QuizBundle grades answers against the cached key")
+        void bundleGrading() {
+            Quiz quiz = new Quiz();
+            quiz.setId(7);
+            quiz.setPassScore(60);
+            List<QuizQuestion> questions = new ArrayList<>();
+            char[] key = {'A', 'C', 'B'};
+            int[] points = {1, 2, 2};
+            for (int i = 0; i < key.length; i++) {
+                QuizQuestion q = new QuizQuestion();
+                q.setId(100 + i);
+                q.setCorrectOption(key[i]);
+                q.setPoints(points[i]);
+                questions.add(q);
+            }
+            QuizSessionEngine.QuizBundle bundle = new QuizSessionEngine.QuizBundle(quiz, questions);
+            assertEquals(5, bundle.getMaxScore());
+
+            Map<Integer, Character> answers = new HashMap<>();
+            answers.put(100, 'A');
+            answers.put(101, 'C');
+            answers.put(102, 'D');
+            QuizResult result = bundle.grade(3, 2, answers, 40);
+            assertEquals(3, result.getScore());
+            assertEquals(5, result.getMaxScore());
+            assertTrue(result.isPassed());
+            assertEquals(2, result.getAttemptNumber());
+
+            answers.remove(101);
+            assertEquals(1, bundle.score(answers));
+            assertFalse(bundle.grade(3, 3, answers, 40).isPassed());
+            assertFalse(bundle.isCorrect(999, 'A'));
+        }
+
+        @Test @Order(6)
+        @DisplayName("QuizSessionEngine returns null for non-existent quiz")
+        void sessionForMissingQuiz() {
+            QuizSessionEngine engine = QuizSessionEngine.getInstance();
+            assertSame(engine, QuizSessionEngine.getInstance());
+            assertNull(engine.getBundle(999999));
+            assertNull(engine.startSession(999999, 999999));
+        }
+
+        @Test @Order(7)
+        @DisplayName("Attempts survive a deleted question and are regraded after key edits")
+        void submitAndRegradeAfterQuestionChanges() {
+            Formation f = new Formation();
+            f.setTitle("Quiz Regrade Test");
+            f.setDescription("Quiz with changing questions");
+            f.setCategory("Development");
+            f.setDurationHours(1);
+            f.setCurrency("TND");
+            f.setLevel(FormationLevel.BEGINNER);
+            f.setStatus("ACTIVE");
+            f.setCreatedBy(1);
+            int formationId = FormationService.getInstance().createFormation(f);
+            Assumptions.assumeTrue(formationId > 0, "Requires a writable formations table");
+            try {
+                Quiz quiz = new Quiz(formationId, "Regrade quiz");
+                quiz.setPassScore(50);
+                int quizId = quizService.createQuiz(quiz);
+                QuizQuestion[] questions = new QuizQuestion[3];
+                for (int i = 0; i < questions.length; i++) {
+                    questions[i] = new QuizQuestion(quizId, "Question " + (i + 1), 'A');
+                    questions[i].setOrderIndex(i);
+                    questions[i].setId(quizService.addQuestion(questions[i]));
+                }
+                QuizSessionEngine engine = QuizSessionEngine.getInstance();
+                QuizSessionEngine.QuizSession session = engine.startSession(quizId, 1);
+                Assumptions.assumeTrue(session != null, "Requires the quiz tables");
+
+                Map<Integer, Character> answers = new HashMap<>();
+                for (QuizQuestion q : questions) answers.put(q.getId(), 'A');
+                QuizResult result = session.grade(answers);
+                assertEquals(3, result.getScore());
+
+                assertTrue(quizService.deleteQuestion(questions[2].getId()));
+                int resultId = engine.submit(session, result, answers);
+                assertTrue(resultId > 0, "Attempt must be stored despite the deleted question");
+                assertEquals(2, engine.getBundle(quizId).getMaxScore());
+
+                questions[1].setCorrectOption('B');
+                assertTrue(quizService.updateQuestion(questions[1]));
+                QuizResult regraded = quizService.getResults(quizId, 1).stream()
+                        .filter(r -> r.getId() == resultId).findFirst().orElseThrow();
+                assertEquals(1, regraded.getScore());
+                assertEquals(2, regraded.getMaxScore());
+                assertTrue(engine.getBundle(quizId).isCorrect(questions[1].getId(), 'B'));
+            } finally {
+                FormationService.getInstance().deleteFormation(formationId);
+            }
+        }
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -1220,6 +1320,23 @@ class FormationModuleTests {
         void hasAchievementFalse() {
             assertFalse(service.hasAchievement(999999, "NONEXISTENT"));
         }
+
+        @Test @Order(4)
+        @DisplayName("AchievementEngine ignores events for invalid users")
+        void engineIgnoresInvalidUser() {
+            AchievementEngine engine = AchievementEngine.getInstance();
+            assertDoesNotThrow(() -> engine.onEvent(0, AchievementEvent.POST_CREATED));
+            assertDoesNotThrow(() -> engine.onEvent(-5, AchievementEvent.CONNECTION_ACCEPTED));
+            assertDoesNotThrow(() -> engine.onEvent(1, null));
+        }
+
+        @Test @Order(5)
+        @DisplayName("AchievementEngine awards nothing without activity")
+        void engineNoActivityNoBadge() {
+            AchievementEngine.getInstance().onEvent(999999, AchievementEvent.CONNECTION_REMOVED);
+            assertFalse(service.hasAchievement(999999, "FIRST_CONNECTION"));
+            assertTrue(service.findByUserId(999999).isEmpty());
+        }
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -1259,6 +1376,104 @@ class FormationModuleTests {
         void overallProgressZeroLessons() {
             assertEquals(0, service.calculateOverallProgress(999999, 0));
         }
+
+        @Test @Order(5)
+        @DisplayName("updateProgress on non-existent enrollment is not tracked")
+        void updateProgressUnknownEnrollment() {
+            assertDoesNotThrow(() -> service.updateProgress(999999, 1, 50));
+            assertTrue(service.getProgressByEnrollment(999999).isEmpty());
+        }
+
+        @Test @Order(6)
+        @DisplayName("endSession and flushAll are safe without pending updates")
+        void endSessionWithoutUpdates() {
+            assertDoesNotThrow(() -> service.endSession(999999));
+            assertDoesNotThrow(service::flushAll);
+        }
+
+        @Test @Order(7)
+        @DisplayName("Completing the last lesson marks the formation completed")
+        void completionThreshold() throws SQLException {
+            Formation f = new Formation();
+            f.setTitle("Progress Threshold Test");
+            f.setDescription("Two lessons");
+            f.setCategory("Development");
+            f.setDurationHours(1);
+            f.setCurrency("TND");
+            f.setLevel(FormationLevel.BEGINNER);
+            f.setStatus("ACTIVE");
+            f.setCreatedBy(1);
+            int formationId = FormationService.getInstance().createFormation(f);
+            Assumptions.assumeTrue(formationId > 0, "Requires a writable formations table");
+            try {
+                int[] lessons = new int[2];
+                for (int i = 0; i < lessons.length; i++) {
+                    FormationModule m = new FormationModule();
+                    m.setFormationId(formationId);
+                    m.setTitle("Lesson " + (i + 1));
+                    m.setDurationMinutes(10);
+                    m.setOrderIndex(i);
+                    lessons[i] = FormationModuleService.getInstance().create(m);
+                }
+                try (Connection conn = DatabaseConfig.getInstance().getConnection();
+                     java.sql.Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("UPDATE formations SET lesson_count = 2 WHERE id = " + formationId);
+                }
+                int enrollmentId = EnrollmentService.getInstance().enroll(formationId, 1);
+                Assumptions.assumeTrue(enrollmentId > 0, "Requires user 1");
+
+                service.updateProgress(enrollmentId, lessons[0], 100);
+                service.updateProgress(enrollmentId, lessons[1], 99);
+                assertEquals(1, service.getCompletedLessonsCount(enrollmentId));
+                assertFalse(EnrollmentService.getInstance().isFormationCompleted(1, formationId));
+
+                service.markLessonCompleted(enrollmentId, lessons[1]);
+                assertEquals(2, service.getCompletedLessonsCount(enrollmentId));
+                assertTrue(EnrollmentService.getInstance().isFormationCompleted(1, formationId));
+                service.endSession(enrollmentId);
+            } finally {
+                FormationService.getInstance().deleteFormation(formationId);
+            }
+        }
+
+        @Test @Order(8)
+        @DisplayName("Updates racing endSession are written, not lost with the evicted tracker")
+        void updatesRacingEndSession() throws Exception {
+            Formation f = new Formation();
+            f.setTitle("Progress Eviction Test");
+            f.setDescription("One lesson");
+            f.setCategory("Development");
+            f.setDurationHours(1);
+            f.setCurrency("TND");
+            f.setLevel(FormationLevel.BEGINNER);
+            f.setStatus("ACTIVE");
+            f.setCreatedBy(1);
+            int formationId = FormationService.getInstance().createFormation(f);
+            Assumptions.assumeTrue(formationId > 0, "Requires a writable formations table");
+            try {
+                FormationModule m = new FormationModule();
+                m.setFormationId(formationId);
+                m.setTitle("Lesson 1");
+                m.setDurationMinutes(10);
+                m.setOrderIndex(0);
+                int lessonId = FormationModuleService.getInstance().create(m);
+                int enrollmentId = EnrollmentService.getInstance().enroll(formationId, 1);
+                Assumptions.assumeTrue(enrollmentId > 0, "Requires user 1");
+
+                Thread writer = new Thread(() -> {
+                    for (int pct = 1; pct <= 99; pct++) service.updateProgress(enrollmentId, lessonId, pct);
+                });
+                writer.start();
+                while (writer.isAlive()) service.endSession(enrollmentId);
+                writer.join();
+                service.endSession(enrollmentId);
+
+                assertEquals(Map.of(lessonId, 99), service.getProgressByEnrollment(enrollmentId),
+                        "Last update must reach the database");
+            } finally {
+                FormationService.getInstance().deleteFormation(formationId);
+            }
+        }
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -1291,6 +1506,70 @@ class FormationModuleTests {
             var recs = FormationMatchingService.getInstance().getRecommendations(999999, 5);
             assertNotNull(recs);
         }
+
+        @Test @Order(4)
+        @DisplayName("FormationKeywordIndex tokenizes like the matching corpus")
+        void keywordTokenize() {
+            assertEquals(List.of("intro", "java", "springboot", "and", "java"),
+                    FormationKeywordIndex.tokenize("Intro to Java & Spring-Boot, C# and Go  java"));
+            assertTrue(FormationKeywordIndex.tokenize(null).isEmpty());
+        }
+
+        @Test @Order(5)
+        @DisplayName("FormationKeywordIndex intersects sorted keyword sets")
+        void keywordIntersection() {
+            assertEquals(2, FormationKeywordIndex.intersectionSize(new int[]{1, 3, 5, 9}, new int[]{0, 3, 4, 9, 10}));
+            assertEquals(0, FormationKeywordIndex.intersectionSize(new int[]{}, new int[]{1, 2}));
+        }
+
+        @Test @Order(6)
+        @DisplayName("FormationKeywordIndex snapshot covers the catalog")
+        void keywordSnapshot() {
+            FormationKeywordIndex index = FormationKeywordIndex.getInstance();
+            index.invalidate();
+            FormationKeywordIndex.Snapshot snapshot = index.snapshot();
+            assertNotNull(snapshot);
+            assertSame(snapshot, index.snapshot());
+            for (int i = 0; i < snapshot.size(); i++) {
+                int[] keywords = snapshot.getKeywords(i);
+                for (int k = 1; k < keywords.length; k++) {
+                    assertTrue(keywords[k - 1] < keywords[k]);
+                }
+            }
+        }
+
+        @Test @Order(7)
+        @DisplayName("FormationDashboardService aggregates are consistent across scopes")
+        void dashboardAggregates() {
+            FormationDashboardService service = FormationDashboardService.getInstance();
+            service.invalidateAll();
+            var stats = service.getDashboardStats();
+            assertTrue(stats.getProcessedFormations() <= stats.getTotalFormations());
+            assertEquals(stats.getTotalFormations(), service.getTotalFormations());
+
+            var user = service.getUserDashboardStats(999999);
+            assertEquals(stats.getTotalFormations(), user.getTotalAvailableFormations());
+            assertEquals(0, user.getEnrolledFormations());
+            assertEquals(0, user.getCompletedFormations());
+            assertEquals(0, user.getCertificatesEarned());
+            assertEquals(0, user.getProgressPercentage());
+        }
+
+        @Test @Order(8)
+        @DisplayName("FormationDashboardService staleness bound is configurable")
+        void dashboardStaleness() {
+            FormationDashboardService service = FormationDashboardService.getInstance();
+            long original = service.getMaxStaleness(TimeUnit.MILLISECONDS);
+            try {
+                service.setMaxStaleness(0, TimeUnit.SECONDS);
+                assertEquals(0, service.getMaxStaleness(TimeUnit.SECONDS));
+                assertTrue(service.getTotalFormations() >= 0);
+                assertThrows(IllegalArgumentException.class,
+                        () -> service.setMaxStaleness(-1, TimeUnit.SECONDS));
+            } finally {
+                service.setMaxStaleness(original, TimeUnit.MILLISECONDS);
+            }
+        }
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -1340,6 +1619,31 @@ class FormationModuleTests {
             assertNotNull(num);
             assertFalse(num.isBlank());
         }
+
+        @Test @Order(6)
+        @DisplayName("CertificatePdfRenderer renders a PDF with the cached chrome")
+        void renderCertificatePdf() throws Exception {
+            Formation formation = new Formation();
+            formation.setTitle("Java avancé");
+            CertificatePdfRenderer renderer = new CertificatePdfRenderer(formation);
+
+            byte[] first = renderer.render("Amira Ben Ali", "SKL-TEST0001", java.time.LocalDate.of(2026, 3, 1),
+                    "http://localhost:8443/verify/SKL-TEST0001");
+            byte[] second = renderer.render("Youssef Trabelsi", "SKL-TEST0002", java.time.LocalDate.of(2026, 3, 1),
+                    "http://localhost:8443/verify/SKL-TEST0002");
+            assertEquals("%PDF", new String(first, 0, 4, java.nio.charset.StandardCharsets.US_ASCII));
+            assertEquals("%PDF", new String(second, 0, 4, java.nio.charset.StandardCharsets.US_ASCII));
+        }
+
+        @Test @Order(7)
+        @DisplayName("certifyCohort fails for a non-existent formation without issuing")
+        void certifyCohortUnknownFormation(@TempDir java.nio.file.Path dir) {
+            CohortCertificationJob job = CertificateGenerationService.getInstance()
+                    .certifyCohort(999999, dir.toFile(), null);
+            var ex = assertThrows(java.util.concurrent.ExecutionException.class,
+                    () -> job.getResult().get(30, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, ex.getCause());
+        }
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -1377,6 +1681,46 @@ class FormationModuleTests {
             assertNotNull(result);
             assertTrue(result.isEmpty());
         }
+
+        @Test @Order(4)
+        @DisplayName("MentorMatchingEngine ranks shared skills and seniority, penalising load")
+        void matchingScore() {
+            Map<String, Integer> dictionary = new HashMap<>();
+            LocalDate today = LocalDate.of(2026, 1, 1);
+            var mentee = MentorMatchingEngine.ProfileVector.of(
+                    List.of(new Skill(1, "Java", ProficiencyLevel.BEGINNER, 0),
+                            new Skill(1, "SQL", ProficiencyLevel.BEGINNER, 0)),
+                    List.of(), dictionary, today);
+            var expert = MentorMatchingEngine.ProfileVector.of(
+                    List.of(new Skill(2, " java ", ProficiencyLevel.EXPERT, 6),
+                            new Skill(2, "sql", ProficiencyLevel.ADVANCED, 4)),
+                    List.of(new Experience(2, "Acme", "Lead", today.minusYears(8))), dictionary, today);
+            var unrelated = MentorMatchingEngine.ProfileVector.of(
+                    List.of(new Skill(3, "Photoshop", ProficiencyLevel.EXPERT, 9)),
+                    List.of(), dictionary, today);
+
+            assertEquals(3, dictionary.size());
+            assertEquals(2, expert.skillCount());
+            assertEquals(8.0, expert.getYears(), 0.01);
+            assertEquals(0.0, mentee.skillSimilarity(unrelated), 1e-9);
+
+            double best = MentorMatchingEngine.score(mentee, expert, 0);
+            assertTrue(best > MentorMatchingEngine.score(mentee, unrelated, 0));
+            assertTrue(best > MentorMatchingEngine.score(mentee, expert, 3));
+            assertTrue(best <= 1.0);
+        }
+
+        @Test @Order(5)
+        @DisplayName("suggestMentors returns at most TOP_K ranked mentors")
+        void suggestMentors() {
+            List<MentorMatchingEngine.Suggestion> suggestions = service.suggestMentors(999999);
+            assertNotNull(suggestions);
+            assertTrue(suggestions.size() <= MentorMatchingEngine.TOP_K);
+            for (int i = 1; i < suggestions.size(); i++) {
+                assertTrue(suggestions.get(i - 1).getScore() >= suggestions.get(i).getScore());
+            }
+            assertTrue(MentorMatchingEngine.getInstance().suggestMentors(0).isEmpty());
+        }
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -1403,6 +1747,43 @@ class FormationModuleTests {
             var stats = service.getStatistics(999999);
             assertNotNull(stats);
         }
+
+        @Test @Order(3)
+        @DisplayName("bulk getStatistics returns an entry per requested formation")
+        void getStatisticsBulk() {
+            Map<Integer, FormationRatingService.RatingStatistics> stats =
+                    service.getStatistics(List.of(999998, 999999));
+            assertEquals(2, stats.size());
+            assertEquals(0, stats.get(999999).getTotalRatings());
+            assertEquals(0.0, stats.get(999998).getAverageRating());
+        }
+
+        @Test @Order(4)
+        @DisplayName("bulk getStatistics with no ids returns empty map")
+        void getStatisticsBulkEmpty() {
+            assertTrue(service.getStatistics(List.<Integer>of()).isEmpty());
+        }
+
+        @Test @Order(5)
+        @DisplayName("Served statistics match a recount of formation_ratings")
+        void statisticsMatchRecount() throws SQLException {
+            int formationId;
+            int count;
+            int likes;
+            try (Connection conn = DatabaseConfig.getInstance().getConnection();
+                 java.sql.Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT formation_id, COUNT(*), "
+                         + "SUM(CASE WHEN is_like = TRUE THEN 1 ELSE 0 END) "
+                         + "FROM formation_ratings GROUP BY formation_id LIMIT 1")) {
+                Assumptions.assumeTrue(rs.next(), "Requires at least one rating");
+                formationId = rs.getInt(1);
+                count = rs.getInt(2);
+                likes = rs.getInt(3);
+            }
+            FormationRatingService.RatingStatistics stats = service.getStatistics(formationId);
+            assertEquals(count, stats.getTotalRatings());
+            assertEquals(likes, stats.getLikeCount());
+        }
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -4,6 +4,7 @@ import com.skilora.config.DatabaseConfig;
 import com.skilora.support.entity.*;
 import com.skilora.support.enums.*;
 import com.skilora.support.service.*;
+import com.skilora.utils.PcmRingBuffer;
 
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
@@ -2394,4 +2395,162 @@ class SupportTests {
             assertNotNull(conv.toString());
         }
     }
+
+    // ═══════════════════════════════════════════════════════════
+    //  33. TICKET SIMILARITY INDEX
+    // ═══════════════════════════════════════════════════════════
+
+    @Nested
+    @DisplayName("33. Ticket Similarity Index")
+    @TestMethodOrder(OrderAnnotation.class)
+    class TicketSimilarityIndexTests {
+
+        private TicketSimilarityIndex index;
+
+        @BeforeEach
+        void setUp() {
+            index = new TicketSimilarityIndex();
+            index.add(1, "Paiement refusé", "Ma carte bancaire a été refusée lors du paiement de l'abonnement",
+                    "PAYMENT", "Nous vérifions votre paiement et revenons vers vous.");
+            index.add(2, "Facture incorrecte", "Le montant de la facture ne correspond pas au paiement",
+                    "PAYMENT", null);
+            index.add(3, "Application plante", "L'application plante au démarrage après la mise à jour",
+                    "TECHNICAL", "Veuillez réinstaller l'application.");
+            index.add(4, "Erreur de connexion", "Impossible de se connecter, erreur serveur",
+                    "TECHNICAL", null);
+            index.add(5, "Changer mon email", "Je souhaite modifier l'adresse email de mon compte",
+                    "ACCOUNT", null);
+        }
+
+        @Test
+        @Order(1)
+        @DisplayName("Nearest resolved ticket ranks first")
+        void testSearchRanksNearestFirst() {
+            List<TicketSimilarityIndex.Match> matches =
+                    index.search("Application qui plante", "plante dès le démarrage", 3);
+            assertFalse(matches.isEmpty());
+            assertEquals(3, matches.get(0).getTicketId());
+            for (int i = 1; i < matches.size(); i++) {
+                assertTrue(matches.get(i - 1).getScore() >= matches.get(i).getScore());
+            }
+        }
+
+        @Test
+        @Order(2)
+        @DisplayName("Category is predicted locally with confidence")
+        void testPredictCategory() {
+            TicketSimilarityIndex.Prediction p =
+                    index.predictCategory("Paiement refusé", "Ma carte bancaire est refusée pour le paiement");
+            assertNotNull(p);
+            assertEquals("PAYMENT", p.getCategory());
+            assertTrue(p.isConfident());
+        }
+
+        @Test
+        @Order(3)
+        @DisplayName("Unrelated text falls back (no prediction, no reply)")
+        void testUnrelatedTextFallsBack() {
+            assertNull(index.predictCategory("xyz", "qqq"));
+            assertNull(index.suggestReply("Question sur les formations", "Quand commence la session ?"));
+        }
+
+        @Test
+        @Order(4)
+        @DisplayName("Near-duplicate ticket reuses the resolved reply")
+        void testSuggestReply() {
+            assertEquals("Nous vérifions votre paiement et revenons vers vous.",
+                    index.suggestReply("Paiement refusé", "Ma carte bancaire a été refusée lors du paiement"));
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //  34. STREAMING SPEECH-TO-TEXT
+    // ═══════════════════════════════════════════════════════════
+
+    @Nested
+    @DisplayName("34. Streaming Speech-to-Text")
+    @TestMethodOrder(OrderAnnotation.class)
+    class StreamingSpeechToTextTests {
+
+        @Test
+        @Order(1)
+        @DisplayName("PcmRingBuffer wraps around and ends after close")
+        void testRingBufferWrapAndEof() throws Exception {
+            PcmRingBuffer ring = new PcmRingBuffer(8);
+            byte[] data = new byte[100];
+            for (int i = 0; i < data.length; i++) data[i] = (byte) i;
+
+            Thread producer = new Thread(() -> {
+                try {
+                    for (int off = 0; off < data.length; off += 7) {
+                        ring.write(data, off, Math.min(7, data.length - off));
+                    }
+                } catch (java.io.IOException ignored) {
+                } finally {
+                    ring.close();
+                }
+            });
+            producer.start();
+
+            byte[] received = ring.inputStream().readAllBytes();
+            producer.join(2000);
+            assertArrayEquals(data, received);
+            assertEquals(-1, ring.read(new byte[4], 0, 4));
+        }
+
+        @Test
+        @Order(2)
+        @DisplayName("Writer fails fast once the consumer closed the stream")
+        void testWriteAfterCloseFails() {
+            PcmRingBuffer ring = new PcmRingBuffer(4);
+            ring.close();
+            assertThrows(java.io.IOException.class, () -> ring.write(new byte[2], 0, 2));
+        }
+
+        @Test
+        @Order(3)
+        @DisplayName("transcribeStreaming uploads chunked PCM and parses the transcript")
+        void testStreamingUpload() throws Exception {
+            com.sun.net.httpserver.HttpServer server =
+                    com.sun.net.httpserver.HttpServer.create(new java.net.InetSocketAddress("127.0.0.1", 0), 0);
+            java.util.concurrent.atomic.AtomicReference<String> query = new java.util.concurrent.atomic.AtomicReference<>();
+            java.util.concurrent.atomic.AtomicReference<String> encoding = new java.util.concurrent.atomic.AtomicReference<>();
+            java.util.concurrent.atomic.AtomicInteger bytes = new java.util.concurrent.atomic.AtomicInteger();
+            server.createContext("/v1/listen", ex -> {
+                query.set(ex.getRequestURI().getQuery());
+                encoding.set(ex.getRequestHeaders().getFirst("Transfer-encoding"));
+                bytes.set(ex.getRequestBody().readAllBytes().length);
+                byte[] body = ("{\"results\":{\"channels\":[{\"alternatives\":[{\"transcript\":\"bonjour. le support\"}]}]}}")
+                        .getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                ex.sendResponseHeaders(200, body.length);
+                ex.getResponseBody().write(body);
+                ex.close();
+            });
+            server.start();
+            try {
+                String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/listen?model=nova-2";
+                DeepgramSTTService stt = new DeepgramSTTService("test-key", "nova-2", url);
+
+                PcmRingBuffer ring = new PcmRingBuffer(1024);
+                java.util.concurrent.CompletableFuture<String> transcript =
+                        stt.transcribeStreaming(ring.inputStream(), AudioRecorderService.STREAM_SAMPLE_RATE);
+
+                // Audio keeps arriving after the request has started
+                byte[] frame = new byte[640];
+                for (int i = 0; i < 50; i++) {
+                    ring.write(frame, 0, frame.length);
+                }
+                assertFalse(transcript.isDone(), "Response must wait for the end of the audio");
+                ring.close();
+
+                assertEquals("bonjour le support", transcript.get(5, java.util.concurrent.TimeUnit.SECONDS));
+                assertEquals(50 * 640, bytes.get());
+                assertEquals("chunked", encoding.get());
+                assertTrue(query.get().contains("encoding=linear16"));
+                assertTrue(query.get().contains("sample_rate=16000"));
+            } finally {
+                server.stop(0);
+            }
+        }
+    }
 }